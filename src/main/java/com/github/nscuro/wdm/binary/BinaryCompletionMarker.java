@@ -0,0 +1,129 @@
+package com.github.nscuro.wdm.binary;
+
+import com.github.nscuro.wdm.binary.util.AtomicFileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.lang.String.format;
+
+/**
+ * Marks a WebDriver binary as completely installed.
+ * <p>
+ * The marker is a hidden sidecar file next to the binary (e.g. {@code .wdm-webdriver_chrome_linux-x64_2.34.complete})
+ * that records the binary's size in bytes. It is only written after the binary has been installed successfully,
+ * so binaries whose size does not match their marker have been left behind by an interrupted installation and must
+ * be repaired.
+ * <p>
+ * Binaries that have been installed before markers were introduced do not have a marker at all. Unless staging files
+ * indicate that such a binary is currently being installed (or that its installation has crashed), it is adopted by
+ * writing a marker for it, so that existing installations are not downloaded again.
+ * <p>
+ * Comparing the recorded size against the actual size takes a single {@code stat} call and
+ * does not require the binary to be read.
+ *
+ * @since 0.3.1
+ */
+final class BinaryCompletionMarker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BinaryCompletionMarker.class);
+
+    static final String MARKER_FILE_SUFFIX = ".complete";
+
+    private BinaryCompletionMarker() {
+    }
+
+    /**
+     * Mark a given WebDriver binary as completely installed.
+     *
+     * @param binaryFilePath {@link Path} of the WebDriver binary
+     * @throws IOException When the marker could not be written
+     */
+    static void write(final Path binaryFilePath) throws IOException {
+        final byte[] binarySize = String.valueOf(Files.size(binaryFilePath)).getBytes(StandardCharsets.UTF_8);
+
+        AtomicFileUtils.write(getMarkerFilePath(binaryFilePath), outputStream -> outputStream.write(binarySize));
+    }
+
+    /**
+     * Check whether a given WebDriver binary has been installed completely.
+     *
+     * @param binaryFilePath {@link Path} of the WebDriver binary
+     * @return {@code true} when the binary exists and its size matches the one recorded in its marker,
+     *         or when the binary has been adopted, otherwise {@code false}
+     */
+    static boolean isComplete(final Path binaryFilePath) {
+        final File binaryFile = binaryFilePath.toFile();
+
+        if (!binaryFile.exists()) {
+            return false;
+        }
+
+        final Path markerFilePath = getMarkerFilePath(binaryFilePath);
+
+        if (!markerFilePath.toFile().exists()) {
+            return adopt(binaryFilePath);
+        }
+
+        try {
+            final long recordedSize = Long.parseLong(
+                    new String(Files.readAllBytes(markerFilePath), StandardCharsets.UTF_8).trim());
+
+            if (recordedSize != binaryFile.length()) {
+                LOGGER.warn("{} is {} bytes in size, but {} bytes were expected",
+                        binaryFilePath, binaryFile.length(), recordedSize);
+                return false;
+            }
+
+            return true;
+        } catch (IOException | NumberFormatException e) {
+            LOGGER.warn("Completion marker of {} could not be read", binaryFilePath, e);
+            return false;
+        }
+    }
+
+    /**
+     * Adopt a WebDriver binary without completion marker as completely installed,
+     * unless staging files indicate that it is being installed.
+     *
+     * @param binaryFilePath {@link Path} of the WebDriver binary
+     * @return {@code true} when the binary has been adopted, otherwise {@code false}
+     */
+    private static boolean adopt(final Path binaryFilePath) {
+        try {
+            if (AtomicFileUtils.hasStagingFiles(binaryFilePath)) {
+                LOGGER.debug("{} has no completion marker and is being installed", binaryFilePath);
+                return false;
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Staging files of {} could not be listed - Not adopting it", binaryFilePath, e);
+            return false;
+        }
+
+        try {
+            write(binaryFilePath);
+            LOGGER.debug("{} has no completion marker - Adopted it", binaryFilePath);
+        } catch (IOException e) {
+            // E.g. because the binary destination directory is read-only
+            LOGGER.debug("Completion marker for {} could not be written - Adopting it anyway", binaryFilePath, e);
+        }
+
+        return true;
+    }
+
+    /**
+     * @param binaryFilePath {@link Path} of a WebDriver binary
+     * @return {@link Path} of the completion marker for the given binary
+     */
+    @Nonnull
+    static Path getMarkerFilePath(final Path binaryFilePath) {
+        return binaryFilePath.resolveSibling(format(".%s%s", binaryFilePath.getFileName(), MARKER_FILE_SUFFIX));
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.github.nscuro.wdm.binary;
+
+import com.github.nscuro.wdm.Architecture;
+import com.github.nscuro.wdm.Browser;
+import com.github.nscuro.wdm.Os;
+import lombok.Data;
+
+import javax.annotation.Nonnull;
+import java.util.Optional;
+
+import static com.github.nscuro.wdm.binary.BinaryManagerImpl.WEB_DRIVER_BINARY_PREFIX;
+import static java.lang.String.format;
+
+/**
+ * Identifies a single WebDriver binary by the criteria it has been requested with.
+ *
+ * @since 0.3.1
+ */
+@Data
+final class BinaryCoordinates {
+
+    private final Browser browser;
+
+    private final String version;
+
+    private final Os os;
+
+    private final Architecture architecture;
+
+    /**
+     * @return The name of the file the binary identified by these coordinates is stored as
+     */
+    @Nonnull
+    String toFileName() {
+        return format("%s_%s_%s-%s_%s", WEB_DRIVER_BINARY_PREFIX, browser.name(),
+                os.name(), architecture.name(), version).toLowerCase();
+    }
+
+    /**
+     * Parse {@link BinaryCoordinates} from the name of a file that has been created using {@link #toFileName()}.
+     * <p>
+     * Because the name of a {@link Browser} may itself contain underscores
+     * (e.g. {@code wdm-webdriver_internet_explorer_windows-x64_3.14.0}), the name is parsed from right to left.
+     *
+     * @param fileName The file name to parse
+     * @return The parsed {@link BinaryCoordinates} or {@link Optional#empty()} when the
+     *         given file name does not follow the expected scheme
+     */
+    @Nonnull
+    static Optional<BinaryCoordinates> fromFileName(final String fileName) {
+        final String prefix = WEB_DRIVER_BINARY_PREFIX + "_";
+
+        if (!fileName.startsWith(prefix)) {
+            return Optional.empty();
+        }
+
+        final String remainder = fileName.substring(prefix.length());
+
+        final int versionSeparatorIndex = remainder.lastIndexOf('_');
+        final int platformSeparatorIndex = remainder.lastIndexOf('_', versionSeparatorIndex - 1);
+        if (versionSeparatorIndex < 0 || platformSeparatorIndex < 0) {
+            return Optional.empty();
+        }
+
+        final String[] platform = remainder.substring(platformSeparatorIndex + 1, versionSeparatorIndex).split("-");
+        final String version = remainder.substring(versionSeparatorIndex + 1);
+        if (platform.length != 2 || version.isEmpty()) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(new BinaryCoordinates(
+                    Browser.valueOf(remainder.substring(0, platformSeparatorIndex).toUpperCase()),
+                    version,
+                    Os.valueOf(platform[0].toUpperCase()),
+                    Architecture.valueOf(platform[1].toUpperCase())));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+}
@@ -0,0 +1,331 @@
+package com.github.nscuro.wdm.binary;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.lang.String.format;
+
+/**
+ * A lock on a single WebDriver binary that is honored across processes.
+ * <p>
+ * The lock is backed by {@link FileLock}s on a hidden sidecar file next to the binary
+ * (e.g. {@code .wdm-webdriver_chrome_linux-x64_2.34.lock}). Multiple JVMs sharing the same
+ * binary destination directory will thus wait for each other instead of downloading
+ * the same binary multiple times.
+ * <p>
+ * Two distinct regions of the sidecar file are locked:
+ * <ul>
+ * <li>The download region is locked exclusively while a binary is downloaded or evicted.</li>
+ * <li>The in-use region is locked shared for as long as a binary is in use (see {@link #tryAcquireInUse(Path)}).
+ * Because the regions do not overlap, binaries in use never block downloads, but cannot be evicted.</li>
+ * </ul>
+ * <p>
+ * Because {@link FileLock}s are released by the operating system as soon as the owning
+ * process dies, a crashed process can never leave a stale lock behind. The sidecar file
+ * itself is intentionally never deleted: Deleting it while other processes are waiting
+ * for it would allow two processes to lock different files for the same binary.
+ *
+ * @since 0.3.1
+ */
+final class BinaryFileLock implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BinaryFileLock.class);
+
+    static final String LOCK_FILE_SUFFIX = ".lock";
+
+    static final Duration DEFAULT_ACQUIRE_TIMEOUT = Duration.ofMinutes(10);
+
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    /**
+     * Both regions are located far behind the owner information written to the start of the file.
+     */
+    private static final long DOWNLOAD_REGION_POSITION = Long.MAX_VALUE - 2;
+
+    private static final long IN_USE_REGION_POSITION = Long.MAX_VALUE - 1;
+
+    /**
+     * {@link FileLock}s on the in-use region held by this JVM, by lock file.
+     * <p>
+     * Within a JVM, a region can only be locked once, so all holders share the same {@link FileLock}.
+     * Access is guarded by the map itself.
+     */
+    private static final Map<Path, InUseLock> IN_USE_LOCKS = new HashMap<>();
+
+    private final FileChannel lockFileChannel;
+
+    private final List<FileLock> fileLocks;
+
+    private BinaryFileLock(final FileChannel lockFileChannel, final List<FileLock> fileLocks) {
+        this.lockFileChannel = lockFileChannel;
+        this.fileLocks = fileLocks;
+    }
+
+    /**
+     * Acquire the download lock for a given WebDriver binary, waiting up to {@link #DEFAULT_ACQUIRE_TIMEOUT}
+     * until it becomes available.
+     *
+     * @param binaryFilePath {@link Path} of the WebDriver binary to lock
+     * @return The acquired {@link BinaryFileLock}
+     * @throws InterruptedIOException When the current thread was interrupted while waiting for the lock
+     * @throws IOException            When the lock file could not be created or locked in time
+     * @see #acquire(Path, Duration)
+     */
+    @Nonnull
+    static BinaryFileLock acquire(final Path binaryFilePath) throws IOException {
+        return acquire(binaryFilePath, DEFAULT_ACQUIRE_TIMEOUT);
+    }
+
+    /**
+     * Acquire the download lock for a given WebDriver binary, waiting until it becomes available.
+     *
+     * @param binaryFilePath {@link Path} of the WebDriver binary to lock
+     * @param timeout        How long to wait for the lock at most
+     * @return The acquired {@link BinaryFileLock}
+     * @throws InterruptedIOException When the current thread was interrupted while waiting for the lock
+     * @throws IOException            When the lock file could not be created or locked in time
+     */
+    @Nonnull
+    static BinaryFileLock acquire(final Path binaryFilePath, final Duration timeout) throws IOException {
+        final Path lockFilePath = getLockFilePath(binaryFilePath);
+        final long deadline = System.nanoTime() + timeout.toNanos();
+
+        final FileChannel lockFileChannel = openLockFile(lockFilePath);
+
+        try {
+            boolean waitingHasBeenLogged = false;
+
+            while (true) {
+                final FileLock fileLock = tryLock(lockFileChannel, DOWNLOAD_REGION_POSITION, false);
+
+                if (fileLock != null) {
+                    writeOwner(lockFileChannel);
+
+                    LOGGER.debug("Acquired lock for {}", binaryFilePath);
+
+                    return new BinaryFileLock(lockFileChannel, Collections.singletonList(fileLock));
+                } else if (System.nanoTime() - deadline >= 0) {
+                    throw new IOException(format("Timed out after %ds waiting for the lock on %s held by %s",
+                            timeout.getSeconds(), binaryFilePath, readOwner(lockFilePath)));
+                } else if (!waitingHasBeenLogged) {
+                    LOGGER.info("{} is locked by {} - Waiting for it to be released", binaryFilePath, readOwner(lockFilePath));
+                    waitingHasBeenLogged = true;
+                }
+
+                TimeUnit.MILLISECONDS.sleep(POLL_INTERVAL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lockFileChannel.close();
+            throw new InterruptedIOException(format("Interrupted while waiting for the lock on %s", binaryFilePath));
+        } catch (IOException | RuntimeException e) {
+            lockFileChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Acquire the lock required to evict a given WebDriver binary, but only if it is immediately available.
+     * <p>
+     * Evicting a binary requires both the download region and the in-use region to be locked exclusively.
+     * It is thus impossible as long as the binary is downloaded or in use by any process, including this one.
+     *
+     * @param binaryFilePath {@link Path} of the WebDriver binary to lock
+     * @return The acquired {@link BinaryFileLock} or {@link Optional#empty()} when the binary is locked by someone else
+     * @throws IOException When the lock file could not be created or locked
+     */
+    @Nonnull
+    static Optional<BinaryFileLock> tryAcquireForEviction(final Path binaryFilePath) throws IOException {
+        final FileChannel lockFileChannel = openLockFile(getLockFilePath(binaryFilePath));
+
+        try {
+            final FileLock downloadLock = tryLock(lockFileChannel, DOWNLOAD_REGION_POSITION, false);
+
+            if (downloadLock == null) {
+                lockFileChannel.close();
+                return Optional.empty();
+            }
+
+            final FileLock inUseLock = tryLock(lockFileChannel, IN_USE_REGION_POSITION, false);
+
+            if (inUseLock == null) {
+                // Closing the channel releases the download lock as well
+                lockFileChannel.close();
+                return Optional.empty();
+            }
+
+            writeOwner(lockFileChannel);
+
+            LOGGER.debug("Acquired lock for eviction of {}", binaryFilePath);
+
+            return Optional.of(new BinaryFileLock(lockFileChannel, Arrays.asList(downloadLock, inUseLock)));
+        } catch (IOException | RuntimeException e) {
+            lockFileChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Mark a given WebDriver binary as being in use, unless it is being evicted right now.
+     * <p>
+     * Any number of processes may mark a binary as in use at the same time. Within this JVM,
+     * all holders share the same {@link FileLock}, which is only released once every holder closed its lock.
+     *
+     * @param binaryFilePath {@link Path} of the WebDriver binary to lock
+     * @return The acquired lock or {@link Optional#empty()} when the binary is being evicted
+     * @throws IOException When the lock file could not be created or locked
+     */
+    @Nonnull
+    static Optional<Closeable> tryAcquireInUse(final Path binaryFilePath) throws IOException {
+        final Path lockFilePath = getLockFilePath(binaryFilePath).toAbsolutePath().normalize();
+
+        synchronized (IN_USE_LOCKS) {
+            InUseLock inUseLock = IN_USE_LOCKS.get(lockFilePath);
+
+            if (inUseLock == null) {
+                final FileChannel lockFileChannel = openLockFile(lockFilePath);
+
+                try {
+                    final FileLock fileLock = tryLock(lockFileChannel, IN_USE_REGION_POSITION, true);
+
+                    if (fileLock == null) {
+                        lockFileChannel.close();
+                        return Optional.empty();
+                    }
+
+                    LOGGER.debug("Acquired in-use lock for {}", binaryFilePath);
+
+                    inUseLock = new InUseLock(lockFilePath, new BinaryFileLock(lockFileChannel, Collections.singletonList(fileLock)));
+                    IN_USE_LOCKS.put(lockFilePath, inUseLock);
+                } catch (IOException | RuntimeException e) {
+                    lockFileChannel.close();
+                    throw e;
+                }
+            }
+
+            inUseLock.holders++;
+
+            return Optional.of(inUseLock.newHolder());
+        }
+    }
+
+    /**
+     * @param binaryFilePath {@link Path} of a WebDriver binary
+     * @return {@link Path} of the sidecar file used to lock the given binary
+     */
+    @Nonnull
+    static Path getLockFilePath(final Path binaryFilePath) {
+        return binaryFilePath.resolveSibling(format(".%s%s", binaryFilePath.getFileName(), LOCK_FILE_SUFFIX));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            for (final FileLock fileLock : fileLocks) {
+                fileLock.release();
+            }
+        } finally {
+            lockFileChannel.close();
+        }
+    }
+
+    @Nonnull
+    private static FileChannel openLockFile(final Path lockFilePath) throws IOException {
+        return FileChannel.open(lockFilePath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static FileLock tryLock(final FileChannel lockFileChannel, final long position, final boolean shared) throws IOException {
+        try {
+            return lockFileChannel.tryLock(position, 1L, shared);
+        } catch (OverlappingFileLockException e) {
+            // The region is locked by another channel within this JVM,
+            // e.g. by a different BinaryManager using the same directory
+            return null;
+        }
+    }
+
+    private static void writeOwner(final FileChannel lockFileChannel) {
+        try {
+            lockFileChannel.truncate(0);
+            lockFileChannel.write(ByteBuffer.wrap(ManagementFactory.getRuntimeMXBean().getName()
+                    .getBytes(StandardCharsets.UTF_8)), 0);
+        } catch (IOException e) {
+            // The owner is only used for logging
+            LOGGER.debug("Failed to write owner of {}", lockFileChannel, e);
+        }
+    }
+
+    @Nonnull
+    private static String readOwner(final Path lockFilePath) {
+        try {
+            final String owner = new String(Files.readAllBytes(lockFilePath), StandardCharsets.UTF_8).trim();
+
+            return owner.isEmpty() ? "an unknown process" : owner;
+        } catch (IOException e) {
+            return "an unknown process";
+        }
+    }
+
+    /**
+     * A {@link FileLock} on the in-use region that is shared between all holders within this JVM.
+     */
+    private static final class InUseLock {
+
+        private final Path lockFilePath;
+
+        private final BinaryFileLock binaryFileLock;
+
+        private int holders;
+
+        private InUseLock(final Path lockFilePath, final BinaryFileLock binaryFileLock) {
+            this.lockFilePath = lockFilePath;
+            this.binaryFileLock = binaryFileLock;
+        }
+
+        @Nonnull
+        private Closeable newHolder() {
+            final AtomicBoolean closed = new AtomicBoolean();
+
+            return () -> {
+                if (!closed.compareAndSet(false, true)) {
+                    return;
+                }
+
+                synchronized (IN_USE_LOCKS) {
+                    if (--holders == 0) {
+                        IN_USE_LOCKS.remove(lockFilePath);
+                        binaryFileLock.close();
+                    }
+                }
+            };
+        }
+
+    }
+
+}
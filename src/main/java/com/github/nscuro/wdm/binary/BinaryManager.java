@@ -8,8 +8,9 @@ import com.github.nscuro.wdm.binary.edge.MicrosoftWebDriverBinaryProvider;
 import com.github.nscuro.wdm.binary.firefox.GeckoDriverBinaryProvider;
 import com.github.nscuro.wdm.binary.ie.IEDriverServerBinaryProvider;
 import com.github.nscuro.wdm.binary.opera.OperaChromiumDriverBinaryProvider;
+import com.github.nscuro.wdm.binary.util.HttpMetadataCache;
+import com.github.nscuro.wdm.binary.util.ResumableDownloader;
 import org.apache.http.client.HttpClient;
-import org.apache.http.impl.client.HttpClients;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -17,10 +18,21 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static java.util.Objects.requireNonNull;
 
@@ -45,6 +57,70 @@ public interface BinaryManager {
     @Nonnull
     File getWebDriverBinary(final Browser browser, @Nullable final String version, final Os os, final Architecture architecture) throws IOException;
 
+    /**
+     * Get a WebDriver binary asynchronously.
+     * <p>
+     * Concurrent requests for the same binary share a single in-flight request, so that the binary is
+     * resolved and downloaded only once. Cancelling the returned {@link CompletableFuture} does not
+     * affect other requests for the same binary.
+     * <p>
+     * The default implementation simply calls {@link #getWebDriverBinary(Browser, String, Os, Architecture)}
+     * in the {@link java.util.concurrent.ForkJoinPool#commonPool() common pool}, without sharing requests.
+     *
+     * @param browser      The {@link Browser} to get the WebDriver binary for
+     * @param version      The version of the WebDriver binary to get.
+     *                     When {@code null}, the latest version will be used
+     * @param os           The {@link Os} the binary must be compatible with
+     * @param architecture The {@link Architecture} the binary must be compatible with
+     * @return A {@link CompletableFuture} that is completed with the WebDriver binary,
+     *         or exceptionally with the exception {@link #getWebDriverBinary(Browser, String, Os, Architecture)} would throw
+     * @see Builder#executor(Executor)
+     * @since 0.3.1
+     */
+    @Nonnull
+    default CompletableFuture<File> getWebDriverBinaryAsync(final Browser browser, @Nullable final String version, final Os os, final Architecture architecture) {
+        final CompletableFuture<File> request = new CompletableFuture<>();
+
+        CompletableFuture.runAsync(() -> {
+            try {
+                request.complete(getWebDriverBinary(browser, version, os, architecture));
+            } catch (IOException | RuntimeException e) {
+                request.completeExceptionally(e);
+            }
+        });
+
+        return request;
+    }
+
+    /**
+     * Resolve and download multiple WebDriver binaries concurrently.
+     * <p>
+     * This is useful to warm up the binary destination directory, e.g. while building a container image
+     * or in a CI preparation step, without performing one network round trip after another.
+     * A failure to prefetch a single target does not affect the others. This method blocks
+     * until all targets have either been prefetched or failed to be.
+     *
+     * @param targets The {@link PrefetchTarget}s to prefetch
+     * @return A {@link PrefetchReport} containing the result and timing of every target
+     * @see #getWebDriverBinaryAsync(Browser, String, Os, Architecture)
+     * @since 0.3.1
+     */
+    @Nonnull
+    default PrefetchReport prefetch(final Collection<PrefetchTarget> targets) {
+        final long prefetchStartNanos = System.nanoTime();
+
+        final List<CompletableFuture<PrefetchReport.Result>> resultFutures = targets.stream()
+                .map(target -> PrefetchReport.Result.of(target, getWebDriverBinaryAsync(target.getBrowser(),
+                        target.getVersion(), target.getOs(), target.getArchitecture()), System.nanoTime()))
+                .collect(Collectors.toList());
+
+        final List<PrefetchReport.Result> results = resultFutures.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+
+        return new PrefetchReport(results, Duration.ofNanos(System.nanoTime() - prefetchStartNanos));
+    }
+
     /**
      * Register a given {@link File} as the WebDriver binary for a given {@link Browser}.
      *
@@ -61,6 +137,29 @@ public interface BinaryManager {
     @Nonnull
     List<File> getLocalWebDriverBinaries();
 
+    /**
+     * Evict locally stored WebDriver binaries according to the configured {@link EvictionPolicy}.
+     * <p>
+     * Eviction is also performed in the background after every download. Binaries that are
+     * registered as binary for their browser, that have been returned by this {@link BinaryManager}
+     * within the last hour, or that are currently being downloaded are never evicted.
+     * <p>
+     * Other {@link BinaryManager}s and processes sharing the binary destination directory are taken into account
+     * as well: Returned binaries are protected by a file lock for as long as they are in use, and binaries locked
+     * by others are skipped. This requires the file system to support file locks, which network file systems
+     * may not do reliably.
+     * <p>
+     * The default implementation does not evict anything.
+     *
+     * @return The evicted WebDriver binary {@link File}s
+     * @see Builder#evictionPolicy(EvictionPolicy)
+     * @since 0.3.1
+     */
+    @Nonnull
+    default List<File> evictWebDriverBinaries() {
+        return Collections.emptyList();
+    }
+
     /**
      * Get the latest WebDriver binary ({@link Os} and {@link Architecture} will be auto-detected).
      *
@@ -101,6 +200,61 @@ public interface BinaryManager {
         return getWebDriverBinary(browser, null, os, architecture);
     }
 
+    /**
+     * Get the latest WebDriver binary asynchronously ({@link Os} and {@link Architecture} will be auto-detected).
+     *
+     * @param browser The {@link Browser} to get the WebDriver binary for
+     * @return A {@link CompletableFuture} that is completed with the WebDriver binary
+     * @see #getWebDriverBinaryAsync(Browser, String, Os, Architecture)
+     * @since 0.3.1
+     */
+    @Nonnull
+    default CompletableFuture<File> getLatestWebDriverBinaryAsync(final Browser browser) {
+        return getWebDriverBinaryAsync(browser, null, Os.getCurrent(), Architecture.getCurrent());
+    }
+
+    /**
+     * Get a specific version of a WebDriver binary asynchronously ({@link Os} and {@link Architecture} will be auto-detected).
+     *
+     * @param browser The {@link Browser} to get the WebDriver binary for
+     * @param version The version of the WebDriver binary to get.
+     *                When {@code null}, the latest version will be used
+     * @return A {@link CompletableFuture} that is completed with the WebDriver binary
+     * @see #getWebDriverBinaryAsync(Browser, String, Os, Architecture)
+     * @since 0.3.1
+     */
+    @Nonnull
+    default CompletableFuture<File> getWebDriverBinaryAsync(final Browser browser, @Nullable final String version) {
+        return getWebDriverBinaryAsync(browser, version, Os.getCurrent(), Architecture.getCurrent());
+    }
+
+    /**
+     * Get the latest WebDriver binary asynchronously.
+     *
+     * @param browser      The {@link Browser} to get the WebDriver binary for
+     * @param os           The {@link Os} the binary must be compatible with
+     * @param architecture The {@link Architecture} the binary must be compatible with
+     * @return A {@link CompletableFuture} that is completed with the WebDriver binary
+     * @see #getWebDriverBinaryAsync(Browser, String, Os, Architecture)
+     * @since 0.3.1
+     */
+    @Nonnull
+    default CompletableFuture<File> getLatestWebDriverBinaryAsync(final Browser browser, final Os os, final Architecture architecture) {
+        return getWebDriverBinaryAsync(browser, null, os, architecture);
+    }
+
+    /**
+     * Convenience method over {@link #prefetch(Collection)}.
+     *
+     * @param targets The {@link PrefetchTarget}s to prefetch
+     * @return A {@link PrefetchReport} containing the result and timing of every target
+     * @since 0.3.1
+     */
+    @Nonnull
+    default PrefetchReport prefetch(final PrefetchTarget... targets) {
+        return prefetch(Arrays.asList(targets));
+    }
+
     /**
      * Get the default {@link BinaryManager}.
      * <p>
@@ -125,11 +279,11 @@ public interface BinaryManager {
         return builder()
                 .defaultHttpClient()
                 .defaultBinaryDestinationDir()
-                .addBinaryProvider(ChromeDriverBinaryProvider::new)
+                .addCachingBinaryProvider(ChromeDriverBinaryProvider::new)
                 .addBinaryProvider(MicrosoftWebDriverBinaryProvider::new)
-                .addBinaryProvider(GeckoDriverBinaryProvider::new)
-                .addBinaryProvider(IEDriverServerBinaryProvider::new)
-                .addBinaryProvider(OperaChromiumDriverBinaryProvider::new)
+                .addCachingBinaryProvider(GeckoDriverBinaryProvider::new)
+                .addCachingBinaryProvider(IEDriverServerBinaryProvider::new)
+                .addCachingBinaryProvider(OperaChromiumDriverBinaryProvider::new)
                 .build();
     }
 
@@ -140,6 +294,10 @@ public interface BinaryManager {
 
     final class Builder {
 
+        static final Duration DEFAULT_LATEST_VERSION_CACHE_TTL = Duration.ofHours(1);
+
+        static final String METADATA_CACHE_DIR_NAME = ".http-cache";
+
         /**
          * A {@link Builder} step that forces the user to provide a {@link HttpClient}.
          */
@@ -155,14 +313,23 @@ public interface BinaryManager {
              * It uses a UserAgent string in the form of {@code webdriver-manager/{version}}.
              *
              * @return The next builder step
+             * @see HttpClientOptions#defaults()
              */
             @Nonnull
             default BinaryDestinationDirStep defaultHttpClient() {
-                return httpClient(HttpClients.custom()
-                        .setUserAgent("webdriver-manager/0.2.0")
-                        .disableAuthCaching()
-                        .disableCookieManagement()
-                        .build());
+                return defaultHttpClient(HttpClientOptions.defaults());
+            }
+
+            /**
+             * Use the default {@link HttpClient}, configured with the given {@link HttpClientOptions}.
+             *
+             * @param httpClientOptions The {@link HttpClientOptions} to use
+             * @return The next builder step
+             * @since 0.3.1
+             */
+            @Nonnull
+            default BinaryDestinationDirStep defaultHttpClient(final HttpClientOptions httpClientOptions) {
+                return httpClient(requireNonNull(httpClientOptions, "no httpClientOptions provided").createHttpClient());
             }
         }
 
@@ -192,23 +359,241 @@ public interface BinaryManager {
 
         private final Path binaryDestinationDirPath;
 
-        private final Set<BinaryProvider> binaryProviders;
+        private final List<Function<BinaryProviderContext, BinaryProvider>> binaryProviders;
+
+        private final Map<String, List<String>> mirrorUrls;
+
+        private boolean preferLowestLatencyMirrors;
+
+        private Duration latestVersionCacheTtl;
+
+        private boolean offline;
+
+        private boolean streamingDownloads;
+
+        private Duration gitHubRateLimitWait;
+
+        private Executor executor;
+
+        private EvictionPolicy evictionPolicy;
 
         private Builder(final HttpClient httpClient,
                         final Path binaryDestinationDirPath) {
             this.httpClient = requireNonNull(httpClient, "no httpClient provided");
             this.binaryDestinationDirPath = requireNonNull(binaryDestinationDirPath, "no binaryDestinationDirPath provided");
-            this.binaryProviders = new HashSet<>();
+            this.binaryProviders = new ArrayList<>();
+            this.mirrorUrls = new LinkedHashMap<>();
+            this.latestVersionCacheTtl = DEFAULT_LATEST_VERSION_CACHE_TTL;
+            this.evictionPolicy = EvictionPolicy.none();
+            this.streamingDownloads = Boolean.getBoolean("wdm.streamingDownloads");
+            this.gitHubRateLimitWait = Duration.ofSeconds(Math.max(0, Long.getLong("wdm.gitHubRateLimitWaitSeconds", 0)));
         }
 
         @Nonnull
         public BinaryManager build() {
-            return new BinaryManagerImpl(binaryDestinationDirPath, binaryProviders);
+            final HttpClient providerHttpClient = mirrorUrls.isEmpty()
+                    ? httpClient
+                    : new MirroringHttpClient(httpClient, mirrorUrls, preferLowestLatencyMirrors);
+
+            final HttpMetadataCache metadataCache = new HttpMetadataCache(binaryDestinationDirPath.resolve(METADATA_CACHE_DIR_NAME));
+
+            final BinaryProviderContext context = new BinaryProviderContext(providerHttpClient, metadataCache,
+                    ResumableDownloader.getDefault(streamingDownloads), gitHubRateLimitWait);
+
+            final Set<BinaryProvider> providers = new HashSet<>();
+            binaryProviders.forEach(binaryProvider -> providers.add(binaryProvider.apply(context)));
+
+            return new BinaryManagerImpl(binaryDestinationDirPath, providers, latestVersionCacheTtl, offline,
+                    Optional.ofNullable(executor).orElseGet(BinaryManagerImpl::createDefaultExecutor), evictionPolicy);
+        }
+
+        /**
+         * Specify mirrors that shall be used instead of an upstream source of binaries.
+         * <p>
+         * Requests for URLs starting with the given upstream URL are sent to the mirrors in the given order,
+         * with the remainder of the URL appended to the mirror URL. When a mirror cannot be reached or responds
+         * with a server error, the next mirror is tried and the failed mirror is avoided for a while.
+         * The next mirror is tried on {@code 404}, too, but without avoiding the mirror afterwards.
+         * The upstream itself is tried last.
+         * <p>
+         * The upstream URLs of the included {@link BinaryProvider}s are:
+         * <pre>
+         *     - {@link ChromeDriverBinaryProvider}: https://chromedriver.storage.googleapis.com/
+         *     - {@link IEDriverServerBinaryProvider}: https://selenium-release.storage.googleapis.com/
+         *     - {@link GeckoDriverBinaryProvider}: https://api.github.com/repos/mozilla/geckodriver/
+         *       and https://github.com/mozilla/geckodriver/releases/download/
+         *     - {@link OperaChromiumDriverBinaryProvider}: https://api.github.com/repos/operasoftware/operachromiumdriver/
+         *       and https://github.com/operasoftware/operachromiumdriver/releases/download/
+         *     - {@link MicrosoftWebDriverBinaryProvider}: https://developer.microsoft.com/en-us/microsoft-edge/tools/webdriver/
+         * </pre>
+         * Mirrors only apply to {@link BinaryProvider}s that are added via {@link #addBinaryProvider(Function)}.
+         *
+         * @param upstreamUrl The upstream base URL to mirror
+         * @param mirrorUrls  The base URLs of the mirrors, in the order they shall be tried in.
+         *                    When empty, previously specified mirrors of the upstream are removed
+         * @return A {@link Builder} instance
+         * @throws IllegalArgumentException When any of the given URLs is not an absolute HTTP(S) URL
+         * @see #preferLowestLatencyMirrors(boolean)
+         * @since 0.3.1
+         */
+        @Nonnull
+        public Builder mirrors(final String upstreamUrl, final List<String> mirrorUrls) {
+            final String normalizedUpstreamUrl = MirroringHttpClient.normalizeBaseUrl(upstreamUrl);
+            final List<String> normalizedMirrorUrls = requireNonNull(mirrorUrls, "no mirrorUrls provided").stream()
+                    .map(MirroringHttpClient::normalizeBaseUrl)
+                    .collect(Collectors.toList());
+
+            if (normalizedMirrorUrls.isEmpty()) {
+                this.mirrorUrls.remove(normalizedUpstreamUrl);
+            } else {
+                this.mirrorUrls.put(normalizedUpstreamUrl, normalizedMirrorUrls);
+            }
+
+            return this;
+        }
+
+        /**
+         * Specify whether the mirror with the lowest latency shall be preferred.
+         * <p>
+         * When enabled, the time to first byte of every mirror (including the upstream) is measured,
+         * and healthy mirrors are tried in the order of their average latency instead of the order
+         * they were specified in. Per default, mirrors are tried in the order they were specified in.
+         *
+         * @param preferLowestLatencyMirrors Whether to prefer the mirror with the lowest latency
+         * @return A {@link Builder} instance
+         * @see #mirrors(String, List)
+         * @since 0.3.1
+         */
+        @Nonnull
+        public Builder preferLowestLatencyMirrors(final boolean preferLowestLatencyMirrors) {
+            this.preferLowestLatencyMirrors = preferLowestLatencyMirrors;
+            return this;
+        }
+
+        /**
+         * Specify the {@link EvictionPolicy} that decides which locally stored binaries shall be deleted.
+         * <p>
+         * Per default, no binaries are evicted.
+         *
+         * @param evictionPolicy The {@link EvictionPolicy} to use
+         * @return A {@link Builder} instance
+         * @see BinaryManager#evictWebDriverBinaries()
+         * @since 0.3.1
+         */
+        @Nonnull
+        public Builder evictionPolicy(final EvictionPolicy evictionPolicy) {
+            this.evictionPolicy = requireNonNull(evictionPolicy, "no evictionPolicy provided");
+            return this;
+        }
+
+        /**
+         * Specify the {@link Executor} that asynchronous requests for binaries shall be executed with.
+         * <p>
+         * Per default, a cached thread pool consisting of daemon threads is used.
+         *
+         * @param executor The {@link Executor} to use
+         * @return A {@link Builder} instance
+         * @see BinaryManager#getWebDriverBinaryAsync(Browser, String, Os, Architecture)
+         * @since 0.3.1
+         */
+        @Nonnull
+        public Builder executor(final Executor executor) {
+            this.executor = requireNonNull(executor, "no executor provided");
+            return this;
+        }
+
+        /**
+         * Specify whether the {@link BinaryManager} shall operate in offline mode.
+         * <p>
+         * In offline mode, no network requests will be performed at all. The latest version of a
+         * binary is then determined by looking at the binaries that have already been downloaded to
+         * the binary destination directory, and binaries that do not exist locally cannot be provided.
+         * <p>
+         * Regardless of this setting, the latest locally available version is used as fallback
+         * when the latest version cannot be resolved due to network errors.
+         *
+         * @param offline Whether to operate in offline mode
+         * @return A {@link Builder} instance
+         * @since 0.3.1
+         */
+        @Nonnull
+        public Builder offline(final boolean offline) {
+            this.offline = offline;
+            return this;
+        }
+
+        /**
+         * Specify whether binaries shall be extracted while they are being downloaded.
+         * <p>
+         * When enabled, archives are extracted while they are being downloaded instead of being
+         * stored in a temporary file first. Streamed downloads cannot be resumed once extraction has started.
+         * Defaults to the value of the {@code wdm.streamingDownloads} system property at the time
+         * the {@link Builder} is created, or {@code false} when it is not set.
+         * <p>
+         * This only applies to {@link BinaryProvider}s that are added via {@link #addCachingBinaryProvider(Function)}.
+         *
+         * @param streamingDownloads Whether to extract binaries while they are being downloaded
+         * @return A {@link Builder} instance
+         * @see ResumableDownloader#getDefault(boolean)
+         * @since 0.3.1
+         */
+        @Nonnull
+        public Builder streamingDownloads(final boolean streamingDownloads) {
+            this.streamingDownloads = streamingDownloads;
+            return this;
+        }
+
+        /**
+         * Specify how long requests to GitHub's API shall wait at most for an exhausted rate limit to be reset.
+         * <p>
+         * Once the rate limit is exhausted, previously cached responses are used. Requests that cannot be
+         * served from the cache wait for the rate limit to be reset when that happens within the given
+         * duration, and fail otherwise. Defaults to the value of the {@code wdm.gitHubRateLimitWaitSeconds}
+         * system property at the time the {@link Builder} is created, or {@link Duration#ZERO} when it is not set.
+         * <p>
+         * This only applies to {@link BinaryProvider}s that are added via {@link #addCachingBinaryProvider(Function)}.
+         *
+         * @param gitHubRateLimitWait How long to wait at most for an exhausted rate limit to be reset
+         * @return A {@link Builder} instance
+         * @throws IllegalArgumentException When the given duration is negative
+         * @since 0.3.1
+         */
+        @Nonnull
+        public Builder gitHubRateLimitWait(final Duration gitHubRateLimitWait) {
+            if (requireNonNull(gitHubRateLimitWait, "no gitHubRateLimitWait provided").isNegative()) {
+                throw new IllegalArgumentException("gitHubRateLimitWait must not be negative");
+            }
+
+            this.gitHubRateLimitWait = gitHubRateLimitWait;
+            return this;
+        }
+
+        /**
+         * Specify for how long resolved latest binary versions shall be reused.
+         * <p>
+         * Resolved versions are persisted in the binary destination directory, so that they are
+         * shared across JVMs. Until their TTL has expired, requests for the latest binary
+         * will not cause any network requests when the binary already exists locally.
+         * Defaults to one hour, use {@link Duration#ZERO} to always resolve the latest version.
+         *
+         * @param latestVersionCacheTtl The TTL of resolved latest versions
+         * @return A {@link Builder} instance
+         * @throws IllegalArgumentException When the given TTL is negative
+         * @since 0.3.1
+         */
+        @Nonnull
+        public Builder latestVersionCacheTtl(final Duration latestVersionCacheTtl) {
+            if (requireNonNull(latestVersionCacheTtl, "no latestVersionCacheTtl provided").isNegative()) {
+                throw new IllegalArgumentException("latestVersionCacheTtl must not be negative");
+            }
+
+            this.latestVersionCacheTtl = latestVersionCacheTtl;
+            return this;
         }
 
         @Nonnull
         public Builder addBinaryProvider(final BinaryProvider binaryProvider) {
-            this.binaryProviders.add(binaryProvider);
+            this.binaryProviders.add(context -> binaryProvider);
             return this;
         }
 
@@ -216,14 +601,38 @@ public interface BinaryManager {
          * Convenience method over {@link #addBinaryProvider(BinaryProvider)}.
          * <p>
          * This allows for construction of {@link BinaryProvider}s using the {@link HttpClient}
-         * that was used in {@link Builder.HttpClientStep}.
+         * that was used in {@link Builder.HttpClientStep}. The {@link BinaryProvider} is constructed
+         * when building the {@link BinaryManager}, so that it uses the configured mirrors.
          *
          * @param binaryProvider A {@link Function} that constructs a {@link BinaryProvider} when given a {@link HttpClient}
          * @return A {@link Builder} instance
          */
         @Nonnull
         public Builder addBinaryProvider(final Function<HttpClient, BinaryProvider> binaryProvider) {
-            return addBinaryProvider(binaryProvider.apply(this.httpClient));
+            requireNonNull(binaryProvider, "no binaryProvider provided");
+
+            this.binaryProviders.add(context -> binaryProvider.apply(context.getHttpClient()));
+            return this;
+        }
+
+        /**
+         * Convenience method over {@link #addBinaryProvider(Function)} for {@link BinaryProvider}s that cache metadata.
+         * <p>
+         * The {@link BinaryProvider} is given a {@link BinaryProviderContext}. In addition to the {@link HttpClient},
+         * it provides a {@link HttpMetadataCache} that is located in the binary destination directory, so that cached
+         * metadata is stored alongside the binaries instead of in {@link HttpMetadataCache#getDefault() the user's home directory},
+         * a {@link ResumableDownloader} that honors {@link #streamingDownloads(boolean)}
+         * and the {@link #gitHubRateLimitWait(Duration) maximum wait time for GitHub's API rate limit}.
+         *
+         * @param binaryProvider A {@link Function} that constructs a {@link BinaryProvider}
+         *                       when given a {@link BinaryProviderContext}
+         * @return A {@link Builder} instance
+         * @since 0.3.1
+         */
+        @Nonnull
+        public Builder addCachingBinaryProvider(final Function<BinaryProviderContext, BinaryProvider> binaryProvider) {
+            this.binaryProviders.add(requireNonNull(binaryProvider, "no binaryProvider provided"));
+            return this;
         }
 
     }
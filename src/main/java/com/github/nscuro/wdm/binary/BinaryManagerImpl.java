@@ -3,21 +3,40 @@ package com.github.nscuro.wdm.binary;
 import com.github.nscuro.wdm.Architecture;
 import com.github.nscuro.wdm.Browser;
 import com.github.nscuro.wdm.Os;
+import com.github.nscuro.wdm.binary.util.VersionComparator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
@@ -31,22 +50,127 @@ final class BinaryManagerImpl implements BinaryManager {
 
     static final String WEB_DRIVER_BINARY_PREFIX = "wdm-webdriver";
 
+    /**
+     * Binaries are usually launched shortly after they have been returned, but may be
+     * launched repeatedly afterwards. They are thus not only considered to be in use
+     * at the moment they are returned.
+     */
+    static final Duration DEFAULT_IN_USE_TIMEOUT = Duration.ofHours(1);
+
+    /**
+     * Releases the in-use locks of binaries once they have not been returned within the in-use timeout.
+     * <p>
+     * Its thread is a daemon thread, so that it does not prevent the JVM from shutting down.
+     * It is only started once the first lock is acquired.
+     */
+    private static final ScheduledExecutorService IN_USE_LOCK_RELEASER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "webdriver-manager-lock-release");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private Path binaryDestinationDirPath;
 
     private final Set<BinaryProvider> binaryProviders;
 
+    private final LatestVersionCache latestVersionCache;
+
+    private final LocalBinaryIndex localBinaryIndex;
+
+    private final boolean offline;
+
+    private final Executor executor;
+
+    private final EvictionPolicy evictionPolicy;
+
+    /**
+     * For how long a binary is considered to be in use after it has last been returned.
+     */
+    private final Duration inUseTimeout;
+
+    /**
+     * The times binaries have last been returned by this {@link BinaryManager}.
+     */
+    private final ConcurrentMap<BinaryCoordinates, Instant> binaryAccessTimes;
+
+    /**
+     * Locks held on binaries that are in use, so that other {@link BinaryManager}s and processes do not evict them.
+     */
+    private final ConcurrentMap<BinaryCoordinates, Closeable> inUseLocks;
+
+    /**
+     * Requests that are currently being processed asynchronously.
+     * A {@code null} version in the key denotes a request for the latest version.
+     */
+    private final ConcurrentMap<BinaryCoordinates, CompletableFuture<File>> inFlightRequests;
+
+    private final ConcurrentMap<BinaryCoordinates, Lock> binaryLocks;
+
     BinaryManagerImpl(final Path binaryDestinationDirPath,
                       final Set<BinaryProvider> binaryProviders) {
+        this(binaryDestinationDirPath, binaryProviders, Builder.DEFAULT_LATEST_VERSION_CACHE_TTL, false,
+                createDefaultExecutor());
+    }
+
+    BinaryManagerImpl(final Path binaryDestinationDirPath,
+                      final Set<BinaryProvider> binaryProviders,
+                      final Duration latestVersionCacheTtl,
+                      final boolean offline,
+                      final Executor executor) {
+        this(binaryDestinationDirPath, binaryProviders, latestVersionCacheTtl, offline, executor, EvictionPolicy.none());
+    }
+
+    BinaryManagerImpl(final Path binaryDestinationDirPath,
+                      final Set<BinaryProvider> binaryProviders,
+                      final Duration latestVersionCacheTtl,
+                      final boolean offline,
+                      final Executor executor,
+                      final EvictionPolicy evictionPolicy) {
+        this(binaryDestinationDirPath, binaryProviders, latestVersionCacheTtl, offline, executor, evictionPolicy,
+                DEFAULT_IN_USE_TIMEOUT);
+    }
+
+    BinaryManagerImpl(final Path binaryDestinationDirPath,
+                      final Set<BinaryProvider> binaryProviders,
+                      final Duration latestVersionCacheTtl,
+                      final boolean offline,
+                      final Executor executor,
+                      final EvictionPolicy evictionPolicy,
+                      final Duration inUseTimeout) {
         this.binaryDestinationDirPath = validateAndPrepareBinaryDestinationDirPath(binaryDestinationDirPath);
         this.binaryProviders = binaryProviders;
+        this.latestVersionCache = new LatestVersionCache(
+                this.binaryDestinationDirPath.resolve(LatestVersionCache.CACHE_FILE_NAME), latestVersionCacheTtl);
+        this.localBinaryIndex = new LocalBinaryIndex(this.binaryDestinationDirPath, this::isWebDriverBinary);
+        this.offline = offline;
+        this.executor = executor;
+        this.evictionPolicy = evictionPolicy;
+        this.inUseTimeout = inUseTimeout;
+        this.binaryAccessTimes = new ConcurrentHashMap<>();
+        this.inUseLocks = new ConcurrentHashMap<>();
+        this.inFlightRequests = new ConcurrentHashMap<>();
+        this.binaryLocks = new ConcurrentHashMap<>();
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Binaries that have already been installed completely are returned without waiting for any locks.
+     * While a binary is in use, an in-use {@link BinaryFileLock} is held on it, so that other processes do not evict it.
+     * The lock is released once the binary has not been returned within the in-use timeout.
+     * Binaries that have been returned before are served from a {@link LocalBinaryIndex},
+     * without performing any file system calls.
+     * Downloads are serialized per {@link BinaryCoordinates}, so that requests for
+     * unrelated binaries can be resolved and downloaded in parallel.
+     * <p>
+     * In offline mode, only binaries that already exist locally can be returned.
+     *
+     * @throws NoSuchElementException When operating in offline mode and the requested binary does not exist locally
+     * @see BinaryCompletionMarker
      */
     @Nonnull
     @Override
-    public synchronized File getWebDriverBinary(final Browser browser,
+    public File getWebDriverBinary(final Browser browser,
                                    @Nullable final String version,
                                    final Os os,
                                    final Architecture architecture) throws IOException {
@@ -55,31 +179,58 @@ final class BinaryManagerImpl implements BinaryManager {
         final String versionToDownload;
 
         if (version == null) {
-            versionToDownload = binaryProvider
-                    .getLatestBinaryVersion(os, architecture)
-                    .orElseThrow(NoSuchElementException::new);
-
-            LOGGER.info("Latest version of {}'s WebDriver binary for {} {} is {}",
-                    browser, os, architecture, versionToDownload);
+            versionToDownload = resolveLatestVersion(binaryProvider, browser, os, architecture);
         } else {
             versionToDownload = version;
         }
 
-        final Path binaryDestinationFilePath = buildBinaryDestinationFilePath(browser, versionToDownload, os, architecture);
+        final BinaryCoordinates coordinates = new BinaryCoordinates(browser, versionToDownload, os, architecture);
+
+        final Path binaryDestinationFilePath = binaryDestinationDirPath.resolve(coordinates.toFileName());
+
+        // Record the access before checking whether the binary exists,
+        // so that it cannot be evicted while it is being returned
+        binaryAccessTimes.put(coordinates, Instant.now());
+
+        if (localBinaryIndex.isReady(coordinates)) {
+            lockInUse(coordinates, binaryDestinationFilePath);
+
+            LOGGER.debug("{} already exists - Nothing to download", binaryDestinationFilePath);
+            return binaryDestinationFilePath.toFile();
+        }
+
+        // Lock the binary before checking whether it is complete, so that other processes cannot evict it in between
+        lockInUse(coordinates, binaryDestinationFilePath);
 
         final File webDriverBinaryFile;
+        final boolean downloaded;
 
-        if (!binaryDestinationFilePath.toFile().exists()) {
-            webDriverBinaryFile = binaryProvider.download(versionToDownload, os, architecture, binaryDestinationFilePath);
-        } else {
+        if (BinaryCompletionMarker.isComplete(binaryDestinationFilePath)) {
             LOGGER.info("{} already exists - Nothing to download", binaryDestinationFilePath);
             webDriverBinaryFile = binaryDestinationFilePath.toFile();
+            downloaded = false;
+        } else if (offline) {
+            unlockInUse(coordinates);
+            throw new NoSuchElementException(format("%s does not exist and cannot be downloaded in offline mode",
+                    binaryDestinationFilePath));
+        } else {
+            webDriverBinaryFile = downloadWebDriverBinary(binaryProvider, coordinates, binaryDestinationFilePath);
+            // The binary may have been locked by an eviction when it was locked before
+            lockInUse(coordinates, binaryDestinationFilePath);
+            downloaded = true;
         }
 
-        if (!webDriverBinaryFile.setExecutable(true)) {
+        if (!webDriverBinaryFile.canExecute() && !webDriverBinaryFile.setExecutable(true)) {
             LOGGER.warn("{} couldn't be made executable. "
                             + "You probably don't have sufficient permissions in your chosen binary destination directory",
                     webDriverBinaryFile);
+        } else {
+            localBinaryIndex.markReady(coordinates, webDriverBinaryFile);
+        }
+
+        // Evict only after the new binary has been indexed, so that eviction policies take it into account
+        if (downloaded) {
+            scheduleEviction();
         }
 
         return webDriverBinaryFile;
@@ -88,8 +239,72 @@ final class BinaryManagerImpl implements BinaryManager {
     /**
      * {@inheritDoc}
      */
+    @Nonnull
     @Override
-    public synchronized void registerWebDriverBinary(final Browser browser, final File webDriverBinaryFile) {
+    public CompletableFuture<File> getWebDriverBinaryAsync(final Browser browser,
+                                                           @Nullable final String version,
+                                                           final Os os,
+                                                           final Architecture architecture) {
+        final BinaryCoordinates requestKey = new BinaryCoordinates(browser, version, os, architecture);
+
+        final CompletableFuture<File> request = new CompletableFuture<>();
+
+        final CompletableFuture<File> inFlightRequest = inFlightRequests.putIfAbsent(requestKey, request);
+
+        if (inFlightRequest != null) {
+            LOGGER.debug("Joining in-flight request for {}", requestKey);
+            return inFlightRequest.thenApply(Function.identity());
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    final File webDriverBinaryFile = getWebDriverBinary(browser, version, os, architecture);
+                    inFlightRequests.remove(requestKey, request);
+                    request.complete(webDriverBinaryFile);
+                } catch (Exception e) {
+                    inFlightRequests.remove(requestKey, request);
+                    request.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlightRequests.remove(requestKey, request);
+            request.completeExceptionally(e);
+        }
+
+        // Hand out a dependent future, so that callers cannot complete
+        // or cancel the request that is shared with other callers
+        return request.thenApply(Function.identity());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public PrefetchReport prefetch(final Collection<PrefetchTarget> targets) {
+        final PrefetchReport report = BinaryManager.super.prefetch(targets);
+
+        for (final PrefetchReport.Result result : report.getResults()) {
+            if (result.isSuccessful()) {
+                LOGGER.debug("Prefetched {} in {}ms", result.getTarget(), result.getDuration().toMillis());
+            } else {
+                LOGGER.warn("Prefetching {} failed after {}ms", result.getTarget(), result.getDuration().toMillis(),
+                        result.getFailure().orElse(null));
+            }
+        }
+
+        LOGGER.info("Prefetched {} of {} WebDriver binaries in {}ms", report.getResults().size() - report.getFailures().size(),
+                report.getResults().size(), report.getDuration().toMillis());
+
+        return report;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void registerWebDriverBinary(final Browser browser, final File webDriverBinaryFile) {
         if (!webDriverBinaryFile.exists()) {
             throw new IllegalArgumentException(format("Cannot register WebDriver binary for %s: %s does not exist",
                     browser, webDriverBinaryFile));
@@ -113,11 +328,47 @@ final class BinaryManagerImpl implements BinaryManager {
     @Nonnull
     @Override
     public List<File> getLocalWebDriverBinaries() {
-        return Optional
-                .ofNullable(binaryDestinationDirPath.toFile().listFiles(this::isWebDriverBinary))
-                .map(Arrays::stream)
-                .orElseGet(Stream::empty)
-                .collect(Collectors.toList());
+        return localBinaryIndex.getBinaryFiles();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public synchronized List<File> evictWebDriverBinaries() {
+        unlockIdleBinaries(Instant.now());
+
+        final List<File> evictedBinaryFiles = new ArrayList<>();
+
+        for (final InstalledBinary installedBinary : evictionPolicy.selectForEviction(getInstalledBinaries())) {
+            if (installedBinary.isInUse()) {
+                LOGGER.debug("{} is in use - Not evicting it", installedBinary.getFile());
+            } else if (evict(installedBinary)) {
+                evictedBinaryFiles.add(installedBinary.getFile());
+            }
+        }
+
+        return evictedBinaryFiles;
+    }
+
+    /**
+     * Create the {@link Executor} that is used for asynchronous requests per default.
+     * <p>
+     * Its threads are daemon threads, so that they do not prevent the JVM from shutting down.
+     * Because {@link BinaryManager}s do not have a lifecycle, idle threads are terminated after a minute.
+     *
+     * @return The default {@link Executor}
+     */
+    @Nonnull
+    static Executor createDefaultExecutor() {
+        final AtomicInteger threadCounter = new AtomicInteger();
+
+        return Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, format("webdriver-manager-%d", threadCounter.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     @Nonnull
@@ -153,11 +404,359 @@ final class BinaryManagerImpl implements BinaryManager {
                 .orElseThrow(UnsupportedOperationException::new);
     }
 
+    /**
+     * Resolve the latest version of a WebDriver binary.
+     * <p>
+     * Versions that have been resolved before are served from the {@link LatestVersionCache}
+     * until their TTL has expired. When the latest version cannot be resolved from the
+     * {@link BinaryProvider} (e.g. because GitHub's API rate limit is exceeded or upstream is not
+     * reachable at all), a previously resolved version will be used regardless of its TTL.
+     * If no version has been resolved before, the highest locally available version is used.
+     * <p>
+     * In offline mode, the {@link BinaryProvider} is not consulted for the latest version at all.
+     * <p>
+     * When the {@link BinaryProvider} restricts its versions to a prefix (e.g. to match a browser version),
+     * both the cached and the local versions are only used when they have been resolved for the same prefix.
+     *
+     * @see BinaryProvider#getVersionPrefix(Os, Architecture)
+     */
+    @Nonnull
+    private String resolveLatestVersion(final BinaryProvider binaryProvider,
+                                        final Browser browser,
+                                        final Os os,
+                                        final Architecture architecture) throws IOException {
+        final String versionPrefix = binaryProvider.getVersionPrefix(os, architecture).orElse(null);
+
+        if (offline) {
+            final String localVersion = getLatestLocalVersion(browser, os, architecture, versionPrefix)
+                    .orElseThrow(() -> new NoSuchElementException(format(
+                            "No WebDriver binary for %s on %s %s exists locally", browser, os, architecture)));
+
+            LOGGER.info("Latest local version of {}'s WebDriver binary for {} {} is {} (offline mode)",
+                    browser, os, architecture, localVersion);
+
+            return localVersion;
+        }
+
+        final Optional<String> cachedVersion = latestVersionCache.get(browser, os, architecture, versionPrefix);
+
+        if (cachedVersion.isPresent()) {
+            LOGGER.debug("Latest version of {}'s WebDriver binary for {} {} is {} (cached)",
+                    browser, os, architecture, cachedVersion.get());
+            return cachedVersion.get();
+        }
+
+        final String latestVersion;
+
+        try {
+            latestVersion = binaryProvider
+                    .getLatestBinaryVersion(os, architecture)
+                    .orElseThrow(NoSuchElementException::new);
+        } catch (IOException e) {
+            final Optional<String> staleVersion = latestVersionCache.getIgnoringTtl(browser, os, architecture, versionPrefix);
+
+            if (staleVersion.isPresent()) {
+                LOGGER.warn("Latest version of {}'s WebDriver binary for {} {} could not be resolved - "
+                        + "Falling back to previously resolved version {}", browser, os, architecture, staleVersion.get(), e);
+
+                return staleVersion.get();
+            }
+
+            final String localVersion = getLatestLocalVersion(browser, os, architecture, versionPrefix)
+                    .orElseThrow(() -> e);
+
+            LOGGER.warn("Latest version of {}'s WebDriver binary for {} {} could not be resolved - "
+                    + "Falling back to latest local version {}", browser, os, architecture, localVersion, e);
+
+            return localVersion;
+        }
+
+        LOGGER.info("Latest version of {}'s WebDriver binary for {} {} is {}",
+                browser, os, architecture, latestVersion);
+
+        if (versionPrefix == null || latestVersion.startsWith(versionPrefix)) {
+            latestVersionCache.put(browser, os, architecture, versionPrefix, latestVersion);
+        } else {
+            // The version would otherwise be served for the prefix, although it does not match it
+            LOGGER.warn("{} does not start with the version prefix {} - Not caching it", latestVersion, versionPrefix);
+        }
+
+        return latestVersion;
+    }
+
+    /**
+     * Determine the highest version of a WebDriver binary that has been installed completely.
+     * <p>
+     * The versions are parsed from the names of the files in the binary destination directory.
+     * Binaries that have been installed before completion markers were introduced are adopted,
+     * so that they remain available in offline mode.
+     *
+     * @param versionPrefix The prefix the version must start with, if any
+     * @see BinaryCompletionMarker
+     */
+    @Nonnull
+    Optional<String> getLatestLocalVersion(final Browser browser,
+                                           final Os os,
+                                           final Architecture architecture,
+                                           @Nullable final String versionPrefix) {
+        return getLocalWebDriverBinaries()
+                .stream()
+                .filter(binaryFile -> BinaryCompletionMarker.isComplete(binaryFile.toPath()))
+                .map(File::getName)
+                .map(BinaryCoordinates::fromFileName)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .filter(coordinates -> coordinates.getBrowser() == browser
+                        && coordinates.getOs() == os
+                        && coordinates.getArchitecture() == architecture)
+                .map(BinaryCoordinates::getVersion)
+                .filter(VersionComparator::isVersionString)
+                .filter(version -> versionPrefix == null || version.startsWith(versionPrefix))
+                .max(new VersionComparator());
+    }
+
+    /**
+     * Download a WebDriver binary while holding the lock for its {@link BinaryCoordinates}.
+     * <p>
+     * The in-process lock makes sure that only one thread per binary competes for the
+     * {@link BinaryFileLock}, which in turn coordinates downloads with other processes.
+     * Because another thread or process may have finished the same download while we were
+     * waiting for the locks, the completeness of the binary is checked again before downloading.
+     * Incomplete binaries, e.g. left behind by a crashed process, are downloaded again.
+     */
+    @Nonnull
+    private File downloadWebDriverBinary(final BinaryProvider binaryProvider,
+                                         final BinaryCoordinates coordinates,
+                                         final Path binaryDestinationFilePath) throws IOException {
+        final Lock binaryLock = binaryLocks.computeIfAbsent(coordinates, key -> new ReentrantLock());
+
+        binaryLock.lock();
+        try {
+            try (final BinaryFileLock ignored = BinaryFileLock.acquire(binaryDestinationFilePath)) {
+                if (BinaryCompletionMarker.isComplete(binaryDestinationFilePath)) {
+                    LOGGER.info("{} has been downloaded concurrently - Nothing to download", binaryDestinationFilePath);
+                    return binaryDestinationFilePath.toFile();
+                } else if (binaryDestinationFilePath.toFile().exists()) {
+                    LOGGER.warn("{} is incomplete - Downloading it again", binaryDestinationFilePath);
+                }
+
+                final File webDriverBinaryFile = binaryProvider.download(coordinates.getVersion(), coordinates.getOs(),
+                        coordinates.getArchitecture(), binaryDestinationFilePath);
+
+                BinaryCompletionMarker.write(webDriverBinaryFile.toPath());
+
+                return webDriverBinaryFile;
+            }
+        } finally {
+            binaryLock.unlock();
+        }
+    }
+
+    private void scheduleEviction() {
+        try {
+            executor.execute(() -> {
+                try {
+                    evictWebDriverBinaries();
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Evicting WebDriver binaries failed", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Eviction of WebDriver binaries could not be scheduled", e);
+        }
+    }
+
+    /**
+     * @return All WebDriver binaries that have been installed completely
+     */
     @Nonnull
-    private Path buildBinaryDestinationFilePath(final Browser browser, final String version, final Os os, final Architecture architecture) {
-        return binaryDestinationDirPath
-                .resolve(format("%s_%s_%s-%s_%s", WEB_DRIVER_BINARY_PREFIX, browser.name(),
-                        os.name(), architecture.name(), version).toLowerCase());
+    List<InstalledBinary> getInstalledBinaries() {
+        final List<InstalledBinary> installedBinaries = new ArrayList<>();
+
+        for (final File binaryFile : getLocalWebDriverBinaries()) {
+            final Optional<BinaryCoordinates> coordinates = BinaryCoordinates.fromFileName(binaryFile.getName());
+
+            if (!coordinates.isPresent() || !BinaryCompletionMarker.isComplete(binaryFile.toPath())) {
+                continue;
+            }
+
+            final BasicFileAttributes binaryFileAttributes;
+
+            try {
+                binaryFileAttributes = Files.readAttributes(binaryFile.toPath(), BasicFileAttributes.class);
+            } catch (IOException e) {
+                LOGGER.debug("Attributes of {} could not be read - Ignoring it", binaryFile, e);
+                continue;
+            }
+
+            final Instant accessTime = binaryAccessTimes.get(coordinates.get());
+            final Instant lastAccessTime = (accessTime != null && accessTime.isAfter(binaryFileAttributes.lastAccessTime().toInstant()))
+                    ? accessTime
+                    : binaryFileAttributes.lastAccessTime().toInstant();
+
+            installedBinaries.add(new InstalledBinary(coordinates.get().getBrowser(), coordinates.get().getVersion(),
+                    coordinates.get().getOs(), coordinates.get().getArchitecture(), binaryFile,
+                    binaryFileAttributes.size(), lastAccessTime, isInUse(coordinates.get()) || isRegistered(binaryFile)));
+        }
+
+        return installedBinaries;
+    }
+
+    /**
+     * @return {@code true} when the binary has been returned by this {@link BinaryManager} within the in-use timeout
+     */
+    private boolean isInUse(final BinaryCoordinates coordinates) {
+        final Instant accessTime = binaryAccessTimes.get(coordinates);
+
+        return accessTime != null && accessTime.plus(inUseTimeout).isAfter(Instant.now());
+    }
+
+    /**
+     * Acquire an in-use {@link BinaryFileLock} for a binary that is being returned, unless it is held already.
+     * <p>
+     * Eviction requires the in-use lock to be free, so other {@link BinaryManager}s and processes
+     * will not evict the binary while it is held. Failing to acquire the lock is not considered to be an error,
+     * e.g. because the binary is being evicted right now. The lock is released on its own once the binary
+     * has not been returned within the in-use timeout.
+     */
+    private void lockInUse(final BinaryCoordinates coordinates, final Path binaryFilePath) {
+        inUseLocks.computeIfAbsent(coordinates, key -> {
+            try {
+                final Closeable inUseLock = BinaryFileLock.tryAcquireInUse(binaryFilePath).orElse(null);
+
+                if (inUseLock != null) {
+                    scheduleUnlock(coordinates, inUseTimeout);
+                }
+
+                return inUseLock;
+            } catch (IOException e) {
+                LOGGER.debug("{} could not be locked - Other processes may evict it while it is in use", binaryFilePath, e);
+                return null;
+            }
+        });
+    }
+
+    private void unlockInUse(final BinaryCoordinates coordinates) {
+        final Closeable inUseLock = inUseLocks.remove(coordinates);
+
+        if (inUseLock != null) {
+            release(coordinates, inUseLock);
+        }
+    }
+
+    private void scheduleUnlock(final BinaryCoordinates coordinates, final Duration delay) {
+        IN_USE_LOCK_RELEASER.schedule(() -> unlockIfIdle(coordinates, Instant.now())
+                        .ifPresent(remainingTime -> scheduleUnlock(coordinates, remainingTime)),
+                delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Release the in-use lock of a binary, unless it has been returned within the in-use timeout.
+     * <p>
+     * The access time is checked atomically with respect to {@link #lockInUse(BinaryCoordinates, Path)},
+     * so that a lock is never released right after it has been found to be held by a concurrent request.
+     *
+     * @param coordinates {@link BinaryCoordinates} of the binary
+     * @param now         The current point in time
+     * @return For how long the binary is still in use, or {@link Optional#empty()} when it is not locked anymore
+     */
+    @Nonnull
+    private Optional<Duration> unlockIfIdle(final BinaryCoordinates coordinates, final Instant now) {
+        final AtomicReference<Duration> remainingTime = new AtomicReference<>();
+
+        inUseLocks.computeIfPresent(coordinates, (key, inUseLock) -> {
+            final Instant accessTime = binaryAccessTimes.get(key);
+
+            if (accessTime != null && accessTime.plus(inUseTimeout).isAfter(now)) {
+                remainingTime.set(Duration.between(now, accessTime.plus(inUseTimeout)));
+                return inUseLock;
+            }
+
+            release(key, inUseLock);
+            return null;
+        });
+
+        return Optional.ofNullable(remainingTime.get());
+    }
+
+    private void release(final BinaryCoordinates coordinates, final Closeable inUseLock) {
+        try {
+            inUseLock.close();
+        } catch (IOException e) {
+            LOGGER.debug("In-use lock for {} could not be released", coordinates, e);
+        }
+    }
+
+    /**
+     * Release the in-use locks of binaries that have not been returned within the in-use timeout,
+     * so that they can be evicted by this and other processes again.
+     * <p>
+     * Idle locks are released on their own as well. This merely makes sure that the locks of binaries that
+     * have just become idle are not standing in the way of an eviction.
+     *
+     * @param now The current point in time
+     */
+    void unlockIdleBinaries(final Instant now) {
+        for (final BinaryCoordinates coordinates : inUseLocks.keySet()) {
+            unlockIfIdle(coordinates, now);
+        }
+    }
+
+    private boolean isRegistered(final File binaryFile) {
+        return Arrays.stream(Browser.values())
+                .map(Browser::getBinarySystemProperty)
+                .filter(Optional::isPresent)
+                .map(binarySystemProperty -> System.getProperty(binarySystemProperty.get()))
+                .anyMatch(binaryFile.getAbsolutePath()::equals);
+    }
+
+    /**
+     * Delete an installed WebDriver binary.
+     * <p>
+     * Binaries that are currently locked, i.e. because they are being downloaded by another thread or process,
+     * or because they are in use by another BinaryManager or process, are skipped. The binary is deleted before its completion marker,
+     * because binaries without marker would be adopted again should the marker's deletion succeed,
+     * but the binary's deletion fail.
+     */
+    private boolean evict(final InstalledBinary installedBinary) {
+        final BinaryCoordinates coordinates = new BinaryCoordinates(installedBinary.getBrowser(),
+                installedBinary.getVersion(), installedBinary.getOs(), installedBinary.getArchitecture());
+
+        final Path binaryFilePath = installedBinary.getFile().toPath();
+
+        final Lock binaryLock = binaryLocks.computeIfAbsent(coordinates, key -> new ReentrantLock());
+
+        if (!binaryLock.tryLock()) {
+            LOGGER.debug("{} is locked - Not evicting it", binaryFilePath);
+            return false;
+        }
+
+        try {
+            final Optional<BinaryFileLock> binaryFileLock = BinaryFileLock.tryAcquireForEviction(binaryFilePath);
+
+            if (!binaryFileLock.isPresent()) {
+                LOGGER.debug("{} is locked by another BinaryManager or process - Not evicting it", binaryFilePath);
+                return false;
+            }
+
+            try (final BinaryFileLock ignored = binaryFileLock.get()) {
+                if (isInUse(coordinates)) {
+                    LOGGER.debug("{} has been accessed concurrently - Not evicting it", binaryFilePath);
+                    return false;
+                }
+
+                Files.deleteIfExists(binaryFilePath);
+                Files.deleteIfExists(BinaryCompletionMarker.getMarkerFilePath(binaryFilePath));
+            }
+
+            LOGGER.info("Evicted {}", binaryFilePath);
+            return true;
+        } catch (IOException e) {
+            LOGGER.warn("{} could not be evicted", binaryFilePath, e);
+            return false;
+        } finally {
+            binaryLock.unlock();
+        }
     }
 
     boolean isWebDriverBinary(final File file) {
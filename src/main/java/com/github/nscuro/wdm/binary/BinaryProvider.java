@@ -39,6 +39,23 @@ public interface BinaryProvider {
     @Nonnull
     Optional<String> getLatestBinaryVersion(final Os os, final Architecture architecture) throws IOException;
 
+    /**
+     * Get the prefix that versions returned by {@link #getLatestBinaryVersion(Os, Architecture)} are currently
+     * restricted to, e.g. because the binary has to match a specific browser version.
+     * <p>
+     * Latest versions are cached per prefix, and only local binaries of versions starting with it are
+     * used in offline mode or when the latest version cannot be resolved.
+     *
+     * @param os           The {@link Os} to get the version prefix for
+     * @param architecture The {@link Architecture} to get the version prefix for
+     * @return The version prefix or {@link Optional#empty()} when versions are not restricted
+     * @since 0.3.1
+     */
+    @Nonnull
+    default Optional<String> getVersionPrefix(final Os os, final Architecture architecture) {
+        return Optional.empty();
+    }
+
     /**
      * Download the binary in a given version for a given {@link Os} and {@link Architecture}.
      *
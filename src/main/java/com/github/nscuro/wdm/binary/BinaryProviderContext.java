@@ -0,0 +1,76 @@
+package com.github.nscuro.wdm.binary;
+
+import com.github.nscuro.wdm.binary.util.HttpMetadataCache;
+import com.github.nscuro.wdm.binary.util.ResumableDownloader;
+import org.apache.http.client.HttpClient;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * What a {@link BinaryManager} provides to the {@link BinaryProvider}s it is built with.
+ * <p>
+ * Using the context instead of the defaults of the individual utilities makes sure that
+ * {@link BinaryProvider}s honor the options specified via {@link BinaryManager.Builder}.
+ *
+ * @see BinaryManager.Builder#addCachingBinaryProvider(Function)
+ * @since 0.3.1
+ */
+public final class BinaryProviderContext {
+
+    private final HttpClient httpClient;
+
+    private final HttpMetadataCache metadataCache;
+
+    private final ResumableDownloader downloader;
+
+    private final Duration gitHubRateLimitWait;
+
+    BinaryProviderContext(final HttpClient httpClient,
+                          final HttpMetadataCache metadataCache,
+                          final ResumableDownloader downloader,
+                          final Duration gitHubRateLimitWait) {
+        this.httpClient = requireNonNull(httpClient, "no httpClient provided");
+        this.metadataCache = requireNonNull(metadataCache, "no metadataCache provided");
+        this.downloader = requireNonNull(downloader, "no downloader provided");
+        this.gitHubRateLimitWait = requireNonNull(gitHubRateLimitWait, "no gitHubRateLimitWait provided");
+    }
+
+    /**
+     * @return The {@link HttpClient} to use, which sends requests to mirrors where configured
+     */
+    @Nonnull
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * @return The {@link HttpMetadataCache} located in the binary destination directory
+     */
+    @Nonnull
+    public HttpMetadataCache getMetadataCache() {
+        return metadataCache;
+    }
+
+    /**
+     * @return The {@link ResumableDownloader} to download binaries with
+     * @see BinaryManager.Builder#streamingDownloads(boolean)
+     */
+    @Nonnull
+    public ResumableDownloader getDownloader() {
+        return downloader;
+    }
+
+    /**
+     * @return How long to wait at most for an exhausted GitHub API rate limit to be reset
+     * @see BinaryManager.Builder#gitHubRateLimitWait(Duration)
+     */
+    @Nonnull
+    public Duration getGitHubRateLimitWait() {
+        return gitHubRateLimitWait;
+    }
+
+}
@@ -0,0 +1,188 @@
+package com.github.nscuro.wdm.binary;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.ProviderMismatchException;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Notifies {@link Listener}s about changes to the files in a directory.
+ * <p>
+ * A single {@link WatchService} and a single daemon thread are shared by all {@link BinaryManager}s
+ * of a JVM, because every {@link WatchService} occupies operating system resources (e.g. an inotify
+ * instance on Linux) that are limited per user. As {@link BinaryManager}s do not have a lifecycle,
+ * {@link Listener}s are only referenced weakly and are unregistered once they have been garbage collected.
+ *
+ * @since 0.3.1
+ */
+final class DirectoryWatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DirectoryWatcher.class);
+
+    private static DirectoryWatcher sharedInstance;
+
+    private final WatchService watchService;
+
+    private final Map<WatchKey, List<WeakReference<Listener>>> listeners;
+
+    private DirectoryWatcher(final WatchService watchService) {
+        this.watchService = watchService;
+        this.listeners = new HashMap<>();
+    }
+
+    /**
+     * @return The {@link DirectoryWatcher} shared by all {@link BinaryManager}s or {@link Optional#empty()}
+     *         when the file system does not support watching directories
+     */
+    @Nonnull
+    static synchronized Optional<DirectoryWatcher> getShared() {
+        if (sharedInstance == null) {
+            try {
+                sharedInstance = new DirectoryWatcher(FileSystems.getDefault().newWatchService());
+            } catch (IOException | UnsupportedOperationException e) {
+                LOGGER.warn("Directories cannot be watched for changes", e);
+                return Optional.empty();
+            }
+
+            final Thread watcherThread = new Thread(sharedInstance::processEvents, "webdriver-manager-watcher");
+            watcherThread.setDaemon(true);
+            watcherThread.start();
+        }
+
+        return Optional.of(sharedInstance);
+    }
+
+    /**
+     * Start notifying a given {@link Listener} about changes in a given directory.
+     *
+     * @param directoryPath {@link Path} of the directory to watch
+     * @param listener      The {@link Listener} to notify
+     * @return {@code true} when the directory is being watched, {@code false} when it cannot be watched
+     */
+    synchronized boolean watch(final Path directoryPath, final Listener listener) {
+        final WatchKey watchKey;
+
+        try {
+            watchKey = directoryPath.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+        } catch (IOException | UnsupportedOperationException | ProviderMismatchException | ClosedWatchServiceException e) {
+            LOGGER.warn("{} cannot be watched for changes", directoryPath, e);
+            return false;
+        }
+
+        // Custom file system providers are not required to provide a WatchKey
+        if (watchKey == null) {
+            return false;
+        }
+
+        listeners.computeIfAbsent(watchKey, key -> new ArrayList<>()).add(new WeakReference<>(listener));
+
+        return true;
+    }
+
+    private void processEvents() {
+        while (true) {
+            final WatchKey watchKey;
+
+            try {
+                watchKey = watchService.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ClosedWatchServiceException e) {
+                return;
+            }
+
+            final List<Listener> keyListeners = getListeners(watchKey);
+
+            for (final WatchEvent<?> event : watchKey.pollEvents()) {
+                for (final Listener listener : keyListeners) {
+                    try {
+                        if (event.kind() == OVERFLOW) {
+                            listener.onOverflow();
+                        } else {
+                            listener.onChange((Path) event.context());
+                        }
+                    } catch (RuntimeException e) {
+                        LOGGER.warn("{} failed to process {} event", listener, event.kind(), e);
+                    }
+                }
+            }
+
+            if (!watchKey.reset()) {
+                unregister(watchKey).forEach(Listener::onInvalidated);
+            }
+        }
+    }
+
+    /**
+     * Get all {@link Listener}s for a given {@link WatchKey} that have not been garbage collected yet.
+     * The {@link WatchKey} is cancelled when there are no such {@link Listener}s left.
+     */
+    @Nonnull
+    private synchronized List<Listener> getListeners(final WatchKey watchKey) {
+        final List<Listener> aliveListeners = new ArrayList<>();
+
+        final List<WeakReference<Listener>> listenerReferences = listeners.get(watchKey);
+        if (listenerReferences != null) {
+            listenerReferences.stream()
+                    .map(WeakReference::get)
+                    .filter(Objects::nonNull)
+                    .forEach(aliveListeners::add);
+            listenerReferences.removeIf(listenerReference -> listenerReference.get() == null);
+        }
+
+        if (aliveListeners.isEmpty()) {
+            watchKey.cancel();
+            listeners.remove(watchKey);
+        }
+
+        return aliveListeners;
+    }
+
+    @Nonnull
+    private synchronized List<Listener> unregister(final WatchKey watchKey) {
+        final List<Listener> keyListeners = getListeners(watchKey);
+        listeners.remove(watchKey);
+        return keyListeners;
+    }
+
+    interface Listener {
+
+        /**
+         * @param fileName Name of the file that has been created, deleted or modified
+         */
+        void onChange(final Path fileName);
+
+        /**
+         * Invoked when events may have been lost, so that the whole directory must be examined again.
+         */
+        void onOverflow();
+
+        /**
+         * Invoked when the directory is not being watched anymore, e.g. because it has been deleted.
+         */
+        void onInvalidated();
+
+    }
+
+}
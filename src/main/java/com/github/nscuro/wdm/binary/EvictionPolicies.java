@@ -0,0 +1,89 @@
+package com.github.nscuro.wdm.binary;
+
+import com.github.nscuro.wdm.binary.util.VersionComparator;
+
+import javax.annotation.Nonnull;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Implementations of the {@link EvictionPolicy}s provided by {@link EvictionPolicy}'s factory methods.
+ *
+ * @since 0.3.1
+ */
+final class EvictionPolicies {
+
+    static final EvictionPolicy NONE = installedBinaries -> Collections.emptySet();
+
+    /**
+     * Orders binaries from newest to oldest version. Versions that cannot be compared are considered to be the oldest.
+     */
+    private static final Comparator<InstalledBinary> NEWEST_VERSION_FIRST = Comparator
+            .comparing((InstalledBinary binary) -> VersionComparator.isVersionString(binary.getVersion()))
+            .thenComparing((binary1, binary2) -> VersionComparator.isVersionString(binary1.getVersion())
+                    ? new VersionComparator().compare(binary1.getVersion(), binary2.getVersion())
+                    : 0)
+            .reversed();
+
+    private EvictionPolicies() {
+    }
+
+    @Nonnull
+    static Set<InstalledBinary> keepLatest(final List<InstalledBinary> installedBinaries, final int versionsToKeep) {
+        final Map<String, List<InstalledBinary>> binariesByPlatform = installedBinaries.stream()
+                .collect(Collectors.groupingBy(binary -> binary.getBrowser() + "_" + binary.getOs() + "_" + binary.getArchitecture()));
+
+        return binariesByPlatform.values().stream()
+                .flatMap(binaries -> binaries.stream()
+                        .sorted(NEWEST_VERSION_FIRST)
+                        .skip(versionsToKeep))
+                .filter(binary -> !binary.isInUse())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    @Nonnull
+    static Set<InstalledBinary> maxIdleTime(final List<InstalledBinary> installedBinaries,
+                                            final Duration maxIdleTime,
+                                            final Clock clock) {
+        final Instant lastAccessThreshold = clock.instant().minus(maxIdleTime);
+
+        return installedBinaries.stream()
+                .filter(binary -> !binary.isInUse())
+                .filter(binary -> binary.getLastAccessTime().isBefore(lastAccessThreshold))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    @Nonnull
+    static Set<InstalledBinary> maxTotalSize(final List<InstalledBinary> installedBinaries, final long maxTotalSize) {
+        long totalSize = installedBinaries.stream()
+                .mapToLong(InstalledBinary::getSize)
+                .sum();
+
+        final List<InstalledBinary> leastRecentlyUsedFirst = installedBinaries.stream()
+                .filter(binary -> !binary.isInUse())
+                .sorted(Comparator.comparing(InstalledBinary::getLastAccessTime))
+                .collect(Collectors.toList());
+
+        final Set<InstalledBinary> binariesToEvict = new LinkedHashSet<>();
+
+        for (final InstalledBinary binary : leastRecentlyUsedFirst) {
+            if (totalSize <= maxTotalSize) {
+                break;
+            }
+
+            binariesToEvict.add(binary);
+            totalSize -= binary.getSize();
+        }
+
+        return binariesToEvict;
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.github.nscuro.wdm.binary;
+
+import com.github.nscuro.wdm.Architecture;
+import com.github.nscuro.wdm.Browser;
+import com.github.nscuro.wdm.Os;
+
+import javax.annotation.Nonnull;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A policy that decides which locally installed WebDriver binaries shall be deleted.
+ * <p>
+ * Without eviction, the binary destination directory grows with every new version
+ * of a binary that is being downloaded.
+ *
+ * @see BinaryManager.Builder#evictionPolicy(EvictionPolicy)
+ * @see BinaryManager#evictWebDriverBinaries()
+ * @since 0.3.1
+ */
+@FunctionalInterface
+public interface EvictionPolicy {
+
+    /**
+     * Select the binaries that shall be evicted.
+     * <p>
+     * Binaries that are in use (see {@link InstalledBinary}) will not be evicted,
+     * even when they are selected.
+     *
+     * @param installedBinaries All binaries that are currently installed
+     * @return The binaries to evict
+     */
+    @Nonnull
+    Set<InstalledBinary> selectForEviction(final List<InstalledBinary> installedBinaries);
+
+    /**
+     * Combine this policy with another one, so that binaries selected by either of them are evicted.
+     *
+     * @param other The other {@link EvictionPolicy}
+     * @return The combined {@link EvictionPolicy}
+     */
+    @Nonnull
+    default EvictionPolicy or(final EvictionPolicy other) {
+        requireNonNull(other, "no other policy provided");
+
+        return installedBinaries -> {
+            final Set<InstalledBinary> binariesToEvict = new LinkedHashSet<>(selectForEviction(installedBinaries));
+            binariesToEvict.addAll(other.selectForEviction(installedBinaries));
+            return binariesToEvict;
+        };
+    }
+
+    /**
+     * @return An {@link EvictionPolicy} that never evicts any binaries
+     */
+    @Nonnull
+    static EvictionPolicy none() {
+        return EvictionPolicies.NONE;
+    }
+
+    /**
+     * Keep only the latest versions of every {@link Browser}, {@link Os} and {@link Architecture} combination.
+     *
+     * @param versionsToKeep How many versions to keep per combination
+     * @return The {@link EvictionPolicy}
+     * @throws IllegalArgumentException When {@code versionsToKeep} is negative
+     */
+    @Nonnull
+    static EvictionPolicy keepLatest(final int versionsToKeep) {
+        if (versionsToKeep < 0) {
+            throw new IllegalArgumentException("versionsToKeep must not be negative");
+        }
+
+        return installedBinaries -> EvictionPolicies.keepLatest(installedBinaries, versionsToKeep);
+    }
+
+    /**
+     * Evict binaries that have not been accessed for a given amount of time.
+     * <p>
+     * Binaries that have been returned within the last hour are in use, and are thus
+     * not evicted before that time has passed, even when {@code maxIdleTime} is shorter.
+     *
+     * @param maxIdleTime The maximum time a binary may stay unused
+     * @return The {@link EvictionPolicy}
+     * @throws IllegalArgumentException When {@code maxIdleTime} is negative
+     */
+    @Nonnull
+    static EvictionPolicy maxIdleTime(final Duration maxIdleTime) {
+        if (requireNonNull(maxIdleTime, "no maxIdleTime provided").isNegative()) {
+            throw new IllegalArgumentException("maxIdleTime must not be negative");
+        }
+
+        return installedBinaries -> EvictionPolicies.maxIdleTime(installedBinaries, maxIdleTime, Clock.systemUTC());
+    }
+
+    /**
+     * Evict the least recently used binaries until their total size does not exceed a given limit.
+     * <p>
+     * Binaries in use count towards the total size, but are never evicted.
+     *
+     * @param maxTotalSize The maximum total size of all binaries in bytes
+     * @return The {@link EvictionPolicy}
+     * @throws IllegalArgumentException When {@code maxTotalSize} is negative
+     */
+    @Nonnull
+    static EvictionPolicy maxTotalSize(final long maxTotalSize) {
+        if (maxTotalSize < 0) {
+            throw new IllegalArgumentException("maxTotalSize must not be negative");
+        }
+
+        return installedBinaries -> EvictionPolicies.maxTotalSize(installedBinaries, maxTotalSize);
+    }
+
+}
@@ -0,0 +1,220 @@
+package com.github.nscuro.wdm.binary;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Options for the default {@link HttpClient}.
+ * <p>
+ * The default {@link HttpClient} pools its connections, so that connections to hosts that are
+ * requested repeatedly (e.g. GitHub or Google Cloud Storage) are kept alive and reused.
+ * All of its operations are bounded by timeouts, so that stalled servers cannot block
+ * requests for binaries indefinitely.
+ *
+ * @see BinaryManager.Builder.HttpClientStep#defaultHttpClient(HttpClientOptions)
+ * @since 0.3.1
+ */
+public final class HttpClientOptions {
+
+    static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+
+    static final Duration DEFAULT_SOCKET_TIMEOUT = Duration.ofSeconds(30);
+
+    static final Duration DEFAULT_CONNECTION_REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    static final Duration DEFAULT_KEEP_ALIVE = Duration.ofSeconds(30);
+
+    static final int DEFAULT_MAX_CONNECTIONS = 20;
+
+    static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 10;
+
+    private Duration connectTimeout;
+
+    private Duration socketTimeout;
+
+    private Duration connectionRequestTimeout;
+
+    private Duration keepAlive;
+
+    private int maxConnections;
+
+    private int maxConnectionsPerRoute;
+
+    private HttpClientOptions() {
+        this.connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+        this.socketTimeout = DEFAULT_SOCKET_TIMEOUT;
+        this.connectionRequestTimeout = DEFAULT_CONNECTION_REQUEST_TIMEOUT;
+        this.keepAlive = DEFAULT_KEEP_ALIVE;
+        this.maxConnections = DEFAULT_MAX_CONNECTIONS;
+        this.maxConnectionsPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+    }
+
+    /**
+     * @return {@link HttpClientOptions} initialized with default values
+     */
+    @Nonnull
+    public static HttpClientOptions defaults() {
+        return new HttpClientOptions();
+    }
+
+    /**
+     * Specify how long to wait for a connection to be established.
+     * <p>
+     * Defaults to 10 seconds.
+     *
+     * @param connectTimeout The connect timeout
+     * @return This {@link HttpClientOptions} instance
+     * @throws IllegalArgumentException When the given timeout is not positive
+     */
+    @Nonnull
+    public HttpClientOptions connectTimeout(final Duration connectTimeout) {
+        this.connectTimeout = requirePositive(connectTimeout, "connectTimeout");
+        return this;
+    }
+
+    /**
+     * Specify how long to wait for data while reading a response.
+     * <p>
+     * This is not a limit for the total duration of a request, but for the time
+     * between two consecutive data packets. Defaults to 30 seconds.
+     *
+     * @param socketTimeout The socket timeout
+     * @return This {@link HttpClientOptions} instance
+     * @throws IllegalArgumentException When the given timeout is not positive
+     */
+    @Nonnull
+    public HttpClientOptions socketTimeout(final Duration socketTimeout) {
+        this.socketTimeout = requirePositive(socketTimeout, "socketTimeout");
+        return this;
+    }
+
+    /**
+     * Specify how long to wait for a connection to become available in the connection pool.
+     * <p>
+     * Defaults to 30 seconds.
+     *
+     * @param connectionRequestTimeout The connection request timeout
+     * @return This {@link HttpClientOptions} instance
+     * @throws IllegalArgumentException When the given timeout is not positive
+     */
+    @Nonnull
+    public HttpClientOptions connectionRequestTimeout(final Duration connectionRequestTimeout) {
+        this.connectionRequestTimeout = requirePositive(connectionRequestTimeout, "connectionRequestTimeout");
+        return this;
+    }
+
+    /**
+     * Specify for how long idle connections shall be kept alive, unless the server requests otherwise.
+     * <p>
+     * Defaults to 30 seconds.
+     *
+     * @param keepAlive The keep-alive duration
+     * @return This {@link HttpClientOptions} instance
+     * @throws IllegalArgumentException When the given duration is not positive
+     */
+    @Nonnull
+    public HttpClientOptions keepAlive(final Duration keepAlive) {
+        this.keepAlive = requirePositive(keepAlive, "keepAlive");
+        return this;
+    }
+
+    /**
+     * Specify the maximum number of pooled connections.
+     * <p>
+     * Defaults to 20.
+     *
+     * @param maxConnections The maximum number of connections
+     * @return This {@link HttpClientOptions} instance
+     * @throws IllegalArgumentException When the given number is not positive
+     */
+    @Nonnull
+    public HttpClientOptions maxConnections(final int maxConnections) {
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("maxConnections must be positive");
+        }
+
+        this.maxConnections = maxConnections;
+        return this;
+    }
+
+    /**
+     * Specify the maximum number of pooled connections per host.
+     * <p>
+     * This limits how many binaries can be fetched from the same host in parallel. Defaults to 10.
+     *
+     * @param maxConnectionsPerRoute The maximum number of connections per host
+     * @return This {@link HttpClientOptions} instance
+     * @throws IllegalArgumentException When the given number is not positive
+     */
+    @Nonnull
+    public HttpClientOptions maxConnectionsPerRoute(final int maxConnectionsPerRoute) {
+        if (maxConnectionsPerRoute <= 0) {
+            throw new IllegalArgumentException("maxConnectionsPerRoute must be positive");
+        }
+
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        return this;
+    }
+
+    /**
+     * Create a {@link HttpClient} that uses these options.
+     * <p>
+     * It uses a UserAgent string in the form of {@code webdriver-manager/{version}}.
+     *
+     * @return The created {@link HttpClient}
+     */
+    @Nonnull
+    HttpClient createHttpClient() {
+        final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(Math.min(maxConnectionsPerRoute, maxConnections));
+
+        final RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(toTimeoutMillis(connectTimeout))
+                .setSocketTimeout(toTimeoutMillis(socketTimeout))
+                .setConnectionRequestTimeout(toTimeoutMillis(connectionRequestTimeout))
+                .build();
+
+        return HttpClients.custom()
+                .setUserAgent("webdriver-manager/0.2.0")
+                .disableAuthCaching()
+                .disableCookieManagement()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    final long serverKeepAliveMillis = DefaultConnectionKeepAliveStrategy.INSTANCE
+                            .getKeepAliveDuration(response, context);
+
+                    return serverKeepAliveMillis > 0
+                            ? Math.min(serverKeepAliveMillis, keepAlive.toMillis())
+                            : keepAlive.toMillis();
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAlive.toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Nonnull
+    private static Duration requirePositive(final Duration duration, final String name) {
+        if (requireNonNull(duration, () -> format("no %s provided", name)).isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException(format("%s must be positive", name));
+        }
+
+        return duration;
+    }
+
+    private static int toTimeoutMillis(final Duration timeout) {
+        return (int) Math.min(timeout.toMillis(), Integer.MAX_VALUE);
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.github.nscuro.wdm.binary;
+
+import com.github.nscuro.wdm.Architecture;
+import com.github.nscuro.wdm.Browser;
+import com.github.nscuro.wdm.Os;
+import lombok.Data;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.time.Instant;
+
+/**
+ * A WebDriver binary that has been installed completely in the binary destination directory.
+ *
+ * @see EvictionPolicy
+ * @since 0.3.1
+ */
+@Data
+public final class InstalledBinary {
+
+    @Nonnull
+    private final Browser browser;
+
+    @Nonnull
+    private final String version;
+
+    @Nonnull
+    private final Os os;
+
+    @Nonnull
+    private final Architecture architecture;
+
+    @Nonnull
+    private final File file;
+
+    /**
+     * Size of the binary in bytes.
+     */
+    private final long size;
+
+    /**
+     * The time the binary has last been accessed at.
+     * <p>
+     * This is the last access time reported by the file system, or the time the binary has been
+     * returned by the {@link BinaryManager} when that is more recent. Note that many file systems
+     * are mounted with {@code relatime} or {@code noatime}, which makes access times less precise.
+     */
+    @Nonnull
+    private final Instant lastAccessTime;
+
+    /**
+     * Whether the binary is currently in use, i.e. because it has been registered as binary for
+     * its browser or because it has been returned by the {@link BinaryManager} within the last hour.
+     * Binaries in use are never evicted. Binaries in use by other processes are not reflected here,
+     * but are skipped during eviction as well.
+     */
+    private final boolean inUse;
+
+}
@@ -0,0 +1,170 @@
+package com.github.nscuro.wdm.binary;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.nscuro.wdm.Architecture;
+import com.github.nscuro.wdm.Browser;
+import com.github.nscuro.wdm.Os;
+import com.github.nscuro.wdm.binary.util.AtomicFileUtils;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.lang.String.format;
+
+/**
+ * A persistent cache for resolved latest WebDriver binary versions.
+ * <p>
+ * Resolving the latest version of a binary requires at least one request to the binary's upstream
+ * source, e.g. a full directory listing for ChromeDriver or a GitHub API call for GeckoDriver.
+ * Resolved versions are thus stored in a hidden file in the binary destination directory and
+ * reused until their TTL has expired, so that they are shared across JVMs and warm starts do
+ * not require any network access.
+ * <p>
+ * Expired entries are not discarded, but kept as fallback for when the upstream source is not available.
+ *
+ * @since 0.3.1
+ */
+final class LatestVersionCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LatestVersionCache.class);
+
+    static final String CACHE_FILE_NAME = ".wdm-latest-versions.json";
+
+    private static final TypeReference<Map<String, CachedVersion>> CACHE_TYPE = new TypeReference<Map<String, CachedVersion>>() {
+    };
+
+    private final Path cacheFilePath;
+
+    private final Duration ttl;
+
+    private final Clock clock;
+
+    private final ObjectMapper objectMapper;
+
+    LatestVersionCache(final Path cacheFilePath, final Duration ttl) {
+        this(cacheFilePath, ttl, Clock.systemUTC());
+    }
+
+    LatestVersionCache(final Path cacheFilePath, final Duration ttl, final Clock clock) {
+        this.cacheFilePath = cacheFilePath;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    /**
+     * Get the cached latest version of a WebDriver binary, as long as its TTL has not expired.
+     *
+     * @param browser       The {@link Browser} of the WebDriver binary
+     * @param os            The {@link Os} of the WebDriver binary
+     * @param architecture  The {@link Architecture} of the WebDriver binary
+     * @param versionPrefix The prefix the version is restricted to, if any
+     * @return The cached latest version or {@link Optional#empty()} when no unexpired version is cached
+     * @see BinaryProvider#getVersionPrefix(Os, Architecture)
+     */
+    @Nonnull
+    Optional<String> get(final Browser browser, final Os os, final Architecture architecture,
+                         @Nullable final String versionPrefix) {
+        final Instant now = clock.instant();
+
+        return Optional.ofNullable(readCache().get(toCacheKey(browser, os, architecture, versionPrefix)))
+                .filter(cachedVersion -> Instant.ofEpochMilli(cachedVersion.getResolvedAt()).plus(ttl).isAfter(now))
+                .map(CachedVersion::getVersion);
+    }
+
+    /**
+     * Get the cached latest version of a WebDriver binary, regardless of whether its TTL has expired.
+     *
+     * @param browser       The {@link Browser} of the WebDriver binary
+     * @param os            The {@link Os} of the WebDriver binary
+     * @param architecture  The {@link Architecture} of the WebDriver binary
+     * @param versionPrefix The prefix the version is restricted to, if any
+     * @return The cached latest version or {@link Optional#empty()} when no version is cached at all
+     */
+    @Nonnull
+    Optional<String> getIgnoringTtl(final Browser browser, final Os os, final Architecture architecture,
+                                    @Nullable final String versionPrefix) {
+        return Optional.ofNullable(readCache().get(toCacheKey(browser, os, architecture, versionPrefix)))
+                .map(CachedVersion::getVersion);
+    }
+
+    /**
+     * Cache the latest version of a WebDriver binary.
+     * <p>
+     * Failing to persist the version is not considered to be an error, as it will simply be resolved again.
+     *
+     * @param browser       The {@link Browser} of the WebDriver binary
+     * @param os            The {@link Os} of the WebDriver binary
+     * @param architecture  The {@link Architecture} of the WebDriver binary
+     * @param versionPrefix The prefix the version is restricted to, if any
+     * @param version       The latest version
+     */
+    synchronized void put(final Browser browser, final Os os, final Architecture architecture,
+                          @Nullable final String versionPrefix, final String version) {
+        final CachedVersion cachedVersion = new CachedVersion();
+        cachedVersion.setVersion(version);
+        cachedVersion.setResolvedAt(clock.millis());
+
+        // Re-read the cache right before writing it, so that entries
+        // written by other processes in the meantime are not lost
+        final Map<String, CachedVersion> cache = readCache();
+        cache.put(toCacheKey(browser, os, architecture, versionPrefix), cachedVersion);
+
+        try {
+            AtomicFileUtils.write(cacheFilePath, outputStream -> objectMapper.writeValue(outputStream, cache));
+        } catch (IOException e) {
+            LOGGER.warn("Latest version of {}'s WebDriver binary for {} {} could not be cached",
+                    browser, os, architecture, e);
+        }
+    }
+
+    @Nonnull
+    private Map<String, CachedVersion> readCache() {
+        if (!cacheFilePath.toFile().exists()) {
+            return new HashMap<>();
+        }
+
+        try {
+            return Optional.<Map<String, CachedVersion>>ofNullable(objectMapper.readValue(cacheFilePath.toFile(), CACHE_TYPE))
+                    .orElseGet(HashMap::new);
+        } catch (IOException e) {
+            LOGGER.warn("{} could not be read - Ignoring its content", cacheFilePath, e);
+            return new HashMap<>();
+        }
+    }
+
+    @Nonnull
+    private String toCacheKey(final Browser browser, final Os os, final Architecture architecture,
+                              @Nullable final String versionPrefix) {
+        final String cacheKey = format("%s_%s-%s", browser.name(), os.name(), architecture.name()).toLowerCase();
+
+        return versionPrefix == null ? cacheKey : format("%s_%s", cacheKey, versionPrefix);
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static final class CachedVersion {
+
+        @JsonProperty("version")
+        private String version;
+
+        @JsonProperty("resolvedAt")
+        private long resolvedAt;
+
+    }
+
+}
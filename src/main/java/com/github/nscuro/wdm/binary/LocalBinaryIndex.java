@@ -0,0 +1,203 @@
+package com.github.nscuro.wdm.binary;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.FileFilter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.github.nscuro.wdm.binary.BinaryManagerImpl.WEB_DRIVER_BINARY_PREFIX;
+
+/**
+ * An in-memory index of the WebDriver binaries in a binary destination directory.
+ * <p>
+ * The index is populated with a single directory listing on first use and kept consistent
+ * with the directory by a {@link DirectoryWatcher} afterwards, so that repeated lookups do not
+ * require any file system calls. Changes are picked up asynchronously, which takes a few
+ * milliseconds with native watch services but may take several seconds on platforms where
+ * the JDK falls back to polling (e.g. macOS).
+ * <p>
+ * Binaries are considered to be ready when they have been installed completely and are executable.
+ * When the directory cannot be watched, the index does not cache anything and every lookup
+ * is served from the file system instead.
+ *
+ * @since 0.3.1
+ */
+final class LocalBinaryIndex implements DirectoryWatcher.Listener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalBinaryIndex.class);
+
+    private final Path binaryDestinationDirPath;
+
+    private final FileFilter binaryFileFilter;
+
+    private final ConcurrentMap<String, File> binaryFiles;
+
+    private final Set<BinaryCoordinates> readyBinaries;
+
+    private volatile boolean initialized;
+
+    private volatile boolean watched;
+
+    LocalBinaryIndex(final Path binaryDestinationDirPath, final FileFilter binaryFileFilter) {
+        this.binaryDestinationDirPath = binaryDestinationDirPath;
+        this.binaryFileFilter = binaryFileFilter;
+        this.binaryFiles = new ConcurrentHashMap<>();
+        this.readyBinaries = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * @return All WebDriver binary {@link File}s in the binary destination directory
+     */
+    @Nonnull
+    List<File> getBinaryFiles() {
+        if (!initialize()) {
+            return listBinaryFiles().collect(Collectors.toList());
+        }
+
+        return new ArrayList<>(binaryFiles.values());
+    }
+
+    /**
+     * @param coordinates {@link BinaryCoordinates} of a WebDriver binary
+     * @return {@code true} when the binary is known to be installed completely and executable,
+     *         otherwise {@code false}
+     */
+    boolean isReady(final BinaryCoordinates coordinates) {
+        return initialize() && readyBinaries.contains(coordinates);
+    }
+
+    /**
+     * Record that a WebDriver binary has been verified to be installed completely and executable.
+     *
+     * @param coordinates {@link BinaryCoordinates} of the WebDriver binary
+     * @param binaryFile  The WebDriver binary {@link File}
+     */
+    void markReady(final BinaryCoordinates coordinates, final File binaryFile) {
+        if (initialize()) {
+            binaryFiles.put(binaryFile.getName(), binaryFile);
+            readyBinaries.add(coordinates);
+
+            // The binary may have been deleted after it has been verified, but before
+            // it has been added to the index, in which case its deletion event has been missed
+            if (!binaryFile.exists()) {
+                binaryFiles.remove(binaryFile.getName());
+                readyBinaries.remove(coordinates);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onChange(final Path fileName) {
+        final String name = fileName.toString();
+
+        if (name.startsWith(WEB_DRIVER_BINARY_PREFIX)) {
+            refresh(binaryDestinationDirPath.resolve(name).toFile());
+        } else if (name.startsWith("." + WEB_DRIVER_BINARY_PREFIX) && name.endsWith(BinaryCompletionMarker.MARKER_FILE_SUFFIX)) {
+            refresh(binaryDestinationDirPath
+                    .resolve(name.substring(1, name.length() - BinaryCompletionMarker.MARKER_FILE_SUFFIX.length()))
+                    .toFile());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onOverflow() {
+        LOGGER.debug("Changes in {} may have been missed - Rebuilding index", binaryDestinationDirPath);
+
+        rebuild();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onInvalidated() {
+        LOGGER.debug("{} is not being watched anymore - Disabling index", binaryDestinationDirPath);
+
+        watched = false;
+        binaryFiles.clear();
+        readyBinaries.clear();
+    }
+
+    private boolean initialize() {
+        if (!initialized) {
+            synchronized (this) {
+                if (!initialized) {
+                    // Start watching before listing the directory, so that no changes can be missed
+                    watched = DirectoryWatcher.getShared()
+                            .map(directoryWatcher -> directoryWatcher.watch(binaryDestinationDirPath, this))
+                            .orElse(false);
+
+                    if (watched) {
+                        rebuild();
+                    }
+
+                    initialized = true;
+                }
+            }
+        }
+
+        return watched;
+    }
+
+    private synchronized void rebuild() {
+        binaryFiles.clear();
+        readyBinaries.clear();
+
+        listBinaryFiles().forEach(this::refresh);
+    }
+
+    private void refresh(final File binaryFile) {
+        final Optional<BinaryCoordinates> coordinates = BinaryCoordinates.fromFileName(binaryFile.getName());
+
+        if (!binaryFileFilter.accept(binaryFile)) {
+            binaryFiles.remove(binaryFile.getName());
+            coordinates.ifPresent(readyBinaries::remove);
+            return;
+        }
+
+        binaryFiles.put(binaryFile.getName(), binaryFile);
+
+        if (!coordinates.isPresent()) {
+            return;
+        }
+
+        // Check for the marker first, so that binaries without marker are only adopted once they are requested,
+        // and not while their installer is about to write the marker
+        final boolean ready = BinaryCompletionMarker.getMarkerFilePath(binaryFile.toPath()).toFile().exists()
+                && BinaryCompletionMarker.isComplete(binaryFile.toPath())
+                && binaryFile.canExecute();
+
+        if (ready) {
+            readyBinaries.add(coordinates.get());
+        } else {
+            readyBinaries.remove(coordinates.get());
+        }
+    }
+
+    @Nonnull
+    private Stream<File> listBinaryFiles() {
+        return Optional
+                .ofNullable(binaryDestinationDirPath.toFile().listFiles(binaryFileFilter))
+                .map(Arrays::stream)
+                .orElseGet(Stream::empty);
+    }
+
+}
@@ -0,0 +1,299 @@
+package com.github.nscuro.wdm.binary;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link HttpClient} that sends requests for upstream URLs to mirrors instead.
+ * <p>
+ * Requests whose URL starts with a configured upstream URL are sent to the mirrors of that URL,
+ * and to the upstream itself as last resort. When a mirror cannot be reached or responds with a
+ * server error, the request fails over to the next one. Mirrors that failed are considered unhealthy
+ * for a while and are only tried after all healthy ones, but still before the upstream.
+ * <p>
+ * Mirrors may not contain everything their upstream does, so the next mirror is tried on {@code 404}, too.
+ * Because lookups of files that do not exist at all are part of normal operation, a {@code 404} does
+ * not render a mirror unhealthy.
+ * <p>
+ * When preferring the lowest latency, healthy mirrors are tried in the order of their average
+ * time to first byte, instead of in the configured order.
+ * <p>
+ * Only requests executed via {@link HttpUriRequest}s are mirrored. The request's URI is changed
+ * for the duration of the execution, so that aborting the request affects the actual request.
+ *
+ * @see BinaryManager.Builder#mirrors(String, List)
+ * @since 0.3.1
+ */
+final class MirroringHttpClient implements HttpClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MirroringHttpClient.class);
+
+    static final Duration UNHEALTHY_DURATION = Duration.ofMinutes(1);
+
+    private static final double LATENCY_SMOOTHING_FACTOR = 0.3;
+
+    private final HttpClient delegate;
+
+    private final Map<String, List<Mirror>> mirrorsByUpstreamUrl;
+
+    private final boolean preferLowestLatency;
+
+    /**
+     * @param delegate            The {@link HttpClient} to execute requests with
+     * @param mirrorUrls          Normalized mirror base URLs by normalized upstream base URL
+     * @param preferLowestLatency Whether to try mirrors in the order of their average latency
+     * @see #normalizeBaseUrl(String)
+     */
+    MirroringHttpClient(final HttpClient delegate,
+                        final Map<String, List<String>> mirrorUrls,
+                        final boolean preferLowestLatency) {
+        this.delegate = requireNonNull(delegate, "no delegate provided");
+        this.mirrorsByUpstreamUrl = mirrorUrls.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> {
+                    final List<Mirror> mirrors = new ArrayList<>();
+                    entry.getValue().stream().map(Mirror::new).forEach(mirrors::add);
+                    mirrors.add(new Mirror(entry.getKey()));
+                    return Collections.unmodifiableList(mirrors);
+                }));
+        this.preferLowestLatency = preferLowestLatency;
+    }
+
+    @Override
+    public HttpResponse execute(final HttpUriRequest request) throws IOException {
+        return execute(request, (HttpContext) null);
+    }
+
+    @Override
+    public HttpResponse execute(final HttpUriRequest request, final HttpContext context) throws IOException {
+        final String requestUrl = request.getURI().toString();
+
+        final Optional<String> upstreamUrl = mirrorsByUpstreamUrl.keySet().stream()
+                .filter(requestUrl::startsWith)
+                .max(Comparator.comparingInt(String::length));
+
+        if (!upstreamUrl.isPresent() || !(request instanceof HttpRequestBase)) {
+            return delegate.execute(request, context);
+        }
+
+        final HttpRequestBase mirroredRequest = (HttpRequestBase) request;
+        final URI originalUri = mirroredRequest.getURI();
+        final String relativeUrl = requestUrl.substring(upstreamUrl.get().length());
+
+        try {
+            final Iterator<Mirror> mirrorIterator = getCandidates(mirrorsByUpstreamUrl.get(upstreamUrl.get())).iterator();
+
+            while (true) {
+                final Mirror mirror = mirrorIterator.next();
+                mirroredRequest.setURI(URI.create(mirror.getBaseUrl() + relativeUrl));
+
+                final long startNanos = System.nanoTime();
+                final HttpResponse httpResponse;
+
+                try {
+                    httpResponse = delegate.execute(mirroredRequest, context);
+                } catch (IOException e) {
+                    mirror.recordFailure();
+
+                    if (!mirrorIterator.hasNext() || mirroredRequest.isAborted() || Thread.currentThread().isInterrupted()) {
+                        throw e;
+                    }
+
+                    LOGGER.warn("Request to {} failed ({}), failing over to the next mirror", mirroredRequest.getURI(), e.toString());
+                    continue;
+                }
+
+                final int statusCode = httpResponse.getStatusLine().getStatusCode();
+                final boolean isServerError = statusCode >= HttpStatus.SC_INTERNAL_SERVER_ERROR;
+
+                if (isServerError) {
+                    mirror.recordFailure();
+                } else {
+                    mirror.recordLatency(System.nanoTime() - startNanos);
+                }
+
+                if (!mirrorIterator.hasNext() || (!isServerError && statusCode != HttpStatus.SC_NOT_FOUND)) {
+                    return httpResponse;
+                }
+
+                if (isServerError) {
+                    LOGGER.warn("{} responded with status code {}, failing over to the next mirror", mirroredRequest.getURI(), statusCode);
+                } else {
+                    LOGGER.debug("{} does not contain the requested file, trying the next mirror", mirroredRequest.getURI());
+                }
+                EntityUtils.consumeQuietly(httpResponse.getEntity());
+            }
+        } finally {
+            mirroredRequest.setURI(originalUri);
+        }
+    }
+
+    @Override
+    public <T> T execute(final HttpUriRequest request, final ResponseHandler<? extends T> responseHandler) throws IOException {
+        return execute(request, responseHandler, null);
+    }
+
+    @Override
+    public <T> T execute(final HttpUriRequest request,
+                         final ResponseHandler<? extends T> responseHandler,
+                         final HttpContext context) throws IOException {
+        final HttpResponse httpResponse = execute(request, context);
+
+        try {
+            final T result = responseHandler.handleResponse(httpResponse);
+            EntityUtils.consume(httpResponse.getEntity());
+            return result;
+        } finally {
+            if (httpResponse instanceof Closeable) {
+                ((Closeable) httpResponse).close();
+            }
+        }
+    }
+
+    @Override
+    public HttpResponse execute(final HttpHost target, final HttpRequest request) throws IOException {
+        return delegate.execute(target, request);
+    }
+
+    @Override
+    public HttpResponse execute(final HttpHost target, final HttpRequest request, final HttpContext context) throws IOException {
+        return delegate.execute(target, request, context);
+    }
+
+    @Override
+    public <T> T execute(final HttpHost target,
+                         final HttpRequest request,
+                         final ResponseHandler<? extends T> responseHandler) throws IOException {
+        return delegate.execute(target, request, responseHandler);
+    }
+
+    @Override
+    public <T> T execute(final HttpHost target,
+                         final HttpRequest request,
+                         final ResponseHandler<? extends T> responseHandler,
+                         final HttpContext context) throws IOException {
+        return delegate.execute(target, request, responseHandler, context);
+    }
+
+    @Override
+    @Deprecated
+    @SuppressWarnings("deprecation")
+    public org.apache.http.params.HttpParams getParams() {
+        return delegate.getParams();
+    }
+
+    @Override
+    @Deprecated
+    @SuppressWarnings("deprecation")
+    public org.apache.http.conn.ClientConnectionManager getConnectionManager() {
+        return delegate.getConnectionManager();
+    }
+
+    /**
+     * @param baseUrl The base URL to normalize
+     * @return The given URL, ending with a slash
+     * @throws IllegalArgumentException When the given URL is not an absolute HTTP(S) URL
+     */
+    @Nonnull
+    static String normalizeBaseUrl(final String baseUrl) {
+        final URI baseUri;
+        try {
+            baseUri = URI.create(requireNonNull(baseUrl, "no baseUrl provided"));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(format("\"%s\" is not a valid URL", baseUrl), e);
+        }
+
+        if (!"http".equalsIgnoreCase(baseUri.getScheme()) && !"https".equalsIgnoreCase(baseUri.getScheme())) {
+            throw new IllegalArgumentException(format("\"%s\" is not an absolute HTTP(S) URL", baseUrl));
+        }
+
+        return baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+    }
+
+    /**
+     * @param mirrors The mirrors of an upstream, followed by the upstream itself
+     * @return The mirrors in the order they shall be tried, followed by the upstream as last resort
+     */
+    @Nonnull
+    private List<Mirror> getCandidates(final List<Mirror> mirrors) {
+        final long nowNanos = System.nanoTime();
+
+        Comparator<Mirror> comparator = Comparator.comparing(mirror -> !mirror.isHealthy(nowNanos));
+        if (preferLowestLatency) {
+            // Mirrors without measurements come first, so that every mirror is measured eventually
+            comparator = comparator.thenComparingLong(Mirror::getAverageLatencyNanos);
+        }
+
+        final List<Mirror> candidates = new ArrayList<>(mirrors.subList(0, mirrors.size() - 1));
+        candidates.sort(comparator);
+        candidates.add(mirrors.get(mirrors.size() - 1));
+        return candidates;
+    }
+
+    private static final class Mirror {
+
+        private final String baseUrl;
+
+        private long averageLatencyNanos;
+
+        private long unhealthyUntilNanos;
+
+        private boolean failed;
+
+        private Mirror(final String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        private String getBaseUrl() {
+            return baseUrl;
+        }
+
+        private synchronized long getAverageLatencyNanos() {
+            return averageLatencyNanos;
+        }
+
+        private synchronized boolean isHealthy(final long nowNanos) {
+            return !failed || nowNanos - unhealthyUntilNanos >= 0;
+        }
+
+        private synchronized void recordLatency(final long latencyNanos) {
+            averageLatencyNanos = averageLatencyNanos == 0
+                    ? latencyNanos
+                    : (long) (LATENCY_SMOOTHING_FACTOR * latencyNanos + (1 - LATENCY_SMOOTHING_FACTOR) * averageLatencyNanos);
+            failed = false;
+        }
+
+        private synchronized void recordFailure() {
+            unhealthyUntilNanos = System.nanoTime() + UNHEALTHY_DURATION.toNanos();
+            failed = true;
+        }
+
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.github.nscuro.wdm.binary;
+
+import lombok.Data;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+/**
+ * The outcome of {@link BinaryManager#prefetch(java.util.Collection)}.
+ *
+ * @since 0.3.1
+ */
+@Data
+public final class PrefetchReport {
+
+    /**
+     * The results of all prefetched targets, in the order they have been requested in.
+     */
+    @Nonnull
+    private final List<Result> results;
+
+    /**
+     * The time it took to prefetch all targets.
+     */
+    @Nonnull
+    private final Duration duration;
+
+    /**
+     * @return {@code true} when all targets have been prefetched successfully, otherwise {@code false}
+     */
+    public boolean isSuccessful() {
+        return results.stream().allMatch(Result::isSuccessful);
+    }
+
+    /**
+     * @return The results of all targets that could not be prefetched
+     */
+    @Nonnull
+    public List<Result> getFailures() {
+        return results.stream()
+                .filter(result -> !result.isSuccessful())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The outcome of prefetching a single {@link PrefetchTarget}.
+     */
+    @Data
+    public static final class Result {
+
+        @Nonnull
+        private final PrefetchTarget target;
+
+        /**
+         * The time it took from requesting the target until it has been prefetched (or failed to be).
+         */
+        @Nonnull
+        private final Duration duration;
+
+        @Nullable
+        private final File binary;
+
+        @Nullable
+        private final Throwable failure;
+
+        /**
+         * @return The prefetched WebDriver binary, or {@link Optional#empty()} when prefetching failed
+         */
+        @Nonnull
+        public Optional<File> getBinary() {
+            return Optional.ofNullable(binary);
+        }
+
+        /**
+         * @return The reason why prefetching failed, or {@link Optional#empty()} when it succeeded
+         */
+        @Nonnull
+        public Optional<Throwable> getFailure() {
+            return Optional.ofNullable(failure);
+        }
+
+        public boolean isSuccessful() {
+            return failure == null;
+        }
+
+        /**
+         * @param target         The {@link PrefetchTarget} that is being prefetched
+         * @param binaryFuture   The {@link CompletableFuture} of the request for the target's binary
+         * @param startNanos     {@link System#nanoTime()} at the time the binary has been requested
+         * @return A {@link CompletableFuture} that is completed with the {@link Result} once the binary
+         *         has been prefetched or failed to be. It is never completed exceptionally.
+         */
+        @Nonnull
+        static CompletableFuture<Result> of(final PrefetchTarget target,
+                                            final CompletableFuture<File> binaryFuture,
+                                            final long startNanos) {
+            return binaryFuture.handle((binaryFile, throwable) -> {
+                final Duration duration = Duration.ofNanos(System.nanoTime() - startNanos);
+
+                if (throwable == null) {
+                    return new Result(target, duration, binaryFile, null);
+                }
+
+                final Throwable failure = (throwable instanceof CompletionException && throwable.getCause() != null)
+                        ? throwable.getCause()
+                        : throwable;
+
+                return new Result(target, duration, null, failure);
+            });
+        }
+
+    }
+
+}
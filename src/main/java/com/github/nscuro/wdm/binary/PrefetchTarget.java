@@ -0,0 +1,86 @@
+package com.github.nscuro.wdm.binary;
+
+import com.github.nscuro.wdm.Architecture;
+import com.github.nscuro.wdm.Browser;
+import com.github.nscuro.wdm.Os;
+import lombok.Data;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A WebDriver binary that shall be prefetched.
+ *
+ * @see BinaryManager#prefetch(java.util.Collection)
+ * @since 0.3.1
+ */
+@Data
+public final class PrefetchTarget {
+
+    @Nonnull
+    private final Browser browser;
+
+    /**
+     * The version of the WebDriver binary. When {@code null}, the latest version will be used.
+     */
+    @Nullable
+    private final String version;
+
+    @Nonnull
+    private final Os os;
+
+    @Nonnull
+    private final Architecture architecture;
+
+    private PrefetchTarget(final Browser browser,
+                           @Nullable final String version,
+                           final Os os,
+                           final Architecture architecture) {
+        this.browser = requireNonNull(browser, "no browser provided");
+        this.version = version;
+        this.os = requireNonNull(os, "no os provided");
+        this.architecture = requireNonNull(architecture, "no architecture provided");
+    }
+
+    /**
+     * @param browser      The {@link Browser} to prefetch the WebDriver binary for
+     * @param version      The version of the WebDriver binary.
+     *                     When {@code null}, the latest version will be used
+     * @param os           The {@link Os} the binary must be compatible with
+     * @param architecture The {@link Architecture} the binary must be compatible with
+     * @return A {@link PrefetchTarget}
+     */
+    @Nonnull
+    public static PrefetchTarget of(final Browser browser,
+                                    @Nullable final String version,
+                                    final Os os,
+                                    final Architecture architecture) {
+        return new PrefetchTarget(browser, version, os, architecture);
+    }
+
+    /**
+     * @param browser      The {@link Browser} to prefetch the latest WebDriver binary for
+     * @param os           The {@link Os} the binary must be compatible with
+     * @param architecture The {@link Architecture} the binary must be compatible with
+     * @return A {@link PrefetchTarget}
+     */
+    @Nonnull
+    public static PrefetchTarget latest(final Browser browser, final Os os, final Architecture architecture) {
+        return new PrefetchTarget(browser, null, os, architecture);
+    }
+
+    /**
+     * Prefetch the latest WebDriver binary for the current platform
+     * ({@link Os} and {@link Architecture} will be auto-detected).
+     *
+     * @param browser The {@link Browser} to prefetch the latest WebDriver binary for
+     * @return A {@link PrefetchTarget}
+     */
+    @Nonnull
+    public static PrefetchTarget latest(final Browser browser) {
+        return new PrefetchTarget(browser, null, Os.getCurrent(), Architecture.getCurrent());
+    }
+
+}
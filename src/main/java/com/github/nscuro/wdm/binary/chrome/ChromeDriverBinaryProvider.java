@@ -4,11 +4,17 @@ import com.github.nscuro.wdm.Architecture;
 import com.github.nscuro.wdm.Browser;
 import com.github.nscuro.wdm.Os;
 import com.github.nscuro.wdm.binary.BinaryProvider;
+import com.github.nscuro.wdm.binary.BinaryProviderContext;
 import com.github.nscuro.wdm.binary.ie.IEDriverServerBinaryProvider;
+import com.github.nscuro.wdm.binary.util.ArchiveCache;
+import com.github.nscuro.wdm.binary.util.HttpMetadataCache;
 import com.github.nscuro.wdm.binary.util.VersionComparator;
 import com.github.nscuro.wdm.binary.util.compression.BinaryExtractorFactory;
 import com.github.nscuro.wdm.binary.util.googlecs.GoogleCloudStorageDirectoryService;
 import com.github.nscuro.wdm.binary.util.googlecs.GoogleCloudStorageEntry;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.util.EntityUtils;
@@ -19,12 +25,15 @@ import javax.annotation.Nonnull;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
-import java.util.Comparator;
-import java.util.List;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
 
+import static com.github.nscuro.wdm.binary.util.HttpUtils.verifyStatusCodeIsAnyOf;
 import static com.github.nscuro.wdm.binary.util.compression.BinaryExtractor.FileSelectors.entryIsFile;
 import static com.github.nscuro.wdm.binary.util.compression.BinaryExtractor.FileSelectors.entryNameStartsWithIgnoringCase;
 import static java.lang.String.format;
@@ -32,6 +41,13 @@ import static java.util.Objects.requireNonNull;
 
 /**
  * A {@link BinaryProvider} for Google's ChromeDriver.
+ * <p>
+ * By default, the latest ChromeDriver version is provided. Because every ChromeDriver version only supports
+ * a few Chrome versions, the version matching a given Chrome major version can be provided instead, by
+ * setting the {@code wdm.chromeVersion} system property to that major version (e.g. {@code 75}).
+ * When set to {@code detect}, the major version of the Chrome browser installed on the local host is used.
+ * Only Chrome 73 and above are supported, because older ChromeDriver versions do not follow Chrome's versioning.
+ * The system property is read whenever a version is resolved, so it can be changed at runtime.
  *
  * @see <a href="https://sites.google.com/a/chromium.org/chromedriver/">ChromeDriver homepage</a>
  * @since 0.2.0
@@ -42,24 +58,93 @@ public final class ChromeDriverBinaryProvider implements BinaryProvider {
 
     private static final String BINARY_NAME = "chromedriver";
 
+    private static final String DIRECTORY_URL = "https://chromedriver.storage.googleapis.com/";
+
+    private static final String DETECT_BROWSER_VERSION = "detect";
+
+    /**
+     * The first Chrome major version whose ChromeDriver versions start with it.
+     * Older versions of Chrome are supported by ChromeDriver 2.x.
+     */
+    private static final int FIRST_MATCHING_BROWSER_MAJOR_VERSION = 73;
+
+    /**
+     * For how long a listing of the ChromeDriver directory is reused.
+     */
+    private static final Duration DIRECTORY_SNAPSHOT_TTL = Duration.ofMinutes(10);
+
     private final HttpClient httpClient;
 
     private final GoogleCloudStorageDirectoryService cloudStorageDirectory;
 
     private final BinaryExtractorFactory binaryExtractorFactory;
 
+    private final Duration directorySnapshotTtl;
+
+    private final Clock clock;
+
+    private final Supplier<String> browserVersionSupplier;
+
+    private final ChromeVersionDetector chromeVersionDetector;
+
+    private volatile ChromeDriverDirectorySnapshot directorySnapshot;
+
     public ChromeDriverBinaryProvider(final HttpClient httpClient) {
+        this(httpClient, HttpMetadataCache.getDefault());
+    }
+
+    /**
+     * Create a {@link ChromeDriverBinaryProvider} that caches directory listings in the given {@link HttpMetadataCache}.
+     *
+     * @param httpClient    The {@link HttpClient} to use
+     * @param metadataCache The {@link HttpMetadataCache} to use
+     * @see com.github.nscuro.wdm.binary.BinaryManager.Builder#addCachingBinaryProvider(java.util.function.Function)
+     * @since 0.3.1
+     */
+    public ChromeDriverBinaryProvider(final HttpClient httpClient, final HttpMetadataCache metadataCache) {
         this(requireNonNull(httpClient, "no HttpClient provided"),
-                GoogleCloudStorageDirectoryService.create(httpClient, "https://chromedriver.storage.googleapis.com/"),
-                new BinaryExtractorFactory());
+                GoogleCloudStorageDirectoryService.create(httpClient, DIRECTORY_URL, metadataCache),
+                new BinaryExtractorFactory(), DIRECTORY_SNAPSHOT_TTL, Clock.systemUTC(),
+                () -> System.getProperty("wdm.chromeVersion"), ChromeVersionDetector.DEFAULT_INSTANCE);
+    }
+
+    /**
+     * Create a {@link ChromeDriverBinaryProvider} that uses the {@link HttpClient}, {@link HttpMetadataCache}
+     * and {@link com.github.nscuro.wdm.binary.util.ResumableDownloader} of the given {@link BinaryProviderContext}.
+     *
+     * @param context The {@link BinaryProviderContext} to use
+     * @see com.github.nscuro.wdm.binary.BinaryManager.Builder#addCachingBinaryProvider(java.util.function.Function)
+     * @since 0.3.1
+     */
+    public ChromeDriverBinaryProvider(final BinaryProviderContext context) {
+        this(requireNonNull(context, "no context provided").getHttpClient(),
+                GoogleCloudStorageDirectoryService.create(context.getHttpClient(), DIRECTORY_URL,
+                        context.getMetadataCache(), context.getDownloader()),
+                new BinaryExtractorFactory(), DIRECTORY_SNAPSHOT_TTL, Clock.systemUTC(),
+                () -> System.getProperty("wdm.chromeVersion"), ChromeVersionDetector.DEFAULT_INSTANCE);
     }
 
     ChromeDriverBinaryProvider(final HttpClient httpClient,
                                final GoogleCloudStorageDirectoryService cloudStorageDirectory,
                                final BinaryExtractorFactory binaryExtractorFactory) {
+        this(httpClient, cloudStorageDirectory, binaryExtractorFactory, DIRECTORY_SNAPSHOT_TTL, Clock.systemUTC(),
+                () -> null, ChromeVersionDetector.DEFAULT_INSTANCE);
+    }
+
+    ChromeDriverBinaryProvider(final HttpClient httpClient,
+                               final GoogleCloudStorageDirectoryService cloudStorageDirectory,
+                               final BinaryExtractorFactory binaryExtractorFactory,
+                               final Duration directorySnapshotTtl,
+                               final Clock clock,
+                               final Supplier<String> browserVersionSupplier,
+                               final ChromeVersionDetector chromeVersionDetector) {
         this.httpClient = httpClient;
         this.cloudStorageDirectory = cloudStorageDirectory;
         this.binaryExtractorFactory = binaryExtractorFactory;
+        this.directorySnapshotTtl = directorySnapshotTtl;
+        this.clock = clock;
+        this.browserVersionSupplier = browserVersionSupplier;
+        this.chromeVersionDetector = chromeVersionDetector;
     }
 
     /**
@@ -75,6 +160,11 @@ public final class ChromeDriverBinaryProvider implements BinaryProvider {
 
     /**
      * {@inheritDoc}
+     * <p>
+     * When the {@code wdm.chromeVersion} system property is set, the version matching the given
+     * Chrome major version is returned instead. If no such version exists, {@link Optional#empty()} is returned,
+     * because the latest version would not support the requested Chrome. If the major version of the locally
+     * installed Chrome could not be detected, the latest version is returned.
      */
     @Nonnull
     @Override
@@ -86,21 +176,68 @@ public final class ChromeDriverBinaryProvider implements BinaryProvider {
             return Optional.empty();
         }
 
-        final List<GoogleCloudStorageEntry> cloudStorageEntries = cloudStorageDirectory.getEntries();
+        final Optional<Integer> browserMajorVersion = getBrowserMajorVersion(os);
 
-        final String latestVersion = getLatestReleaseVersion(cloudStorageEntries);
+        if (browserMajorVersion.isPresent()) {
+            if (browserMajorVersion.get() < FIRST_MATCHING_BROWSER_MAJOR_VERSION) {
+                LOGGER.warn("ChromeDriver versions for Chrome {} do not follow Chrome's versioning - "
+                        + "Request a specific ChromeDriver 2.x version instead", browserMajorVersion.get());
+                return Optional.empty();
+            }
 
-        return cloudStorageDirectory
-                .getEntries()
-                .stream()
-                .map(GoogleCloudStorageEntry::getKey)
-                .map(String::toLowerCase)
-                .filter(key -> key.contains(platform.get().getName()))
-                .map(key -> key.split("/")[0])
-                // For whatever reason there are versions higher than LATEST_RELEASE in the directory
-                // that are older than any of those equal to or lower than LATEST_RELEASE...
-                .filter(version -> new VersionComparator().compare(version, latestVersion) <= 0)
-                .max(new VersionComparator());
+            final Optional<String> matchingVersion = getMatchingReleaseVersion(browserMajorVersion.get());
+
+            if (!matchingVersion.isPresent()) {
+                LOGGER.warn("No ChromeDriver release for Chrome {} found", browserMajorVersion.get());
+            }
+
+            return matchingVersion;
+        }
+
+        final ChromeDriverDirectorySnapshot snapshot = getDirectorySnapshot();
+
+        // For whatever reason there are versions higher than LATEST_RELEASE in the directory
+        // that are older than any of those equal to or lower than LATEST_RELEASE...
+        return snapshot.getLatestVersion(platform.get(), getLatestReleaseVersion(snapshot));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return The Chrome major version followed by a dot (e.g. {@code 75.}) when the {@code wdm.chromeVersion}
+     *         system property is set, otherwise {@link Optional#empty()}. Because no version is resolved for
+     *         Chrome 72 and below, the prefix does not need to match ChromeDriver 2.x versions.
+     * @since 0.3.1
+     */
+    @Nonnull
+    @Override
+    public Optional<String> getVersionPrefix(final Os os, final Architecture architecture) {
+        return getBrowserMajorVersion(os).map(browserMajorVersion -> browserMajorVersion + ".");
+    }
+
+    /**
+     * Determine the latest ChromeDriver version that supports a given major version of Chrome.
+     * <p>
+     * Only a tiny text file has to be requested for this, instead of the listing of all available versions.
+     *
+     * @param browserMajorVersion The major version of Chrome, e.g. {@code 75}
+     * @param os                  The {@link Os} to get the version for
+     * @param architecture        The {@link Architecture} to get the version for
+     * @return The matching ChromeDriver version or {@link Optional#empty()} when the requested
+     *         platform is not supported or there is no ChromeDriver for the given major version
+     * @throws IOException In case of a network error
+     * @since 0.3.1
+     */
+    @Nonnull
+    public Optional<String> getLatestBinaryVersionForBrowserVersion(final int browserMajorVersion,
+                                                                    final Os os,
+                                                                    final Architecture architecture) throws IOException {
+        if (!ChromeDriverPlatform.valueOf(os, architecture).isPresent()) {
+            LOGGER.warn("ChromeDriver is not supported on {} {}", os, architecture);
+            return Optional.empty();
+        }
+
+        return getMatchingReleaseVersion(browserMajorVersion);
     }
 
     /**
@@ -116,17 +253,14 @@ public final class ChromeDriverBinaryProvider implements BinaryProvider {
                 .orElseThrow(() -> new UnsupportedOperationException(
                         format("ChromeDriver is not supported on %s %s", os, architecture)));
 
-        final GoogleCloudStorageEntry binaryFileEntry = cloudStorageDirectory
-                .getEntries()
-                .stream()
-                .filter(entry -> entry.getKey().contains(version))
-                .filter(entry -> entry.getKey().contains(platform.getName()))
-                .findAny()
-                .orElseThrow(NoSuchElementException::new);
+        final GoogleCloudStorageEntry binaryFileEntry = getBinaryFileEntry(platform, version);
 
-        return binaryExtractorFactory
-                .getBinaryExtractorForArchiveFile(cloudStorageDirectory.downloadFile(binaryFileEntry))
-                .extractBinary(binaryDestinationPath, entryIsFile().and(entryNameStartsWithIgnoringCase(BINARY_NAME)));
+        // The same archive is used for multiple architectures on Windows
+        return ArchiveCache.forBinaryDestination(binaryDestinationPath).getBinary(binaryFileEntry.getUrl(),
+                binaryFileEntry.getETag().orElse(null), binaryDestinationPath, destinationPath -> cloudStorageDirectory
+                        .downloadFile(binaryFileEntry, archiveInputStream -> binaryExtractorFactory
+                                .getBinaryExtractorForArchiveStream(binaryFileEntry.getUrl(), archiveInputStream)
+                                .extractBinary(destinationPath, entryIsFile().and(entryNameStartsWithIgnoringCase(BINARY_NAME)))));
     }
 
     @Override
@@ -147,6 +281,126 @@ public final class ChromeDriverBinaryProvider implements BinaryProvider {
         return ((BinaryProvider) otherObject).providesBinaryForBrowser(Browser.CHROME);
     }
 
+    /**
+     * Get the entry of the binary archive for a given {@link ChromeDriverPlatform} and version.
+     * <p>
+     * When a directory snapshot is still up to date (e.g. because the latest version has just been
+     * determined), the entry is looked up in it. Otherwise, only the "directory" of the requested
+     * version is listed, which is a lot cheaper than listing the entire directory.
+     *
+     * @param platform The {@link ChromeDriverPlatform} to get the entry for
+     * @param version  The version to get the entry for
+     * @return The entry of the binary archive
+     * @throws IOException            In case of a network error
+     * @throws NoSuchElementException When no binary archive for the given criteria exists
+     */
+    @Nonnull
+    private GoogleCloudStorageEntry getBinaryFileEntry(final ChromeDriverPlatform platform, final String version) throws IOException {
+        final ChromeDriverDirectorySnapshot snapshot = directorySnapshot;
+
+        if (snapshot != null && !snapshot.isExpiredAt(clock.instant())) {
+            final Optional<GoogleCloudStorageEntry> binaryFileEntry = snapshot.getEntry(platform, version);
+
+            if (binaryFileEntry.isPresent()) {
+                return binaryFileEntry.get();
+            }
+        }
+
+        // Every version has its own "directory", so there is no need to list any other version
+        return cloudStorageDirectory
+                .getEntries(version + "/", "/")
+                .stream()
+                .filter(entry -> entry.getKey().toLowerCase().contains(platform.getName()))
+                .findAny()
+                .orElseThrow(NoSuchElementException::new);
+    }
+
+    /**
+     * Get a snapshot of the ChromeDriver directory, listing the directory only when
+     * no snapshot exists yet or the existing one has expired.
+     *
+     * @return An up to date {@link ChromeDriverDirectorySnapshot}
+     * @throws IOException In case of a network error
+     */
+    @Nonnull
+    private ChromeDriverDirectorySnapshot getDirectorySnapshot() throws IOException {
+        final ChromeDriverDirectorySnapshot snapshot = directorySnapshot;
+
+        if (snapshot != null && !snapshot.isExpiredAt(clock.instant())) {
+            return snapshot;
+        }
+
+        synchronized (this) {
+            if (directorySnapshot == null || directorySnapshot.isExpiredAt(clock.instant())) {
+                LOGGER.debug("Listing ChromeDriver directory");
+
+                final Instant now = clock.instant();
+
+                directorySnapshot = ChromeDriverDirectorySnapshot.of(cloudStorageDirectory.getEntries(), now, directorySnapshotTtl);
+            }
+
+            return directorySnapshot;
+        }
+    }
+
+    /**
+     * Get the Chrome major version that the provided ChromeDriver version shall match.
+     *
+     * @param os The {@link Os} ChromeDriver is requested for
+     * @return The Chrome major version or {@link Optional#empty()} when the latest version shall be provided
+     */
+    @Nonnull
+    private Optional<Integer> getBrowserMajorVersion(final Os os) {
+        final String browserVersion = browserVersionSupplier.get();
+
+        if (browserVersion == null) {
+            return Optional.empty();
+        } else if (DETECT_BROWSER_VERSION.equalsIgnoreCase(browserVersion)) {
+            if (os != Os.getCurrent()) {
+                LOGGER.warn("Chrome version can only be detected for {} - Not detecting it for {}", Os.getCurrent(), os);
+                return Optional.empty();
+            }
+
+            return chromeVersionDetector.detectMajorVersion(os);
+        }
+
+        try {
+            return Optional.of(Integer.valueOf(browserVersion.trim()));
+        } catch (NumberFormatException e) {
+            LOGGER.warn("\"{}\" is neither a major version nor \"{}\" - Ignoring it", browserVersion, DETECT_BROWSER_VERSION);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Determine the latest release version for a given Chrome major version,
+     * as suggested by the directory's LATEST_RELEASE_&lt;major&gt; file.
+     *
+     * @param browserMajorVersion The major version of Chrome
+     * @return The matching release version or {@link Optional#empty()} when no such file exists
+     * @throws IOException In case of a network error
+     */
+    @Nonnull
+    private Optional<String> getMatchingReleaseVersion(final int browserMajorVersion) throws IOException {
+        final String latestReleaseFileUrl = format("%s%s_%d", DIRECTORY_URL,
+                ChromeDriverDirectorySnapshot.LATEST_RELEASE_KEY, browserMajorVersion);
+
+        final Optional<String> matchingVersion = httpClient.execute(new HttpGet(latestReleaseFileUrl), httpResponse -> {
+            if (verifyStatusCodeIsAnyOf(httpResponse, HttpStatus.SC_OK, HttpStatus.SC_NOT_FOUND) == HttpStatus.SC_NOT_FOUND) {
+                return Optional.empty();
+            }
+
+            return readVersion(httpResponse);
+        });
+
+        if (matchingVersion.isPresent() && !VersionComparator.isVersionString(matchingVersion.get())) {
+            LOGGER.warn("{} does not contain a version, but \"{}\" - Ignoring it", latestReleaseFileUrl, matchingVersion.get());
+            return Optional.empty();
+        }
+
+        return matchingVersion;
+    }
+
     /**
      * Determine the latest available release version.
      * <p>
@@ -157,22 +411,36 @@ public final class ChromeDriverBinaryProvider implements BinaryProvider {
      * yet {@link 2.37} is the latest. Google is kind enough here to point us to the <b>actual</b> latest
      * version through a LATEST_RELEASE file.
      *
-     * @param directoryEntries Entries of the {@link GoogleCloudStorageDirectoryService}
+     * @param snapshot Snapshot of the ChromeDriver directory
      * @return The latest release version of ChromeDriver
      * @throws IOException            In case of a network error
      * @throws NoSuchElementException When the LATEST_RELEASE file has not been found
      */
     @Nonnull
-    private String getLatestReleaseVersion(final List<GoogleCloudStorageEntry> directoryEntries) throws IOException {
-        final String latestReleaseFileUrl = directoryEntries
-                .stream()
-                .filter(entry -> entry.getKey().equals("LATEST_RELEASE"))
-                .findAny()
+    private String getLatestReleaseVersion(final ChromeDriverDirectorySnapshot snapshot) throws IOException {
+        final String latestReleaseFileUrl = snapshot
+                .getLatestReleaseEntry()
                 .map(GoogleCloudStorageEntry::getUrl)
                 .orElseThrow(() -> new NoSuchElementException("Unable to determine latest release version: No LATEST_RELEASE file found in directory"));
 
-        return httpClient.execute(new HttpGet(latestReleaseFileUrl),
-                httpResponse -> EntityUtils.toString(httpResponse.getEntity()).trim());
+        return httpClient.execute(new HttpGet(latestReleaseFileUrl), httpResponse -> readVersion(httpResponse)
+                .orElseThrow(() -> new NoSuchElementException("Unable to determine latest release version: LATEST_RELEASE file is empty")));
+    }
+
+    /**
+     * @param httpResponse Response of a request for a LATEST_RELEASE file
+     * @return The content of the file or {@link Optional#empty()} when the response has no body
+     * @throws IOException When reading the response body failed
+     */
+    @Nonnull
+    private static Optional<String> readVersion(final HttpResponse httpResponse) throws IOException {
+        final HttpEntity entity = httpResponse.getEntity();
+
+        if (entity == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(EntityUtils.toString(entity).trim());
     }
 
 }
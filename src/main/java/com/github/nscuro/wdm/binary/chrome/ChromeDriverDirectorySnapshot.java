@@ -0,0 +1,138 @@
+package com.github.nscuro.wdm.binary.chrome;
+
+import com.github.nscuro.wdm.binary.util.VersionComparator;
+import com.github.nscuro.wdm.binary.util.googlecs.GoogleCloudStorageEntry;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable, indexed snapshot of the ChromeDriver directory.
+ * <p>
+ * Binaries are stored under keys like {@code 2.37/chromedriver_linux64.zip}. Instead of scanning
+ * the entire listing for every lookup, entries are indexed by {@link ChromeDriverPlatform} and version,
+ * so that both the latest version and the entry of a specific version can be looked up in {@code O(log n)}.
+ *
+ * @since 0.3.1
+ */
+final class ChromeDriverDirectorySnapshot {
+
+    static final String LATEST_RELEASE_KEY = "LATEST_RELEASE";
+
+    private final Map<ChromeDriverPlatform, NavigableMap<String, GoogleCloudStorageEntry>> entriesByPlatform;
+
+    private final GoogleCloudStorageEntry latestReleaseEntry;
+
+    private final Instant expiresAt;
+
+    private ChromeDriverDirectorySnapshot(final Map<ChromeDriverPlatform, NavigableMap<String, GoogleCloudStorageEntry>> entriesByPlatform,
+                                          @Nullable final GoogleCloudStorageEntry latestReleaseEntry,
+                                          final Instant expiresAt) {
+        this.entriesByPlatform = entriesByPlatform;
+        this.latestReleaseEntry = latestReleaseEntry;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * @param entries   All entries of the ChromeDriver directory
+     * @param createdAt The point in time the entries have been listed at
+     * @param ttl       For how long the snapshot is considered to be up to date
+     * @return The indexed {@link ChromeDriverDirectorySnapshot}
+     */
+    @Nonnull
+    static ChromeDriverDirectorySnapshot of(final List<GoogleCloudStorageEntry> entries,
+                                            final Instant createdAt,
+                                            final Duration ttl) {
+        final Map<ChromeDriverPlatform, NavigableMap<String, GoogleCloudStorageEntry>> entriesByPlatform =
+                new EnumMap<>(ChromeDriverPlatform.class);
+        GoogleCloudStorageEntry latestReleaseEntry = null;
+
+        for (final GoogleCloudStorageEntry entry : requireNonNull(entries, "no entries provided")) {
+            final String key = entry.getKey();
+
+            if (LATEST_RELEASE_KEY.equals(key)) {
+                latestReleaseEntry = entry;
+                continue;
+            }
+
+            final int separatorIndex = key.indexOf('/');
+
+            if (separatorIndex < 0 || !VersionComparator.isVersionString(key.substring(0, separatorIndex))) {
+                continue;
+            }
+
+            final String version = key.substring(0, separatorIndex);
+            final String fileName = key.substring(separatorIndex + 1).toLowerCase();
+
+            for (final ChromeDriverPlatform platform : ChromeDriverPlatform.values()) {
+                if (fileName.contains(platform.getName())) {
+                    entriesByPlatform
+                            .computeIfAbsent(platform, ignored -> new TreeMap<>(new VersionComparator()))
+                            .putIfAbsent(version, entry);
+                }
+            }
+        }
+
+        entriesByPlatform.replaceAll((platform, entriesByVersion) -> Collections.unmodifiableNavigableMap(entriesByVersion));
+
+        return new ChromeDriverDirectorySnapshot(entriesByPlatform, latestReleaseEntry,
+                requireNonNull(createdAt, "no createdAt provided").plus(requireNonNull(ttl, "no ttl provided")));
+    }
+
+    /**
+     * @return The entry of the LATEST_RELEASE file, if the directory contains one
+     */
+    @Nonnull
+    Optional<GoogleCloudStorageEntry> getLatestReleaseEntry() {
+        return Optional.ofNullable(latestReleaseEntry);
+    }
+
+    /**
+     * @param platform   The {@link ChromeDriverPlatform} to get the version for
+     * @param maxVersion The highest acceptable version
+     * @return The highest version available for the given {@link ChromeDriverPlatform}
+     *         that is not higher than {@code maxVersion}
+     */
+    @Nonnull
+    Optional<String> getLatestVersion(final ChromeDriverPlatform platform, final String maxVersion) {
+        return Optional
+                .ofNullable(entriesByPlatform.get(platform))
+                .map(entriesByVersion -> entriesByVersion.floorKey(maxVersion));
+    }
+
+    /**
+     * @param platform The {@link ChromeDriverPlatform} to get the entry for
+     * @param version  The version to get the entry for
+     * @return The entry of the binary archive for the given {@link ChromeDriverPlatform} and version
+     */
+    @Nonnull
+    Optional<GoogleCloudStorageEntry> getEntry(final ChromeDriverPlatform platform, final String version) {
+        if (!VersionComparator.isVersionString(version)) {
+            return Optional.empty();
+        }
+
+        return Optional
+                .ofNullable(entriesByPlatform.get(platform))
+                .map(entriesByVersion -> entriesByVersion.get(version));
+    }
+
+    /**
+     * @param now The current point in time
+     * @return {@code true} when the snapshot is not considered to be up to date anymore
+     */
+    boolean isExpiredAt(final Instant now) {
+        return !now.isBefore(expiresAt);
+    }
+
+}
@@ -0,0 +1,230 @@
+package com.github.nscuro.wdm.binary.chrome;
+
+import com.github.nscuro.wdm.Os;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Detects the major version of the Chrome browser that is installed on the local host.
+ * <p>
+ * Chrome is asked for its version by running it with {@code --version}. Because Chrome does not
+ * print anything to the console on Windows, its version is read from the registry there instead.
+ * The binary to run can be specified with the {@code wdm.chromeBinary} system property, otherwise
+ * the usual installation locations are tried.
+ * <p>
+ * Running Chrome is comparatively expensive, so a detected version is reused for an hour, per {@link Os} and
+ * {@code wdm.chromeBinary}. Versions that could not be detected are not cached, so that Chrome being installed
+ * or updated in the meantime is picked up.
+ *
+ * @since 0.3.1
+ */
+final class ChromeVersionDetector {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChromeVersionDetector.class);
+
+    static final ChromeVersionDetector DEFAULT_INSTANCE = new ChromeVersionDetector(ChromeVersionDetector::runCommand);
+
+    /**
+     * For how long a detected version is reused, so that updates of Chrome are picked up by long-running JVMs.
+     */
+    private static final Duration DETECTED_VERSION_TTL = Duration.ofHours(1);
+
+    private static final Pattern VERSION_PATTERN = Pattern.compile("\\b(\\d+)\\.\\d+\\.\\d+\\.\\d+\\b");
+
+    private static final long COMMAND_TIMEOUT_SECONDS = 10;
+
+    private final CommandRunner commandRunner;
+
+    private final Clock clock;
+
+    /**
+     * Detected major versions, by the commands used to detect them.
+     */
+    private final Map<List<List<String>>, DetectedMajorVersion> detectedMajorVersions;
+
+    ChromeVersionDetector(final CommandRunner commandRunner) {
+        this(commandRunner, Clock.systemUTC());
+    }
+
+    ChromeVersionDetector(final CommandRunner commandRunner, final Clock clock) {
+        this.commandRunner = requireNonNull(commandRunner, "no CommandRunner provided");
+        this.clock = requireNonNull(clock, "no Clock provided");
+        this.detectedMajorVersions = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @param os The {@link Os} of the local host
+     * @return The major version of the locally installed Chrome browser,
+     *         or {@link Optional#empty()} when it could not be detected
+     */
+    @Nonnull
+    Optional<Integer> detectMajorVersion(final Os os) {
+        // The commands depend on both the Os and the wdm.chromeBinary system property
+        final List<List<String>> commands = getVersionCommands(requireNonNull(os, "no Os provided"));
+
+        final DetectedMajorVersion detectedMajorVersion = detectedMajorVersions.get(commands);
+
+        if (detectedMajorVersion != null && detectedMajorVersion.detectedAt.plus(DETECTED_VERSION_TTL).isAfter(clock.instant())) {
+            return Optional.of(detectedMajorVersion.majorVersion);
+        }
+
+        final Optional<Integer> majorVersion = detect(os, commands);
+
+        if (majorVersion.isPresent()) {
+            detectedMajorVersions.put(commands, new DetectedMajorVersion(majorVersion.get(), clock.instant()));
+        } else {
+            detectedMajorVersions.remove(commands);
+        }
+
+        return majorVersion;
+    }
+
+    @Nonnull
+    private Optional<Integer> detect(final Os os, final List<List<String>> commands) {
+        for (final List<String> command : commands) {
+            final String output;
+            try {
+                output = commandRunner.run(command);
+            } catch (IOException e) {
+                LOGGER.debug("Running \"{}\" failed", String.join(" ", command), e);
+                continue;
+            }
+
+            final Optional<Integer> majorVersion = parseMajorVersion(output);
+
+            if (majorVersion.isPresent()) {
+                LOGGER.debug("Detected Chrome {} using \"{}\"", majorVersion.get(), String.join(" ", command));
+                return majorVersion;
+            }
+        }
+
+        LOGGER.warn("Unable to detect the version of Chrome installed on {}", os);
+        return Optional.empty();
+    }
+
+    @Nonnull
+    static Optional<Integer> parseMajorVersion(final String output) {
+        final Matcher matcher = VERSION_PATTERN.matcher(output);
+
+        if (!matcher.find()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(Integer.valueOf(matcher.group(1)));
+    }
+
+    @Nonnull
+    private static List<List<String>> getVersionCommands(final Os os) {
+        final List<List<String>> commands = new ArrayList<>();
+
+        final String chromeBinary = System.getProperty("wdm.chromeBinary");
+
+        if (chromeBinary != null) {
+            commands.add(Arrays.asList(chromeBinary, "--version"));
+        }
+
+        switch (os) {
+            case WINDOWS:
+                commands.add(Arrays.asList("reg", "query", "HKEY_CURRENT_USER\\Software\\Google\\Chrome\\BLBeacon", "/v", "version"));
+                commands.add(Arrays.asList("reg", "query", "HKEY_LOCAL_MACHINE\\Software\\Google\\Chrome\\BLBeacon", "/v", "version"));
+                break;
+            case MACOS:
+                commands.add(Arrays.asList("/Applications/Google Chrome.app/Contents/MacOS/Google Chrome", "--version"));
+                commands.add(Arrays.asList("/Applications/Chromium.app/Contents/MacOS/Chromium", "--version"));
+                break;
+            case LINUX:
+                commands.add(Arrays.asList("google-chrome", "--version"));
+                commands.add(Arrays.asList("google-chrome-stable", "--version"));
+                commands.add(Arrays.asList("chromium-browser", "--version"));
+                commands.add(Arrays.asList("chromium", "--version"));
+                break;
+            default:
+                break;
+        }
+
+        return commands;
+    }
+
+    @Nonnull
+    private static String runCommand(final List<String> command) throws IOException {
+        // Output is redirected to a file, so that a process that never closes its output cannot block us
+        final Path outputFilePath = Files.createTempFile("wdm-chrome-version", ".txt");
+
+        try {
+            final Process process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(outputFilePath.toFile())
+                    .start();
+
+            try {
+                if (!process.waitFor(COMMAND_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                    throw new IOException(format("\"%s\" did not finish within %d seconds",
+                            String.join(" ", command), COMMAND_TIMEOUT_SECONDS));
+                } else if (process.exitValue() != 0) {
+                    throw new IOException(format("\"%s\" exited with code %d",
+                            String.join(" ", command), process.exitValue()));
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+                throw new IOException(format("Interrupted while waiting for \"%s\"", String.join(" ", command)), e);
+            }
+
+            return new String(Files.readAllBytes(outputFilePath), Charset.defaultCharset());
+        } finally {
+            Files.deleteIfExists(outputFilePath);
+        }
+    }
+
+    private static final class DetectedMajorVersion {
+
+        private final int majorVersion;
+
+        private final Instant detectedAt;
+
+        private DetectedMajorVersion(final int majorVersion, final Instant detectedAt) {
+            this.majorVersion = majorVersion;
+            this.detectedAt = detectedAt;
+        }
+
+    }
+
+    /**
+     * Runs a command and returns its output.
+     */
+    @FunctionalInterface
+    interface CommandRunner {
+
+        /**
+         * @param command The command to run
+         * @return The command's output
+         * @throws IOException When the command could not be run or did not succeed
+         */
+        @Nonnull
+        String run(final List<String> command) throws IOException;
+
+    }
+
+}
@@ -4,8 +4,10 @@ import com.github.nscuro.wdm.Architecture;
 import com.github.nscuro.wdm.Browser;
 import com.github.nscuro.wdm.Os;
 import com.github.nscuro.wdm.binary.BinaryProvider;
+import com.github.nscuro.wdm.binary.util.AtomicFileUtils;
 import com.github.nscuro.wdm.binary.util.MimeType;
 import com.github.nscuro.wdm.binary.util.VersionComparator;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpGet;
@@ -17,7 +19,6 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
@@ -115,16 +116,11 @@ public class MicrosoftWebDriverBinaryProvider implements BinaryProvider {
             verifyStatusCodeIsAnyOf(httpResponse, HttpStatus.SC_OK);
             verifyContentTypeIsAnyOf(httpResponse, MimeType.APPLICATION_OCTET_STREAM);
 
-            final File binaryDestinationFile = binaryDestinationPath.toFile();
+            final HttpEntity responseEntity = Optional
+                    .ofNullable(httpResponse.getEntity())
+                    .orElseThrow(() -> new IOException(format("Response body is empty. Response was:\n%s", httpResponse)));
 
-            try (final FileOutputStream fileOutputStream = new FileOutputStream(binaryDestinationFile)) {
-                Optional
-                        .ofNullable(httpResponse.getEntity())
-                        .orElseThrow(() -> new IOException(format("Response body is empty. Response was:\n%s", httpResponse)))
-                        .writeTo(fileOutputStream);
-            }
-
-            return binaryDestinationFile;
+            return AtomicFileUtils.write(binaryDestinationPath, responseEntity::writeTo);
         });
     }
 
@@ -4,6 +4,9 @@ import com.github.nscuro.wdm.Architecture;
 import com.github.nscuro.wdm.Browser;
 import com.github.nscuro.wdm.Os;
 import com.github.nscuro.wdm.binary.BinaryProvider;
+import com.github.nscuro.wdm.binary.BinaryProviderContext;
+import com.github.nscuro.wdm.binary.util.ArchiveCache;
+import com.github.nscuro.wdm.binary.util.HttpMetadataCache;
 import com.github.nscuro.wdm.binary.util.VersionComparator;
 import com.github.nscuro.wdm.binary.util.compression.BinaryExtractorFactory;
 import com.github.nscuro.wdm.binary.util.googlecs.GoogleCloudStorageDirectoryService;
@@ -16,9 +19,11 @@ import javax.annotation.Nonnull;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static com.github.nscuro.wdm.binary.util.compression.BinaryExtractor.FileSelectors.entryIsFile;
 import static com.github.nscuro.wdm.binary.util.compression.BinaryExtractor.FileSelectors.entryNameStartsWithIgnoringCase;
@@ -36,14 +41,42 @@ public final class IEDriverServerBinaryProvider implements BinaryProvider {
 
     private static final String BINARY_NAME = "IEDriverServer";
 
+    private static final String DIRECTORY_DELIMITER = "/";
+
     private final GoogleCloudStorageDirectoryService cloudStorageDirectory;
 
     private final BinaryExtractorFactory binaryExtractorFactory;
 
     public IEDriverServerBinaryProvider(final HttpClient httpClient) {
+        this(httpClient, HttpMetadataCache.getDefault());
+    }
+
+    /**
+     * Create a {@link IEDriverServerBinaryProvider} that caches directory listings in the given {@link HttpMetadataCache}.
+     *
+     * @param httpClient    The {@link HttpClient} to use
+     * @param metadataCache The {@link HttpMetadataCache} to use
+     * @see com.github.nscuro.wdm.binary.BinaryManager.Builder#addCachingBinaryProvider(java.util.function.Function)
+     * @since 0.3.1
+     */
+    public IEDriverServerBinaryProvider(final HttpClient httpClient, final HttpMetadataCache metadataCache) {
         this(GoogleCloudStorageDirectoryService
                         .create(requireNonNull(httpClient, "no HttpClient provided"),
-                                "https://selenium-release.storage.googleapis.com/"),
+                                "https://selenium-release.storage.googleapis.com/", metadataCache),
+                new BinaryExtractorFactory());
+    }
+
+    /**
+     * Create a {@link IEDriverServerBinaryProvider} that uses the {@link HttpClient}, {@link HttpMetadataCache}
+     * and {@link com.github.nscuro.wdm.binary.util.ResumableDownloader} of the given {@link BinaryProviderContext}.
+     *
+     * @param context The {@link BinaryProviderContext} to use
+     * @see com.github.nscuro.wdm.binary.BinaryManager.Builder#addCachingBinaryProvider(java.util.function.Function)
+     * @since 0.3.1
+     */
+    public IEDriverServerBinaryProvider(final BinaryProviderContext context) {
+        this(GoogleCloudStorageDirectoryService.create(requireNonNull(context, "no context provided").getHttpClient(),
+                "https://selenium-release.storage.googleapis.com/", context.getMetadataCache(), context.getDownloader()),
                 new BinaryExtractorFactory());
     }
 
@@ -78,15 +111,25 @@ public final class IEDriverServerBinaryProvider implements BinaryProvider {
             return Optional.empty();
         }
 
-        return cloudStorageDirectory
-                .getEntries()
+        // Every version has its own "directory", so only the most recent ones have to be listed
+        final List<String> versions = cloudStorageDirectory
+                .getCommonPrefixes("", DIRECTORY_DELIMITER)
                 .stream()
-                .map(this::toIEDriverServerRelease)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .filter(release -> release.getArchitecture() == architecture)
-                .map(IEDriverServerRelease::getVersion)
-                .max(new VersionComparator());
+                .map(prefix -> prefix.substring(0, prefix.length() - DIRECTORY_DELIMITER.length()))
+                .filter(VersionComparator::isVersionString)
+                .sorted(new VersionComparator().reversed())
+                .collect(Collectors.toList());
+
+        for (final String version : versions) {
+            final boolean hasReleaseForArchitecture = getReleases(version).stream()
+                    .anyMatch(release -> release.getArchitecture() == architecture);
+
+            if (hasReleaseForArchitecture) {
+                return Optional.of(version);
+            }
+        }
+
+        return Optional.empty();
     }
 
     /**
@@ -102,21 +145,19 @@ public final class IEDriverServerBinaryProvider implements BinaryProvider {
             throw new UnsupportedOperationException("IEDriverServer is only supported on Windows systems");
         }
 
-        final IEDriverServerRelease matchingRelease = cloudStorageDirectory
-                .getEntries()
+        final IEDriverServerRelease matchingRelease = getReleases(version)
                 .stream()
-                .map(this::toIEDriverServerRelease)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
                 .filter(release -> release.getArchitecture() == architecture)
                 .filter(release -> release.getVersion().equals(version))
                 .findAny()
                 .orElseThrow(() -> new NoSuchElementException(
                         format("No IEDriverServer binary available for %s %s in version %s", os, architecture, version)));
 
-        return binaryExtractorFactory
-                .getBinaryExtractorForArchiveFile(cloudStorageDirectory.downloadFile(matchingRelease))
-                .extractBinary(binaryDestinationPath, entryIsFile().and(entryNameStartsWithIgnoringCase(BINARY_NAME)));
+        return ArchiveCache.forBinaryDestination(binaryDestinationPath).getBinary(matchingRelease.getUrl(),
+                matchingRelease.getETag().orElse(null), binaryDestinationPath, destinationPath -> cloudStorageDirectory
+                        .downloadFile(matchingRelease, archiveInputStream -> binaryExtractorFactory
+                                .getBinaryExtractorForArchiveStream(matchingRelease.getUrl(), archiveInputStream)
+                                .extractBinary(destinationPath, entryIsFile().and(entryNameStartsWithIgnoringCase(BINARY_NAME)))));
     }
 
     @Override
@@ -137,6 +178,17 @@ public final class IEDriverServerBinaryProvider implements BinaryProvider {
         return ((BinaryProvider) otherObject).providesBinaryForBrowser(Browser.INTERNET_EXPLORER);
     }
 
+    @Nonnull
+    private List<IEDriverServerRelease> getReleases(final String version) throws IOException {
+        return cloudStorageDirectory
+                .getEntries(version + DIRECTORY_DELIMITER + BINARY_NAME, null)
+                .stream()
+                .map(this::toIEDriverServerRelease)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .collect(Collectors.toList());
+    }
+
     @Nonnull
     private Optional<IEDriverServerRelease> toIEDriverServerRelease(final GoogleCloudStorageEntry entry) {
         if (!entry.getKey().contains(BINARY_NAME)) {
@@ -155,7 +207,7 @@ public final class IEDriverServerBinaryProvider implements BinaryProvider {
             return Optional.empty();
         }
 
-        return Optional.of(new IEDriverServerRelease(entry.getKey(), entry.getUrl(), version, architecture));
+        return Optional.of(new IEDriverServerRelease(entry.getKey(), entry.getUrl(), entry.getETag().orElse(null), version, architecture));
     }
 
 }
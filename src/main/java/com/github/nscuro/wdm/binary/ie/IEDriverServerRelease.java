@@ -3,15 +3,17 @@ package com.github.nscuro.wdm.binary.ie;
 import com.github.nscuro.wdm.Architecture;
 import com.github.nscuro.wdm.binary.util.googlecs.GoogleCloudStorageEntry;
 
+import javax.annotation.Nullable;
+
 final class IEDriverServerRelease extends GoogleCloudStorageEntry {
 
     private final String version;
 
     private final Architecture architecture;
 
-    IEDriverServerRelease(final String key, final String url,
+    IEDriverServerRelease(final String key, final String url, @Nullable final String eTag,
                           final String version, final Architecture architecture) {
-        super(key, url);
+        super(key, url, eTag);
 
         this.version = version;
         this.architecture = architecture;
@@ -4,7 +4,9 @@ import com.github.nscuro.wdm.Architecture;
 import com.github.nscuro.wdm.Browser;
 import com.github.nscuro.wdm.Os;
 import com.github.nscuro.wdm.binary.BinaryProvider;
-import com.github.nscuro.wdm.binary.util.VersionComparator;
+import com.github.nscuro.wdm.binary.BinaryProviderContext;
+import com.github.nscuro.wdm.binary.util.ArchiveCache;
+import com.github.nscuro.wdm.binary.util.HttpMetadataCache;
 import com.github.nscuro.wdm.binary.util.compression.BinaryExtractorFactory;
 import com.github.nscuro.wdm.binary.util.github.GitHubRelease;
 import com.github.nscuro.wdm.binary.util.github.GitHubReleaseAsset;
@@ -21,6 +23,7 @@ import java.nio.file.Path;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 import static com.github.nscuro.wdm.binary.util.compression.BinaryExtractor.FileSelectors.entryIsFile;
 import static com.github.nscuro.wdm.binary.util.compression.BinaryExtractor.FileSelectors.entryNameStartsWithIgnoringCase;
@@ -44,8 +47,35 @@ public final class OperaChromiumDriverBinaryProvider implements BinaryProvider {
     private final BinaryExtractorFactory binaryExtractorFactory;
 
     public OperaChromiumDriverBinaryProvider(final HttpClient httpClient) {
+        this(httpClient, HttpMetadataCache.getDefault());
+    }
+
+    /**
+     * Create a {@link OperaChromiumDriverBinaryProvider} that caches release information in the given {@link HttpMetadataCache}.
+     *
+     * @param httpClient    The {@link HttpClient} to use
+     * @param metadataCache The {@link HttpMetadataCache} to use
+     * @see com.github.nscuro.wdm.binary.BinaryManager.Builder#addCachingBinaryProvider(java.util.function.Function)
+     * @since 0.3.1
+     */
+    public OperaChromiumDriverBinaryProvider(final HttpClient httpClient, final HttpMetadataCache metadataCache) {
         this(GitHubReleasesService
-                        .create(requireNonNull(httpClient, "no HttpClient provided"), "operasoftware", "operachromiumdriver"),
+                        .create(requireNonNull(httpClient, "no HttpClient provided"), "operasoftware", "operachromiumdriver", metadataCache),
+                new BinaryExtractorFactory());
+    }
+
+    /**
+     * Create a {@link OperaChromiumDriverBinaryProvider} that uses the {@link HttpClient}, {@link HttpMetadataCache},
+     * {@link com.github.nscuro.wdm.binary.util.ResumableDownloader} and GitHub API rate limit wait time
+     * of the given {@link BinaryProviderContext}.
+     *
+     * @param context The {@link BinaryProviderContext} to use
+     * @see com.github.nscuro.wdm.binary.BinaryManager.Builder#addCachingBinaryProvider(java.util.function.Function)
+     * @since 0.3.1
+     */
+    public OperaChromiumDriverBinaryProvider(final BinaryProviderContext context) {
+        this(GitHubReleasesService.create(requireNonNull(context, "no context provided").getHttpClient(),
+                "operasoftware", "operachromiumdriver", context.getMetadataCache(), context.getDownloader(), context.getGitHubRateLimitWait()),
                 new BinaryExtractorFactory());
     }
 
@@ -82,13 +112,19 @@ public final class OperaChromiumDriverBinaryProvider implements BinaryProvider {
             return Optional.empty();
         }
 
-        return gitHubReleasesService
-                .getAllReleases()
-                .stream()
-                .filter(release -> release.hasAssetForPlatform(platform.get()))
+        final Predicate<GitHubRelease> hasAssetForPlatform = release -> release.hasAssetForPlatform(platform.get());
+
+        Optional<GitHubRelease> latestRelease = gitHubReleasesService.getLatestRelease()
+                .filter(hasAssetForPlatform);
+
+        if (!latestRelease.isPresent()) {
+            // Releases are listed newest first, so there is no need to look at any older release
+            latestRelease = gitHubReleasesService.findRelease(hasAssetForPlatform);
+        }
+
+        return latestRelease
                 .map(GitHubRelease::getTagName)
-                .map(this::normalizeTagName)
-                .max(new VersionComparator());
+                .map(this::normalizeTagName);
     }
 
     /**
@@ -104,18 +140,30 @@ public final class OperaChromiumDriverBinaryProvider implements BinaryProvider {
                 .orElseThrow(() -> new UnsupportedOperationException(
                         format("OperaChromiumDriver is not supported on %s %s", os, architecture)));
 
-        final GitHubReleaseAsset matchingAsset = gitHubReleasesService
-                .getAllReleases()
-                .stream()
-                .filter(release -> normalizeTagName(release.getTagName()).equals(version))
-                .flatMap(release -> release.getAssets().stream())
-                .filter(asset -> asset.isAssetForPlatform(platform))
-                .findAny()
+        final Predicate<GitHubReleaseAsset> isMatchingAsset = asset -> asset.isAssetForPlatform(platform);
+
+        final Predicate<GitHubRelease> isMatchingRelease = release -> normalizeTagName(release.getTagName()).equals(version)
+                && release.getAssets().stream().anyMatch(isMatchingAsset);
+
+        Optional<GitHubRelease> matchingRelease = gitHubReleasesService.getReleaseByVersion(version)
+                .filter(isMatchingRelease);
+
+        if (!matchingRelease.isPresent()) {
+            // Releases with unusual tag names can only be found by listing them
+            matchingRelease = gitHubReleasesService.findRelease(isMatchingRelease);
+        }
+
+        final GitHubReleaseAsset matchingAsset = matchingRelease
+                .flatMap(release -> release.getAssets().stream()
+                        .filter(isMatchingAsset)
+                        .findAny())
                 .orElseThrow(NoSuchElementException::new);
 
-        return binaryExtractorFactory
-                .getBinaryExtractorForArchiveFile(gitHubReleasesService.downloadAsset(matchingAsset))
-                .extractBinary(binaryDestinationPath, entryIsFile().and(entryNameStartsWithIgnoringCase(BINARY_NAME)));
+        return ArchiveCache.forBinaryDestination(binaryDestinationPath).getBinary(matchingAsset.getBrowserDownloadUrl(),
+                matchingAsset.getContentIdentifier().orElse(null), binaryDestinationPath, destinationPath -> gitHubReleasesService
+                        .downloadAsset(matchingAsset, archiveInputStream -> binaryExtractorFactory
+                                .getBinaryExtractorForArchiveStream(matchingAsset.getBrowserDownloadUrl(), archiveInputStream)
+                                .extractBinary(destinationPath, entryIsFile().and(entryNameStartsWithIgnoringCase(BINARY_NAME)))));
     }
 
     @Override
@@ -0,0 +1,259 @@
+package com.github.nscuro.wdm.binary.util;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A content-addressed cache for binaries extracted from upstream archives.
+ * <p>
+ * Some archives contain the binary for multiple platforms (e.g. {@code chromedriver_win32.zip} is used for
+ * both 32 and 64 bit Windows). Binaries are thus cached by the URL of the archive they have been extracted
+ * from plus a validator that changes whenever the archive's content changes (e.g. an ETag). Every archive
+ * is downloaded and extracted only once, and the cached binary is hard-linked to all of its destinations
+ * instead of being copied. When hard links are not supported, the binary is copied instead.
+ * <p>
+ * The destinations every cached binary has been installed to are recorded next to it. Cached binaries are
+ * deleted from the cache once none of their destinations exist anymore (e.g. because they have been evicted),
+ * or when they have not been installed anywhere for 30 days.
+ *
+ * @since 0.3.1
+ */
+public final class ArchiveCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArchiveCache.class);
+
+    static final String CACHE_DIR_NAME = ".archive-cache";
+
+    private static final String REFERENCES_FILE_SUFFIX = ".refs";
+
+    /**
+     * For how long cached binaries are kept after they have last been installed, even when their
+     * destinations still exist. This bounds the size of the cache when destinations are replaced
+     * with binaries from other archives, without the references being updated.
+     */
+    static final Duration MAX_ENTRY_IDLE_TIME = Duration.ofDays(30);
+
+    private static final ConcurrentMap<Path, Lock> ENTRY_LOCKS = new ConcurrentHashMap<>();
+
+    private final Path cacheDirPath;
+
+    ArchiveCache(final Path cacheDirPath) {
+        this.cacheDirPath = requireNonNull(cacheDirPath, "no cacheDirPath provided");
+    }
+
+    /**
+     * Get the {@link ArchiveCache} for binaries that are installed to a given destination.
+     * <p>
+     * The cache is located in a hidden directory next to the destination, so that hard links
+     * between the cache and the destination do not cross file system boundaries.
+     *
+     * @param binaryDestinationPath {@link Path} of a binary's destination
+     * @return The {@link ArchiveCache} responsible for the given destination
+     */
+    @Nonnull
+    public static ArchiveCache forBinaryDestination(final Path binaryDestinationPath) {
+        return new ArchiveCache(binaryDestinationPath.toAbsolutePath().resolveSibling(CACHE_DIR_NAME));
+    }
+
+    /**
+     * Get a binary that is extracted from an archive, using the cached binary when available.
+     *
+     * @param archiveUrl            URL of the archive the binary is extracted from
+     * @param archiveValidator      A validator that changes whenever the archive's content changes, e.g. its ETag.
+     *                              When {@code null}, the archive's content cannot be identified and the cache is bypassed
+     * @param binaryDestinationPath {@link Path} to where the binary shall be installed to
+     * @param binaryLoader          The {@link BinaryLoader} that downloads the archive and extracts the binary
+     * @return The installed binary {@link File}
+     * @throws IOException When loading or installing the binary failed
+     */
+    @Nonnull
+    public File getBinary(final String archiveUrl,
+                          @Nullable final String archiveValidator,
+                          final Path binaryDestinationPath,
+                          final BinaryLoader binaryLoader) throws IOException {
+        if (archiveValidator == null) {
+            LOGGER.debug("No validator available for {} - Bypassing cache", archiveUrl);
+            return binaryLoader.load(binaryDestinationPath);
+        }
+
+        final Path cachedBinaryPath = cacheDirPath.resolve(DigestUtils.sha256Hex(archiveUrl + "\n" + archiveValidator));
+
+        final Lock entryLock = ENTRY_LOCKS.computeIfAbsent(cachedBinaryPath, key -> new ReentrantLock());
+
+        entryLock.lock();
+        try {
+            if (Files.isRegularFile(cachedBinaryPath)) {
+                LOGGER.debug("Binary from {} is cached at {}", archiveUrl, cachedBinaryPath);
+            } else {
+                Files.createDirectories(cacheDirPath);
+                binaryLoader.load(cachedBinaryPath);
+                LOGGER.debug("Cached binary from {} at {}", archiveUrl, cachedBinaryPath);
+            }
+
+            try {
+                installFromCache(cachedBinaryPath, binaryDestinationPath);
+            } catch (FileSystemException e) {
+                // The cache entry may have been pruned by another process in the meantime
+                LOGGER.warn("Binary from {} could not be installed from cache - Bypassing cache", archiveUrl, e);
+                return binaryLoader.load(binaryDestinationPath);
+            }
+
+            try {
+                addReference(cachedBinaryPath, binaryDestinationPath);
+            } catch (IOException e) {
+                // The cache entry will be pruned, which only means that it has to be loaded again when needed
+                LOGGER.debug("Reference from {} to {} could not be recorded", binaryDestinationPath, cachedBinaryPath, e);
+            }
+        } finally {
+            entryLock.unlock();
+        }
+
+        pruneUnreferencedEntries();
+
+        return binaryDestinationPath.toFile();
+    }
+
+    private void installFromCache(final Path cachedBinaryPath, final Path binaryDestinationPath) throws IOException {
+        final Path stagingFilePath = AtomicFileUtils.createStagingFile(binaryDestinationPath);
+
+        try {
+            Files.delete(stagingFilePath);
+
+            try {
+                Files.createLink(stagingFilePath, cachedBinaryPath);
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                LOGGER.debug("{} could not be hard-linked - Copying it instead", cachedBinaryPath, e);
+                Files.copy(cachedBinaryPath, stagingFilePath, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            AtomicFileUtils.publish(stagingFilePath, binaryDestinationPath);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(stagingFilePath);
+            throw e;
+        }
+    }
+
+    /**
+     * Record that a cached binary has been installed to a given destination.
+     * <p>
+     * The references file is rewritten even when the destination is known already,
+     * so that its modification time reflects when the cached binary has last been used.
+     */
+    private static void addReference(final Path cachedBinaryPath, final Path binaryDestinationPath) throws IOException {
+        final Set<String> references = new LinkedHashSet<>(readReferences(cachedBinaryPath));
+        references.add(binaryDestinationPath.toAbsolutePath().normalize().toString());
+
+        AtomicFileUtils.write(getReferencesFilePath(cachedBinaryPath), outputStream ->
+                outputStream.write(String.join("\n", references).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Nonnull
+    private static List<String> readReferences(final Path cachedBinaryPath) throws IOException {
+        final Path referencesFilePath = getReferencesFilePath(cachedBinaryPath);
+
+        if (!referencesFilePath.toFile().exists()) {
+            return Collections.emptyList();
+        }
+
+        return Files.readAllLines(referencesFilePath, StandardCharsets.UTF_8).stream()
+                .filter(reference -> !reference.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    @Nonnull
+    private static Path getReferencesFilePath(final Path cachedBinaryPath) {
+        return cachedBinaryPath.resolveSibling(format(".%s%s", cachedBinaryPath.getFileName(), REFERENCES_FILE_SUFFIX));
+    }
+
+    /**
+     * Delete all cached binaries that are not referenced by any existing destination anymore,
+     * or that have not been installed for {@link #MAX_ENTRY_IDLE_TIME}.
+     */
+    void pruneUnreferencedEntries() {
+        pruneUnreferencedEntries(Instant.now());
+    }
+
+    void pruneUnreferencedEntries(final Instant now) {
+        try (final DirectoryStream<Path> cachedBinaryPaths = Files.newDirectoryStream(cacheDirPath, entry -> !entry.getFileName().toString().startsWith("."))) {
+            for (final Path cachedBinaryPath : cachedBinaryPaths) {
+                final Lock entryLock = ENTRY_LOCKS.computeIfAbsent(cachedBinaryPath, key -> new ReentrantLock());
+
+                if (!entryLock.tryLock()) {
+                    continue;
+                }
+
+                try {
+                    if (!isReferenced(cachedBinaryPath, now)) {
+                        Files.deleteIfExists(cachedBinaryPath);
+                        Files.deleteIfExists(getReferencesFilePath(cachedBinaryPath));
+                        LOGGER.debug("Pruned unreferenced binary {} from cache", cachedBinaryPath);
+                    }
+                } catch (IOException e) {
+                    // The entry may have been pruned by another process in the meantime
+                    LOGGER.debug("{} could not be pruned", cachedBinaryPath, e);
+                } finally {
+                    entryLock.unlock();
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("{} could not be pruned", cacheDirPath, e);
+        }
+    }
+
+    private static boolean isReferenced(final Path cachedBinaryPath, final Instant now) throws IOException {
+        final Path referencesFilePath = getReferencesFilePath(cachedBinaryPath);
+
+        if (!referencesFilePath.toFile().exists()
+                || !Files.getLastModifiedTime(referencesFilePath).toInstant().plus(MAX_ENTRY_IDLE_TIME).isAfter(now)) {
+            return false;
+        }
+
+        return readReferences(cachedBinaryPath).stream()
+                .map(Paths::get)
+                .anyMatch(Files::isRegularFile);
+    }
+
+    /**
+     * Downloads an archive and extracts a binary from it.
+     */
+    @FunctionalInterface
+    public interface BinaryLoader {
+
+        /**
+         * @param binaryDestinationPath {@link Path} to where the binary shall be extracted to
+         * @return The extracted binary {@link File}
+         * @throws IOException When downloading or extracting failed
+         */
+        @Nonnull
+        File load(final Path binaryDestinationPath) throws IOException;
+
+    }
+
+}
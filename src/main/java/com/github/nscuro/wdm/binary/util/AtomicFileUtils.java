@@ -0,0 +1,135 @@
+package com.github.nscuro.wdm.binary.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import static java.lang.String.format;
+
+/**
+ * Utility methods for publishing files atomically.
+ * <p>
+ * Files are first written to a hidden staging file in the same directory as their
+ * destination and then moved to their destination in a single rename. Readers will
+ * thus either see no file at all or the complete file, but never a truncated one.
+ *
+ * @since 0.3.1
+ */
+public final class AtomicFileUtils {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AtomicFileUtils.class);
+
+    private static final String STAGING_FILE_SUFFIX = ".part";
+
+    private AtomicFileUtils() {
+    }
+
+    /**
+     * Write a file atomically.
+     *
+     * @param destinationPath The {@link Path} the file shall be published to
+     * @param writer          Writes the file's content to a given {@link OutputStream}
+     * @return The published {@link File}
+     * @throws IOException When writing or publishing the file failed
+     */
+    @Nonnull
+    public static File write(final Path destinationPath, final StagedFileWriter writer) throws IOException {
+        final Path stagingFilePath = createStagingFile(destinationPath);
+
+        try {
+            try (final OutputStream outputStream = Files.newOutputStream(stagingFilePath)) {
+                writer.write(outputStream);
+            }
+
+            return publish(stagingFilePath, destinationPath);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(stagingFilePath);
+            throw e;
+        }
+    }
+
+    /**
+     * Create a hidden staging file in the same directory as a given destination.
+     * <p>
+     * Staging files must reside in the same directory (and thus on the same file system)
+     * as their destination, otherwise they cannot be moved atomically.
+     *
+     * @param destinationPath The {@link Path} the staged file shall later be published to
+     * @return The {@link Path} of the created staging file
+     * @throws IOException When the staging file could not be created
+     */
+    @Nonnull
+    public static Path createStagingFile(final Path destinationPath) throws IOException {
+        final Path absoluteDestinationPath = destinationPath.toAbsolutePath();
+
+        return Files.createTempFile(absoluteDestinationPath.getParent(),
+                format(".%s.", absoluteDestinationPath.getFileName()), STAGING_FILE_SUFFIX);
+    }
+
+    /**
+     * Check whether any staging files exist for a given destination, i.e. because the
+     * destination is currently being written or its writer has crashed.
+     *
+     * @param destinationPath The {@link Path} the staged files would be published to
+     * @return {@code true} when at least one staging file exists for the given destination
+     * @throws IOException When the destination's directory could not be listed
+     */
+    public static boolean hasStagingFiles(final Path destinationPath) throws IOException {
+        final Path absoluteDestinationPath = destinationPath.toAbsolutePath();
+        final String stagingFilePrefix = format(".%s.", absoluteDestinationPath.getFileName());
+
+        try (final DirectoryStream<Path> stagingFilePaths = Files.newDirectoryStream(absoluteDestinationPath.getParent(), path -> {
+            final String fileName = path.getFileName().toString();
+
+            // Staging files are named like .<destination>.<random number>.part
+            return fileName.startsWith(stagingFilePrefix) && fileName.endsWith(STAGING_FILE_SUFFIX)
+                    && fileName.substring(stagingFilePrefix.length(), fileName.length() - STAGING_FILE_SUFFIX.length()).matches("\\d+");
+        })) {
+            return stagingFilePaths.iterator().hasNext();
+        }
+    }
+
+    /**
+     * Atomically move a staging file to its destination, replacing any existing file.
+     * <p>
+     * When the file system does not support atomic moves, a regular move is performed instead.
+     *
+     * @param stagingFilePath The {@link Path} of the staging file
+     * @param destinationPath The {@link Path} to publish the staging file to
+     * @return The published {@link File}
+     * @throws IOException When the staging file could not be moved
+     */
+    @Nonnull
+    public static File publish(final Path stagingFilePath, final Path destinationPath) throws IOException {
+        try {
+            Files.move(stagingFilePath, destinationPath, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            LOGGER.warn("Atomic moves are not supported for {} - Falling back to a regular move", destinationPath);
+            Files.move(stagingFilePath, destinationPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        LOGGER.debug("Published {} to {}", stagingFilePath, destinationPath);
+
+        return destinationPath.toFile();
+    }
+
+    /**
+     * Writes the content of a staged file.
+     */
+    @FunctionalInterface
+    public interface StagedFileWriter {
+
+        void write(final OutputStream outputStream) throws IOException;
+
+    }
+
+}
@@ -0,0 +1,548 @@
+package com.github.nscuro.wdm.binary.util;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.HttpGet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A cache for metadata (e.g. directory listings or release information) that is retrieved via HTTP.
+ * <p>
+ * Responses are stored on disk together with their {@code ETag} and {@code Last-Modified} validators.
+ * Subsequent requests for the same URL are sent as conditional requests, and when the server responds
+ * with {@code 304 Not Modified}, the cached response is reused instead of being downloaded and parsed again.
+ * Parsed responses are additionally kept in memory for the lifetime of the cache.
+ * <p>
+ * Responses that are parsed with a {@link StreamParser} are never held in memory as a whole.
+ * Their bodies are written to a separate file on disk while they are being parsed. Their {@code Link}
+ * header is stored as well, so that paginated responses can be followed when served from the cache.
+ * <p>
+ * Failing to read or write the cache is not considered to be an error, as the metadata will simply be requested again.
+ *
+ * @since 0.3.1
+ */
+public final class HttpMetadataCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpMetadataCache.class);
+
+    private static final String LINK_HEADER = "Link";
+
+    private static final HttpMetadataCache DEFAULT_INSTANCE = new HttpMetadataCache(Paths
+            .get(System.getProperty("user.home"))
+            .resolve(".webdriver-manager")
+            .resolve(".http-cache"));
+
+    private final Path cacheDirPath;
+
+    private final ObjectMapper objectMapper;
+
+    private final ConcurrentMap<String, ParsedResponse> parsedResponses;
+
+    public HttpMetadataCache(final Path cacheDirPath) {
+        this.cacheDirPath = requireNonNull(cacheDirPath, "no cacheDirPath provided");
+        this.objectMapper = new ObjectMapper();
+        this.parsedResponses = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Get the {@link HttpMetadataCache} used by services that have been created without one.
+     * <p>
+     * {@link com.github.nscuro.wdm.binary.BinaryProvider}s that are added to a
+     * {@link com.github.nscuro.wdm.binary.BinaryManager} via
+     * {@link com.github.nscuro.wdm.binary.BinaryManager.Builder#addCachingBinaryProvider(java.util.function.Function)}
+     * use a cache in the binary destination directory instead.
+     *
+     * @return The {@link HttpMetadataCache} located at {@code $HOME/.webdriver-manager/.http-cache}
+     */
+    @Nonnull
+    public static HttpMetadataCache getDefault() {
+        return DEFAULT_INSTANCE;
+    }
+
+    /**
+     * Perform a (conditional) GET request and parse its response body, reusing the cached result when possible.
+     *
+     * @param httpClient      The {@link HttpClient} to use
+     * @param request         The request to perform. Conditional request headers will be added to it
+     * @param responseHandler A {@link ResponseHandler} that verifies a response and reads its body.
+     *                        It will not be invoked for {@code 304 Not Modified} responses
+     * @param bodyParser      A {@link BodyParser} that parses the response body
+     * @param <T>             Type of the parsed response body
+     * @return The parsed response body
+     * @throws IOException In case of a networking error or when the response body could not be parsed
+     */
+    @Nonnull
+    public <T> T get(final HttpClient httpClient,
+                     final HttpGet request,
+                     final ResponseHandler<String> responseHandler,
+                     final BodyParser<T> bodyParser) throws IOException {
+        final String url = request.getURI().toString();
+
+        final CachedResponse cachedResponse = Optional.ofNullable(parsedResponses.get(url))
+                .map(ParsedResponse::getResponse)
+                .orElseGet(() -> Optional.ofNullable(readCachedResponse(url))
+                        // The body has been stored in a separate file by a StreamParser request
+                        .filter(response -> response.getBody() != null)
+                        .orElse(null));
+
+        addConditionalHeaders(request, cachedResponse);
+
+        final CachedResponse response = httpClient.execute(request, httpResponse -> {
+            if (cachedResponse != null && httpResponse.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+                return null;
+            }
+
+            final CachedResponse freshResponse = new CachedResponse();
+            freshResponse.setUrl(url);
+            freshResponse.setBody(responseHandler.handleResponse(httpResponse));
+            freshResponse.setETag(getHeaderValue(httpResponse.getFirstHeader(HttpHeaders.ETAG)));
+            freshResponse.setLastModified(getHeaderValue(httpResponse.getFirstHeader(HttpHeaders.LAST_MODIFIED)));
+            return freshResponse;
+        });
+
+        if (response == null) {
+            LOGGER.debug("{} has not been modified - Using cached response", url);
+            return parseCachedResponse(cachedResponse, bodyParser);
+        }
+
+        final T parsedBody = bodyParser.parse(response.getBody());
+
+        if (response.getETag() != null || response.getLastModified() != null) {
+            parsedResponses.put(url, new ParsedResponse(response, parsedBody));
+            writeCachedResponse(response);
+        }
+
+        return parsedBody;
+    }
+
+    /**
+     * Perform a (conditional) GET request and parse its response body as a stream.
+     * <p>
+     * Response bodies are parsed directly from the response, so that the parser may stop reading
+     * as soon as it has found what it was looking for. Cacheable response bodies are written to disk
+     * as they are being parsed. When the parser stops early, remainders of up to 2 MiB are still downloaded,
+     * so that the body can be cached and later requests can be answered with {@code 304 Not Modified}.
+     * Larger remainders are not considered worth downloading: The connection is closed instead,
+     * and the body is not cached. Unlike with
+     * {@link #get(HttpClient, HttpGet, ResponseHandler, BodyParser)}, parsed results are not
+     * kept in memory, as they may depend on the parser.
+     *
+     * @param httpClient       The {@link HttpClient} to use
+     * @param request          The request to perform. Conditional request headers will be added to it
+     * @param responseVerifier A {@link ResumableDownloader.ResponseVerifier} that verifies a response before its body is read.
+     *                         It will not be invoked for {@code 304 Not Modified} responses
+     * @param streamParser     A {@link StreamParser} that parses the response body
+     * @param <T>              Type of the parsed response body
+     * @return The parsed response body
+     * @throws IOException In case of a networking error or when the response body could not be parsed
+     */
+    @Nonnull
+    public <T> T getStreamed(final HttpClient httpClient,
+                             final HttpGet request,
+                             final ResumableDownloader.ResponseVerifier responseVerifier,
+                             final StreamParser<T> streamParser) throws IOException {
+        final String url = request.getURI().toString();
+
+        final CachedResponse cachedResponse = Optional.ofNullable(parsedResponses.get(url))
+                .map(ParsedResponse::getResponse)
+                .orElseGet(() -> Optional.ofNullable(readCachedResponse(url))
+                        .filter(response -> response.getBody() != null || getBodyFilePath(url).toFile().exists())
+                        .orElse(null));
+
+        addConditionalHeaders(request, cachedResponse);
+
+        return httpClient.execute(request, httpResponse -> {
+            if (cachedResponse != null && httpResponse.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+                LOGGER.debug("{} has not been modified - Using cached response", url);
+
+                try (final InputStream bodyInputStream = openCachedBody(cachedResponse)) {
+                    return streamParser.parse(bodyInputStream, cachedResponse.getLink());
+                }
+            }
+
+            responseVerifier.verify(httpResponse);
+
+            final HttpEntity entity = Optional.ofNullable(httpResponse.getEntity())
+                    .orElseThrow(() -> new IllegalStateException("Response body was empty"));
+
+            final CachedResponse freshResponse = new CachedResponse();
+            freshResponse.setUrl(url);
+            freshResponse.setETag(getHeaderValue(httpResponse.getFirstHeader(HttpHeaders.ETAG)));
+            freshResponse.setLastModified(getHeaderValue(httpResponse.getFirstHeader(HttpHeaders.LAST_MODIFIED)));
+            freshResponse.setLink(getHeaderValue(httpResponse.getFirstHeader(LINK_HEADER)));
+
+            final Path stagingFilePath = (freshResponse.getETag() != null || freshResponse.getLastModified() != null)
+                    ? createBodyStagingFile(url)
+                    : null;
+
+            if (stagingFilePath == null) {
+                try (final InputStream bodyInputStream = new ResumableDownloader.EarlyClosingInputStream(entity.getContent(), request)) {
+                    return streamParser.parse(bodyInputStream, freshResponse.getLink());
+                }
+            }
+
+            try (final CachingInputStream bodyInputStream = new CachingInputStream(
+                    new ResumableDownloader.EarlyClosingInputStream(entity.getContent(), request), entity.getContentLength(), stagingFilePath)) {
+                // Parsers may close the stream when they are done, which must not prevent reading the remainder
+                final T parsedBody = streamParser.parse(new FilterInputStream(bodyInputStream) {
+                    @Override
+                    public void close() {
+                    }
+                }, freshResponse.getLink());
+
+                if (bodyInputStream.finish()) {
+                    publishBody(stagingFilePath, freshResponse);
+                } else {
+                    LOGGER.debug("{} has not been read completely - Not caching it", url);
+                }
+
+                return parsedBody;
+            } finally {
+                Files.deleteIfExists(stagingFilePath);
+            }
+        });
+    }
+
+    private static void addConditionalHeaders(final HttpGet request, @Nullable final CachedResponse cachedResponse) {
+        if (cachedResponse == null) {
+            return;
+        }
+
+        if (cachedResponse.getETag() != null) {
+            request.setHeader(HttpHeaders.IF_NONE_MATCH, cachedResponse.getETag());
+        }
+        if (cachedResponse.getLastModified() != null) {
+            request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, cachedResponse.getLastModified());
+        }
+    }
+
+    @Nonnull
+    private InputStream openCachedBody(final CachedResponse cachedResponse) throws IOException {
+        if (cachedResponse.getBody() != null) {
+            return new ByteArrayInputStream(cachedResponse.getBody().getBytes(StandardCharsets.UTF_8));
+        }
+
+        return new BufferedInputStream(Files.newInputStream(getBodyFilePath(cachedResponse.getUrl())));
+    }
+
+    @Nullable
+    private Path createBodyStagingFile(final String url) {
+        try {
+            Files.createDirectories(cacheDirPath);
+            return AtomicFileUtils.createStagingFile(getBodyFilePath(url));
+        } catch (IOException e) {
+            LOGGER.warn("Staging file for the response of {} could not be created in {} - Not caching it", url, cacheDirPath, e);
+            return null;
+        }
+    }
+
+    private void publishBody(final Path stagingFilePath, final CachedResponse response) {
+        try {
+            AtomicFileUtils.publish(stagingFilePath, getBodyFilePath(response.getUrl()));
+        } catch (IOException e) {
+            LOGGER.warn("Response of {} could not be cached", response.getUrl(), e);
+            return;
+        }
+
+        parsedResponses.remove(response.getUrl());
+        writeCachedResponse(response);
+    }
+
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    private <T> T parseCachedResponse(final CachedResponse cachedResponse, final BodyParser<T> bodyParser) throws IOException {
+        final ParsedResponse parsedResponse = parsedResponses.get(cachedResponse.getUrl());
+
+        if (parsedResponse != null && parsedResponse.getResponse() == cachedResponse) {
+            return (T) parsedResponse.getParsedBody();
+        }
+
+        final T parsedBody = bodyParser.parse(cachedResponse.getBody());
+        parsedResponses.put(cachedResponse.getUrl(), new ParsedResponse(cachedResponse, parsedBody));
+        return parsedBody;
+    }
+
+    @Nullable
+    private CachedResponse readCachedResponse(final String url) {
+        final Path cacheFilePath = getCacheFilePath(url);
+
+        if (!cacheFilePath.toFile().exists()) {
+            return null;
+        }
+
+        try {
+            return Optional.ofNullable(objectMapper.readValue(cacheFilePath.toFile(), CachedResponse.class))
+                    .filter(cachedResponse -> url.equals(cachedResponse.getUrl()))
+                    .orElse(null);
+        } catch (IOException e) {
+            LOGGER.warn("{} could not be read - Ignoring it", cacheFilePath, e);
+            return null;
+        }
+    }
+
+    private void writeCachedResponse(final CachedResponse response) {
+        final Path cacheFilePath = getCacheFilePath(response.getUrl());
+
+        try {
+            Files.createDirectories(cacheDirPath);
+            AtomicFileUtils.write(cacheFilePath, outputStream -> objectMapper.writeValue(outputStream, response));
+        } catch (IOException e) {
+            LOGGER.warn("Response of {} could not be cached", response.getUrl(), e);
+        }
+    }
+
+    @Nonnull
+    private Path getCacheFilePath(final String url) {
+        return cacheDirPath.resolve(format("%s.json", DigestUtils.sha256Hex(url)));
+    }
+
+    @Nonnull
+    private Path getBodyFilePath(final String url) {
+        return cacheDirPath.resolve(format("%s.body", DigestUtils.sha256Hex(url)));
+    }
+
+    @Nullable
+    private static String getHeaderValue(@Nullable final Header header) {
+        return header != null ? header.getValue() : null;
+    }
+
+    /**
+     * Parses the body of a response.
+     *
+     * @param <T> Type of the parsed body
+     */
+    @FunctionalInterface
+    public interface BodyParser<T> {
+
+        @Nonnull
+        T parse(final String body) throws IOException;
+
+    }
+
+    /**
+     * Parses the body of a response while it is being read.
+     *
+     * @param <T> Type of the parsed body
+     */
+    @FunctionalInterface
+    public interface StreamParser<T> {
+
+        /**
+         * @param bodyInputStream {@link InputStream} of the response body. It does not need to be consumed completely
+         * @param link            Value of the response's {@code Link} header, or {@code null} when it has none
+         * @return The parsed body
+         * @throws IOException When the body could not be read or parsed
+         * @see HttpUtils#getLinkUrl(String, String)
+         */
+        @Nonnull
+        T parse(final InputStream bodyInputStream, @Nullable final String link) throws IOException;
+
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static final class CachedResponse {
+
+        @JsonProperty("url")
+        private String url;
+
+        @JsonProperty("etag")
+        private String eTag;
+
+        @JsonProperty("lastModified")
+        private String lastModified;
+
+        @JsonProperty("link")
+        private String link;
+
+        @JsonProperty("body")
+        private String body;
+
+    }
+
+    /**
+     * Copies everything that is read from a response body to a staging file,
+     * so that the body can be cached without having to be read twice.
+     */
+    private static final class CachingInputStream extends FilterInputStream {
+
+        /**
+         * Parsers may stop before the end of the body, e.g. when they have found what they were looking for,
+         * or at the end of the document they parse, leaving trailing whitespace unread. Remainders up to this
+         * length are read when finishing, larger ones are not considered worth downloading.
+         */
+        private static final long MAX_REMAINDER_LENGTH = 2 * 1024 * 1024;
+
+        private static final int BUFFER_SIZE = 8192;
+
+        private final long contentLength;
+
+        private final Path stagingFilePath;
+
+        private OutputStream stagingFileOutputStream;
+
+        private long bytesRead;
+
+        private boolean endOfStream;
+
+        /**
+         * @param inputStream     The response body
+         * @param contentLength   The length of the response body, or a negative value when it is unknown
+         * @param stagingFilePath The file to write the response body to
+         * @throws IOException When the staging file could not be opened
+         */
+        private CachingInputStream(final InputStream inputStream, final long contentLength, final Path stagingFilePath) throws IOException {
+            super(inputStream);
+            this.contentLength = contentLength;
+            this.stagingFilePath = stagingFilePath;
+            this.stagingFileOutputStream = new BufferedOutputStream(Files.newOutputStream(stagingFilePath));
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int result = super.read();
+
+            if (result == -1) {
+                endOfStream = true;
+            } else {
+                bytesRead++;
+                writeToStagingFile(new byte[]{(byte) result}, 0, 1);
+            }
+
+            return result;
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+            final int result = super.read(buffer, offset, length);
+
+            if (result == -1) {
+                endOfStream = true;
+            } else {
+                bytesRead += result;
+                writeToStagingFile(buffer, offset, result);
+            }
+
+            return result;
+        }
+
+        @Override
+        public long skip(final long length) throws IOException {
+            // Skipped bytes must be written to the staging file as well
+            final int result = read(new byte[(int) Math.min(length, BUFFER_SIZE)]);
+
+            return Math.max(result, 0);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        /**
+         * @return {@code true} when the complete body has been written to the staging file
+         * @throws IOException When reading the remaining body failed
+         */
+        private boolean finish() throws IOException {
+            if (!endOfStream && contentLength >= 0 && contentLength - bytesRead > MAX_REMAINDER_LENGTH) {
+                return false;
+            }
+
+            // Reading one byte more than allowed tells remainders of exactly the maximum length apart from larger ones
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            long remainderLength = 0;
+
+            while (!endOfStream && stagingFileOutputStream != null && remainderLength <= MAX_REMAINDER_LENGTH) {
+                remainderLength += Math.max(read(buffer, 0, (int) Math.min(buffer.length, MAX_REMAINDER_LENGTH + 1 - remainderLength)), 0);
+            }
+
+            if (!endOfStream || stagingFileOutputStream == null) {
+                return false;
+            }
+
+            try {
+                stagingFileOutputStream.close();
+                return true;
+            } catch (IOException e) {
+                LOGGER.warn("{} could not be written - Not caching it", stagingFilePath, e);
+                return false;
+            } finally {
+                stagingFileOutputStream = null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            closeStagingFile();
+            super.close();
+        }
+
+        private void writeToStagingFile(final byte[] buffer, final int offset, final int length) {
+            if (stagingFileOutputStream == null) {
+                return;
+            }
+
+            try {
+                stagingFileOutputStream.write(buffer, offset, length);
+            } catch (IOException e) {
+                LOGGER.warn("{} could not be written - Not caching it", stagingFilePath, e);
+                closeStagingFile();
+            }
+        }
+
+        private void closeStagingFile() {
+            if (stagingFileOutputStream == null) {
+                return;
+            }
+
+            try {
+                stagingFileOutputStream.close();
+            } catch (IOException e) {
+                LOGGER.trace("Closing {} failed", stagingFilePath, e);
+            } finally {
+                stagingFileOutputStream = null;
+            }
+        }
+
+    }
+
+    @Data
+    private static final class ParsedResponse {
+
+        private final CachedResponse response;
+
+        private final Object parsedBody;
+
+    }
+
+}
@@ -5,8 +5,11 @@ import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.Arrays;
 import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static java.lang.String.format;
 
@@ -15,6 +18,8 @@ import static java.lang.String.format;
  */
 public final class HttpUtils {
 
+    private static final Pattern LINK_PATTERN = Pattern.compile("<([^>]*)>([^,<]*)");
+
     private HttpUtils() {
     }
 
@@ -56,4 +61,40 @@ public final class HttpUtils {
                 .orElseThrow(() -> new IllegalStateException(format("Unexpected content type \"%s\"", actualContentType)));
     }
 
+    /**
+     * Get the URL of a link with a given relation from the value of a {@code Link} header.
+     * <p>
+     * This is e.g. used by paginated APIs to point to the next page ({@code rel="next"}).
+     *
+     * @param link     Value of the {@code Link} header
+     * @param relation The relation of the link to get
+     * @return The URL of the link or {@link Optional#empty()} when no link with the given relation exists
+     * @see <a href="https://tools.ietf.org/html/rfc8288">RFC 8288</a>
+     * @since 0.3.1
+     */
+    @Nonnull
+    public static Optional<String> getLinkUrl(@Nullable final String link, final String relation) {
+        if (link == null) {
+            return Optional.empty();
+        }
+
+        final Matcher linkMatcher = LINK_PATTERN.matcher(link);
+
+        while (linkMatcher.find()) {
+            final boolean hasRelation = Arrays.stream(linkMatcher.group(2).split(";"))
+                    .map(String::trim)
+                    .filter(parameter -> parameter.toLowerCase().startsWith("rel="))
+                    .map(parameter -> parameter.substring("rel=".length()).replace("\"", ""))
+                    // A link may have multiple space-separated relations
+                    .flatMap(relations -> Arrays.stream(relations.trim().split("\\s+")))
+                    .anyMatch(relation::equalsIgnoreCase);
+
+            if (hasRelation) {
+                return Optional.of(linkMatcher.group(1));
+            }
+        }
+
+        return Optional.empty();
+    }
+
 }
@@ -0,0 +1,485 @@
+package com.github.nscuro.wdm.binary.util;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+import static com.github.nscuro.wdm.binary.util.HttpUtils.verifyStatusCodeIsAnyOf;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Downloads files in a way that allows interrupted downloads to be resumed.
+ * <p>
+ * Downloads are written to a partial file with a name derived from the downloaded URL, together with
+ * a validator ({@code ETag} or {@code Last-Modified}) of the response. When a download is interrupted,
+ * the next download of the same URL only requests the missing bytes using a {@code Range} request.
+ * The {@code If-Range} header ensures that the server sends the whole file instead when it has changed
+ * in the meantime. Servers that do not support ranges simply send the whole file as well.
+ * <p>
+ * Partial files are locked while they are being written to. When the same URL is being downloaded
+ * concurrently, the download that could not acquire the lock is not resumable.
+ * <p>
+ * Large files are downloaded in multiple segments concurrently when the server supports it.
+ * Whether that is the case is decided based on the headers of the response to the regular request,
+ * so that no additional requests are made for small files or servers without range support.
+ * Segmented downloads are not resumable, so they are only attempted when no partial file exists.
+ * <p>
+ * In streaming mode, {@link #download(HttpClient, HttpGet, ResponseVerifier, ContentHandler)} does not write
+ * any files at all and passes the response body to the {@link ContentHandler} directly instead.
+ *
+ * @see com.github.nscuro.wdm.binary.BinaryManager.Builder#streamingDownloads(boolean)
+ *
+ * @since 0.3.1
+ */
+public final class ResumableDownloader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResumableDownloader.class);
+
+    static final String PARTIAL_FILE_SUFFIX = ".part";
+
+    static final String VALIDATOR_FILE_SUFFIX = ".validator";
+
+    private static final String LOCK_FILE_SUFFIX = ".lock";
+
+    private static final Path DEFAULT_DOWNLOAD_DIR_PATH = Paths
+            .get(System.getProperty("java.io.tmpdir"))
+            .resolve("webdriver-manager-downloads");
+
+    private static final ResumableDownloader DEFAULT_INSTANCE = new ResumableDownloader(DEFAULT_DOWNLOAD_DIR_PATH,
+            SegmentedDownloader.DEFAULT_SEGMENTS, SegmentedDownloader.DEFAULT_SEGMENTATION_THRESHOLD, false);
+
+    private static final ResumableDownloader DEFAULT_STREAMING_INSTANCE = new ResumableDownloader(DEFAULT_DOWNLOAD_DIR_PATH,
+            SegmentedDownloader.DEFAULT_SEGMENTS, SegmentedDownloader.DEFAULT_SEGMENTATION_THRESHOLD, true);
+
+    private final Path downloadDirPath;
+
+    private final SegmentedDownloader segmentedDownloader;
+
+    private final boolean streaming;
+
+    public ResumableDownloader(final Path downloadDirPath) {
+        this(downloadDirPath, SegmentedDownloader.DEFAULT_SEGMENTS, SegmentedDownloader.DEFAULT_SEGMENTATION_THRESHOLD, false);
+    }
+
+    /**
+     * @param downloadDirPath       {@link Path} of the directory to store partial downloads in
+     * @param segments              Number of segments to download large files in concurrently.
+     *                              Use {@code 1} to always download files in a single stream
+     * @param segmentationThreshold Size in bytes from which on files are downloaded in segments
+     * @param streaming             Whether to pass response bodies to {@link ContentHandler}s directly
+     * @throws IllegalArgumentException When {@code segments} is not positive or {@code segmentationThreshold} is negative
+     */
+    public ResumableDownloader(final Path downloadDirPath,
+                               final int segments,
+                               final long segmentationThreshold,
+                               final boolean streaming) {
+        this.downloadDirPath = requireNonNull(downloadDirPath, "no downloadDirPath provided");
+        this.segmentedDownloader = new SegmentedDownloader(segments, segmentationThreshold);
+        this.streaming = streaming;
+    }
+
+    /**
+     * Download a file and process its content.
+     * <p>
+     * In streaming mode, the response body is passed to the {@link ContentHandler} while it is being
+     * downloaded, and the connection is closed as soon as the {@link ContentHandler} is done with it.
+     * Otherwise, the file is downloaded as per {@link #download(HttpClient, HttpGet, ResponseVerifier)}
+     * and deleted once the {@link ContentHandler} has processed it.
+     *
+     * @param httpClient       The {@link HttpClient} to use
+     * @param request          The request to perform
+     * @param responseVerifier A {@link ResponseVerifier} that verifies responses before their body is downloaded
+     * @param contentHandler   The {@link ContentHandler} that processes the file's content
+     * @param <T>              Type of the {@link ContentHandler}'s result
+     * @return The result of the {@link ContentHandler}
+     * @throws IOException When downloading or processing the file failed
+     */
+    public <T> T download(final HttpClient httpClient,
+                          final HttpGet request,
+                          final ResponseVerifier responseVerifier,
+                          final ContentHandler<T> contentHandler) throws IOException {
+        if (!streaming) {
+            final File downloadedFile = download(httpClient, request, responseVerifier);
+
+            try (final InputStream contentInputStream = Files.newInputStream(downloadedFile.toPath(), StandardOpenOption.DELETE_ON_CLOSE)) {
+                return contentHandler.handle(contentInputStream);
+            }
+        }
+
+        return httpClient.execute(request, httpResponse -> {
+            verifyStatusCodeIsAnyOf(httpResponse, HttpStatus.SC_OK);
+            responseVerifier.verify(httpResponse);
+
+            final HttpEntity entity = Optional.ofNullable(httpResponse.getEntity())
+                    .orElseThrow(() -> new IllegalStateException("Response body was empty"));
+
+            try (final InputStream contentInputStream = new EarlyClosingInputStream(entity.getContent(), request)) {
+                return contentHandler.handle(contentInputStream);
+            }
+        });
+    }
+
+    /**
+     * Streaming mode is enabled when the {@code wdm.streamingDownloads} system property is set to {@code true}
+     * at the time of calling this method.
+     *
+     * @return The {@link ResumableDownloader} that stores partial downloads in the temporary directory
+     * @see #getDefault(boolean)
+     */
+    @Nonnull
+    public static ResumableDownloader getDefault() {
+        return getDefault(Boolean.getBoolean("wdm.streamingDownloads"));
+    }
+
+    /**
+     * @param streaming Whether to pass response bodies to {@link ContentHandler}s directly
+     * @return The {@link ResumableDownloader} that stores partial downloads in the temporary directory
+     * @since 0.3.1
+     */
+    @Nonnull
+    public static ResumableDownloader getDefault(final boolean streaming) {
+        return streaming ? DEFAULT_STREAMING_INSTANCE : DEFAULT_INSTANCE;
+    }
+
+    /**
+     * Download a file, resuming a previously interrupted download of it when possible.
+     *
+     * @param httpClient       The {@link HttpClient} to use
+     * @param request          The request to perform. {@code Range} headers will be added to it when resuming
+     * @param responseVerifier A {@link ResponseVerifier} that verifies responses before their body is downloaded
+     * @return The downloaded {@link File}. It has the same extension as the requested file and is owned by the caller
+     * @throws IOException When the download failed. Bytes that have been downloaded so far are kept
+     */
+    @Nonnull
+    public File download(final HttpClient httpClient,
+                         final HttpGet request,
+                         final ResponseVerifier responseVerifier) throws IOException {
+        final String url = request.getURI().toString();
+        final String fileName = FilenameUtils.getName(request.getURI().getPath());
+
+        // Byte offsets of Range requests refer to the encoded content
+        request.setHeader(HttpHeaders.ACCEPT_ENCODING, "identity");
+
+        Files.createDirectories(downloadDirPath);
+
+        final Path partialFilePath = getPartialFilePath(url, fileName);
+
+        try (final FileChannel lockFileChannel = FileChannel.open(getSiblingPath(partialFilePath, LOCK_FILE_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             final FileLock fileLock = tryLock(lockFileChannel)) {
+            if (fileLock == null) {
+                LOGGER.debug("{} is already being downloaded - Downloading it without resume support", url);
+
+                final Path targetFilePath = createTargetFile(fileName);
+                try {
+                    httpClient.execute(request, httpResponse -> {
+                        verifyStatusCodeIsAnyOf(httpResponse, HttpStatus.SC_OK);
+                        responseVerifier.verify(httpResponse);
+                        writeEntity(httpResponse, targetFilePath, false);
+                        return null;
+                    });
+                } catch (IOException | RuntimeException e) {
+                    Files.deleteIfExists(targetFilePath);
+                    throw e;
+                }
+                return targetFilePath.toFile();
+            }
+
+            if (!downloadPartialFile(httpClient, request, responseVerifier, partialFilePath, true)) {
+                LOGGER.debug("{} could not be resumed - Downloading it again", url);
+
+                // The connection of a failed segmented download may have been aborted
+                request.reset();
+                request.removeHeaders(HttpHeaders.RANGE);
+                request.removeHeaders(HttpHeaders.IF_RANGE);
+                deletePartialFile(partialFilePath);
+
+                downloadPartialFile(httpClient, request, responseVerifier, partialFilePath, false);
+            }
+
+            // Move the completed download out of the way, so that it cannot be mistaken for a partial one
+            final Path targetFilePath = createTargetFile(fileName);
+            Files.move(partialFilePath, targetFilePath, StandardCopyOption.REPLACE_EXISTING);
+            Files.deleteIfExists(getSiblingPath(partialFilePath, VALIDATOR_FILE_SUFFIX));
+
+            return targetFilePath.toFile();
+        }
+    }
+
+    /**
+     * Segmented downloads are only attempted when no partial file exists and {@code resume} is set.
+     * They are not resumable, so when they fail, the file is downloaded again in a single stream.
+     *
+     * @return {@code false} when the partial file could not be resumed or downloaded in segments
+     *         and has to be downloaded again
+     */
+    private boolean downloadPartialFile(final HttpClient httpClient,
+                                        final HttpGet request,
+                                        final ResponseVerifier responseVerifier,
+                                        final Path partialFilePath,
+                                        final boolean resume) throws IOException {
+        final long partialFileSize = partialFilePath.toFile().exists() ? Files.size(partialFilePath) : 0;
+        final String validator = readValidator(partialFilePath);
+
+        if (resume && partialFileSize > 0 && validator != null) {
+            LOGGER.info("Resuming download of {} at byte {}", request.getURI(), partialFileSize);
+
+            request.setHeader(HttpHeaders.RANGE, format("bytes=%d-", partialFileSize));
+            request.setHeader(HttpHeaders.IF_RANGE, validator);
+        }
+
+        return httpClient.execute(request, httpResponse -> {
+            final int statusCode = verifyStatusCodeIsAnyOf(httpResponse,
+                    HttpStatus.SC_OK, HttpStatus.SC_PARTIAL_CONTENT, HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+
+            if (statusCode == HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE) {
+                return false;
+            }
+
+            if (statusCode == HttpStatus.SC_PARTIAL_CONTENT) {
+                final String contentRange = Optional.ofNullable(httpResponse.getFirstHeader(HttpHeaders.CONTENT_RANGE))
+                        .map(Header::getValue)
+                        .orElse("");
+
+                if (!contentRange.startsWith(format("bytes %d-", partialFileSize))) {
+                    LOGGER.warn("Unexpected Content-Range \"{}\" for {}", contentRange, request.getURI());
+                    return false;
+                }
+
+                responseVerifier.verify(httpResponse);
+                writeEntity(httpResponse, partialFilePath, true);
+                return true;
+            }
+
+            responseVerifier.verify(httpResponse);
+
+            if (resume && partialFileSize == 0) {
+                // The partial file is filled out of order, so it must not be resumed when the download is interrupted
+                writeValidator(partialFilePath, null);
+
+                try {
+                    if (segmentedDownloader.download(httpClient, request, httpResponse, partialFilePath)) {
+                        return true;
+                    }
+                } catch (InterruptedIOException e) {
+                    throw e;
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.warn("Segmented download of {} failed - Downloading it in a single stream", request.getURI(), e);
+                    return false;
+                }
+            }
+
+            // Record the validator before downloading the body, so that it is available when the download is interrupted
+            writeValidator(partialFilePath, getValidator(httpResponse));
+            writeEntity(httpResponse, partialFilePath, false);
+            return true;
+        });
+    }
+
+    @Nonnull
+    Path getPartialFilePath(final String url, final String fileName) {
+        return downloadDirPath.resolve(format("%s_%s%s", DigestUtils.sha256Hex(url).substring(0, 16), fileName, PARTIAL_FILE_SUFFIX));
+    }
+
+    @Nonnull
+    private Path createTargetFile(final String fileName) throws IOException {
+        return Files.createTempFile(downloadDirPath,
+                format("%s_", FilenameUtils.getBaseName(fileName)),
+                format(".%s", FilenameUtils.getExtension(fileName)));
+    }
+
+    /**
+     * Determine the validator to use for {@code If-Range} headers.
+     * <p>
+     * Weak {@code ETag}s must not be used for {@code If-Range}, and servers that explicitly
+     * do not accept ranges will not be able to resume downloads anyway.
+     */
+    @Nullable
+    private static String getValidator(final HttpResponse httpResponse) {
+        final boolean rangesUnsupported = Optional.ofNullable(httpResponse.getFirstHeader(HttpHeaders.ACCEPT_RANGES))
+                .map(Header::getValue)
+                .filter("none"::equalsIgnoreCase)
+                .isPresent();
+
+        if (rangesUnsupported) {
+            return null;
+        }
+
+        return Optional.ofNullable(httpResponse.getFirstHeader(HttpHeaders.ETAG))
+                .map(Header::getValue)
+                .filter(eTag -> !eTag.startsWith("W/"))
+                .orElseGet(() -> Optional.ofNullable(httpResponse.getFirstHeader(HttpHeaders.LAST_MODIFIED))
+                        .map(Header::getValue)
+                        .orElse(null));
+    }
+
+    @Nullable
+    private static String readValidator(final Path partialFilePath) {
+        final Path validatorFilePath = getSiblingPath(partialFilePath, VALIDATOR_FILE_SUFFIX);
+
+        if (!validatorFilePath.toFile().exists()) {
+            return null;
+        }
+
+        try {
+            return Optional.of(new String(Files.readAllBytes(validatorFilePath), StandardCharsets.UTF_8).trim())
+                    .filter(validator -> !validator.isEmpty())
+                    .orElse(null);
+        } catch (IOException e) {
+            LOGGER.warn("{} could not be read - Ignoring it", validatorFilePath, e);
+            return null;
+        }
+    }
+
+    private static void writeValidator(final Path partialFilePath, @Nullable final String validator) throws IOException {
+        final Path validatorFilePath = getSiblingPath(partialFilePath, VALIDATOR_FILE_SUFFIX);
+
+        if (validator == null) {
+            Files.deleteIfExists(validatorFilePath);
+        } else {
+            Files.write(validatorFilePath, validator.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void writeEntity(final HttpResponse httpResponse, final Path filePath, final boolean append) throws IOException {
+        final HttpEntity entity = Optional.ofNullable(httpResponse.getEntity())
+                .orElseThrow(() -> new IllegalStateException("Response body was empty"));
+
+        LOGGER.debug("Downloading to {} ({} bytes)", filePath, entity.getContentLength());
+
+        try (final OutputStream fileOutputStream = append
+                ? Files.newOutputStream(filePath, StandardOpenOption.CREATE, StandardOpenOption.APPEND)
+                : Files.newOutputStream(filePath)) {
+            entity.writeTo(fileOutputStream);
+        }
+    }
+
+    private static void deletePartialFile(final Path partialFilePath) throws IOException {
+        Files.deleteIfExists(partialFilePath);
+        Files.deleteIfExists(getSiblingPath(partialFilePath, VALIDATOR_FILE_SUFFIX));
+    }
+
+    @Nonnull
+    private static Path getSiblingPath(final Path partialFilePath, final String suffix) {
+        return partialFilePath.resolveSibling(format("%s%s", partialFilePath.getFileName(), suffix));
+    }
+
+    @Nullable
+    private static FileLock tryLock(final FileChannel lockFileChannel) throws IOException {
+        try {
+            return lockFileChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // The lock is held by another thread of this JVM
+            return null;
+        }
+    }
+
+    /**
+     * Processes the content of a downloaded file.
+     *
+     * @param <T> Type of the result
+     */
+    @FunctionalInterface
+    public interface ContentHandler<T> {
+
+        /**
+         * @param contentInputStream {@link InputStream} of the file's content. It does not need to be consumed completely
+         * @return The result of the processing
+         * @throws IOException When processing the content failed
+         */
+        T handle(final InputStream contentInputStream) throws IOException;
+
+    }
+
+    /**
+     * Closing a response body that has not been consumed completely would otherwise cause
+     * the remaining body to be downloaded, so that the connection can be reused.
+     */
+    static final class EarlyClosingInputStream extends FilterInputStream {
+
+        private final HttpGet request;
+
+        private boolean endOfStream;
+
+        EarlyClosingInputStream(final InputStream inputStream, final HttpGet request) {
+            super(inputStream);
+            this.request = request;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int result = super.read();
+            endOfStream = result == -1;
+            return result;
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+            final int result = super.read(buffer, offset, length);
+            endOfStream = result == -1;
+            return result;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (endOfStream) {
+                super.close();
+                return;
+            }
+
+            LOGGER.debug("Closing connection for {} before the response has been consumed completely", request.getURI());
+            request.abort();
+
+            try {
+                super.close();
+            } catch (IOException e) {
+                LOGGER.trace("Closing aborted response of {} failed", request.getURI(), e);
+            }
+        }
+
+    }
+
+    /**
+     * Verifies a response before its body is downloaded, e.g. by checking its content type.
+     */
+    @FunctionalInterface
+    public interface ResponseVerifier {
+
+        /**
+         * @param httpResponse The {@link HttpResponse} to verify
+         * @throws IllegalStateException When the response is not acceptable
+         * @throws IOException           When the response indicates an error that shall be reported as such
+         */
+        void verify(final HttpResponse httpResponse) throws IOException;
+
+    }
+
+}
@@ -0,0 +1,269 @@
+package com.github.nscuro.wdm.binary.util;
+
+import lombok.Data;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.nscuro.wdm.binary.util.HttpUtils.verifyStatusCodeIsAnyOf;
+import static java.lang.String.format;
+
+/**
+ * Downloads large files using multiple concurrent {@code Range} requests.
+ * <p>
+ * A single connection is often limited in throughput on links with high latency.
+ * Files of at least a given size are thus split into segments that are downloaded in parallel
+ * and written to their position in a preallocated file. The first segment is read from the
+ * response of the regular request for the file, and every other segment request is validated with
+ * {@code If-Range}, so that a file that changes during the download cannot be assembled from
+ * segments of different versions.
+ *
+ * @since 0.3.1
+ */
+final class SegmentedDownloader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SegmentedDownloader.class);
+
+    static final int DEFAULT_SEGMENTS = 4;
+
+    static final long DEFAULT_SEGMENTATION_THRESHOLD = 8 * 1024 * 1024;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final Executor SEGMENT_EXECUTOR = createSegmentExecutor();
+
+    private final int segments;
+
+    private final long segmentationThreshold;
+
+    SegmentedDownloader(final int segments, final long segmentationThreshold) {
+        if (segments < 1) {
+            throw new IllegalArgumentException("segments must be positive");
+        } else if (segmentationThreshold < 0) {
+            throw new IllegalArgumentException("segmentationThreshold must not be negative");
+        }
+
+        this.segments = segments;
+        this.segmentationThreshold = segmentationThreshold;
+    }
+
+    /**
+     * Download a file in segments, if the file is large enough and the server supports it.
+     * <p>
+     * Whether that is the case is decided based on the response of a regular request for the whole file,
+     * so that no additional request is necessary. The first segment is read from that response,
+     * while the remaining segments are requested concurrently.
+     *
+     * @param httpClient     The {@link HttpClient} to use
+     * @param request        The request for the whole file
+     * @param httpResponse   The verified {@code 200} response of {@code request}, whose body has not been read yet
+     * @param targetFilePath {@link Path} of the file to download to
+     * @return {@code true} when the file has been downloaded, {@code false} when it cannot be downloaded in segments.
+     *         In the latter case, the response body has not been read
+     * @throws IOException When downloading any of the segments failed. The connection of {@code request}
+     *                     may have been aborted in this case
+     */
+    boolean download(final HttpClient httpClient,
+                     final HttpGet request,
+                     final HttpResponse httpResponse,
+                     final Path targetFilePath) throws IOException {
+        if (segments == 1) {
+            return false;
+        }
+
+        final RemoteFile remoteFile = getRemoteFile(httpResponse);
+
+        if (remoteFile == null || remoteFile.getLength() < Math.max(segmentationThreshold, segments)) {
+            return false;
+        }
+
+        final HttpEntity entity = Optional.ofNullable(httpResponse.getEntity())
+                .orElseThrow(() -> new IllegalStateException("Response body was empty"));
+
+        LOGGER.debug("Downloading {} in {} segments", request.getURI(), segments);
+
+        final long segmentLength = (remoteFile.getLength() + segments - 1) / segments;
+
+        try (final RandomAccessFile targetFile = new RandomAccessFile(targetFilePath.toFile(), "rw")) {
+            targetFile.setLength(remoteFile.getLength());
+
+            final FileChannel targetFileChannel = targetFile.getChannel();
+
+            final List<HttpGet> segmentRequests = new ArrayList<>();
+            final List<CompletableFuture<Void>> segmentFutures = new ArrayList<>();
+
+            for (long firstByte = segmentLength; firstByte < remoteFile.getLength(); firstByte += segmentLength) {
+                final long lastByte = Math.min(firstByte + segmentLength, remoteFile.getLength()) - 1;
+
+                final HttpGet segmentRequest = new HttpGet(request.getURI());
+                segmentRequest.setHeaders(request.getAllHeaders());
+                segmentRequest.setHeader(HttpHeaders.RANGE, format("bytes=%d-%d", firstByte, lastByte));
+                segmentRequest.setHeader(HttpHeaders.IF_RANGE, remoteFile.getValidator());
+                segmentRequests.add(segmentRequest);
+
+                final long segmentFirstByte = firstByte;
+                segmentFutures.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        downloadSegment(httpClient, segmentRequest, targetFileChannel, segmentFirstByte, lastByte);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, SEGMENT_EXECUTOR));
+            }
+
+            // Do not keep downloading the remaining segments when one of them failed
+            segmentFutures.forEach(segmentFuture -> segmentFuture.whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    segmentRequests.forEach(HttpGet::abort);
+                }
+            }));
+
+            // The remainder of the response is not needed, so the connection is closed after the first segment
+            try (final InputStream inputStream = new ResumableDownloader.EarlyClosingInputStream(entity.getContent(), request)) {
+                writeSegment(inputStream, targetFileChannel, 0, segmentLength - 1);
+            } catch (IOException | RuntimeException e) {
+                segmentRequests.forEach(HttpGet::abort);
+                throw e;
+            }
+
+            try {
+                CompletableFuture.allOf(segmentFutures.toArray(new CompletableFuture[0])).get();
+            } catch (InterruptedException e) {
+                segmentRequests.forEach(HttpGet::abort);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(format("Interrupted while downloading %s", request.getURI()));
+            } catch (ExecutionException e) {
+                throw new IOException(format("Segmented download of %s failed", request.getURI()), e.getCause());
+            }
+        }
+
+        return true;
+    }
+
+    private static void downloadSegment(final HttpClient httpClient,
+                                        final HttpGet segmentRequest,
+                                        final FileChannel targetFileChannel,
+                                        final long firstByte,
+                                        final long lastByte) throws IOException {
+        httpClient.execute(segmentRequest, httpResponse -> {
+            // A 200 response means that the file has changed since the segmentation has been planned
+            verifyStatusCodeIsAnyOf(httpResponse, HttpStatus.SC_PARTIAL_CONTENT);
+
+            final String contentRange = Optional.ofNullable(httpResponse.getFirstHeader(HttpHeaders.CONTENT_RANGE))
+                    .map(Header::getValue)
+                    .orElse("");
+
+            if (!contentRange.startsWith(format("bytes %d-%d/", firstByte, lastByte))) {
+                throw new IOException(format("Unexpected Content-Range \"%s\"", contentRange));
+            }
+
+            try (final InputStream inputStream = httpResponse.getEntity().getContent()) {
+                writeSegment(inputStream, targetFileChannel, firstByte, lastByte);
+
+                if (inputStream.read() != -1) {
+                    throw new IOException(format("Received more bytes than requested for segment %d-%d", firstByte, lastByte));
+                }
+            }
+
+            return null;
+        });
+    }
+
+    /**
+     * Write a segment to its position in the target file.
+     * <p>
+     * The target file has been preallocated, so its size does not tell whether all segments are complete.
+     * Every segment is thus verified to have been written completely.
+     *
+     * @throws IOException When writing failed, or the segment ended before all of its bytes have been received
+     */
+    private static void writeSegment(final InputStream inputStream,
+                                     final FileChannel targetFileChannel,
+                                     final long firstByte,
+                                     final long lastByte) throws IOException {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        long position = firstByte;
+
+        while (position <= lastByte) {
+            final int bytesRead = inputStream.read(buffer, 0, (int) Math.min(buffer.length, lastByte + 1 - position));
+
+            if (bytesRead == -1) {
+                throw new IOException(format("Segment %d-%d is incomplete, received only %d bytes",
+                        firstByte, lastByte, position - firstByte));
+            }
+
+            final ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, bytesRead);
+            while (byteBuffer.hasRemaining()) {
+                position += targetFileChannel.write(byteBuffer, position);
+            }
+        }
+    }
+
+    @Nullable
+    private static RemoteFile getRemoteFile(final HttpResponse httpResponse) {
+        final boolean rangesSupported = Optional.ofNullable(httpResponse.getFirstHeader(HttpHeaders.ACCEPT_RANGES))
+                .map(Header::getValue)
+                .filter("bytes"::equalsIgnoreCase)
+                .isPresent();
+
+        final Optional<Long> length = Optional.ofNullable(httpResponse.getFirstHeader(HttpHeaders.CONTENT_LENGTH))
+                .map(Header::getValue)
+                .map(Long::parseLong);
+
+        final Optional<String> validator = Optional.ofNullable(httpResponse.getFirstHeader(HttpHeaders.ETAG))
+                .map(Header::getValue)
+                .filter(eTag -> !eTag.startsWith("W/"));
+
+        if (!rangesSupported || !length.isPresent() || !validator.isPresent()) {
+            return null;
+        }
+
+        return new RemoteFile(length.get(), validator.get());
+    }
+
+    @Nonnull
+    private static Executor createSegmentExecutor() {
+        final AtomicInteger threadCounter = new AtomicInteger();
+
+        return Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, format("webdriver-manager-download-%d", threadCounter.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Data
+    private static final class RemoteFile {
+
+        private final long length;
+
+        private final String validator;
+
+    }
+
+}
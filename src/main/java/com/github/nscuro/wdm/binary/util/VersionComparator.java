@@ -32,6 +32,17 @@ public final class VersionComparator implements Comparator<String> {
         return 0;
     }
 
+    /**
+     * Check whether a given {@link String} is a version string that can be compared by {@link VersionComparator}.
+     *
+     * @param versionString The {@link String} to check
+     * @return {@code true} when the given {@link String} is a version string, otherwise {@code false}
+     * @since 0.3.1
+     */
+    public static boolean isVersionString(final String versionString) {
+        return versionString.matches(VERSION_REGEX);
+    }
+
     @Nonnull
     private Iterator<Integer> parseVersions(final String versionString) {
         if (!requireNonNull(versionString).matches(VERSION_REGEX)) {
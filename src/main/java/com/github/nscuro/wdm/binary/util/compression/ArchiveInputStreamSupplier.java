@@ -0,0 +1,42 @@
+package com.github.nscuro.wdm.binary.util.compression;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import static java.lang.String.format;
+
+/**
+ * Supplies the content of an archive to a {@link BinaryExtractor}.
+ *
+ * @since 0.3.1
+ */
+@FunctionalInterface
+interface ArchiveInputStreamSupplier {
+
+    /**
+     * @return An {@link InputStream} of the archive's content. It is closed by the {@link BinaryExtractor}
+     * @throws IOException When the archive could not be opened
+     */
+    @Nonnull
+    InputStream get() throws IOException;
+
+    /**
+     * @param archiveFile The archive {@link File}
+     * @return An {@link ArchiveInputStreamSupplier} that reads the given file and deletes it once it has been closed
+     */
+    @Nonnull
+    static ArchiveInputStreamSupplier ofFile(final File archiveFile) {
+        return () -> {
+            if (!archiveFile.exists() || !archiveFile.canRead()) {
+                throw new IllegalStateException(format("\"%s\" does not exist or is not readable", archiveFile));
+            }
+
+            return Files.newInputStream(archiveFile.toPath(), StandardOpenOption.DELETE_ON_CLOSE);
+        };
+    }
+
+}
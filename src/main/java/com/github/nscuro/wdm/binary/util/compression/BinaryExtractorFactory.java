@@ -3,7 +3,9 @@ package com.github.nscuro.wdm.binary.util.compression;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 
+import javax.annotation.Nonnull;
 import java.io.File;
+import java.io.InputStream;
 import java.util.Optional;
 
 import static java.lang.String.format;
@@ -26,22 +28,51 @@ public class BinaryExtractorFactory {
      * @throws UnsupportedOperationException When no {@link BinaryExtractor} is available for the given archive format
      */
     public final BinaryExtractor getBinaryExtractorForArchiveFile(final File archiveFile) {
-        final String fileExtension = Optional
-                .of(archiveFile)
-                .map(File::getName)
-                .map(FilenameUtils::getExtension)
-                .filter(StringUtils::isNotEmpty)
-                .map(String::toLowerCase)
-                .orElseThrow(() -> new IllegalArgumentException(format("\"%s\" does not have any file extension", archiveFile)));
+        final String archiveFormat = getArchiveFormat(archiveFile.getName());
 
-        switch (fileExtension) {
+        switch (archiveFormat) {
             case "zip":
                 return new ZipBinaryExtractor(archiveFile);
             case "gz":
                 return new GZipTarballBinaryExtractor(archiveFile);
             default:
-                throw new UnsupportedOperationException(format("No BinaryExtractor available for \"%s\" files", fileExtension));
+                throw new UnsupportedOperationException(format("No BinaryExtractor available for \"%s\" files", archiveFormat));
         }
     }
 
+    /**
+     * Get a {@link BinaryExtractor} that extracts binaries from a stream, e.g. while it is being downloaded.
+     * <p>
+     * The archive format is determined by the extension of the given archive name.
+     * The stream is consumed only up to the extracted binary and closed afterwards.
+     *
+     * @param archiveName        Name or URL of the archive
+     * @param archiveInputStream {@link InputStream} of the archive's content
+     * @return A matching {@link BinaryExtractor}
+     * @throws UnsupportedOperationException When no {@link BinaryExtractor} is available for the given archive format
+     * @since 0.3.1
+     */
+    public final BinaryExtractor getBinaryExtractorForArchiveStream(final String archiveName, final InputStream archiveInputStream) {
+        final String archiveFormat = getArchiveFormat(archiveName);
+
+        switch (archiveFormat) {
+            case "zip":
+                return new ZipBinaryExtractor(archiveName, () -> archiveInputStream);
+            case "gz":
+                return new GZipTarballBinaryExtractor(archiveName, () -> archiveInputStream);
+            default:
+                throw new UnsupportedOperationException(format("No BinaryExtractor available for \"%s\" files", archiveFormat));
+        }
+    }
+
+    @Nonnull
+    private static String getArchiveFormat(final String archiveName) {
+        return Optional
+                .of(archiveName)
+                .map(FilenameUtils::getExtension)
+                .filter(StringUtils::isNotEmpty)
+                .map(String::toLowerCase)
+                .orElseThrow(() -> new IllegalArgumentException(format("\"%s\" does not have any file extension", archiveName)));
+    }
+
 }
@@ -1,9 +1,11 @@
 package com.github.nscuro.wdm.binary.util.compression;
 
+import com.github.nscuro.wdm.binary.util.AtomicFileUtils;
 import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.utils.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,10 +14,7 @@ import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
-import java.nio.file.StandardOpenOption;
 import java.util.NoSuchElementException;
 import java.util.function.Predicate;
 
@@ -31,10 +30,17 @@ final class GZipTarballBinaryExtractor implements BinaryExtractor {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GZipTarballBinaryExtractor.class);
 
-    private final File archiveFile;
+    private final String archiveName;
+
+    private final ArchiveInputStreamSupplier archiveInputStreamSupplier;
 
     GZipTarballBinaryExtractor(final File archiveFile) {
-        this.archiveFile = archiveFile;
+        this(archiveFile.toString(), ArchiveInputStreamSupplier.ofFile(archiveFile));
+    }
+
+    GZipTarballBinaryExtractor(final String archiveName, final ArchiveInputStreamSupplier archiveInputStreamSupplier) {
+        this.archiveName = archiveName;
+        this.archiveInputStreamSupplier = archiveInputStreamSupplier;
     }
 
     /**
@@ -43,12 +49,8 @@ final class GZipTarballBinaryExtractor implements BinaryExtractor {
     @Nonnull
     @Override
     public File extractBinary(final Path binaryDestinationPath, final Predicate<ArchiveEntry> binaryEntrySelector) throws IOException {
-        if (!archiveFile.exists() || !archiveFile.canRead()) {
-            throw new IllegalStateException(format("\"%s\" does not exist or is not readable", archiveFile));
-        }
-
-        try (final InputStream fileInputStream = Files.newInputStream(archiveFile.toPath(), StandardOpenOption.DELETE_ON_CLOSE);
-             final InputStream bufferedInputStream = new BufferedInputStream(fileInputStream);
+        try (final InputStream archiveInputStream = archiveInputStreamSupplier.get();
+             final InputStream bufferedInputStream = new BufferedInputStream(archiveInputStream);
              final GzipCompressorInputStream gzipInputStream = new GzipCompressorInputStream(bufferedInputStream);
              final TarArchiveInputStream tarInputStream = new TarArchiveInputStream(gzipInputStream)) {
 
@@ -57,16 +59,17 @@ final class GZipTarballBinaryExtractor implements BinaryExtractor {
                  tarEntry = tarInputStream.getNextTarEntry()) {
 
                 if (binaryEntrySelector.test(tarEntry)) {
-                    Files.copy(tarInputStream, binaryDestinationPath, StandardCopyOption.REPLACE_EXISTING);
+                    final File binaryFile = AtomicFileUtils
+                            .write(binaryDestinationPath, outputStream -> IOUtils.copy(tarInputStream, outputStream));
 
                     LOGGER.debug("extracted to {}", binaryDestinationPath);
 
-                    return binaryDestinationPath.toFile();
+                    return binaryFile;
                 }
             }
         }
 
-        throw new NoSuchElementException(format("%s does not contain a file matching the given predicate", archiveFile));
+        throw new NoSuchElementException(format("%s does not contain a file matching the given predicate", archiveName));
     }
 
 }
@@ -6,6 +6,10 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.github.nscuro.wdm.Platform;
 import lombok.Data;
 
+import java.util.Optional;
+
+import static java.lang.String.format;
+
 @Data
 @JsonIgnoreProperties(ignoreUnknown = true)
 public final class GitHubReleaseAsset {
@@ -22,6 +26,29 @@ public final class GitHubReleaseAsset {
     @JsonProperty("browser_download_url")
     private String browserDownloadUrl;
 
+    @JsonProperty("size")
+    private Long size;
+
+    @JsonProperty("updated_at")
+    private String updatedAt;
+
+    /**
+     * An identifier for the asset's content.
+     * <p>
+     * Assets can be replaced by deleting and re-uploading them, which changes their ID and update time.
+     *
+     * @return The identifier or {@link Optional#empty()} when the asset's ID or update time is unknown
+     * @since 0.3.1
+     */
+    @JsonIgnore
+    public Optional<String> getContentIdentifier() {
+        if (id == null || updatedAt == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(format("%d@%s/%s", id, updatedAt, size));
+    }
+
     @JsonIgnore
     public boolean isAssetForPlatform(final Platform platform) {
         return name.toLowerCase().contains(platform.getName().toLowerCase());
@@ -1,13 +1,25 @@
 package com.github.nscuro.wdm.binary.util.github;
 
+import com.github.nscuro.wdm.binary.util.HttpMetadataCache;
+import com.github.nscuro.wdm.binary.util.ResumableDownloader;
 import org.apache.http.client.HttpClient;
 
 import javax.annotation.Nonnull;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.FileAttribute;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
 
 /**
  * A service for accessing GitHub's API for releases.
@@ -26,6 +38,99 @@ public interface GitHubReleasesService {
     @Nonnull
     List<GitHubRelease> getAllReleases() throws IOException;
 
+    /**
+     * Get a {@link Stream} of all available {@link GitHubRelease}s of the repository, most recent first.
+     * <p>
+     * Implementations may request releases page by page while the {@link Stream} is being consumed,
+     * so that short-circuiting operations like {@link Stream#findFirst()} only request the pages they need.
+     * Networking errors are thrown as {@link UncheckedIOException} during consumption.
+     *
+     * @return A {@link Stream} of all available {@link GitHubRelease}s
+     * @since 0.3.1
+     */
+    @Nonnull
+    default Stream<GitHubRelease> streamReleases() {
+        try {
+            return getAllReleases().stream();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Find the most recent {@link GitHubRelease} that matches a given {@link Predicate}.
+     * <p>
+     * Releases are ordered by their creation date, so the most recent release is usually the one with the highest version.
+     *
+     * @param predicate The {@link Predicate} to match releases against
+     * @return The most recent matching {@link GitHubRelease}, or {@link Optional#empty()} when no release matches
+     * @throws IOException In case of a networking error
+     * @since 0.3.1
+     */
+    @Nonnull
+    default Optional<GitHubRelease> findRelease(final Predicate<GitHubRelease> predicate) throws IOException {
+        return getAllReleases().stream()
+                .filter(predicate)
+                .findFirst();
+    }
+
+    /**
+     * Get the latest {@link GitHubRelease} of the repository.
+     * <p>
+     * As defined by GitHub, the latest release is the most recent release that is neither a draft nor a pre-release.
+     *
+     * @return The latest {@link GitHubRelease}, or {@link Optional#empty()} when the repository has no such release
+     * @throws IOException In case of a networking error
+     * @since 0.3.1
+     */
+    @Nonnull
+    default Optional<GitHubRelease> getLatestRelease() throws IOException {
+        return findRelease(release -> !Boolean.TRUE.equals(release.getDraft())
+                && !Boolean.TRUE.equals(release.getPreRelease()));
+    }
+
+    /**
+     * Get the {@link GitHubRelease} with a given tag name.
+     *
+     * @param tagName Name of the release's tag
+     * @return The matching {@link GitHubRelease}, or {@link Optional#empty()} when no release has the given tag name
+     * @throws IOException In case of a networking error
+     * @since 0.3.1
+     */
+    @Nonnull
+    default Optional<GitHubRelease> getReleaseByTag(final String tagName) throws IOException {
+        requireNonNull(tagName, "no tag name provided");
+
+        return findRelease(release -> tagName.equals(release.getTagName()));
+    }
+
+    /**
+     * Get the {@link GitHubRelease} of a given version.
+     * <p>
+     * Releases are commonly tagged with their version prefixed by {@code v} or {@code v.}
+     * (e.g. {@code v0.19.1} or {@code v.2.45}). Those variants are tried first, followed by the plain version.
+     *
+     * @param version The version, without any tag prefix
+     * @return The matching {@link GitHubRelease}, or {@link Optional#empty()} when no release has a matching tag name
+     * @throws IOException In case of a networking error
+     * @see #getReleaseByTag(String)
+     * @since 0.3.1
+     */
+    @Nonnull
+    default Optional<GitHubRelease> getReleaseByVersion(final String version) throws IOException {
+        requireNonNull(version, "no version provided");
+
+        for (final String tagName : Arrays.asList("v" + version, "v." + version, version)) {
+            final Optional<GitHubRelease> release = getReleaseByTag(tagName);
+
+            if (release.isPresent()) {
+                return release;
+            }
+        }
+
+        return Optional.empty();
+    }
+
     /**
      * Download a given {@link GitHubReleaseAsset}.
      *
@@ -37,6 +142,23 @@ public interface GitHubReleasesService {
     @Nonnull
     File downloadAsset(final GitHubReleaseAsset asset) throws IOException;
 
+    /**
+     * Download a given {@link GitHubReleaseAsset} and process its content.
+     *
+     * @param asset          The {@link GitHubReleaseAsset} to download
+     * @param contentHandler The {@link ResumableDownloader.ContentHandler} to process the asset's content with
+     * @param <T>            Type of the {@link ResumableDownloader.ContentHandler}'s result
+     * @return The result of the {@link ResumableDownloader.ContentHandler}
+     * @throws IOException In case of a networking error
+     * @since 0.3.1
+     */
+    default <T> T downloadAsset(final GitHubReleaseAsset asset,
+                                final ResumableDownloader.ContentHandler<T> contentHandler) throws IOException {
+        try (final InputStream contentInputStream = Files.newInputStream(downloadAsset(asset).toPath(), StandardOpenOption.DELETE_ON_CLOSE)) {
+            return contentHandler.handle(contentInputStream);
+        }
+    }
+
     /**
      * Create a new {@link GitHubReleasesService} instance.
      *
@@ -52,4 +174,76 @@ public interface GitHubReleasesService {
         return new GitHubReleasesServiceImpl(httpClient, repositoryOwner, repositoryName);
     }
 
+    /**
+     * Create a new {@link GitHubReleasesService} instance.
+     *
+     * @param httpClient      The {@link HttpClient} to use
+     * @param repositoryOwner Owner of the GitHub repository
+     * @param repositoryName  Name of the GitHub repository
+     * @param metadataCache   The {@link HttpMetadataCache} to cache release information in
+     * @return A new {@link GitHubReleasesService} instance
+     * @since 0.3.1
+     */
+    @Nonnull
+    static GitHubReleasesService create(final HttpClient httpClient,
+                                        final String repositoryOwner,
+                                        final String repositoryName,
+                                        final HttpMetadataCache metadataCache) {
+        return new GitHubReleasesServiceImpl(httpClient, repositoryOwner, repositoryName,
+                requireNonNull(metadataCache, "no metadataCache provided"));
+    }
+
+    /**
+     * Create a new {@link GitHubReleasesService} instance.
+     *
+     * @param httpClient      The {@link HttpClient} to use
+     * @param repositoryOwner Owner of the GitHub repository
+     * @param repositoryName  Name of the GitHub repository
+     * @param metadataCache   The {@link HttpMetadataCache} to cache release information in
+     * @param downloader      The {@link ResumableDownloader} to download assets with
+     * @return A new {@link GitHubReleasesService} instance
+     * @since 0.3.1
+     */
+    @Nonnull
+    static GitHubReleasesService create(final HttpClient httpClient,
+                                        final String repositoryOwner,
+                                        final String repositoryName,
+                                        final HttpMetadataCache metadataCache,
+                                        final ResumableDownloader downloader) {
+        return create(httpClient, repositoryOwner, repositoryName, metadataCache, downloader,
+                GitHubRequestScheduler.getDefaultMaxRateLimitWait());
+    }
+
+    /**
+     * Create a new {@link GitHubReleasesService} instance.
+     * <p>
+     * Once the GitHub API rate limit is exhausted, requests that cannot be answered from the {@link HttpMetadataCache}
+     * wait for the rate limit to be reset when that happens within the given maximum wait time, and fail otherwise.
+     *
+     * @param httpClient       The {@link HttpClient} to use
+     * @param repositoryOwner  Owner of the GitHub repository
+     * @param repositoryName   Name of the GitHub repository
+     * @param metadataCache    The {@link HttpMetadataCache} to cache release information in
+     * @param downloader       The {@link ResumableDownloader} to download assets with
+     * @param maxRateLimitWait How long to wait at most for an exhausted rate limit to be reset
+     * @return A new {@link GitHubReleasesService} instance
+     * @throws IllegalArgumentException When the given maximum wait time is negative
+     * @since 0.3.1
+     */
+    @Nonnull
+    static GitHubReleasesService create(final HttpClient httpClient,
+                                        final String repositoryOwner,
+                                        final String repositoryName,
+                                        final HttpMetadataCache metadataCache,
+                                        final ResumableDownloader downloader,
+                                        final Duration maxRateLimitWait) {
+        if (requireNonNull(maxRateLimitWait, "no maxRateLimitWait provided").isNegative()) {
+            throw new IllegalArgumentException("maxRateLimitWait must not be negative");
+        }
+
+        return new GitHubReleasesServiceImpl(httpClient, repositoryOwner, repositoryName,
+                requireNonNull(metadataCache, "no metadataCache provided"),
+                requireNonNull(downloader, "no downloader provided"), maxRateLimitWait);
+    }
+
 }
@@ -1,9 +1,15 @@
 package com.github.nscuro.wdm.binary.util.github;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.apache.commons.io.FilenameUtils;
+import com.github.nscuro.wdm.binary.util.HttpMetadataCache;
+import com.github.nscuro.wdm.binary.util.HttpUtils;
+import com.github.nscuro.wdm.binary.util.ResumableDownloader;
+import lombok.Data;
 import org.apache.http.Header;
 import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.auth.AuthenticationException;
 import org.apache.http.auth.Credentials;
@@ -16,18 +22,30 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static com.github.nscuro.wdm.binary.util.HttpUtils.verifyContentTypeIsAnyOf;
 import static com.github.nscuro.wdm.binary.util.HttpUtils.verifyStatusCodeIsAnyOf;
@@ -37,6 +55,7 @@ import static com.github.nscuro.wdm.binary.util.MimeType.APPLICATION_JSON_UTF8;
 import static com.github.nscuro.wdm.binary.util.MimeType.APPLICATION_OCTET_STREAM;
 import static com.github.nscuro.wdm.binary.util.MimeType.APPLICATION_ZIP;
 import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
 
 /**
  * The default {@link GitHubReleasesService} implementation.
@@ -51,16 +70,45 @@ final class GitHubReleasesServiceImpl implements GitHubReleasesService {
 
     private static final String GITHUB_API_TOKEN = System.getenv("WDM_GH_TOKEN");
 
+    /**
+     * The maximum number of releases per page supported by GitHub's API.
+     */
+    static final int PAGE_SIZE = 100;
+
     private final HttpClient httpClient;
 
+    private final HttpClient apiHttpClient;
+
     private final ObjectMapper objectMapper;
 
     private final String repositoryUrl;
 
+    private final HttpMetadataCache metadataCache;
+
+    private final ResumableDownloader downloader;
+
     GitHubReleasesServiceImpl(final HttpClient httpClient,
                               final String repositoryOwner,
                               final String repositoryName) {
-        this(httpClient, new ObjectMapper(), "https://api.github.com/", repositoryOwner, repositoryName);
+        this(httpClient, repositoryOwner, repositoryName, HttpMetadataCache.getDefault());
+    }
+
+    GitHubReleasesServiceImpl(final HttpClient httpClient,
+                              final String repositoryOwner,
+                              final String repositoryName,
+                              final HttpMetadataCache metadataCache) {
+        this(httpClient, repositoryOwner, repositoryName, metadataCache, ResumableDownloader.getDefault(),
+                GitHubRequestScheduler.getDefaultMaxRateLimitWait());
+    }
+
+    GitHubReleasesServiceImpl(final HttpClient httpClient,
+                              final String repositoryOwner,
+                              final String repositoryName,
+                              final HttpMetadataCache metadataCache,
+                              final ResumableDownloader downloader,
+                              final Duration maxRateLimitWait) {
+        this(httpClient, new ObjectMapper(), "https://api.github.com/", repositoryOwner, repositoryName,
+                metadataCache, downloader, maxRateLimitWait);
     }
 
     GitHubReleasesServiceImpl(final HttpClient httpClient,
@@ -68,55 +116,235 @@ final class GitHubReleasesServiceImpl implements GitHubReleasesService {
                               final String baseUrl,
                               final String repositoryOwner,
                               final String repositoryName) {
+        this(httpClient, objectMapper, baseUrl, repositoryOwner, repositoryName, HttpMetadataCache.getDefault());
+    }
+
+    GitHubReleasesServiceImpl(final HttpClient httpClient,
+                              final ObjectMapper objectMapper,
+                              final String baseUrl,
+                              final String repositoryOwner,
+                              final String repositoryName,
+                              final HttpMetadataCache metadataCache) {
+        this(httpClient, objectMapper, baseUrl, repositoryOwner, repositoryName, metadataCache, ResumableDownloader.getDefault(),
+                GitHubRequestScheduler.getDefaultMaxRateLimitWait());
+    }
+
+    GitHubReleasesServiceImpl(final HttpClient httpClient,
+                              final ObjectMapper objectMapper,
+                              final String baseUrl,
+                              final String repositoryOwner,
+                              final String repositoryName,
+                              final HttpMetadataCache metadataCache,
+                              final ResumableDownloader downloader,
+                              final Duration maxRateLimitWait) {
         this.httpClient = httpClient;
+        this.apiHttpClient = GitHubRequestScheduler.getDefault().schedule(httpClient, maxRateLimitWait);
         this.objectMapper = objectMapper;
         this.repositoryUrl = getRepositoryUrl(baseUrl, repositoryOwner, repositoryName);
+        this.metadataCache = metadataCache;
+        this.downloader = downloader;
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Releases are requested conditionally. Unchanged releases are neither downloaded nor parsed again,
+     * and the request does not count against GitHub's API rate limit.
+     *
+     * @see HttpMetadataCache
      */
     @Nonnull
     @Override
     public List<GitHubRelease> getAllReleases() throws IOException {
-        return objectMapper.readValue(performApiRequest("/releases"), objectMapper.getTypeFactory()
-                .constructCollectionType(ArrayList.class, GitHubRelease.class));
+        try {
+            return streamReleases()
+                    .collect(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Releases are requested in pages of {@value #PAGE_SIZE}, following the {@code Link} header
+     * of each page. The next page is only requested when the {@link Stream} is consumed beyond
+     * the current one. Every page is requested conditionally.
+     *
+     * @see HttpMetadataCache#getStreamed(HttpClient, HttpGet, ResumableDownloader.ResponseVerifier, HttpMetadataCache.StreamParser)
+     */
+    @Nonnull
+    @Override
+    public Stream<GitHubRelease> streamReleases() {
+        return StreamSupport.stream(new ReleasesSpliterator(), false);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Releases are parsed one after another from the response stream, and parsing stops at the first match.
+     * Fields of releases that are not part of {@link GitHubRelease} are skipped without being materialized.
+     * Further pages of releases are only requested when no release of the previous pages matches.
+     *
+     * @see #streamReleases()
+     */
+    @Nonnull
+    @Override
+    public Optional<GitHubRelease> findRelease(final Predicate<GitHubRelease> predicate) throws IOException {
+        String pageUrl = getFirstReleasesPageUrl();
+
+        do {
+            final ReleasesPage page = fetchReleasesPage(pageUrl, predicate);
+
+            if (page.getMatchingRelease() != null) {
+                return Optional.of(page.getMatchingRelease());
+            }
+
+            pageUrl = page.getNextPageUrl();
+        } while (pageUrl != null);
+
+        return Optional.empty();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The release is requested directly, which is a lot cheaper than listing releases.
+     */
+    @Nonnull
+    @Override
+    public Optional<GitHubRelease> getLatestRelease() throws IOException {
+        return getRelease("/releases/latest");
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The release is requested directly, which is a lot cheaper than listing releases.
+     */
+    @Nonnull
+    @Override
+    public Optional<GitHubRelease> getReleaseByTag(final String tagName) throws IOException {
+        // Tag names may contain characters like slashes, which must not be interpreted as part of the path
+        final String encodedTagName = URLEncoder.encode(requireNonNull(tagName, "no tag name provided"),
+                StandardCharsets.UTF_8.name()).replace("+", "%20");
+
+        return getRelease(format("/releases/tags/%s", encodedTagName));
+    }
+
+    @Nonnull
+    private Optional<GitHubRelease> getRelease(final String path) throws IOException {
+        try {
+            return Optional.of(performApiRequest(path, responseBody -> objectMapper.readValue(responseBody, GitHubRelease.class)));
+        } catch (NoSuchElementException e) {
+            LOGGER.debug("No release found at {}{}", repositoryUrl, path);
+            return Optional.empty();
+        }
+    }
+
+    @Nonnull
+    private String getFirstReleasesPageUrl() {
+        return format("%s/releases?per_page=%d", repositoryUrl, PAGE_SIZE);
+    }
+
+    @Nonnull
+    private ReleasesPage fetchReleasesPage(final String pageUrl, final Predicate<GitHubRelease> predicate) throws IOException {
+        return metadataCache.getStreamed(apiHttpClient, createApiRequest(pageUrl),
+                httpResponse -> verifyApiResponse(httpResponse, pageUrl),
+                (bodyInputStream, link) -> {
+                    final List<GitHubRelease> releases = new ArrayList<>();
+
+                    final Optional<GitHubRelease> matchingRelease = parseReleases(bodyInputStream, release -> {
+                        releases.add(release);
+                        return predicate.test(release);
+                    });
+
+                    return new ReleasesPage(releases, matchingRelease.orElse(null),
+                            HttpUtils.getLinkUrl(link, "next").orElse(null));
+                });
+    }
+
+    @Nonnull
+    private Optional<GitHubRelease> parseReleases(final InputStream bodyInputStream,
+                                                  final Predicate<GitHubRelease> predicate) throws IOException {
+        try (final JsonParser jsonParser = objectMapper.getFactory().createParser(bodyInputStream)) {
+            if (jsonParser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException(format("Expected an array of releases, but got %s", jsonParser.currentToken()));
+            }
+
+            while (jsonParser.nextToken() == JsonToken.START_OBJECT) {
+                final GitHubRelease release = objectMapper.readValue(jsonParser, GitHubRelease.class);
+
+                if (predicate.test(release)) {
+                    return Optional.of(release);
+                }
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Interrupted downloads are resumed when the same asset is downloaded again.
+     *
+     * @see ResumableDownloader
      */
     @Nonnull
     @Override
     public File downloadAsset(final GitHubReleaseAsset asset) throws IOException {
-        final String assetFileName = FilenameUtils.getBaseName(asset.getBrowserDownloadUrl());
+        LOGGER.debug("Downloading {}", asset.getBrowserDownloadUrl());
+
+        return downloader.download(httpClient, createDownloadRequest(asset), this::verifyDownloadResponse);
+    }
 
-        final String assetFileExtension = FilenameUtils.getExtension(asset.getBrowserDownloadUrl());
+    /**
+     * {@inheritDoc}
+     * <p>
+     * When streaming downloads are enabled, the asset's content is processed while it is being downloaded.
+     *
+     * @see ResumableDownloader#download(HttpClient, HttpGet, ResumableDownloader.ResponseVerifier, ResumableDownloader.ContentHandler)
+     */
+    @Override
+    public <T> T downloadAsset(final GitHubReleaseAsset asset,
+                               final ResumableDownloader.ContentHandler<T> contentHandler) throws IOException {
+        LOGGER.debug("Downloading {}", asset.getBrowserDownloadUrl());
 
+        return downloader.download(httpClient, createDownloadRequest(asset), this::verifyDownloadResponse, contentHandler);
+    }
+
+    @Nonnull
+    private HttpGet createDownloadRequest(final GitHubReleaseAsset asset) {
         final HttpGet request = new HttpGet(asset.getBrowserDownloadUrl());
         request.setHeader(HttpHeaders.ACCEPT, asset.getContentType());
 
-        final Path targetFilePath = Files.createTempFile(format("%s_", assetFileName), format(".%s", assetFileExtension));
+        return request;
+    }
 
-        LOGGER.debug("Downloading {}.{} to {}", assetFileName, assetFileExtension, targetFilePath);
+    private void verifyDownloadResponse(final HttpResponse httpResponse) {
+        verifyContentTypeIsAnyOf(httpResponse, APPLICATION_ZIP, APPLICATION_GZIP, APPLICATION_OCTET_STREAM);
+    }
+
+    @Nonnull
+    String performApiRequest(final String path) throws IOException {
+        return performApiRequest(path, responseBody -> responseBody);
+    }
 
-        return httpClient.execute(request, httpResponse -> {
-            verifyStatusCodeIsAnyOf(httpResponse, HttpStatus.SC_OK);
-            verifyContentTypeIsAnyOf(httpResponse, APPLICATION_ZIP, APPLICATION_GZIP, APPLICATION_OCTET_STREAM);
+    @Nonnull
+    <T> T performApiRequest(final String path, final HttpMetadataCache.BodyParser<T> responseBodyParser) throws IOException {
+        final String url = format("%s%s", repositoryUrl, path);
 
-            try (final OutputStream fileOutputStream = Files.newOutputStream(targetFilePath)) {
-                Optional.ofNullable(httpResponse.getEntity())
-                        .orElseThrow(() -> new IllegalStateException("Response body was empty"))
-                        .writeTo(fileOutputStream);
-            }
+        return metadataCache.get(apiHttpClient, createApiRequest(url), httpResponse -> {
+            verifyApiResponse(httpResponse, url);
 
-            return targetFilePath.toFile();
-        });
+            return EntityUtils.toString(httpResponse.getEntity());
+        }, responseBodyParser);
     }
 
     @Nonnull
-    String performApiRequest(final String path) throws IOException {
-        final HttpGet request = new HttpGet(format("%s%s", repositoryUrl, path));
+    private HttpGet createApiRequest(final String url) {
+        final HttpGet request = new HttpGet(url);
         request.setHeader(HttpHeaders.ACCEPT, format("%s, %s", APPLICATION_JSON, APPLICATION_JSON_UTF8));
 
         getApiCredentials().ifPresent(credentials -> {
@@ -128,41 +356,40 @@ final class GitHubReleasesServiceImpl implements GitHubReleasesService {
             }
         });
 
-        return httpClient.execute(request, httpResponse -> {
-            verifyStatusCodeIsAnyOf(httpResponse, HttpStatus.SC_OK, HttpStatus.SC_FORBIDDEN, HttpStatus.SC_NOT_FOUND);
-
-            verifyContentTypeIsAnyOf(httpResponse, APPLICATION_JSON, APPLICATION_JSON_UTF8);
-
-            final Optional<Integer> remainingRateLimit = Optional
-                    .ofNullable(httpResponse.getFirstHeader("X-RateLimit-Remaining"))
-                    .map(Header::getValue)
-                    .map(Integer::parseInt);
-
-            final Optional<String> rateLimitResetMessage = Optional
-                    .ofNullable(httpResponse.getFirstHeader("X-RateLimit-Reset"))
-                    .map(Header::getValue)
-                    .map(Long::parseLong)
-                    .map(Instant::ofEpochSecond)
-                    .map(instant -> LocalDateTime.ofInstant(instant, ZoneOffset.UTC))
-                    .map(time -> format("It will be reset at %s UTC time", time));
-
-            if (httpResponse.getStatusLine().getStatusCode() == HttpStatus.SC_FORBIDDEN) {
-                throw new IOException(format(
-                        "Request was rejected because your GitHub API rate limit is exceeded. %s",
-                        rateLimitResetMessage.orElse("")));
-            } else if (httpResponse.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_FOUND) {
-                throw new NoSuchElementException(format(
-                        "Resource at %s%s does not exist", repositoryUrl, path));
-            }
+        return request;
+    }
 
-            remainingRateLimit
-                    .filter(rateLimit -> rateLimit <= 10)
-                    .ifPresent(rateLimit ->
-                            LOGGER.warn("You have only {} requests left until GitHub's API rate limit kicks in. {}",
-                                    rateLimit, rateLimitResetMessage.orElse("")));
+    private void verifyApiResponse(final HttpResponse httpResponse, final String url) throws IOException {
+        verifyStatusCodeIsAnyOf(httpResponse, HttpStatus.SC_OK, HttpStatus.SC_FORBIDDEN, HttpStatus.SC_NOT_FOUND);
+
+        verifyContentTypeIsAnyOf(httpResponse, APPLICATION_JSON, APPLICATION_JSON_UTF8);
+
+        final Optional<Integer> remainingRateLimit = Optional
+                .ofNullable(httpResponse.getFirstHeader("X-RateLimit-Remaining"))
+                .map(Header::getValue)
+                .map(Integer::parseInt);
+
+        final Optional<String> rateLimitResetMessage = Optional
+                .ofNullable(httpResponse.getFirstHeader("X-RateLimit-Reset"))
+                .map(Header::getValue)
+                .map(Long::parseLong)
+                .map(Instant::ofEpochSecond)
+                .map(instant -> LocalDateTime.ofInstant(instant, ZoneOffset.UTC))
+                .map(time -> format("It will be reset at %s UTC time", time));
+
+        if (httpResponse.getStatusLine().getStatusCode() == HttpStatus.SC_FORBIDDEN) {
+            throw new IOException(format(
+                    "Request was rejected because your GitHub API rate limit is exceeded. %s",
+                    rateLimitResetMessage.orElse("")));
+        } else if (httpResponse.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_FOUND) {
+            throw new NoSuchElementException(format("Resource at %s does not exist", url));
+        }
 
-            return EntityUtils.toString(httpResponse.getEntity());
-        });
+        remainingRateLimit
+                .filter(rateLimit -> rateLimit <= 10)
+                .ifPresent(rateLimit ->
+                        LOGGER.warn("You have only {} requests left until GitHub's API rate limit kicks in. {}",
+                                rateLimit, rateLimitResetMessage.orElse("")));
     }
 
     @Nonnull
@@ -174,6 +401,58 @@ final class GitHubReleasesServiceImpl implements GitHubReleasesService {
         }
     }
 
+    /**
+     * Lazily requests pages of releases while they are being consumed.
+     */
+    private final class ReleasesSpliterator extends Spliterators.AbstractSpliterator<GitHubRelease> {
+
+        private String nextPageUrl;
+
+        private Iterator<GitHubRelease> pageIterator;
+
+        private ReleasesSpliterator() {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.nextPageUrl = getFirstReleasesPageUrl();
+            this.pageIterator = Collections.emptyIterator();
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super GitHubRelease> action) {
+            while (!pageIterator.hasNext()) {
+                if (nextPageUrl == null) {
+                    return false;
+                }
+
+                final ReleasesPage page;
+                try {
+                    page = fetchReleasesPage(nextPageUrl, release -> false);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+
+                pageIterator = page.getReleases().iterator();
+                nextPageUrl = page.getNextPageUrl();
+            }
+
+            action.accept(pageIterator.next());
+            return true;
+        }
+
+    }
+
+    @Data
+    private static final class ReleasesPage {
+
+        private final List<GitHubRelease> releases;
+
+        @Nullable
+        private final GitHubRelease matchingRelease;
+
+        @Nullable
+        private final String nextPageUrl;
+
+    }
+
     @Nonnull
     private String getRepositoryUrl(final String baseUrl, final String repositoryOwner, final String repositoryName) {
         return format("%srepos/%s/%s", baseUrl, repositoryOwner, repositoryName);
@@ -0,0 +1,383 @@
+package com.github.nscuro.wdm.binary.util.github;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Schedules requests to GitHub's API with respect to its rate limits.
+ * <p>
+ * The remaining rate limit of every API host is tracked across all {@link HttpClient}s decorated by
+ * the same scheduler. By default, a single scheduler is shared by all {@link GitHubReleasesService}s.
+ * While the rate limit is exhausted, conditional requests are answered with {@code 304 Not Modified}
+ * without being sent, so that cached responses are used until the rate limit is reset. Other requests
+ * wait for the reset when it is due within the maximum wait time of the decorated {@link HttpClient}, and fail otherwise.
+ * <p>
+ * Requests that failed due to a server error or a secondary rate limit are retried
+ * with exponential backoff and full jitter.
+ *
+ * @see <a href="https://docs.github.com/en/rest/overview/resources-in-the-rest-api#rate-limiting">Rate limiting</a>
+ * @since 0.3.1
+ */
+final class GitHubRequestScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GitHubRequestScheduler.class);
+
+    private static final String RATE_LIMIT_REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    private static final String RATE_LIMIT_RESET_HEADER = "X-RateLimit-Reset";
+
+    private static final int SC_TOO_MANY_REQUESTS = 429;
+
+    private static final GitHubRequestScheduler DEFAULT_INSTANCE = new GitHubRequestScheduler(3,
+            Duration.ofSeconds(1), Duration.ofSeconds(30));
+
+    private final int maxRetries;
+
+    private final Duration initialBackoff;
+
+    private final Duration maxBackoff;
+
+    private final ConcurrentMap<String, RateLimit> rateLimitsByHost;
+
+    /**
+     * @param maxRetries     How often a failed request is retried at most
+     * @param initialBackoff The maximum delay before the first retry, which is doubled with every further retry
+     * @param maxBackoff     The maximum delay before any retry
+     */
+    GitHubRequestScheduler(final int maxRetries,
+                           final Duration initialBackoff,
+                           final Duration maxBackoff) {
+        this.maxRetries = maxRetries;
+        this.initialBackoff = requireNonNull(initialBackoff, "no initialBackoff provided");
+        this.maxBackoff = requireNonNull(maxBackoff, "no maxBackoff provided");
+        this.rateLimitsByHost = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @return The {@link GitHubRequestScheduler} shared by all {@link GitHubReleasesService}s
+     */
+    @Nonnull
+    static GitHubRequestScheduler getDefault() {
+        return DEFAULT_INSTANCE;
+    }
+
+    /**
+     * Rate limits are not waited for, unless a maximum wait time is configured with
+     * the {@code wdm.gitHubRateLimitWaitSeconds} system property at the time of calling this method.
+     *
+     * @return How long to wait at most for an exhausted rate limit to be reset per default
+     */
+    @Nonnull
+    static Duration getDefaultMaxRateLimitWait() {
+        return Duration.ofSeconds(Math.max(0, Long.getLong("wdm.gitHubRateLimitWaitSeconds", 0)));
+    }
+
+    /**
+     * @param httpClient       The {@link HttpClient} to schedule requests of
+     * @param maxRateLimitWait How long requests sent via the returned {@link HttpClient} may wait
+     *                         at most for an exhausted rate limit to be reset
+     * @return A {@link HttpClient} that executes requests via the given one, as scheduled by this scheduler
+     */
+    @Nonnull
+    HttpClient schedule(final HttpClient httpClient, final Duration maxRateLimitWait) {
+        return new ScheduledHttpClient(requireNonNull(httpClient, "no HttpClient provided"),
+                requireNonNull(maxRateLimitWait, "no maxRateLimitWait provided"));
+    }
+
+    @Nonnull
+    private HttpResponse execute(final HttpClient httpClient,
+                                 final Duration maxRateLimitWait,
+                                 final HttpUriRequest request,
+                                 @Nullable final HttpContext context) throws IOException {
+        final RateLimit rateLimit = rateLimitsByHost
+                .computeIfAbsent(request.getURI().getAuthority(), authority -> new RateLimit());
+
+        for (int attempt = 0; ; attempt++) {
+            final Optional<Instant> rateLimitReset = rateLimit.getResetWhenExhausted();
+
+            if (rateLimitReset.isPresent()) {
+                if (isConditional(request)) {
+                    LOGGER.debug("GitHub API rate limit is exceeded - Using cached response for {}", request.getURI());
+                    return new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_NOT_MODIFIED, "Not Modified");
+                } else if (!canWaitFor(rateLimitReset.get(), maxRateLimitWait)) {
+                    throw new IOException(format(
+                            "Request was not sent because your GitHub API rate limit is exceeded. It will be reset at %s UTC time",
+                            LocalDateTime.ofInstant(rateLimitReset.get(), ZoneOffset.UTC)));
+                }
+
+                LOGGER.warn("GitHub API rate limit is exceeded - Waiting until it is reset at {} UTC time",
+                        LocalDateTime.ofInstant(rateLimitReset.get(), ZoneOffset.UTC));
+                sleep(Duration.between(Instant.now(), rateLimitReset.get()));
+            }
+
+            final HttpResponse httpResponse = httpClient.execute(request, context);
+            rateLimit.update(httpResponse);
+
+            if (attempt >= maxRetries || request.isAborted()) {
+                return httpResponse;
+            }
+
+            if (isPrimaryRateLimitExceeded(httpResponse)) {
+                final boolean canBeHandled = rateLimit.getResetWhenExhausted()
+                        .filter(reset -> isConditional(request) || canWaitFor(reset, maxRateLimitWait))
+                        .isPresent();
+
+                if (!canBeHandled) {
+                    return httpResponse;
+                }
+
+                // The rate limit is handled before the next attempt
+                discard(httpResponse);
+                continue;
+            }
+
+            final Optional<Duration> retryDelay = getRetryDelay(httpResponse, attempt);
+
+            if (!retryDelay.isPresent()) {
+                return httpResponse;
+            }
+
+            LOGGER.warn("{} responded with status code {} - Retrying in {} ms", request.getURI(),
+                    httpResponse.getStatusLine().getStatusCode(), retryDelay.get().toMillis());
+            discard(httpResponse);
+            sleep(retryDelay.get());
+        }
+    }
+
+    @Nonnull
+    private Optional<Duration> getRetryDelay(final HttpResponse httpResponse, final int attempt) {
+        final int statusCode = httpResponse.getStatusLine().getStatusCode();
+
+        if (statusCode >= HttpStatus.SC_INTERNAL_SERVER_ERROR) {
+            return Optional.of(getBackoff(attempt));
+        } else if (statusCode != HttpStatus.SC_FORBIDDEN && statusCode != SC_TOO_MANY_REQUESTS) {
+            return Optional.empty();
+        }
+
+        // Secondary rate limits are indicated by a Retry-After header, forbidden requests in general are not
+        final Optional<Duration> retryAfter = Optional
+                .ofNullable(httpResponse.getFirstHeader(HttpHeaders.RETRY_AFTER))
+                .map(Header::getValue)
+                .flatMap(GitHubRequestScheduler::parseLong)
+                .map(Duration::ofSeconds);
+
+        if (retryAfter.isPresent()) {
+            return retryAfter.filter(delay -> delay.compareTo(maxBackoff) <= 0);
+        }
+
+        return statusCode == SC_TOO_MANY_REQUESTS
+                ? Optional.of(getBackoff(attempt))
+                : Optional.empty();
+    }
+
+    @Nonnull
+    private Duration getBackoff(final int attempt) {
+        final long maxDelayMillis = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempt, 30));
+
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(maxDelayMillis + 1));
+    }
+
+    private static boolean canWaitFor(final Instant rateLimitReset, final Duration maxRateLimitWait) {
+        return Duration.between(Instant.now(), rateLimitReset).compareTo(maxRateLimitWait) <= 0;
+    }
+
+    private static boolean isConditional(final HttpRequest request) {
+        return request.containsHeader(HttpHeaders.IF_NONE_MATCH) || request.containsHeader(HttpHeaders.IF_MODIFIED_SINCE);
+    }
+
+    private static boolean isPrimaryRateLimitExceeded(final HttpResponse httpResponse) {
+        final int statusCode = httpResponse.getStatusLine().getStatusCode();
+
+        return (statusCode == HttpStatus.SC_FORBIDDEN || statusCode == SC_TOO_MANY_REQUESTS)
+                && Optional.ofNullable(httpResponse.getFirstHeader(RATE_LIMIT_REMAINING_HEADER))
+                .map(Header::getValue)
+                .filter("0"::equals)
+                .isPresent();
+    }
+
+    private static void discard(final HttpResponse httpResponse) throws IOException {
+        EntityUtils.consumeQuietly(httpResponse.getEntity());
+
+        if (httpResponse instanceof Closeable) {
+            ((Closeable) httpResponse).close();
+        }
+    }
+
+    private static void sleep(final Duration duration) throws InterruptedIOException {
+        if (duration.isNegative() || duration.isZero()) {
+            return;
+        }
+
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to send a request to GitHub's API");
+        }
+    }
+
+    @Nonnull
+    private static Optional<Long> parseLong(final String value) {
+        try {
+            return Optional.of(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static final class RateLimit {
+
+        private long remaining = -1;
+
+        private long resetEpochSecond;
+
+        private synchronized void update(final HttpResponse httpResponse) {
+            final Optional<Long> responseRemaining = Optional
+                    .ofNullable(httpResponse.getFirstHeader(RATE_LIMIT_REMAINING_HEADER))
+                    .map(Header::getValue)
+                    .flatMap(GitHubRequestScheduler::parseLong);
+
+            final Optional<Long> responseResetEpochSecond = Optional
+                    .ofNullable(httpResponse.getFirstHeader(RATE_LIMIT_RESET_HEADER))
+                    .map(Header::getValue)
+                    .flatMap(GitHubRequestScheduler::parseLong);
+
+            if (!responseRemaining.isPresent() || !responseResetEpochSecond.isPresent()) {
+                return;
+            }
+
+            // Responses of concurrent requests may arrive out of order
+            if (responseResetEpochSecond.get() > resetEpochSecond) {
+                resetEpochSecond = responseResetEpochSecond.get();
+                remaining = responseRemaining.get();
+            } else if (responseResetEpochSecond.get() == resetEpochSecond) {
+                remaining = Math.min(remaining, responseRemaining.get());
+            }
+        }
+
+        @Nonnull
+        private synchronized Optional<Instant> getResetWhenExhausted() {
+            final Instant reset = Instant.ofEpochSecond(resetEpochSecond);
+
+            return remaining == 0 && Instant.now().isBefore(reset)
+                    ? Optional.of(reset)
+                    : Optional.empty();
+        }
+
+    }
+
+    private final class ScheduledHttpClient implements HttpClient {
+
+        private final HttpClient delegate;
+
+        private final Duration maxRateLimitWait;
+
+        private ScheduledHttpClient(final HttpClient delegate, final Duration maxRateLimitWait) {
+            this.delegate = delegate;
+            this.maxRateLimitWait = maxRateLimitWait;
+        }
+
+        @Override
+        public HttpResponse execute(final HttpUriRequest request) throws IOException {
+            return execute(request, (HttpContext) null);
+        }
+
+        @Override
+        public HttpResponse execute(final HttpUriRequest request, final HttpContext context) throws IOException {
+            return GitHubRequestScheduler.this.execute(delegate, maxRateLimitWait, request, context);
+        }
+
+        @Override
+        public <T> T execute(final HttpUriRequest request, final ResponseHandler<? extends T> responseHandler) throws IOException {
+            return execute(request, responseHandler, null);
+        }
+
+        @Override
+        public <T> T execute(final HttpUriRequest request,
+                             final ResponseHandler<? extends T> responseHandler,
+                             final HttpContext context) throws IOException {
+            final HttpResponse httpResponse = execute(request, context);
+
+            try {
+                final T result = responseHandler.handleResponse(httpResponse);
+                EntityUtils.consume(httpResponse.getEntity());
+                return result;
+            } finally {
+                if (httpResponse instanceof Closeable) {
+                    ((Closeable) httpResponse).close();
+                }
+            }
+        }
+
+        @Override
+        public HttpResponse execute(final HttpHost target, final HttpRequest request) throws IOException {
+            return delegate.execute(target, request);
+        }
+
+        @Override
+        public HttpResponse execute(final HttpHost target, final HttpRequest request, final HttpContext context) throws IOException {
+            return delegate.execute(target, request, context);
+        }
+
+        @Override
+        public <T> T execute(final HttpHost target,
+                             final HttpRequest request,
+                             final ResponseHandler<? extends T> responseHandler) throws IOException {
+            return delegate.execute(target, request, responseHandler);
+        }
+
+        @Override
+        public <T> T execute(final HttpHost target,
+                             final HttpRequest request,
+                             final ResponseHandler<? extends T> responseHandler,
+                             final HttpContext context) throws IOException {
+            return delegate.execute(target, request, responseHandler, context);
+        }
+
+        @Override
+        @Deprecated
+        @SuppressWarnings("deprecation")
+        public org.apache.http.params.HttpParams getParams() {
+            return delegate.getParams();
+        }
+
+        @Override
+        @Deprecated
+        @SuppressWarnings("deprecation")
+        public org.apache.http.conn.ClientConnectionManager getConnectionManager() {
+            return delegate.getConnectionManager();
+        }
+
+    }
+
+}
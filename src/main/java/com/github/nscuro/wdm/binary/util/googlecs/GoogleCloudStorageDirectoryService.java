@@ -1,11 +1,23 @@
 package com.github.nscuro.wdm.binary.util.googlecs;
 
+import com.github.nscuro.wdm.binary.util.HttpMetadataCache;
+import com.github.nscuro.wdm.binary.util.ResumableDownloader;
 import org.apache.http.client.HttpClient;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
 
 /**
  * A service for accessing Google's Cloud Storage API.
@@ -24,6 +36,79 @@ public interface GoogleCloudStorageDirectoryService {
     @Nonnull
     List<GoogleCloudStorageEntry> getEntries() throws IOException;
 
+    /**
+     * Get the {@link GoogleCloudStorageEntry}s of the directory whose keys start with a given prefix.
+     * <p>
+     * When a delimiter is given, entries whose keys contain the delimiter after the prefix are omitted.
+     * Those are summarized by {@link #getCommonPrefixes(String, String)} instead.
+     *
+     * @param prefix    The prefix of the keys to list, e.g. {@code 2.46/}
+     * @param delimiter The delimiter that separates "directories" within keys, usually {@code /}
+     * @return The matching {@link GoogleCloudStorageEntry}s
+     * @throws IOException In case of a networking error
+     * @see <a href="https://cloud.google.com/storage/docs/xml-api/get-bucket-list">API documentation</a>
+     * @since 0.3.1
+     */
+    @Nonnull
+    default List<GoogleCloudStorageEntry> getEntries(final String prefix, @Nullable final String delimiter) throws IOException {
+        requireNonNull(prefix, "no prefix provided");
+
+        return getEntries().stream()
+                .filter(entry -> entry.getKey().startsWith(prefix))
+                .filter(entry -> delimiter == null || !entry.getKey().substring(prefix.length()).contains(delimiter))
+                .collect(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList));
+    }
+
+    /**
+     * Get a {@link Stream} of the {@link GoogleCloudStorageEntry}s of the directory whose keys start with a given prefix.
+     * <p>
+     * Listings are truncated after 1000 keys. Implementations may request further pages only while the
+     * {@link Stream} is being consumed, so that short-circuiting operations like {@link Stream#findAny()}
+     * only request the pages they need. Networking errors are thrown as {@link UncheckedIOException}
+     * during consumption.
+     *
+     * @param prefix    The prefix of the keys to list, or an empty {@link String} for the entire directory
+     * @param delimiter The delimiter that separates "directories" within keys, usually {@code /}
+     * @return A {@link Stream} of the matching {@link GoogleCloudStorageEntry}s
+     * @see #getEntries(String, String)
+     * @since 0.3.1
+     */
+    @Nonnull
+    default Stream<GoogleCloudStorageEntry> streamEntries(final String prefix, @Nullable final String delimiter) {
+        try {
+            return getEntries(prefix, delimiter).stream();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Get the distinct prefixes of keys in the directory, up to and including the first delimiter after a given prefix.
+     * <p>
+     * This is the equivalent of listing the "sub-directories" of a directory,
+     * without listing the entries within those sub-directories.
+     *
+     * @param prefix    The prefix of the keys to summarize, or an empty {@link String} for the entire directory
+     * @param delimiter The delimiter that separates "directories" within keys, usually {@code /}
+     * @return The distinct common prefixes, e.g. {@code 2.45/} and {@code 2.46/}
+     * @throws IOException In case of a networking error
+     * @see <a href="https://cloud.google.com/storage/docs/xml-api/get-bucket-list">API documentation</a>
+     * @since 0.3.1
+     */
+    @Nonnull
+    default List<String> getCommonPrefixes(final String prefix, final String delimiter) throws IOException {
+        requireNonNull(prefix, "no prefix provided");
+        requireNonNull(delimiter, "no delimiter provided");
+
+        return getEntries().stream()
+                .map(GoogleCloudStorageEntry::getKey)
+                .filter(key -> key.startsWith(prefix))
+                .filter(key -> key.indexOf(delimiter, prefix.length()) >= 0)
+                .map(key -> key.substring(0, key.indexOf(delimiter, prefix.length()) + delimiter.length()))
+                .distinct()
+                .collect(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList));
+    }
+
     /**
      * Download a given {@link GoogleCloudStorageEntry}.
      *
@@ -34,6 +119,23 @@ public interface GoogleCloudStorageDirectoryService {
     @Nonnull
     File downloadFile(final GoogleCloudStorageEntry fileEntry) throws IOException;
 
+    /**
+     * Download a given {@link GoogleCloudStorageEntry} and process its content.
+     *
+     * @param fileEntry      The {@link GoogleCloudStorageEntry} to download
+     * @param contentHandler The {@link ResumableDownloader.ContentHandler} to process the file's content with
+     * @param <T>            Type of the {@link ResumableDownloader.ContentHandler}'s result
+     * @return The result of the {@link ResumableDownloader.ContentHandler}
+     * @throws IOException In case of a networking error
+     * @since 0.3.1
+     */
+    default <T> T downloadFile(final GoogleCloudStorageEntry fileEntry,
+                               final ResumableDownloader.ContentHandler<T> contentHandler) throws IOException {
+        try (final InputStream contentInputStream = Files.newInputStream(downloadFile(fileEntry).toPath(), StandardOpenOption.DELETE_ON_CLOSE)) {
+            return contentHandler.handle(contentInputStream);
+        }
+    }
+
     /**
      * Create a new {@link GoogleCloudStorageDirectoryService} instance.
      *
@@ -47,4 +149,41 @@ public interface GoogleCloudStorageDirectoryService {
         return new GoogleCloudStorageDirectoryServiceImpl(httpClient, directoryUrl);
     }
 
+    /**
+     * Create a new {@link GoogleCloudStorageDirectoryService} instance.
+     *
+     * @param httpClient    The {@link HttpClient} to use
+     * @param directoryUrl  The directory URL to use
+     * @param metadataCache The {@link HttpMetadataCache} to cache directory listings in
+     * @return A new {@link GoogleCloudStorageDirectoryService} instance
+     * @since 0.3.1
+     */
+    @Nonnull
+    static GoogleCloudStorageDirectoryService create(final HttpClient httpClient,
+                                                     final String directoryUrl,
+                                                     final HttpMetadataCache metadataCache) {
+        return new GoogleCloudStorageDirectoryServiceImpl(httpClient, directoryUrl,
+                requireNonNull(metadataCache, "no metadataCache provided"));
+    }
+
+    /**
+     * Create a new {@link GoogleCloudStorageDirectoryService} instance.
+     *
+     * @param httpClient    The {@link HttpClient} to use
+     * @param directoryUrl  The directory URL to use
+     * @param metadataCache The {@link HttpMetadataCache} to cache directory listings in
+     * @param downloader    The {@link ResumableDownloader} to download files with
+     * @return A new {@link GoogleCloudStorageDirectoryService} instance
+     * @since 0.3.1
+     */
+    @Nonnull
+    static GoogleCloudStorageDirectoryService create(final HttpClient httpClient,
+                                                     final String directoryUrl,
+                                                     final HttpMetadataCache metadataCache,
+                                                     final ResumableDownloader downloader) {
+        return new GoogleCloudStorageDirectoryServiceImpl(httpClient, directoryUrl,
+                requireNonNull(metadataCache, "no metadataCache provided"),
+                requireNonNull(downloader, "no downloader provided"));
+    }
+
 }
@@ -1,29 +1,33 @@
 package com.github.nscuro.wdm.binary.util.googlecs;
 
-import org.apache.commons.io.FilenameUtils;
+import com.github.nscuro.wdm.binary.util.HttpMetadataCache;
+import com.github.nscuro.wdm.binary.util.ResumableDownloader;
 import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpGet;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.parser.Parser;
+import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static com.github.nscuro.wdm.binary.util.HttpUtils.verifyContentTypeIsAnyOf;
 import static com.github.nscuro.wdm.binary.util.HttpUtils.verifyStatusCodeIsAnyOf;
@@ -32,6 +36,7 @@ import static com.github.nscuro.wdm.binary.util.MimeType.APPLICATION_XML_UTF8;
 import static com.github.nscuro.wdm.binary.util.MimeType.APPLICATION_X_ZIP_COMPRESSED;
 import static com.github.nscuro.wdm.binary.util.MimeType.APPLICATION_ZIP;
 import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
 
 /**
  * @since 0.2.0
@@ -44,79 +49,224 @@ final class GoogleCloudStorageDirectoryServiceImpl implements GoogleCloudStorage
 
     private final String directoryUrl;
 
+    private final HttpMetadataCache metadataCache;
+
+    private final GoogleCloudStorageListingParser listingParser;
+
+    private final ResumableDownloader downloader;
+
     GoogleCloudStorageDirectoryServiceImpl(final HttpClient httpClient, final String directoryUrl) {
+        this(httpClient, directoryUrl, HttpMetadataCache.getDefault());
+    }
+
+    GoogleCloudStorageDirectoryServiceImpl(final HttpClient httpClient,
+                                           final String directoryUrl,
+                                           final HttpMetadataCache metadataCache) {
+        this(httpClient, directoryUrl, metadataCache, ResumableDownloader.getDefault());
+    }
+
+    GoogleCloudStorageDirectoryServiceImpl(final HttpClient httpClient,
+                                           final String directoryUrl,
+                                           final HttpMetadataCache metadataCache,
+                                           final ResumableDownloader downloader) {
         this.httpClient = httpClient;
         this.directoryUrl = directoryUrl;
+        this.metadataCache = metadataCache;
+        this.listingParser = new GoogleCloudStorageListingParser(directoryUrl);
+        this.downloader = downloader;
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * The directory listing is requested conditionally, so that an unchanged
+     * directory is neither downloaded nor parsed again.
+     *
+     * @see HttpMetadataCache
      */
     @Nonnull
     public List<GoogleCloudStorageEntry> getEntries() throws IOException {
-        final HttpGet request = new HttpGet(directoryUrl);
+        return getEntries("", null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only the matching part of the directory is requested, by means of the API's
+     * {@code prefix} and {@code delimiter} parameters.
+     */
+    @Nonnull
+    @Override
+    public List<GoogleCloudStorageEntry> getEntries(final String prefix, @Nullable final String delimiter) throws IOException {
+        return getAllPages(requireNonNull(prefix, "no prefix provided"), delimiter).stream()
+                .flatMap(page -> page.getEntries().stream())
+                .collect(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Pages of a truncated listing are requested one after another, following the listing's
+     * {@code NextMarker}, and only when the {@link Stream} is consumed beyond the previous page.
+     */
+    @Nonnull
+    @Override
+    public Stream<GoogleCloudStorageEntry> streamEntries(final String prefix, @Nullable final String delimiter) {
+        return StreamSupport.stream(new EntriesSpliterator(requireNonNull(prefix, "no prefix provided"), delimiter), false);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only the matching part of the directory is requested, by means of the API's
+     * {@code prefix} and {@code delimiter} parameters.
+     */
+    @Nonnull
+    @Override
+    public List<String> getCommonPrefixes(final String prefix, final String delimiter) throws IOException {
+        return getAllPages(requireNonNull(prefix, "no prefix provided"), requireNonNull(delimiter, "no delimiter provided")).stream()
+                .flatMap(page -> page.getCommonPrefixes().stream())
+                .collect(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList));
+    }
+
+    @Nonnull
+    private List<GoogleCloudStorageListingParser.Listing> getAllPages(final String prefix,
+                                                                      @Nullable final String delimiter) throws IOException {
+        final List<GoogleCloudStorageListingParser.Listing> pages = new ArrayList<>();
+        String marker = null;
+
+        do {
+            final GoogleCloudStorageListingParser.Listing page = getListing(prefix, delimiter, marker);
+            pages.add(page);
+            marker = page.getNextMarker();
+        } while (marker != null);
+
+        return pages;
+    }
+
+    @Nonnull
+    private GoogleCloudStorageListingParser.Listing getListing(final String prefix,
+                                                               @Nullable final String delimiter,
+                                                               @Nullable final String marker) throws IOException {
+        final HttpGet request = new HttpGet(getListingUrl(prefix, delimiter, marker));
         request.setHeader(HttpHeaders.ACCEPT, format("%s, %s", APPLICATION_XML, APPLICATION_XML_UTF8));
 
-        final Document directoryDocument = httpClient.execute(request, httpResponse -> {
+        return metadataCache.get(httpClient, request, httpResponse -> {
             verifyStatusCodeIsAnyOf(httpResponse, HttpStatus.SC_OK);
 
             verifyContentTypeIsAnyOf(httpResponse, APPLICATION_XML, APPLICATION_XML_UTF8);
 
-            try (final InputStream inputStream = httpResponse.getEntity().getContent()) {
-                return Jsoup.parse(inputStream, StandardCharsets.UTF_8.name(), directoryUrl, Parser.xmlParser());
-            }
-        });
-
-        return directoryDocument
-                .select("Contents")
-                .stream()
-                .map(entry -> {
-                    final Optional<String> key = Optional
-                            .ofNullable(entry.selectFirst("Key"))
-                            .map(Element::text);
-
-                    final Optional<String> url = key
-                            .map(entryKey -> directoryUrl + entryKey);
-
-                    if (key.isPresent()) {
-                        return new GoogleCloudStorageEntry(key.get(), url.get());
-                    } else {
-                        LOGGER.warn("No key found in entry \"{}\"", entry.text());
-                        return null;
-                    }
-                })
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+            return EntityUtils.toString(httpResponse.getEntity(), StandardCharsets.UTF_8);
+        }, listingParser::parse);
+    }
+
+    @Nonnull
+    private String getListingUrl(final String prefix,
+                                 @Nullable final String delimiter,
+                                 @Nullable final String marker) throws IOException {
+        final List<String> parameters = new ArrayList<>();
+
+        if (!prefix.isEmpty()) {
+            parameters.add(format("prefix=%s", URLEncoder.encode(prefix, StandardCharsets.UTF_8.name())));
+        }
+        if (delimiter != null) {
+            parameters.add(format("delimiter=%s", URLEncoder.encode(delimiter, StandardCharsets.UTF_8.name())));
+        }
+        if (marker != null) {
+            parameters.add(format("marker=%s", URLEncoder.encode(marker, StandardCharsets.UTF_8.name())));
+        }
+
+        return parameters.isEmpty()
+                ? directoryUrl
+                : format("%s?%s", directoryUrl, String.join("&", parameters));
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Interrupted downloads are resumed when the same file is downloaded again.
+     *
+     * @see ResumableDownloader
      */
     @Nonnull
     public File downloadFile(final GoogleCloudStorageEntry fileEntry) throws IOException {
-        final String fileName = FilenameUtils.getBaseName(fileEntry.getUrl());
-        final String fileExtension = FilenameUtils.getExtension(fileEntry.getUrl());
+        LOGGER.debug("Downloading {}", fileEntry.getUrl());
 
-        final HttpGet request = new HttpGet(fileEntry.getUrl());
-        request.setHeader(HttpHeaders.ACCEPT, format("%s,%s", APPLICATION_ZIP, APPLICATION_X_ZIP_COMPRESSED));
+        return downloader.download(httpClient, createDownloadRequest(fileEntry), this::verifyDownloadResponse);
+    }
 
-        return httpClient.execute(request, httpResponse -> {
-            verifyStatusCodeIsAnyOf(httpResponse, HttpStatus.SC_OK);
+    /**
+     * {@inheritDoc}
+     * <p>
+     * When streaming downloads are enabled, the file's content is processed while it is being downloaded.
+     *
+     * @see ResumableDownloader#download(HttpClient, HttpGet, ResumableDownloader.ResponseVerifier, ResumableDownloader.ContentHandler)
+     */
+    @Override
+    public <T> T downloadFile(final GoogleCloudStorageEntry fileEntry,
+                              final ResumableDownloader.ContentHandler<T> contentHandler) throws IOException {
+        LOGGER.debug("Downloading {}", fileEntry.getUrl());
 
-            verifyContentTypeIsAnyOf(httpResponse, APPLICATION_ZIP, APPLICATION_X_ZIP_COMPRESSED);
+        return downloader.download(httpClient, createDownloadRequest(fileEntry), this::verifyDownloadResponse, contentHandler);
+    }
+
+    /**
+     * Lazily requests pages of a listing while they are being consumed.
+     */
+    private final class EntriesSpliterator extends Spliterators.AbstractSpliterator<GoogleCloudStorageEntry> {
 
-            final Path targetFilePath = Files.createTempFile(format("%s_", fileName), format(".%s", fileExtension));
-            LOGGER.debug("Downloading \"{}.{}\" to \"{}\" ({})", fileName, fileExtension,
-                    targetFilePath, httpResponse.getFirstHeader(HttpHeaders.CONTENT_LENGTH));
+        private final String prefix;
 
-            try (final OutputStream fileOutputStream = Files.newOutputStream(targetFilePath)) {
-                Optional.ofNullable(httpResponse.getEntity())
-                        .orElseThrow(() -> new IllegalStateException("Response body was empty"))
-                        .writeTo(fileOutputStream);
+        private final String delimiter;
+
+        private Iterator<GoogleCloudStorageEntry> pageIterator;
+
+        private String nextMarker;
+
+        private boolean isLastPage;
+
+        private EntriesSpliterator(final String prefix, @Nullable final String delimiter) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.prefix = prefix;
+            this.delimiter = delimiter;
+            this.pageIterator = Collections.emptyIterator();
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super GoogleCloudStorageEntry> action) {
+            while (!pageIterator.hasNext()) {
+                if (isLastPage) {
+                    return false;
+                }
+
+                final GoogleCloudStorageListingParser.Listing page;
+                try {
+                    page = getListing(prefix, delimiter, nextMarker);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+
+                pageIterator = page.getEntries().iterator();
+                nextMarker = page.getNextMarker();
+                isLastPage = nextMarker == null;
             }
 
-            return targetFilePath.toFile();
-        });
+            action.accept(pageIterator.next());
+            return true;
+        }
+
+    }
+
+    @Nonnull
+    private HttpGet createDownloadRequest(final GoogleCloudStorageEntry fileEntry) {
+        final HttpGet request = new HttpGet(fileEntry.getUrl());
+        request.setHeader(HttpHeaders.ACCEPT, format("%s,%s", APPLICATION_ZIP, APPLICATION_X_ZIP_COMPRESSED));
+
+        return request;
+    }
+
+    private void verifyDownloadResponse(final HttpResponse httpResponse) {
+        verifyContentTypeIsAnyOf(httpResponse, APPLICATION_ZIP, APPLICATION_X_ZIP_COMPRESSED);
     }
 
 }
@@ -1,5 +1,9 @@
 package com.github.nscuro.wdm.binary.util.googlecs;
 
+import javax.annotation.Nullable;
+import java.time.Instant;
+import java.util.Optional;
+
 /**
  * @since 0.2.0
  */
@@ -9,9 +13,41 @@ public class GoogleCloudStorageEntry {
 
     private final String url;
 
+    private final String eTag;
+
+    private final Long size;
+
+    private final Instant lastModified;
+
     public GoogleCloudStorageEntry(final String key, final String url) {
+        this(key, url, null);
+    }
+
+    /**
+     * @param key  The entry's key
+     * @param url  The entry's URL
+     * @param eTag The entry's ETag, which changes whenever the entry's content changes
+     * @since 0.3.1
+     */
+    public GoogleCloudStorageEntry(final String key, final String url, @Nullable final String eTag) {
+        this(key, url, eTag, null, null);
+    }
+
+    /**
+     * @param key          The entry's key
+     * @param url          The entry's URL
+     * @param eTag         The entry's ETag, which changes whenever the entry's content changes
+     * @param size         The entry's size in bytes
+     * @param lastModified The point in time the entry has been modified last
+     * @since 0.3.1
+     */
+    public GoogleCloudStorageEntry(final String key, final String url, @Nullable final String eTag,
+                                   @Nullable final Long size, @Nullable final Instant lastModified) {
         this.key = key;
         this.url = url;
+        this.eTag = eTag;
+        this.size = size;
+        this.lastModified = lastModified;
     }
 
     public final String getKey() {
@@ -22,4 +58,29 @@ public class GoogleCloudStorageEntry {
         return url;
     }
 
+    /**
+     * @return The entry's ETag or {@link Optional#empty()} when the directory listing did not contain one
+     * @since 0.3.1
+     */
+    public final Optional<String> getETag() {
+        return Optional.ofNullable(eTag);
+    }
+
+    /**
+     * @return The entry's size in bytes or {@link Optional#empty()} when the directory listing did not contain it
+     * @since 0.3.1
+     */
+    public final Optional<Long> getSize() {
+        return Optional.ofNullable(size);
+    }
+
+    /**
+     * @return The point in time the entry has been modified last or {@link Optional#empty()}
+     *         when the directory listing did not contain it
+     * @since 0.3.1
+     */
+    public final Optional<Instant> getLastModified() {
+        return Optional.ofNullable(lastModified);
+    }
+
 }
@@ -0,0 +1,313 @@
+package com.github.nscuro.wdm.binary.util.googlecs;
+
+import lombok.Data;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Parses the listings returned by the XML API's "List Objects" request.
+ * <p>
+ * Listings are parsed with a pull parser, so that entries are created while the listing
+ * is being read, without building a document tree first. Listings that are not well-formed
+ * are parsed leniently with Jsoup instead.
+ * <p>
+ * Listings are truncated after 1000 keys. The marker to request the next page of a truncated
+ * listing with is determined as well.
+ *
+ * @see <a href="https://cloud.google.com/storage/docs/xml-api/get-bucket-list">API documentation</a>
+ * @since 0.3.1
+ */
+final class GoogleCloudStorageListingParser {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GoogleCloudStorageListingParser.class);
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    private final String directoryUrl;
+
+    /**
+     * @param directoryUrl The directory URL that keys are relative to
+     */
+    GoogleCloudStorageListingParser(final String directoryUrl) {
+        this.directoryUrl = requireNonNull(directoryUrl, "no directoryUrl provided");
+    }
+
+    /**
+     * @param listingXml The listing to parse
+     * @return The parsed {@link Listing}
+     */
+    @Nonnull
+    Listing parse(final String listingXml) {
+        try {
+            return parseStreaming(listingXml);
+        } catch (XMLStreamException e) {
+            LOGGER.warn("Listing of {} is not well-formed - Parsing it leniently", directoryUrl, e);
+            return parseLeniently(listingXml);
+        }
+    }
+
+    @Nonnull
+    Listing parseStreaming(final String listingXml) throws XMLStreamException {
+        final List<GoogleCloudStorageEntry> entries = new ArrayList<>();
+        final List<String> commonPrefixes = new ArrayList<>();
+        String isTruncated = null;
+        String nextMarker = null;
+
+        final XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(listingXml));
+
+        try {
+            // ListBucketResult
+            reader.nextTag();
+
+            while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                switch (reader.getLocalName()) {
+                    case "Contents":
+                        parseContents(reader).ifPresent(entries::add);
+                        break;
+                    case "CommonPrefixes":
+                        parseCommonPrefixes(reader, commonPrefixes);
+                        break;
+                    case "IsTruncated":
+                        isTruncated = reader.getElementText();
+                        break;
+                    case "NextMarker":
+                        nextMarker = reader.getElementText();
+                        break;
+                    default:
+                        skipElement(reader);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        return new Listing(Collections.unmodifiableList(entries), Collections.unmodifiableList(commonPrefixes),
+                getNextMarker(isTruncated, nextMarker, entries, commonPrefixes));
+    }
+
+    @Nonnull
+    Listing parseLeniently(final String listingXml) {
+        final Document document = Jsoup.parse(listingXml, directoryUrl, Parser.xmlParser());
+
+        final List<GoogleCloudStorageEntry> entries = document
+                .select("Contents")
+                .stream()
+                .map(entry -> {
+                    final String key = getText(entry, "Key");
+
+                    if (key == null) {
+                        LOGGER.warn("No key found in entry \"{}\"", entry.text());
+                        return null;
+                    }
+
+                    return new GoogleCloudStorageEntry(key, directoryUrl + key, getText(entry, "ETag"),
+                            parseSize(getText(entry, "Size")), parseLastModified(getText(entry, "LastModified")));
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList));
+
+        final List<String> commonPrefixes = document
+                .select("CommonPrefixes > Prefix")
+                .stream()
+                .map(Element::text)
+                .collect(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList));
+
+        return new Listing(entries, commonPrefixes, getNextMarker(getText(document, "IsTruncated"),
+                getText(document, "NextMarker"), entries, commonPrefixes));
+    }
+
+    @Nullable
+    private static String getNextMarker(@Nullable final String isTruncated,
+                                        @Nullable final String nextMarker,
+                                        final List<GoogleCloudStorageEntry> entries,
+                                        final List<String> commonPrefixes) {
+        if (isTruncated == null || !Boolean.parseBoolean(isTruncated.trim())) {
+            return null;
+        } else if (nextMarker != null && !nextMarker.isEmpty()) {
+            return nextMarker;
+        }
+
+        // Without a NextMarker, the listing continues after its lexicographically last key or prefix
+        final String lastKey = entries.isEmpty() ? null : entries.get(entries.size() - 1).getKey();
+        final String lastPrefix = commonPrefixes.isEmpty() ? null : commonPrefixes.get(commonPrefixes.size() - 1);
+
+        if (lastKey == null || lastPrefix == null) {
+            return lastKey != null ? lastKey : lastPrefix;
+        }
+
+        return lastKey.compareTo(lastPrefix) > 0 ? lastKey : lastPrefix;
+    }
+
+    @Nonnull
+    private Optional<GoogleCloudStorageEntry> parseContents(final XMLStreamReader reader) throws XMLStreamException {
+        String key = null;
+        String eTag = null;
+        String size = null;
+        String lastModified = null;
+
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "Key":
+                    key = reader.getElementText();
+                    break;
+                case "ETag":
+                    eTag = reader.getElementText();
+                    break;
+                case "Size":
+                    size = reader.getElementText();
+                    break;
+                case "LastModified":
+                    lastModified = reader.getElementText();
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+
+        if (key == null) {
+            LOGGER.warn("No key found in entry at line {}", reader.getLocation().getLineNumber());
+            return Optional.empty();
+        }
+
+        return Optional.of(new GoogleCloudStorageEntry(key, directoryUrl + key, eTag,
+                parseSize(size), parseLastModified(lastModified)));
+    }
+
+    private static void parseCommonPrefixes(final XMLStreamReader reader, final List<String> commonPrefixes) throws XMLStreamException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if ("Prefix".equals(reader.getLocalName())) {
+                commonPrefixes.add(reader.getElementText());
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    private static void skipElement(final XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+
+        while (depth > 0) {
+            final int event = reader.next();
+
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    @Nullable
+    private static String getText(final Element element, final String childElementName) {
+        return Optional
+                .ofNullable(element.selectFirst(childElementName))
+                .map(Element::text)
+                .orElse(null);
+    }
+
+    @Nullable
+    private static Long parseSize(@Nullable final String size) {
+        try {
+            return size != null ? Long.valueOf(size.trim()) : null;
+        } catch (NumberFormatException e) {
+            LOGGER.debug("\"{}\" is not a valid size - Ignoring it", size);
+            return null;
+        }
+    }
+
+    @Nullable
+    static Instant parseLastModified(@Nullable final String lastModified) {
+        if (lastModified == null) {
+            return null;
+        }
+
+        final String timestamp = lastModified.trim();
+
+        try {
+            // Timestamps are always formatted like 2013-09-25T22:57:39.349Z, which is
+            // a lot cheaper to parse by hand than with a DateTimeFormatter
+            if (timestamp.length() == 24 && timestamp.charAt(4) == '-' && timestamp.charAt(7) == '-'
+                    && timestamp.charAt(10) == 'T' && timestamp.charAt(13) == ':' && timestamp.charAt(16) == ':'
+                    && timestamp.charAt(19) == '.' && timestamp.charAt(23) == 'Z') {
+                return LocalDateTime
+                        .of(parseDigits(timestamp, 0, 4), parseDigits(timestamp, 5, 7), parseDigits(timestamp, 8, 10),
+                                parseDigits(timestamp, 11, 13), parseDigits(timestamp, 14, 16), parseDigits(timestamp, 17, 19),
+                                parseDigits(timestamp, 20, 23) * 1_000_000)
+                        .toInstant(ZoneOffset.UTC);
+            }
+
+            return Instant.parse(timestamp);
+        } catch (DateTimeException | NumberFormatException e) {
+            LOGGER.debug("\"{}\" is not a valid timestamp - Ignoring it", lastModified);
+            return null;
+        }
+    }
+
+    private static int parseDigits(final String value, final int beginIndex, final int endIndex) {
+        int result = 0;
+
+        for (int i = beginIndex; i < endIndex; i++) {
+            final int digit = Character.digit(value.charAt(i), 10);
+
+            if (digit < 0) {
+                throw new NumberFormatException(format("\"%s\" contains non-digits", value));
+            }
+
+            result = result * 10 + digit;
+        }
+
+        return result;
+    }
+
+    @Nonnull
+    private static XMLInputFactory createXmlInputFactory() {
+        final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+
+        // Listings never contain DTDs, so there is no reason to resolve anything they reference
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        return xmlInputFactory;
+    }
+
+    @Data
+    static final class Listing {
+
+        private final List<GoogleCloudStorageEntry> entries;
+
+        private final List<String> commonPrefixes;
+
+        /**
+         * The marker to request the next page with, or {@code null} when the listing is complete.
+         */
+        @Nullable
+        private final String nextMarker;
+
+    }
+
+}
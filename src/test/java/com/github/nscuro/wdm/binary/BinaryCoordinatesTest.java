@@ -0,0 +1,55 @@
+package com.github.nscuro.wdm.binary;
+
+import com.github.nscuro.wdm.Architecture;
+import com.github.nscuro.wdm.Browser;
+import com.github.nscuro.wdm.Os;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinaryCoordinatesTest {
+
+    @Nested
+    class ToFileNameTest {
+
+        @Test
+        void shouldBuildLowerCaseFileName() {
+            assertThat(new BinaryCoordinates(Browser.CHROME, "2.34", Os.LINUX, Architecture.X64).toFileName())
+                    .isEqualTo("wdm-webdriver_chrome_linux-x64_2.34");
+        }
+
+    }
+
+    @Nested
+    class FromFileNameTest {
+
+        @ParameterizedTest(name = "[{index}] browser={0}")
+        @EnumSource(Browser.class)
+        void shouldParseFileNameBuiltByToFileName(final Browser browser) {
+            final BinaryCoordinates coordinates = new BinaryCoordinates(browser, "3.14.0", Os.WINDOWS, Architecture.X86);
+
+            assertThat(BinaryCoordinates.fromFileName(coordinates.toFileName()))
+                    .hasValue(coordinates);
+        }
+
+        @ParameterizedTest(name = "[{index}] fileName={0}")
+        @ValueSource(strings = {
+                "chromedriver",
+                "wdm-webdriver_someBrowser",
+                "wdm-webdriver_chrome_linux-x64_",
+                "wdm-webdriver_chrome_linux_2.34",
+                "wdm-webdriver_netscape_linux-x64_2.34",
+                "wdm-webdriver_chrome_beos-x64_2.34",
+                "wdm-webdriver_chrome_linux-arm64_2.34"
+        })
+        void shouldReturnEmptyOptionalWhenFileNameDoesNotMatchScheme(final String fileName) {
+            assertThat(BinaryCoordinates.fromFileName(fileName)).isEmpty();
+        }
+
+    }
+
+}
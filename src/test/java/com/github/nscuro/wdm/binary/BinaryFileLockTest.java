@@ -0,0 +1,66 @@
+package com.github.nscuro.wdm.binary;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class BinaryFileLockTest {
+
+    @TempDir
+    Path binaryDestinationDirPath;
+
+    private Path binaryFilePath;
+
+    @BeforeEach
+    void beforeEach() {
+        binaryFilePath = binaryDestinationDirPath.resolve("wdm-webdriver_chrome_linux-x64_1.0");
+    }
+
+    @Test
+    void shouldTimeOutWaitingForLockHeldBySomeoneElse() throws IOException {
+        try (final BinaryFileLock ignored = BinaryFileLock.acquire(binaryFilePath)) {
+            assertThatExceptionOfType(IOException.class)
+                    .isThrownBy(() -> BinaryFileLock.acquire(binaryFilePath, Duration.ofMillis(200)))
+                    .withMessageContaining("Timed out");
+        }
+    }
+
+    @Test
+    void shouldNotBlockDownloadsOfBinariesInUse() throws IOException {
+        try (final Closeable ignored = BinaryFileLock.tryAcquireInUse(binaryFilePath).orElseThrow(AssertionError::new);
+             final BinaryFileLock binaryFileLock = BinaryFileLock.acquire(binaryFilePath, Duration.ofMillis(200))) {
+            assertThat(binaryFileLock).isNotNull();
+        }
+    }
+
+    @Test
+    void shouldShareInUseLockBetweenAllHoldersWithinJvm() throws IOException {
+        final Closeable firstInUseLock = BinaryFileLock.tryAcquireInUse(binaryFilePath).orElseThrow(AssertionError::new);
+        final Closeable secondInUseLock = BinaryFileLock.tryAcquireInUse(binaryFilePath).orElseThrow(AssertionError::new);
+
+        firstInUseLock.close();
+        // Closing a holder twice must not release the lock of another holder
+        firstInUseLock.close();
+
+        assertThat(BinaryFileLock.tryAcquireForEviction(binaryFilePath)).isEmpty();
+
+        secondInUseLock.close();
+
+        final Optional<BinaryFileLock> evictionLock = BinaryFileLock.tryAcquireForEviction(binaryFilePath);
+        assertThat(evictionLock).isPresent();
+
+        try (final BinaryFileLock ignored = evictionLock.get()) {
+            assertThat(BinaryFileLock.tryAcquireInUse(binaryFilePath)).isEmpty();
+        }
+    }
+
+}
@@ -1,8 +1,30 @@
 package com.github.nscuro.wdm.binary;
 
+import com.github.nscuro.wdm.binary.util.HttpMetadataCache;
+import com.github.nscuro.wdm.binary.util.ResumableDownloader;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.message.BasicHttpResponse;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
 
 class BinaryManagerBuilderTest {
 
@@ -12,10 +34,131 @@ class BinaryManagerBuilderTest {
                 .isThrownBy(() -> BinaryManager.builder().httpClient(null).defaultBinaryDestinationDir().build());
     }
 
+    @Test
+    void shouldThrowExceptionWhenHttpClientOptionsAreNull() {
+        assertThatExceptionOfType(NullPointerException.class)
+                .isThrownBy(() -> BinaryManager.builder().defaultHttpClient(null));
+    }
+
     @Test
     void shouldThrowExceptionWhenBinaryDestinationDirIsNull() {
         assertThatExceptionOfType(NullPointerException.class)
                 .isThrownBy(() -> BinaryManager.builder().defaultHttpClient().binaryDestinationDir(null).build());
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldThrowExceptionWhenLatestVersionCacheTtlIsNegative() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> BinaryManager.builder().defaultHttpClient().defaultBinaryDestinationDir()
+                        .latestVersionCacheTtl(Duration.ofMinutes(-1)));
+    }
+
+    @Test
+    void shouldThrowExceptionWhenExecutorIsNull() {
+        assertThatExceptionOfType(NullPointerException.class)
+                .isThrownBy(() -> BinaryManager.builder().defaultHttpClient().defaultBinaryDestinationDir()
+                        .executor(null));
+    }
+
+    @Test
+    void shouldThrowExceptionWhenMirrorUrlIsNotAbsolute() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> BinaryManager.builder().defaultHttpClient().defaultBinaryDestinationDir()
+                        .mirrors("https://chromedriver.storage.googleapis.com/", Collections.singletonList("mirror/chromedriver")));
+    }
+
+    @Test
+    void shouldThrowExceptionWhenMirrorUrlsAreNull() {
+        assertThatExceptionOfType(NullPointerException.class)
+                .isThrownBy(() -> BinaryManager.builder().defaultHttpClient().defaultBinaryDestinationDir()
+                        .mirrors("https://chromedriver.storage.googleapis.com/", null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldProvideMetadataCacheLocatedInBinaryDestinationDir(@TempDir final Path binaryDestinationDirPath) throws IOException {
+        final HttpClient httpClient = mock(HttpClient.class);
+        final AtomicReference<HttpMetadataCache> metadataCache = new AtomicReference<>();
+
+        BinaryManager.builder()
+                .httpClient(httpClient)
+                .binaryDestinationDir(binaryDestinationDirPath)
+                .addCachingBinaryProvider(context -> {
+                    metadataCache.set(context.getMetadataCache());
+                    return mock(BinaryProvider.class);
+                })
+                .build();
+
+        given(httpClient.execute(any(HttpGet.class), any(ResponseHandler.class))).willAnswer(invocation -> {
+            final BasicHttpResponse httpResponse = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+            httpResponse.setHeader(HttpHeaders.ETAG, "\"etag\"");
+            return invocation.<ResponseHandler<?>>getArgument(1).handleResponse(httpResponse);
+        });
+
+        assertThat(metadataCache.get()).isNotNull();
+        metadataCache.get().get(httpClient, new HttpGet("https://example.com/metadata"),
+                httpResponse -> "metadata", body -> body);
+
+        try (final Stream<Path> cachedFiles = Files.list(binaryDestinationDirPath.resolve(".http-cache"))) {
+            assertThat(cachedFiles).isNotEmpty();
+        }
+    }
+
+    @Test
+    void shouldProvideDownloaderHonoringStreamingDownloadsOption() {
+        final AtomicReference<ResumableDownloader> downloader = new AtomicReference<>();
+
+        BinaryManager.builder()
+                .defaultHttpClient()
+                .defaultBinaryDestinationDir()
+                .streamingDownloads(true)
+                .addCachingBinaryProvider(context -> {
+                    downloader.set(context.getDownloader());
+                    return mock(BinaryProvider.class);
+                })
+                .build();
+
+        assertThat(downloader.get()).isSameAs(ResumableDownloader.getDefault(true));
+    }
+
+    @Test
+    void shouldNotStreamDownloadsPerDefault() {
+        final AtomicReference<ResumableDownloader> downloader = new AtomicReference<>();
+
+        BinaryManager.builder()
+                .defaultHttpClient()
+                .defaultBinaryDestinationDir()
+                .addCachingBinaryProvider(context -> {
+                    downloader.set(context.getDownloader());
+                    return mock(BinaryProvider.class);
+                })
+                .build();
+
+        assertThat(downloader.get()).isSameAs(ResumableDownloader.getDefault(false));
+    }
+
+    @Test
+    void shouldProvideGitHubRateLimitWait() {
+        final AtomicReference<Duration> gitHubRateLimitWait = new AtomicReference<>();
+
+        BinaryManager.builder()
+                .defaultHttpClient()
+                .defaultBinaryDestinationDir()
+                .gitHubRateLimitWait(Duration.ofMinutes(5))
+                .addCachingBinaryProvider(context -> {
+                    gitHubRateLimitWait.set(context.getGitHubRateLimitWait());
+                    return mock(BinaryProvider.class);
+                })
+                .build();
+
+        assertThat(gitHubRateLimitWait.get()).isEqualTo(Duration.ofMinutes(5));
+    }
+
+    @Test
+    void shouldThrowExceptionWhenGitHubRateLimitWaitIsNegative() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> BinaryManager.builder().defaultHttpClient().defaultBinaryDestinationDir()
+                        .gitHubRateLimitWait(Duration.ofSeconds(-1)));
+    }
+
+}
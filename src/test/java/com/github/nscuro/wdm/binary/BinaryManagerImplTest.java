@@ -3,22 +3,42 @@ package com.github.nscuro.wdm.binary;
 import com.github.nscuro.wdm.Architecture;
 import com.github.nscuro.wdm.Browser;
 import com.github.nscuro.wdm.Os;
+import com.github.nscuro.wdm.binary.util.AtomicFileUtils;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static java.util.Collections.singleton;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
@@ -64,21 +84,17 @@ class BinaryManagerImplTest {
     @Nested
     class GetWebDriverBinaryTest {
 
-        private Path binaryDestinationFilePathMock;
+        @TempDir
+        Path binaryDestinationDirPath;
 
-        private File webDriverBinaryFileMock;
+        private Path binaryDestinationFilePath;
 
         @BeforeEach
         void beforeEach() {
-            binaryDestinationFilePathMock = mock(Path.class);
+            binaryManager = new BinaryManagerImpl(binaryDestinationDirPath, singleton(binaryProviderMock));
 
-            webDriverBinaryFileMock = mock(File.class);
-
-            given(binaryDestinationFilePathMock.toFile())
-                    .willReturn(webDriverBinaryFileMock);
-
-            given(binaryDestinationDirPathMock.resolve(any(String.class)))
-                    .willReturn(binaryDestinationFilePathMock);
+            binaryDestinationFilePath = binaryDestinationDirPath
+                    .resolve(new BinaryCoordinates(Browser.CHROME, "1.0", Os.getCurrent(), Architecture.getCurrent()).toFileName());
         }
 
         @Test
@@ -86,14 +102,17 @@ class BinaryManagerImplTest {
             given(binaryProviderMock.providesBinaryForBrowser(any(Browser.class)))
                     .willReturn(true);
 
-            given(webDriverBinaryFileMock.exists())
-                    .willReturn(true);
+            Files.createFile(binaryDestinationFilePath);
+            BinaryCompletionMarker.write(binaryDestinationFilePath);
 
             assertThat(binaryManager.getWebDriverBinary(Browser.CHROME, "1.0"))
-                    .isEqualTo(webDriverBinaryFileMock);
+                    .isEqualTo(binaryDestinationFilePath.toFile())
+                    .canRead();
+
+            assertThat(binaryDestinationFilePath.toFile().canExecute()).isTrue();
 
             verify(binaryProviderMock, times(0)).getLatestBinaryVersion(any(Os.class), any(Architecture.class));
-            verify(webDriverBinaryFileMock).setExecutable(eq(true));
+            verify(binaryProviderMock, times(0)).download(any(String.class), any(Os.class), any(Architecture.class), any(Path.class));
         }
 
         @Test
@@ -104,18 +123,272 @@ class BinaryManagerImplTest {
             given(binaryProviderMock.getLatestBinaryVersion(any(Os.class), any(Architecture.class)))
                     .willReturn(Optional.of("1.0"));
 
-            given(webDriverBinaryFileMock.exists())
-                    .willReturn(false);
+            given(binaryProviderMock.download(eq("1.0"), any(Os.class), any(Architecture.class), any(Path.class)))
+                    .willAnswer(invocation -> Files.createFile(invocation.getArgument(3)).toFile());
+
+            assertThat(binaryManager.getLatestWebDriverBinary(Browser.CHROME))
+                    .isEqualTo(binaryDestinationFilePath.toFile());
+
+            assertThat(binaryDestinationFilePath.toFile().canExecute()).isTrue();
+        }
+
+        @Test
+        void shouldDownloadBinaryAgainWhenItIsIncomplete() throws IOException {
+            given(binaryProviderMock.providesBinaryForBrowser(any(Browser.class)))
+                    .willReturn(true);
+
+            // Binary without completion marker and staging file, as left behind by a crashed process
+            Files.write(binaryDestinationFilePath, new byte[]{1, 2});
+            AtomicFileUtils.createStagingFile(binaryDestinationFilePath);
+
+            given(binaryProviderMock.download(eq("1.0"), any(Os.class), any(Architecture.class), any(Path.class)))
+                    .willAnswer(invocation -> Files.write(invocation.getArgument(3), new byte[]{1, 2, 3, 4}).toFile());
+
+            assertThat(binaryManager.getWebDriverBinary(Browser.CHROME, "1.0"))
+                    .isEqualTo(binaryDestinationFilePath.toFile())
+                    .hasBinaryContent(new byte[]{1, 2, 3, 4});
+
+            assertThat(BinaryCompletionMarker.isComplete(binaryDestinationFilePath)).isTrue();
+
+            assertThat(binaryManager.getWebDriverBinary(Browser.CHROME, "1.0"))
+                    .isEqualTo(binaryDestinationFilePath.toFile());
+
+            verify(binaryProviderMock, times(1))
+                    .download(eq("1.0"), any(Os.class), any(Architecture.class), any(Path.class));
+        }
+
+        @Test
+        void shouldAdoptBinaryInstalledBeforeCompletionMarkersWereIntroduced() throws IOException {
+            given(binaryProviderMock.providesBinaryForBrowser(any(Browser.class)))
+                    .willReturn(true);
+
+            Files.write(binaryDestinationFilePath, new byte[]{1, 2});
+
+            assertThat(binaryManager.getWebDriverBinary(Browser.CHROME, "1.0"))
+                    .isEqualTo(binaryDestinationFilePath.toFile())
+                    .hasBinaryContent(new byte[]{1, 2});
+
+            assertThat(BinaryCompletionMarker.getMarkerFilePath(binaryDestinationFilePath)).exists();
+
+            verify(binaryProviderMock, times(0))
+                    .download(any(String.class), any(Os.class), any(Architecture.class), any(Path.class));
+        }
+
+        @Test
+        void shouldDownloadBinaryAgainWhenItsSizeDoesNotMatchTheCompletionMarker() throws IOException {
+            given(binaryProviderMock.providesBinaryForBrowser(any(Browser.class)))
+                    .willReturn(true);
+
+            Files.write(binaryDestinationFilePath, new byte[]{1, 2, 3, 4});
+            BinaryCompletionMarker.write(binaryDestinationFilePath);
+            Files.write(binaryDestinationFilePath, new byte[]{1, 2});
+
+            given(binaryProviderMock.download(eq("1.0"), any(Os.class), any(Architecture.class), any(Path.class)))
+                    .willAnswer(invocation -> Files.write(invocation.getArgument(3), new byte[]{1, 2, 3, 4}).toFile());
+
+            assertThat(binaryManager.getWebDriverBinary(Browser.CHROME, "1.0"))
+                    .hasBinaryContent(new byte[]{1, 2, 3, 4});
+        }
+
+        @Test
+        void shouldReuseCachedLatestVersionWithoutAskingBinaryProvider() throws IOException {
+            given(binaryProviderMock.providesBinaryForBrowser(any(Browser.class)))
+                    .willReturn(true);
+
+            given(binaryProviderMock.getLatestBinaryVersion(any(Os.class), any(Architecture.class)))
+                    .willReturn(Optional.of("1.0"));
+
+            given(binaryProviderMock.download(eq("1.0"), any(Os.class), any(Architecture.class), any(Path.class)))
+                    .willAnswer(invocation -> Files.createFile(invocation.getArgument(3)).toFile());
+
+            binaryManager.getLatestWebDriverBinary(Browser.CHROME);
+
+            // A new instance mimics a subsequent JVM start
+            binaryManager = new BinaryManagerImpl(binaryDestinationDirPath, singleton(binaryProviderMock));
+
+            assertThat(binaryManager.getLatestWebDriverBinary(Browser.CHROME))
+                    .isEqualTo(binaryDestinationFilePath.toFile());
+
+            verify(binaryProviderMock, times(1)).getLatestBinaryVersion(any(Os.class), any(Architecture.class));
+        }
+
+        @Test
+        void shouldFallBackToExpiredCachedLatestVersionWhenLatestVersionCannotBeResolved() throws IOException {
+            binaryManager = new BinaryManagerImpl(binaryDestinationDirPath, singleton(binaryProviderMock),
+                    Duration.ZERO, false, BinaryManagerImpl.createDefaultExecutor());
 
-            final File downloadedFileMock = mock(File.class);
+            given(binaryProviderMock.providesBinaryForBrowser(any(Browser.class)))
+                    .willReturn(true);
 
-            given(binaryProviderMock.download(eq("1.0"), any(Os.class), any(Architecture.class), eq(binaryDestinationFilePathMock)))
-                    .willReturn(downloadedFileMock);
+            given(binaryProviderMock.getLatestBinaryVersion(any(Os.class), any(Architecture.class)))
+                    .willReturn(Optional.of("1.0"))
+                    .willThrow(new IOException("rate limit exceeded"));
+
+            given(binaryProviderMock.download(eq("1.0"), any(Os.class), any(Architecture.class), any(Path.class)))
+                    .willAnswer(invocation -> Files.createFile(invocation.getArgument(3)).toFile());
+
+            binaryManager.getLatestWebDriverBinary(Browser.CHROME);
 
             assertThat(binaryManager.getLatestWebDriverBinary(Browser.CHROME))
-                    .isEqualTo(downloadedFileMock);
+                    .isEqualTo(binaryDestinationFilePath.toFile());
 
-            verify(downloadedFileMock).setExecutable(eq(true));
+            verify(binaryProviderMock, times(2)).getLatestBinaryVersion(any(Os.class), any(Architecture.class));
+        }
+
+        @Test
+        void shouldThrowExceptionWhenLatestVersionCannotBeResolvedAndNothingHasBeenCached() throws IOException {
+            given(binaryProviderMock.providesBinaryForBrowser(any(Browser.class)))
+                    .willReturn(true);
+
+            given(binaryProviderMock.getLatestBinaryVersion(any(Os.class), any(Architecture.class)))
+                    .willThrow(new IOException("rate limit exceeded"));
+
+            assertThatExceptionOfType(IOException.class)
+                    .isThrownBy(() -> binaryManager.getLatestWebDriverBinary(Browser.CHROME))
+                    .withMessage("rate limit exceeded");
+        }
+
+        @Test
+        void shouldFallBackToLatestLocalVersionWhenLatestVersionCannotBeResolved() throws IOException {
+            given(binaryProviderMock.providesBinaryForBrowser(any(Browser.class)))
+                    .willReturn(true);
+
+            given(binaryProviderMock.getLatestBinaryVersion(any(Os.class), any(Architecture.class)))
+                    .willThrow(new ConnectTimeoutException("connect timed out"));
+
+            installLocalBinary(binaryDestinationDirPath, Browser.CHROME, "1.0", Os.getCurrent(), Architecture.getCurrent());
+            final Path latestLocalBinaryPath = installLocalBinary(binaryDestinationDirPath, Browser.CHROME, "1.10", Os.getCurrent(), Architecture.getCurrent());
+
+            assertThat(binaryManager.getLatestWebDriverBinary(Browser.CHROME))
+                    .isEqualTo(latestLocalBinaryPath.toFile());
+        }
+
+        @Test
+        void shouldOnlyFallBackToLocalVersionsWithVersionPrefix() throws IOException {
+            given(binaryProviderMock.providesBinaryForBrowser(any(Browser.class)))
+                    .willReturn(true);
+
+            given(binaryProviderMock.getVersionPrefix(any(Os.class), any(Architecture.class)))
+                    .willReturn(Optional.of("75."));
+
+            given(binaryProviderMock.getLatestBinaryVersion(any(Os.class), any(Architecture.class)))
+                    .willThrow(new ConnectTimeoutException("connect timed out"));
+
+            final Path matchingBinaryPath = installLocalBinary(binaryDestinationDirPath, Browser.CHROME, "75.0.3770.140", Os.getCurrent(), Architecture.getCurrent());
+            installLocalBinary(binaryDestinationDirPath, Browser.CHROME, "76.0.3809.68", Os.getCurrent(), Architecture.getCurrent());
+
+            assertThat(binaryManager.getLatestWebDriverBinary(Browser.CHROME))
+                    .isEqualTo(matchingBinaryPath.toFile());
+        }
+
+        @Test
+        void shouldNotUseCachedLatestVersionOfDifferentVersionPrefix() throws IOException {
+            given(binaryProviderMock.providesBinaryForBrowser(any(Browser.class)))
+                    .willReturn(true);
+
+            given(binaryProviderMock.getVersionPrefix(any(Os.class), any(Architecture.class)))
+                    .willReturn(Optional.empty())
+                    .willReturn(Optional.of("75."));
+
+            given(binaryProviderMock.getLatestBinaryVersion(any(Os.class), any(Architecture.class)))
+                    .willReturn(Optional.of("76.0.3809.68"))
+                    .willReturn(Optional.of("75.0.3770.140"));
+
+            given(binaryProviderMock.download(anyString(), any(Os.class), any(Architecture.class), any(Path.class)))
+                    .willAnswer(invocation -> Files.createFile(invocation.getArgument(3)).toFile());
+
+            assertThat(binaryManager.getLatestWebDriverBinary(Browser.CHROME))
+                    .hasName(new BinaryCoordinates(Browser.CHROME, "76.0.3809.68", Os.getCurrent(), Architecture.getCurrent()).toFileName());
+
+            assertThat(binaryManager.getLatestWebDriverBinary(Browser.CHROME))
+                    .hasName(new BinaryCoordinates(Browser.CHROME, "75.0.3770.140", Os.getCurrent(), Architecture.getCurrent()).toFileName());
+
+            verify(binaryProviderMock, times(2)).getLatestBinaryVersion(any(Os.class), any(Architecture.class));
+        }
+
+        @Test
+        void shouldNotCacheLatestVersionNotMatchingVersionPrefix() throws IOException {
+            given(binaryProviderMock.providesBinaryForBrowser(any(Browser.class)))
+                    .willReturn(true);
+
+            given(binaryProviderMock.getVersionPrefix(any(Os.class), any(Architecture.class)))
+                    .willReturn(Optional.of("70."));
+
+            given(binaryProviderMock.getLatestBinaryVersion(any(Os.class), any(Architecture.class)))
+                    .willReturn(Optional.of("2.45"));
+
+            given(binaryProviderMock.download(anyString(), any(Os.class), any(Architecture.class), any(Path.class)))
+                    .willAnswer(invocation -> Files.createFile(invocation.getArgument(3)).toFile());
+
+            binaryManager.getLatestWebDriverBinary(Browser.CHROME);
+            binaryManager.getLatestWebDriverBinary(Browser.CHROME);
+
+            verify(binaryProviderMock, times(2)).getLatestBinaryVersion(any(Os.class), any(Architecture.class));
+        }
+
+        @Test
+        void shouldUseLatestLocalVersionWithoutAskingBinaryProviderInOfflineMode() throws IOException {
+            binaryManager = new BinaryManagerImpl(binaryDestinationDirPath, singleton(binaryProviderMock),
+                    Duration.ofHours(1), true, BinaryManagerImpl.createDefaultExecutor());
+
+            given(binaryProviderMock.providesBinaryForBrowser(any(Browser.class)))
+                    .willReturn(true);
+
+            installLocalBinary(binaryDestinationDirPath, Browser.CHROME, "1.0", Os.LINUX, Architecture.X64);
+            final Path latestLocalBinaryPath = installLocalBinary(binaryDestinationDirPath, Browser.CHROME, "1.2", Os.LINUX, Architecture.X64);
+            installLocalBinary(binaryDestinationDirPath, Browser.CHROME, "1.3", Os.LINUX, Architecture.X86);
+            installLocalBinary(binaryDestinationDirPath, Browser.FIREFOX, "1.4", Os.LINUX, Architecture.X64);
+
+            // Incomplete binaries must not be considered
+            final Path incompleteBinaryPath = Files.createFile(binaryDestinationDirPath
+                    .resolve(new BinaryCoordinates(Browser.CHROME, "1.5", Os.LINUX, Architecture.X64).toFileName()));
+            AtomicFileUtils.createStagingFile(incompleteBinaryPath);
+
+            assertThat(binaryManager.getLatestWebDriverBinary(Browser.CHROME, Os.LINUX, Architecture.X64))
+                    .isEqualTo(latestLocalBinaryPath.toFile());
+
+            verify(binaryProviderMock, times(0)).getLatestBinaryVersion(any(Os.class), any(Architecture.class));
+        }
+
+        @Test
+        void shouldUseBinaryWithoutCompletionMarkerInOfflineMode() throws IOException {
+            binaryManager = new BinaryManagerImpl(binaryDestinationDirPath, singleton(binaryProviderMock),
+                    Duration.ofHours(1), true, BinaryManagerImpl.createDefaultExecutor());
+
+            given(binaryProviderMock.providesBinaryForBrowser(any(Browser.class)))
+                    .willReturn(true);
+
+            // Binary installed before completion markers were introduced
+            final Path legacyBinaryPath = Files.write(binaryDestinationDirPath
+                    .resolve(new BinaryCoordinates(Browser.CHROME, "1.2", Os.LINUX, Architecture.X64).toFileName()), new byte[]{1, 2});
+
+            assertThat(binaryManager.getLatestWebDriverBinary(Browser.CHROME, Os.LINUX, Architecture.X64))
+                    .isEqualTo(legacyBinaryPath.toFile());
+
+            assertThat(binaryManager.getWebDriverBinary(Browser.CHROME, "1.2", Os.LINUX, Architecture.X64))
+                    .isEqualTo(legacyBinaryPath.toFile());
+
+            verify(binaryProviderMock, times(0)).getLatestBinaryVersion(any(Os.class), any(Architecture.class));
+            verify(binaryProviderMock, times(0)).download(any(String.class), any(Os.class), any(Architecture.class), any(Path.class));
+        }
+
+        @Test
+        void shouldThrowExceptionInOfflineModeWhenBinaryDoesNotExistLocally() throws IOException {
+            binaryManager = new BinaryManagerImpl(binaryDestinationDirPath, singleton(binaryProviderMock),
+                    Duration.ofHours(1), true, BinaryManagerImpl.createDefaultExecutor());
+
+            given(binaryProviderMock.providesBinaryForBrowser(any(Browser.class)))
+                    .willReturn(true);
+
+            assertThatExceptionOfType(NoSuchElementException.class)
+                    .isThrownBy(() -> binaryManager.getLatestWebDriverBinary(Browser.CHROME, Os.LINUX, Architecture.X64));
+
+            assertThatExceptionOfType(NoSuchElementException.class)
+                    .isThrownBy(() -> binaryManager.getWebDriverBinary(Browser.CHROME, "1.0", Os.LINUX, Architecture.X64))
+                    .withMessageContaining("offline mode");
+
+            verify(binaryProviderMock, times(0)).getLatestBinaryVersion(any(Os.class), any(Architecture.class));
+            verify(binaryProviderMock, times(0)).download(any(String.class), any(Os.class), any(Architecture.class), any(Path.class));
         }
 
         @Test
@@ -141,6 +414,482 @@ class BinaryManagerImplTest {
 
     }
 
+    @Nested
+    class ConcurrentGetWebDriverBinaryTest {
+
+        @TempDir
+        Path binaryDestinationDirPath;
+
+        private BinaryProvider chromeBinaryProviderMock;
+
+        private BinaryProvider firefoxBinaryProviderMock;
+
+        private ExecutorService executorService;
+
+        @BeforeEach
+        void beforeEach() {
+            chromeBinaryProviderMock = mock(BinaryProvider.class);
+
+            given(chromeBinaryProviderMock.providesBinaryForBrowser(eq(Browser.CHROME)))
+                    .willReturn(true);
+
+            firefoxBinaryProviderMock = mock(BinaryProvider.class);
+
+            given(firefoxBinaryProviderMock.providesBinaryForBrowser(eq(Browser.FIREFOX)))
+                    .willReturn(true);
+
+            binaryManager = new BinaryManagerImpl(binaryDestinationDirPath,
+                    new HashSet<>(Arrays.asList(chromeBinaryProviderMock, firefoxBinaryProviderMock)));
+
+            executorService = Executors.newFixedThreadPool(4);
+        }
+
+        @Test
+        void shouldNotBlockUnrelatedBinariesWhileDownloading() throws Exception {
+            final CountDownLatch chromeDownloadStartedLatch = new CountDownLatch(1);
+            final CountDownLatch chromeDownloadReleaseLatch = new CountDownLatch(1);
+
+            given(chromeBinaryProviderMock.download(eq("1.0"), any(Os.class), any(Architecture.class), any(Path.class)))
+                    .willAnswer(invocation -> {
+                        chromeDownloadStartedLatch.countDown();
+                        chromeDownloadReleaseLatch.await();
+                        return Files.createFile(invocation.getArgument(3)).toFile();
+                    });
+
+            given(firefoxBinaryProviderMock.download(eq("2.0"), any(Os.class), any(Architecture.class), any(Path.class)))
+                    .willAnswer(invocation -> Files.createFile(invocation.getArgument(3)).toFile());
+
+            final Future<File> chromeBinaryFuture = executorService
+                    .submit(() -> binaryManager.getWebDriverBinary(Browser.CHROME, "1.0", Os.LINUX, Architecture.X64));
+
+            assertThat(chromeDownloadStartedLatch.await(5, TimeUnit.SECONDS)).isTrue();
+
+            final Future<File> firefoxBinaryFuture = executorService
+                    .submit(() -> binaryManager.getWebDriverBinary(Browser.FIREFOX, "2.0", Os.LINUX, Architecture.X64));
+
+            assertThat(firefoxBinaryFuture.get(5, TimeUnit.SECONDS)).exists();
+            assertThat(chromeBinaryFuture).isNotDone();
+
+            chromeDownloadReleaseLatch.countDown();
+
+            assertThat(chromeBinaryFuture.get(5, TimeUnit.SECONDS)).exists();
+        }
+
+        @Test
+        void shouldDownloadSameBinaryOnlyOnceWhenRequestedConcurrently() throws Exception {
+            final CountDownLatch downloadReleaseLatch = new CountDownLatch(1);
+
+            given(chromeBinaryProviderMock.download(eq("1.0"), any(Os.class), any(Architecture.class), any(Path.class)))
+                    .willAnswer(invocation -> {
+                        downloadReleaseLatch.await();
+                        return Files.createFile(invocation.getArgument(3)).toFile();
+                    });
+
+            final List<Future<File>> binaryFutures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                binaryFutures.add(executorService
+                        .submit(() -> binaryManager.getWebDriverBinary(Browser.CHROME, "1.0", Os.LINUX, Architecture.X64)));
+            }
+
+            downloadReleaseLatch.countDown();
+
+            for (final Future<File> binaryFuture : binaryFutures) {
+                assertThat(binaryFuture.get(5, TimeUnit.SECONDS)).exists();
+            }
+
+            verify(chromeBinaryProviderMock, times(1))
+                    .download(eq("1.0"), any(Os.class), any(Architecture.class), any(Path.class));
+        }
+
+        @Test
+        void shouldWaitForOtherProcessAndReuseItsDownload() throws Exception {
+            final Path binaryDestinationFilePath = binaryDestinationDirPath
+                    .resolve(new BinaryCoordinates(Browser.CHROME, "1.0", Os.LINUX, Architecture.X64).toFileName());
+
+            final Future<File> binaryFuture;
+
+            // Simulate another process holding the lock while it downloads the binary
+            try (final FileChannel lockFileChannel = FileChannel.open(BinaryFileLock.getLockFilePath(binaryDestinationFilePath),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 final FileLock ignored = lockFileChannel.lock()) {
+
+                binaryFuture = executorService
+                        .submit(() -> binaryManager.getWebDriverBinary(Browser.CHROME, "1.0", Os.LINUX, Architecture.X64));
+
+                TimeUnit.MILLISECONDS.sleep(300);
+                assertThat(binaryFuture).isNotDone();
+
+                Files.createFile(binaryDestinationFilePath);
+                BinaryCompletionMarker.write(binaryDestinationFilePath);
+            }
+
+            assertThat(binaryFuture.get(5, TimeUnit.SECONDS))
+                    .isEqualTo(binaryDestinationFilePath.toFile());
+
+            verify(chromeBinaryProviderMock, times(0))
+                    .download(any(String.class), any(Os.class), any(Architecture.class), any(Path.class));
+        }
+
+        @Test
+        void shouldNotBlockDownloadsOfBinariesInUseByOtherBinaryManager() throws Exception {
+            final Path binaryPath = installLocalBinary(binaryDestinationDirPath, Browser.CHROME, "1.0", Os.LINUX, Architecture.X64);
+
+            binaryManager.getWebDriverBinary(Browser.CHROME, "1.0", Os.LINUX, Architecture.X64);
+
+            // Simulate the binary having been deleted by someone not honoring the locks
+            Files.delete(BinaryCompletionMarker.getMarkerFilePath(binaryPath));
+            Files.delete(binaryPath);
+
+            given(chromeBinaryProviderMock.download(eq("1.0"), any(Os.class), any(Architecture.class), any(Path.class)))
+                    .willAnswer(invocation -> Files.createFile(invocation.getArgument(3)).toFile());
+
+            final BinaryManagerImpl otherBinaryManager = new BinaryManagerImpl(binaryDestinationDirPath, singleton(chromeBinaryProviderMock));
+
+            final Future<File> binaryFuture = executorService
+                    .submit(() -> otherBinaryManager.getWebDriverBinary(Browser.CHROME, "1.0", Os.LINUX, Architecture.X64));
+
+            assertThat(binaryFuture.get(5, TimeUnit.SECONDS))
+                    .isEqualTo(binaryPath.toFile());
+        }
+
+        @AfterEach
+        void afterEach() {
+            executorService.shutdownNow();
+        }
+
+    }
+
+    @Nested
+    class GetWebDriverBinaryAsyncTest {
+
+        @TempDir
+        Path binaryDestinationDirPath;
+
+        private ExecutorService executorService;
+
+        @BeforeEach
+        void beforeEach() {
+            executorService = Executors.newFixedThreadPool(4);
+
+            binaryManager = new BinaryManagerImpl(binaryDestinationDirPath, singleton(binaryProviderMock),
+                    Duration.ofHours(1), false, executorService);
+
+            given(binaryProviderMock.providesBinaryForBrowser(eq(Browser.CHROME)))
+                    .willReturn(true);
+        }
+
+        @Test
+        void shouldResolveAndDownloadOnlyOnceWhenSameBinaryIsRequestedConcurrently() throws Exception {
+            final CountDownLatch resolutionReleaseLatch = new CountDownLatch(1);
+
+            given(binaryProviderMock.getLatestBinaryVersion(eq(Os.LINUX), eq(Architecture.X64)))
+                    .willAnswer(invocation -> {
+                        resolutionReleaseLatch.await();
+                        return Optional.of("1.0");
+                    });
+
+            given(binaryProviderMock.download(eq("1.0"), eq(Os.LINUX), eq(Architecture.X64), any(Path.class)))
+                    .willAnswer(invocation -> Files.createFile(invocation.getArgument(3)).toFile());
+
+            final List<CompletableFuture<File>> binaryFutures = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                binaryFutures.add(binaryManager.getLatestWebDriverBinaryAsync(Browser.CHROME, Os.LINUX, Architecture.X64));
+            }
+
+            resolutionReleaseLatch.countDown();
+
+            final Path binaryDestinationFilePath = binaryDestinationDirPath
+                    .resolve(new BinaryCoordinates(Browser.CHROME, "1.0", Os.LINUX, Architecture.X64).toFileName());
+
+            for (final CompletableFuture<File> binaryFuture : binaryFutures) {
+                assertThat(binaryFuture.get(5, TimeUnit.SECONDS)).isEqualTo(binaryDestinationFilePath.toFile());
+            }
+
+            verify(binaryProviderMock, times(1)).getLatestBinaryVersion(eq(Os.LINUX), eq(Architecture.X64));
+            verify(binaryProviderMock, times(1)).download(eq("1.0"), eq(Os.LINUX), eq(Architecture.X64), any(Path.class));
+        }
+
+        @Test
+        void shouldNotAffectOtherCallersWhenCancelled() throws Exception {
+            final CountDownLatch downloadReleaseLatch = new CountDownLatch(1);
+
+            given(binaryProviderMock.download(eq("1.0"), eq(Os.LINUX), eq(Architecture.X64), any(Path.class)))
+                    .willAnswer(invocation -> {
+                        downloadReleaseLatch.await();
+                        return Files.createFile(invocation.getArgument(3)).toFile();
+                    });
+
+            final CompletableFuture<File> cancelledFuture = binaryManager
+                    .getWebDriverBinaryAsync(Browser.CHROME, "1.0", Os.LINUX, Architecture.X64);
+            final CompletableFuture<File> otherFuture = binaryManager
+                    .getWebDriverBinaryAsync(Browser.CHROME, "1.0", Os.LINUX, Architecture.X64);
+
+            cancelledFuture.cancel(true);
+            downloadReleaseLatch.countDown();
+
+            assertThat(otherFuture.get(5, TimeUnit.SECONDS)).exists();
+        }
+
+        @Test
+        void shouldCompleteExceptionallyWhenBinaryCannotBeProvided() throws IOException {
+            given(binaryProviderMock.getLatestBinaryVersion(any(Os.class), any(Architecture.class)))
+                    .willThrow(new IOException("connection refused"));
+
+            final CompletableFuture<File> binaryFuture = binaryManager
+                    .getLatestWebDriverBinaryAsync(Browser.CHROME, Os.LINUX, Architecture.X64);
+
+            assertThatExceptionOfType(ExecutionException.class)
+                    .isThrownBy(() -> binaryFuture.get(5, TimeUnit.SECONDS))
+                    .withCauseInstanceOf(IOException.class);
+        }
+
+        @AfterEach
+        void afterEach() {
+            executorService.shutdownNow();
+        }
+
+    }
+
+    @Nested
+    class PrefetchTest {
+
+        @TempDir
+        Path binaryDestinationDirPath;
+
+        private ExecutorService executorService;
+
+        private BinaryProvider otherBinaryProviderMock;
+
+        @BeforeEach
+        void beforeEach() {
+            executorService = Executors.newFixedThreadPool(4);
+
+            otherBinaryProviderMock = mock(BinaryProvider.class);
+
+            binaryManager = new BinaryManagerImpl(binaryDestinationDirPath,
+                    new HashSet<>(Arrays.asList(binaryProviderMock, otherBinaryProviderMock)),
+                    Duration.ofHours(1), false, executorService);
+
+            given(binaryProviderMock.providesBinaryForBrowser(eq(Browser.CHROME)))
+                    .willReturn(true);
+
+            given(otherBinaryProviderMock.providesBinaryForBrowser(eq(Browser.FIREFOX)))
+                    .willReturn(true);
+        }
+
+        @Test
+        void shouldPrefetchAllTargetsConcurrently() throws IOException {
+            // Both downloads can only finish when they are running at the same time
+            final CountDownLatch downloadsStartedLatch = new CountDownLatch(2);
+
+            given(binaryProviderMock.getLatestBinaryVersion(eq(Os.LINUX), eq(Architecture.X64)))
+                    .willReturn(Optional.of("2.0"));
+
+            given(binaryProviderMock.download(eq("2.0"), eq(Os.LINUX), eq(Architecture.X64), any(Path.class)))
+                    .willAnswer(invocation -> awaitAndCreateFile(downloadsStartedLatch, invocation.getArgument(3)));
+
+            given(otherBinaryProviderMock.download(eq("1.0"), eq(Os.LINUX), eq(Architecture.X64), any(Path.class)))
+                    .willAnswer(invocation -> awaitAndCreateFile(downloadsStartedLatch, invocation.getArgument(3)));
+
+            final PrefetchTarget chromeTarget = PrefetchTarget.latest(Browser.CHROME, Os.LINUX, Architecture.X64);
+            final PrefetchTarget firefoxTarget = PrefetchTarget.of(Browser.FIREFOX, "1.0", Os.LINUX, Architecture.X64);
+
+            final PrefetchReport report = binaryManager.prefetch(chromeTarget, firefoxTarget);
+
+            assertThat(report.isSuccessful()).isTrue();
+            assertThat(report.getResults())
+                    .extracting(PrefetchReport.Result::getTarget)
+                    .containsExactly(chromeTarget, firefoxTarget);
+            assertThat(report.getResults())
+                    .allSatisfy(result -> {
+                        assertThat(result.getBinary()).hasValueSatisfying(binary -> assertThat(binary).exists());
+                        assertThat(result.getDuration()).isLessThanOrEqualTo(report.getDuration());
+                    });
+        }
+
+        @Test
+        void shouldReportFailedTargetsWithoutAffectingOthers() throws IOException {
+            given(binaryProviderMock.getLatestBinaryVersion(eq(Os.LINUX), eq(Architecture.X64)))
+                    .willThrow(new IOException("connection refused"));
+
+            given(otherBinaryProviderMock.download(eq("1.0"), eq(Os.LINUX), eq(Architecture.X64), any(Path.class)))
+                    .willAnswer(invocation -> Files.createFile(invocation.getArgument(3)).toFile());
+
+            final PrefetchReport report = binaryManager.prefetch(
+                    PrefetchTarget.latest(Browser.CHROME, Os.LINUX, Architecture.X64),
+                    PrefetchTarget.of(Browser.FIREFOX, "1.0", Os.LINUX, Architecture.X64));
+
+            assertThat(report.isSuccessful()).isFalse();
+            assertThat(report.getFailures())
+                    .hasSize(1)
+                    .allSatisfy(result -> {
+                        assertThat(result.getTarget().getBrowser()).isEqualTo(Browser.CHROME);
+                        assertThat(result.getBinary()).isEmpty();
+                        assertThat(result.getFailure()).containsInstanceOf(IOException.class);
+                    });
+            assertThat(report.getResults().get(1).getBinary()).isPresent();
+        }
+
+        private File awaitAndCreateFile(final CountDownLatch latch, final Path filePath) throws Exception {
+            latch.countDown();
+
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("downloads have not been performed concurrently");
+            }
+
+            return Files.createFile(filePath).toFile();
+        }
+
+        @AfterEach
+        void afterEach() {
+            executorService.shutdownNow();
+        }
+
+    }
+
+    @Nested
+    class EvictWebDriverBinariesTest {
+
+        @TempDir
+        Path binaryDestinationDirPath;
+
+        @BeforeEach
+        void beforeEach() {
+            // Run background evictions synchronously
+            binaryManager = new BinaryManagerImpl(binaryDestinationDirPath, singleton(binaryProviderMock),
+                    Duration.ofHours(1), false, Runnable::run, EvictionPolicy.keepLatest(1));
+
+            given(binaryProviderMock.providesBinaryForBrowser(any(Browser.class)))
+                    .willReturn(true);
+        }
+
+        @Test
+        void shouldEvictBinariesSelectedByEvictionPolicy() throws IOException {
+            final Path oldBinaryPath = installLocalBinary(binaryDestinationDirPath, Browser.CHROME, "1.9", Os.LINUX, Architecture.X64);
+            final Path latestBinaryPath = installLocalBinary(binaryDestinationDirPath, Browser.CHROME, "1.10", Os.LINUX, Architecture.X64);
+            final Path otherPlatformBinaryPath = installLocalBinary(binaryDestinationDirPath, Browser.CHROME, "1.0", Os.LINUX, Architecture.X86);
+
+            assertThat(binaryManager.evictWebDriverBinaries())
+                    .containsExactly(oldBinaryPath.toFile());
+
+            assertThat(oldBinaryPath).doesNotExist();
+            assertThat(BinaryCompletionMarker.getMarkerFilePath(oldBinaryPath)).doesNotExist();
+            assertThat(latestBinaryPath).exists();
+            assertThat(otherPlatformBinaryPath).exists();
+        }
+
+        @Test
+        void shouldEvictBinariesAfterDownload() throws IOException {
+            final Path oldBinaryPath = installLocalBinary(binaryDestinationDirPath, Browser.CHROME, "1.0", Os.LINUX, Architecture.X64);
+
+            given(binaryProviderMock.download(eq("2.0"), eq(Os.LINUX), eq(Architecture.X64), any(Path.class)))
+                    .willAnswer(invocation -> Files.createFile(invocation.getArgument(3)).toFile());
+
+            assertThat(binaryManager.getWebDriverBinary(Browser.CHROME, "2.0", Os.LINUX, Architecture.X64))
+                    .exists();
+
+            assertThat(oldBinaryPath).doesNotExist();
+        }
+
+        @Test
+        void shouldNotEvictBinariesThatHaveBeenReturned() throws IOException {
+            final Path oldBinaryPath = installLocalBinary(binaryDestinationDirPath, Browser.CHROME, "1.0", Os.LINUX, Architecture.X64);
+            installLocalBinary(binaryDestinationDirPath, Browser.CHROME, "2.0", Os.LINUX, Architecture.X64);
+
+            binaryManager.getWebDriverBinary(Browser.CHROME, "1.0", Os.LINUX, Architecture.X64);
+
+            assertThat(binaryManager.evictWebDriverBinaries()).isEmpty();
+            assertThat(oldBinaryPath).exists();
+        }
+
+        @Test
+        void shouldEvictReturnedBinariesOnceTheyAreNoLongerInUse() throws IOException {
+            binaryManager = new BinaryManagerImpl(binaryDestinationDirPath, singleton(binaryProviderMock),
+                    Duration.ofHours(1), false, Runnable::run, EvictionPolicy.keepLatest(1), Duration.ZERO);
+
+            final Path oldBinaryPath = installLocalBinary(binaryDestinationDirPath, Browser.CHROME, "1.0", Os.LINUX, Architecture.X64);
+            installLocalBinary(binaryDestinationDirPath, Browser.CHROME, "2.0", Os.LINUX, Architecture.X64);
+
+            binaryManager.getWebDriverBinary(Browser.CHROME, "1.0", Os.LINUX, Architecture.X64);
+
+            assertThat(binaryManager.evictWebDriverBinaries())
+                    .containsExactly(oldBinaryPath.toFile());
+        }
+
+        @Test
+        void shouldNotEvictBinariesInUseByOtherBinaryManager() throws IOException {
+            final Path oldBinaryPath = installLocalBinary(binaryDestinationDirPath, Browser.CHROME, "1.0", Os.LINUX, Architecture.X64);
+            installLocalBinary(binaryDestinationDirPath, Browser.CHROME, "2.0", Os.LINUX, Architecture.X64);
+
+            binaryManager.getWebDriverBinary(Browser.CHROME, "1.0", Os.LINUX, Architecture.X64);
+
+            // Binaries returned by other BinaryManagers are unknown, just like those returned by other processes
+            final BinaryManagerImpl otherBinaryManager = new BinaryManagerImpl(binaryDestinationDirPath, singleton(binaryProviderMock),
+                    Duration.ofHours(1), false, Runnable::run, EvictionPolicy.keepLatest(1));
+
+            assertThat(otherBinaryManager.evictWebDriverBinaries()).isEmpty();
+            assertThat(oldBinaryPath).exists();
+        }
+
+        @Test
+        void shouldReleaseInUseLocksOfIdleBinariesWithoutEviction() throws Exception {
+            binaryManager = new BinaryManagerImpl(binaryDestinationDirPath, singleton(binaryProviderMock),
+                    Duration.ofHours(1), false, Runnable::run, EvictionPolicy.none(), Duration.ofMillis(100));
+
+            final Path oldBinaryPath = installLocalBinary(binaryDestinationDirPath, Browser.CHROME, "1.0", Os.LINUX, Architecture.X64);
+            installLocalBinary(binaryDestinationDirPath, Browser.CHROME, "2.0", Os.LINUX, Architecture.X64);
+
+            binaryManager.getWebDriverBinary(Browser.CHROME, "1.0", Os.LINUX, Architecture.X64);
+
+            final BinaryManagerImpl otherBinaryManager = new BinaryManagerImpl(binaryDestinationDirPath, singleton(binaryProviderMock),
+                    Duration.ofHours(1), false, Runnable::run, EvictionPolicy.keepLatest(1));
+
+            assertThat(otherBinaryManager.evictWebDriverBinaries()).isEmpty();
+
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            List<File> evictedBinaryFiles;
+            do {
+                TimeUnit.MILLISECONDS.sleep(50);
+                evictedBinaryFiles = otherBinaryManager.evictWebDriverBinaries();
+            } while (evictedBinaryFiles.isEmpty() && System.nanoTime() < deadline);
+
+            assertThat(evictedBinaryFiles).containsExactly(oldBinaryPath.toFile());
+        }
+
+        @Test
+        void shouldNotEvictRegisteredBinaries() throws IOException {
+            final Path oldBinaryPath = installLocalBinary(binaryDestinationDirPath, Browser.CHROME, "1.0", Os.LINUX, Architecture.X64);
+            installLocalBinary(binaryDestinationDirPath, Browser.CHROME, "2.0", Os.LINUX, Architecture.X64);
+
+            final String previousBinaryPath = System.getProperty("webdriver.chrome.driver");
+            try {
+                binaryManager.registerWebDriverBinary(Browser.CHROME, oldBinaryPath.toFile());
+
+                assertThat(binaryManager.evictWebDriverBinaries()).isEmpty();
+                assertThat(oldBinaryPath).exists();
+            } finally {
+                if (previousBinaryPath != null) {
+                    System.setProperty("webdriver.chrome.driver", previousBinaryPath);
+                } else {
+                    System.clearProperty("webdriver.chrome.driver");
+                }
+            }
+        }
+
+        @Test
+        void shouldNotEvictLockedBinaries() throws IOException {
+            final Path oldBinaryPath = installLocalBinary(binaryDestinationDirPath, Browser.CHROME, "1.0", Os.LINUX, Architecture.X64);
+            installLocalBinary(binaryDestinationDirPath, Browser.CHROME, "2.0", Os.LINUX, Architecture.X64);
+
+            try (final BinaryFileLock ignored = BinaryFileLock.acquire(oldBinaryPath)) {
+                assertThat(binaryManager.evictWebDriverBinaries()).isEmpty();
+            }
+
+            assertThat(oldBinaryPath).exists();
+        }
+
+    }
+
     @Nested
     class RegisterWebDriverBinaryTest {
 
@@ -373,4 +1122,15 @@ class BinaryManagerImplTest {
 
     }
 
-}
\ No newline at end of file
+    private static Path installLocalBinary(final Path binaryDestinationDirPath, final Browser browser, final String version,
+                                           final Os os, final Architecture architecture) throws IOException {
+        final Path binaryPath = binaryDestinationDirPath
+                .resolve(new BinaryCoordinates(browser, version, os, architecture).toFileName());
+
+        Files.createFile(binaryPath);
+        BinaryCompletionMarker.write(binaryPath);
+
+        return binaryPath;
+    }
+
+}
@@ -1,5 +1,8 @@
 package com.github.nscuro.wdm.binary;
 
+import com.github.nscuro.wdm.Architecture;
+import com.github.nscuro.wdm.Browser;
+import com.github.nscuro.wdm.Os;
 import com.github.nscuro.wdm.binary.chrome.ChromeDriverBinaryProvider;
 import com.github.nscuro.wdm.binary.edge.MicrosoftWebDriverBinaryProvider;
 import com.github.nscuro.wdm.binary.firefox.GeckoDriverBinaryProvider;
@@ -9,7 +12,16 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 class BinaryManagerTest {
 
@@ -35,4 +47,77 @@ class BinaryManagerTest {
 
     }
 
-}
\ No newline at end of file
+    @Nested
+    class DefaultMethodsTest {
+
+        private final File chromeDriverBinary = new File("chromedriver");
+
+        private BinaryManager binaryManager;
+
+        @BeforeEach
+        void beforeEach() {
+            // Implements only what third party implementations had to implement before 0.3.1
+            binaryManager = new BinaryManager() {
+
+                @Nonnull
+                @Override
+                public File getWebDriverBinary(final Browser browser, @Nullable final String version, final Os os, final Architecture architecture) throws IOException {
+                    if (browser != Browser.CHROME) {
+                        throw new IOException("unsupported browser");
+                    }
+
+                    return chromeDriverBinary;
+                }
+
+                @Override
+                public void registerWebDriverBinary(final Browser browser, final File webDriverBinaryFile) {
+                }
+
+                @Nonnull
+                @Override
+                public List<File> getLocalWebDriverBinaries() {
+                    return Collections.emptyList();
+                }
+
+            };
+        }
+
+        @Test
+        void shouldGetWebDriverBinaryAsynchronously() {
+            assertThat(binaryManager.getWebDriverBinaryAsync(Browser.CHROME, null, Os.LINUX, Architecture.X64).join())
+                    .isEqualTo(chromeDriverBinary);
+        }
+
+        @Test
+        void shouldCompleteExceptionallyWithUnwrappedException() {
+            assertThatExceptionOfType(CompletionException.class)
+                    .isThrownBy(() -> binaryManager.getWebDriverBinaryAsync(Browser.FIREFOX, null, Os.LINUX, Architecture.X64).join())
+                    .withCauseExactlyInstanceOf(IOException.class);
+        }
+
+        @Test
+        void shouldPrefetch() {
+            final PrefetchTarget chromeTarget = PrefetchTarget.latest(Browser.CHROME, Os.LINUX, Architecture.X64);
+            final PrefetchTarget firefoxTarget = PrefetchTarget.latest(Browser.FIREFOX, Os.LINUX, Architecture.X64);
+
+            final PrefetchReport report = binaryManager.prefetch(chromeTarget, firefoxTarget);
+
+            assertThat(report.getResults())
+                    .extracting(PrefetchReport.Result::getTarget)
+                    .containsExactly(chromeTarget, firefoxTarget);
+
+            assertThat(report.getResults().get(0).getBinary()).contains(chromeDriverBinary);
+            assertThat(report.getFailures())
+                    .extracting(PrefetchReport.Result::getTarget)
+                    .containsExactly(firefoxTarget);
+            assertThat(report.getFailures().get(0).getFailure()).containsInstanceOf(IOException.class);
+        }
+
+        @Test
+        void shouldNotEvictAnything() {
+            assertThat(binaryManager.evictWebDriverBinaries()).isEmpty();
+        }
+
+    }
+
+}
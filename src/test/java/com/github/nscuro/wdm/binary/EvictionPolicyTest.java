@@ -0,0 +1,125 @@
+package com.github.nscuro.wdm.binary;
+
+import com.github.nscuro.wdm.Architecture;
+import com.github.nscuro.wdm.Browser;
+import com.github.nscuro.wdm.Os;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class EvictionPolicyTest {
+
+    private static final Instant NOW = Instant.parse("2020-12-01T10:00:00Z");
+
+    @Test
+    void noneShouldNeverEvictAnything() {
+        assertThat(EvictionPolicy.none().selectForEviction(Arrays.asList(
+                binary(Browser.CHROME, "1.0", 10, NOW, false),
+                binary(Browser.CHROME, "2.0", 10, NOW, false))))
+                .isEmpty();
+    }
+
+    @Test
+    void orShouldEvictBinariesSelectedByEitherPolicy() {
+        final Instant now = Instant.now();
+        final InstalledBinary oldVersion = binary(Browser.CHROME, "1.0", 10, now, false);
+        final InstalledBinary idleBinary = binary(Browser.FIREFOX, "1.0", 10, now.minus(Duration.ofDays(60)), false);
+
+        assertThat(EvictionPolicy.keepLatest(1).or(EvictionPolicy.maxIdleTime(Duration.ofDays(30))).selectForEviction(Arrays.asList(
+                oldVersion,
+                binary(Browser.CHROME, "2.0", 10, now, false),
+                idleBinary)))
+                .containsExactlyInAnyOrder(oldVersion, idleBinary);
+    }
+
+    @Nested
+    class KeepLatestTest {
+
+        @Test
+        void shouldKeepLatestVersionsPerPlatform() {
+            final InstalledBinary chrome19 = binary(Browser.CHROME, "1.9", 10, NOW, false);
+            final InstalledBinary chrome110 = binary(Browser.CHROME, "1.10", 10, NOW, false);
+            final InstalledBinary chrome2 = binary(Browser.CHROME, "2.0", 10, NOW, false);
+            final InstalledBinary chromeSnapshot = binary(Browser.CHROME, "snapshot", 10, NOW, false);
+            final InstalledBinary firefox1 = binary(Browser.FIREFOX, "1.0", 10, NOW, false);
+
+            assertThat(EvictionPolicy.keepLatest(2).selectForEviction(Arrays.asList(chrome19, chrome2, chromeSnapshot, chrome110, firefox1)))
+                    .containsExactlyInAnyOrder(chrome19, chromeSnapshot);
+        }
+
+        @Test
+        void shouldNotSelectBinariesInUse() {
+            final InstalledBinary chrome1 = binary(Browser.CHROME, "1.0", 10, NOW, true);
+
+            assertThat(EvictionPolicy.keepLatest(1).selectForEviction(Arrays.asList(chrome1, binary(Browser.CHROME, "2.0", 10, NOW, false))))
+                    .isEmpty();
+        }
+
+        @Test
+        void shouldThrowExceptionWhenVersionsToKeepIsNegative() {
+            assertThatExceptionOfType(IllegalArgumentException.class)
+                    .isThrownBy(() -> EvictionPolicy.keepLatest(-1));
+        }
+
+    }
+
+    @Nested
+    class MaxIdleTimeTest {
+
+        @Test
+        void shouldSelectBinariesThatHaveNotBeenAccessedForTooLong() {
+            final InstalledBinary idleBinary = binary(Browser.CHROME, "1.0", 10, NOW.minus(Duration.ofDays(31)), false);
+
+            assertThat(EvictionPolicies.maxIdleTime(Arrays.asList(
+                    idleBinary,
+                    binary(Browser.CHROME, "2.0", 10, NOW.minus(Duration.ofDays(29)), false),
+                    binary(Browser.FIREFOX, "1.0", 10, NOW.minus(Duration.ofDays(31)), true)),
+                    Duration.ofDays(30), Clock.fixed(NOW, ZoneOffset.UTC)))
+                    .containsExactly(idleBinary);
+        }
+
+    }
+
+    @Nested
+    class MaxTotalSizeTest {
+
+        @Test
+        void shouldSelectLeastRecentlyUsedBinariesUntilLimitIsMet() {
+            final InstalledBinary leastRecentlyUsed = binary(Browser.CHROME, "1.0", 30, NOW.minusSeconds(30), false);
+            final InstalledBinary lessRecentlyUsed = binary(Browser.CHROME, "2.0", 30, NOW.minusSeconds(20), false);
+
+            assertThat(EvictionPolicy.maxTotalSize(50).selectForEviction(Arrays.asList(
+                    binary(Browser.CHROME, "3.0", 30, NOW, false),
+                    lessRecentlyUsed,
+                    leastRecentlyUsed,
+                    binary(Browser.FIREFOX, "1.0", 20, NOW.minusSeconds(40), true))))
+                    .containsExactly(leastRecentlyUsed, lessRecentlyUsed);
+        }
+
+        @Test
+        void shouldNotSelectAnythingWhenLimitIsMet() {
+            assertThat(EvictionPolicy.maxTotalSize(20).selectForEviction(Arrays.asList(
+                    binary(Browser.CHROME, "1.0", 10, NOW, false),
+                    binary(Browser.CHROME, "2.0", 10, NOW, false))))
+                    .isEmpty();
+        }
+
+    }
+
+    private static InstalledBinary binary(final Browser browser, final String version, final long size,
+                                          final Instant lastAccessTime, final boolean inUse) {
+        return new InstalledBinary(browser, version, Os.LINUX, Architecture.X64,
+                new File(new BinaryCoordinates(browser, version, Os.LINUX, Architecture.X64).toFileName()),
+                size, lastAccessTime, inUse);
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.github.nscuro.wdm.binary;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class HttpClientOptionsIT {
+
+    private static WireMockServer wireMockServer;
+
+    @BeforeAll
+    static void beforeAll() {
+        wireMockServer = new WireMockServer();
+
+        wireMockServer.start();
+    }
+
+    @Test
+    void shouldAbortStalledRequests() {
+        stubFor(get(urlPathEqualTo("/stalled"))
+                .willReturn(aResponse()
+                        .withFixedDelay(5000)
+                        .withBody("someBody")));
+
+        final HttpClient httpClient = HttpClientOptions.defaults()
+                .socketTimeout(Duration.ofMillis(250))
+                .createHttpClient();
+
+        assertThatExceptionOfType(SocketTimeoutException.class)
+                .isThrownBy(() -> httpClient.execute(new HttpGet(wireMockServer.url("/stalled")),
+                        httpResponse -> EntityUtils.toString(httpResponse.getEntity())));
+    }
+
+    @Test
+    void shouldReuseConnections() throws IOException {
+        stubFor(get(urlPathEqualTo("/resource"))
+                .willReturn(aResponse()
+                        .withBody("someBody")));
+
+        final HttpClient httpClient = HttpClientOptions.defaults()
+                .maxConnections(1)
+                .connectionRequestTimeout(Duration.ofSeconds(1))
+                .createHttpClient();
+
+        // With a single pooled connection, the second request can only succeed when the first connection is released
+        for (int i = 0; i < 2; i++) {
+            final String responseBody = httpClient.execute(new HttpGet(wireMockServer.url("/resource")),
+                    httpResponse -> EntityUtils.toString(httpResponse.getEntity()));
+
+            assertThat(responseBody).isEqualTo("someBody");
+        }
+    }
+
+    @AfterEach
+    void afterEach() {
+        WireMock.reset();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        wireMockServer.stop();
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.github.nscuro.wdm.binary;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class HttpClientOptionsTest {
+
+    @Test
+    void shouldCreateHttpClient() {
+        assertThat(HttpClientOptions.defaults()
+                .connectTimeout(Duration.ofSeconds(1))
+                .socketTimeout(Duration.ofSeconds(2))
+                .connectionRequestTimeout(Duration.ofSeconds(3))
+                .keepAlive(Duration.ofSeconds(4))
+                .maxConnections(5)
+                .maxConnectionsPerRoute(6)
+                .createHttpClient()).isNotNull();
+    }
+
+    @Test
+    void shouldThrowExceptionWhenTimeoutIsNull() {
+        assertThatExceptionOfType(NullPointerException.class)
+                .isThrownBy(() -> HttpClientOptions.defaults().socketTimeout(null));
+    }
+
+    @Test
+    void shouldThrowExceptionWhenTimeoutIsNotPositive() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> HttpClientOptions.defaults().connectTimeout(Duration.ZERO));
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> HttpClientOptions.defaults().keepAlive(Duration.ofSeconds(-1)));
+    }
+
+    @Test
+    void shouldThrowExceptionWhenMaxConnectionsIsNotPositive() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> HttpClientOptions.defaults().maxConnections(0));
+
+        assertThatExceptionOfType(IllegalArgumentException.class)
+                .isThrownBy(() -> HttpClientOptions.defaults().maxConnectionsPerRoute(-1));
+    }
+
+}
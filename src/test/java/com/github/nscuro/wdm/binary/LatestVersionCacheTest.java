@@ -0,0 +1,99 @@
+package com.github.nscuro.wdm.binary;
+
+import com.github.nscuro.wdm.Architecture;
+import com.github.nscuro.wdm.Browser;
+import com.github.nscuro.wdm.Os;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatestVersionCacheTest {
+
+    private static final Instant NOW = Instant.parse("2020-12-01T10:00:00Z");
+
+    @TempDir
+    Path tempDirPath;
+
+    private Path cacheFilePath;
+
+    @BeforeEach
+    void beforeEach() {
+        cacheFilePath = tempDirPath.resolve(LatestVersionCache.CACHE_FILE_NAME);
+    }
+
+    @Test
+    void shouldReturnEmptyOptionalWhenNothingHasBeenCached() {
+        final LatestVersionCache cache = createCache(NOW);
+
+        assertThat(cache.get(Browser.CHROME, Os.LINUX, Architecture.X64, null)).isEmpty();
+        assertThat(cache.getIgnoringTtl(Browser.CHROME, Os.LINUX, Architecture.X64, null)).isEmpty();
+    }
+
+    @Test
+    void shouldReturnCachedVersionUntilTtlHasExpired() {
+        createCache(NOW).put(Browser.CHROME, Os.LINUX, Architecture.X64, null, "87.0.4280.88");
+
+        assertThat(createCache(NOW.plus(Duration.ofMinutes(59))).get(Browser.CHROME, Os.LINUX, Architecture.X64, null))
+                .hasValue("87.0.4280.88");
+
+        assertThat(createCache(NOW.plus(Duration.ofMinutes(60))).get(Browser.CHROME, Os.LINUX, Architecture.X64, null))
+                .isEmpty();
+
+        assertThat(createCache(NOW.plus(Duration.ofDays(7))).getIgnoringTtl(Browser.CHROME, Os.LINUX, Architecture.X64, null))
+                .hasValue("87.0.4280.88");
+    }
+
+    @Test
+    void shouldCacheVersionsPerBrowserOsAndArchitecture() {
+        final LatestVersionCache cache = createCache(NOW);
+
+        cache.put(Browser.CHROME, Os.LINUX, Architecture.X64, null, "1.0");
+        cache.put(Browser.CHROME, Os.WINDOWS, Architecture.X64, null, "2.0");
+        cache.put(Browser.FIREFOX, Os.LINUX, Architecture.X64, null, "3.0");
+
+        assertThat(cache.get(Browser.CHROME, Os.LINUX, Architecture.X64, null)).hasValue("1.0");
+        assertThat(cache.get(Browser.CHROME, Os.WINDOWS, Architecture.X64, null)).hasValue("2.0");
+        assertThat(cache.get(Browser.FIREFOX, Os.LINUX, Architecture.X64, null)).hasValue("3.0");
+        assertThat(cache.get(Browser.FIREFOX, Os.LINUX, Architecture.X86, null)).isEmpty();
+    }
+
+    @Test
+    void shouldCacheVersionsPerVersionPrefix() {
+        final LatestVersionCache cache = createCache(NOW);
+
+        cache.put(Browser.CHROME, Os.LINUX, Architecture.X64, null, "87.0.4280.88");
+        cache.put(Browser.CHROME, Os.LINUX, Architecture.X64, "86.", "86.0.4240.22");
+
+        assertThat(cache.get(Browser.CHROME, Os.LINUX, Architecture.X64, null)).hasValue("87.0.4280.88");
+        assertThat(cache.get(Browser.CHROME, Os.LINUX, Architecture.X64, "86.")).hasValue("86.0.4240.22");
+        assertThat(cache.getIgnoringTtl(Browser.CHROME, Os.LINUX, Architecture.X64, "85.")).isEmpty();
+    }
+
+    @Test
+    void shouldIgnoreCorruptCacheFile() throws IOException {
+        Files.write(cacheFilePath, "{ not json".getBytes());
+
+        final LatestVersionCache cache = createCache(NOW);
+
+        assertThat(cache.get(Browser.CHROME, Os.LINUX, Architecture.X64, null)).isEmpty();
+
+        cache.put(Browser.CHROME, Os.LINUX, Architecture.X64, null, "1.0");
+
+        assertThat(cache.get(Browser.CHROME, Os.LINUX, Architecture.X64, null)).hasValue("1.0");
+    }
+
+    private LatestVersionCache createCache(final Instant now) {
+        return new LatestVersionCache(cacheFilePath, Duration.ofHours(1), Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.github.nscuro.wdm.binary;
+
+import com.github.nscuro.wdm.Architecture;
+import com.github.nscuro.wdm.Browser;
+import com.github.nscuro.wdm.Os;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalBinaryIndexTest {
+
+    private static final BinaryCoordinates COORDINATES = new BinaryCoordinates(Browser.CHROME, "1.0", Os.LINUX, Architecture.X64);
+
+    @TempDir
+    Path binaryDestinationDirPath;
+
+    private Path binaryFilePath;
+
+    private LocalBinaryIndex localBinaryIndex;
+
+    @BeforeEach
+    void beforeEach() {
+        binaryFilePath = binaryDestinationDirPath.resolve(COORDINATES.toFileName());
+
+        localBinaryIndex = new LocalBinaryIndex(binaryDestinationDirPath,
+                file -> file.isFile() && file.getName().startsWith(BinaryManagerImpl.WEB_DRIVER_BINARY_PREFIX));
+    }
+
+    @Test
+    void shouldIndexExistingBinariesOnFirstUse() throws IOException {
+        installBinary(binaryFilePath);
+        Files.createFile(binaryDestinationDirPath.resolve(BinaryManagerImpl.WEB_DRIVER_BINARY_PREFIX + "_incomplete"));
+        Files.createFile(binaryDestinationDirPath.resolve("someOtherFile"));
+
+        assertThat(localBinaryIndex.isReady(COORDINATES)).isTrue();
+        assertThat(localBinaryIndex.getBinaryFiles())
+                .extracting(File::getName)
+                .containsExactlyInAnyOrder(COORDINATES.toFileName(), BinaryManagerImpl.WEB_DRIVER_BINARY_PREFIX + "_incomplete");
+    }
+
+    @Test
+    void shouldNotConsiderIncompleteBinariesToBeReady() throws IOException {
+        Files.createFile(binaryFilePath).toFile().setExecutable(true);
+
+        assertThat(localBinaryIndex.isReady(COORDINATES)).isFalse();
+        assertThat(localBinaryIndex.getBinaryFiles()).hasSize(1);
+    }
+
+    @Test
+    void shouldPickUpBinariesInstalledByOthers() throws Exception {
+        assertThat(localBinaryIndex.isReady(COORDINATES)).isFalse();
+
+        installBinary(binaryFilePath);
+
+        awaitCondition(() -> localBinaryIndex.isReady(COORDINATES));
+        assertThat(localBinaryIndex.getBinaryFiles()).containsExactly(binaryFilePath.toFile());
+    }
+
+    @Test
+    void shouldPickUpDeletedBinaries() throws Exception {
+        installBinary(binaryFilePath);
+
+        localBinaryIndex.markReady(COORDINATES, binaryFilePath.toFile());
+        assertThat(localBinaryIndex.isReady(COORDINATES)).isTrue();
+
+        Files.delete(binaryFilePath);
+
+        awaitCondition(() -> !localBinaryIndex.isReady(COORDINATES));
+        assertThat(localBinaryIndex.getBinaryFiles()).isEmpty();
+    }
+
+    @Test
+    void shouldPickUpDeletedCompletionMarkers() throws Exception {
+        installBinary(binaryFilePath);
+
+        assertThat(localBinaryIndex.isReady(COORDINATES)).isTrue();
+
+        Files.delete(BinaryCompletionMarker.getMarkerFilePath(binaryFilePath));
+
+        awaitCondition(() -> !localBinaryIndex.isReady(COORDINATES));
+        assertThat(localBinaryIndex.getBinaryFiles()).containsExactly(binaryFilePath.toFile());
+    }
+
+    @Test
+    void shouldNotMarkDeletedBinariesAsReady() {
+        assertThat(localBinaryIndex.isReady(COORDINATES)).isFalse();
+
+        localBinaryIndex.markReady(COORDINATES, binaryFilePath.toFile());
+
+        assertThat(localBinaryIndex.isReady(COORDINATES)).isFalse();
+    }
+
+    private void installBinary(final Path binaryFilePath) throws IOException {
+        Files.write(binaryFilePath, new byte[]{1, 2, 3}).toFile().setExecutable(true);
+        BinaryCompletionMarker.write(binaryFilePath);
+    }
+
+    private void awaitCondition(final BooleanSupplier condition) throws InterruptedException {
+        // Some platforms poll for changes instead of being notified about them (e.g. every 10 seconds on macOS)
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition has not been met in time").isLessThan(deadline);
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+}
@@ -0,0 +1,229 @@
+package com.github.nscuro.wdm.binary;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MirroringHttpClientIT {
+
+    private static WireMockServer upstreamServer;
+
+    private static WireMockServer firstMirrorServer;
+
+    private static WireMockServer secondMirrorServer;
+
+    private HttpClient httpClient;
+
+    private String upstreamUrl;
+
+    @BeforeAll
+    static void beforeAll() {
+        upstreamServer = new WireMockServer(options().dynamicPort());
+        firstMirrorServer = new WireMockServer(options().dynamicPort());
+        secondMirrorServer = new WireMockServer(options().dynamicPort());
+
+        upstreamServer.start();
+        firstMirrorServer.start();
+        secondMirrorServer.start();
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        httpClient = HttpClients.createDefault();
+        upstreamUrl = upstreamServer.url("/upstream/");
+
+        for (final WireMockServer server : Arrays.asList(upstreamServer, firstMirrorServer, secondMirrorServer)) {
+            server.stubFor(get(urlPathEqualTo("/other"))
+                    .willReturn(aResponse()
+                            .withBody("other")));
+        }
+
+        upstreamServer.stubFor(get(urlPathEqualTo("/upstream/file.zip"))
+                .willReturn(aResponse()
+                        .withBody("upstream")));
+    }
+
+    @Test
+    void shouldSendRequestToFirstMirror() throws IOException {
+        stubMirrorResponse(firstMirrorServer, "firstMirror");
+        stubMirrorResponse(secondMirrorServer, "secondMirror");
+
+        final HttpGet request = new HttpGet(upstreamUrl + "file.zip");
+
+        assertThat(getBody(createMirroringHttpClient(false), request)).isEqualTo("firstMirror");
+        assertThat(request.getURI().toString()).isEqualTo(upstreamUrl + "file.zip");
+
+        upstreamServer.verify(0, getRequestedFor(urlPathEqualTo("/upstream/file.zip")));
+        secondMirrorServer.verify(0, getRequestedFor(urlPathEqualTo("/mirror/file.zip")));
+    }
+
+    @Test
+    void shouldFailOverToNextMirrorOnServerError() throws IOException {
+        firstMirrorServer.stubFor(get(urlPathEqualTo("/mirror/file.zip"))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.SC_SERVICE_UNAVAILABLE)));
+        stubMirrorResponse(secondMirrorServer, "secondMirror");
+
+        final HttpClient mirroringHttpClient = createMirroringHttpClient(false);
+
+        assertThat(getBody(mirroringHttpClient, new HttpGet(upstreamUrl + "file.zip"))).isEqualTo("secondMirror");
+
+        // The failed mirror is considered unhealthy and is thus tried last
+        assertThat(getBody(mirroringHttpClient, new HttpGet(upstreamUrl + "file.zip"))).isEqualTo("secondMirror");
+
+        firstMirrorServer.verify(1, getRequestedFor(urlPathEqualTo("/mirror/file.zip")));
+    }
+
+    @Test
+    void shouldTryNextMirrorOnNotFoundWithoutConsideringMirrorUnhealthy() throws IOException {
+        firstMirrorServer.stubFor(get(urlPathEqualTo("/mirror/file.zip"))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.SC_NOT_FOUND)));
+        stubMirrorResponse(secondMirrorServer, "secondMirror");
+
+        final HttpClient mirroringHttpClient = createMirroringHttpClient(false);
+
+        assertThat(getBody(mirroringHttpClient, new HttpGet(upstreamUrl + "file.zip"))).isEqualTo("secondMirror");
+
+        // The first mirror does not contain the file, but is still healthy and thus tried first
+        stubMirrorResponse(firstMirrorServer, "firstMirror");
+
+        assertThat(getBody(mirroringHttpClient, new HttpGet(upstreamUrl + "file.zip"))).isEqualTo("firstMirror");
+
+        secondMirrorServer.verify(1, getRequestedFor(urlPathEqualTo("/mirror/file.zip")));
+    }
+
+    @Test
+    void shouldReturnNotFoundWhenNoMirrorContainsTheFile() throws IOException {
+        final HttpResponse httpResponse = createMirroringHttpClient(false).execute(new HttpGet(upstreamUrl + "missing.zip"));
+
+        assertThat(httpResponse.getStatusLine().getStatusCode()).isEqualTo(HttpStatus.SC_NOT_FOUND);
+        EntityUtils.consume(httpResponse.getEntity());
+
+        upstreamServer.verify(1, getRequestedFor(urlPathEqualTo("/upstream/missing.zip")));
+    }
+
+    @Test
+    void shouldFailOverToNextMirrorWhenMirrorIsUnreachable() throws IOException {
+        stubMirrorResponse(secondMirrorServer, "secondMirror");
+
+        final Map<String, List<String>> mirrorUrls = new LinkedHashMap<>();
+        mirrorUrls.put(upstreamUrl, Arrays.asList("http://localhost:1/mirror/", secondMirrorServer.url("/mirror/")));
+
+        assertThat(getBody(new MirroringHttpClient(httpClient, mirrorUrls, false), new HttpGet(upstreamUrl + "file.zip")))
+                .isEqualTo("secondMirror");
+    }
+
+    @Test
+    void shouldFallBackToUpstreamWhenAllMirrorsFail() throws IOException {
+        assertThat(getBody(createMirroringHttpClient(false), new HttpGet(upstreamUrl + "file.zip"))).isEqualTo("upstream");
+
+        firstMirrorServer.verify(1, getRequestedFor(urlPathEqualTo("/mirror/file.zip")));
+        secondMirrorServer.verify(1, getRequestedFor(urlPathEqualTo("/mirror/file.zip")));
+    }
+
+    @Test
+    void shouldPreferMirrorWithLowestLatency() throws IOException {
+        firstMirrorServer.stubFor(get(urlPathEqualTo("/mirror/file.zip"))
+                .willReturn(aResponse()
+                        .withFixedDelay(500)
+                        .withBody("firstMirror")));
+        stubMirrorResponse(secondMirrorServer, "secondMirror");
+
+        final Map<String, List<String>> mirrorUrls = new LinkedHashMap<>();
+        mirrorUrls.put(upstreamUrl, Arrays.asList(firstMirrorServer.url("/mirror/"), secondMirrorServer.url("/mirror/")));
+
+        final HttpClient mirroringHttpClient = new MirroringHttpClient(httpClient, mirrorUrls, true);
+
+        // Every mirror is measured once before the measurements are taken into account
+        for (int i = 0; i < 3; i++) {
+            getBody(mirroringHttpClient, new HttpGet(upstreamUrl + "file.zip"));
+        }
+
+        assertThat(getBody(mirroringHttpClient, new HttpGet(upstreamUrl + "file.zip"))).isEqualTo("secondMirror");
+
+        firstMirrorServer.verify(1, getRequestedFor(urlPathEqualTo("/mirror/file.zip")));
+        upstreamServer.verify(0, getRequestedFor(urlPathEqualTo("/upstream/file.zip")));
+    }
+
+    @Test
+    void shouldTryUpstreamOnlyAfterUnhealthyMirrors() throws IOException {
+        for (final WireMockServer mirrorServer : Arrays.asList(firstMirrorServer, secondMirrorServer)) {
+            mirrorServer.stubFor(get(urlPathEqualTo("/mirror/file.zip"))
+                    .willReturn(aResponse()
+                            .withStatus(HttpStatus.SC_SERVICE_UNAVAILABLE)));
+        }
+
+        final HttpClient mirroringHttpClient = createMirroringHttpClient(true);
+
+        assertThat(getBody(mirroringHttpClient, new HttpGet(upstreamUrl + "file.zip"))).isEqualTo("upstream");
+
+        // The upstream is healthy and fast, but still only used as last resort
+        stubMirrorResponse(secondMirrorServer, "secondMirror");
+
+        assertThat(getBody(mirroringHttpClient, new HttpGet(upstreamUrl + "file.zip"))).isEqualTo("secondMirror");
+
+        upstreamServer.verify(1, getRequestedFor(urlPathEqualTo("/upstream/file.zip")));
+    }
+
+    @Test
+    void shouldNotMirrorOtherRequests() throws IOException {
+        assertThat(getBody(createMirroringHttpClient(false), new HttpGet(upstreamServer.url("/other")))).isEqualTo("other");
+
+        firstMirrorServer.verify(0, getRequestedFor(urlPathEqualTo("/other")));
+        secondMirrorServer.verify(0, getRequestedFor(urlPathEqualTo("/other")));
+    }
+
+    @AfterEach
+    void afterEach() {
+        upstreamServer.resetAll();
+        firstMirrorServer.resetAll();
+        secondMirrorServer.resetAll();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        upstreamServer.stop();
+        firstMirrorServer.stop();
+        secondMirrorServer.stop();
+    }
+
+    private HttpClient createMirroringHttpClient(final boolean preferLowestLatency) {
+        return new MirroringHttpClient(httpClient, Collections.singletonMap(upstreamUrl,
+                Arrays.asList(firstMirrorServer.url("/mirror/"), secondMirrorServer.url("/mirror/"))), preferLowestLatency);
+    }
+
+    private static void stubMirrorResponse(final WireMockServer mirrorServer, final String body) {
+        mirrorServer.stubFor(get(urlPathEqualTo("/mirror/file.zip"))
+                .willReturn(aResponse()
+                        .withBody(body)));
+    }
+
+    private static String getBody(final HttpClient httpClient, final HttpGet request) throws IOException {
+        return httpClient.execute(request, httpResponse -> EntityUtils.toString(httpResponse.getEntity()));
+    }
+
+}
@@ -7,13 +7,17 @@ import com.github.nscuro.wdm.binary.BinaryProvider;
 import com.github.nscuro.wdm.binary.util.compression.BinaryExtractorFactory;
 import com.github.nscuro.wdm.binary.util.googlecs.GoogleCloudStorageDirectoryService;
 import com.github.nscuro.wdm.binary.util.googlecs.GoogleCloudStorageEntry;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.ResponseHandler;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.message.BasicHttpResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.EnumSource.Mode;
@@ -22,20 +26,34 @@ import javax.annotation.Nonnull;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.Arrays;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.github.nscuro.wdm.binary.chrome.ChromeDriverPlatform.LINUX64;
 import static com.github.nscuro.wdm.binary.chrome.ChromeDriverPlatform.MAC64;
 import static com.github.nscuro.wdm.binary.chrome.ChromeDriverPlatform.WIN32;
 import static java.lang.String.format;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 
 @DisplayName("The ChromeDriver BinaryProvider")
 class ChromeDriverBinaryProviderTest {
@@ -48,12 +66,21 @@ class ChromeDriverBinaryProviderTest {
 
     private ChromeDriverBinaryProvider binaryProvider;
 
+    @TempDir
+    Path tempDirPath;
+
     @BeforeEach
-    void beforeEach() {
+    void beforeEach() throws IOException {
         httpClientMock = mock(HttpClient.class);
 
         cloudStorageDirectoryMock = mock(GoogleCloudStorageDirectoryService.class);
 
+        given(cloudStorageDirectoryMock.getEntries(anyString(), any()))
+                .willCallRealMethod();
+
+        given(cloudStorageDirectoryMock.getCommonPrefixes(anyString(), anyString()))
+                .willCallRealMethod();
+
         binaryExtractorFactoryMock = mock(BinaryExtractorFactory.class);
 
         binaryProvider = new ChromeDriverBinaryProvider(httpClientMock, cloudStorageDirectoryMock, binaryExtractorFactoryMock);
@@ -67,7 +94,7 @@ class ChromeDriverBinaryProviderTest {
         @DisplayName("should throw an exception when no HttpClient was provided")
         void shouldThrowExceptionWhenNoHttpClientIsProvided() {
             assertThatExceptionOfType(NullPointerException.class)
-                    .isThrownBy(() -> new ChromeDriverBinaryProvider(null));
+                    .isThrownBy(() -> new ChromeDriverBinaryProvider((HttpClient) null));
         }
 
     }
@@ -158,6 +185,221 @@ class ChromeDriverBinaryProviderTest {
 
     }
 
+    @Nested
+    @DisplayName("when determining the binary version matching a browser version")
+    class BrowserVersionTest {
+
+        private String chromeVersionOutput;
+
+        private ChromeVersionDetector chromeVersionDetector;
+
+        @BeforeEach
+        void beforeEach() {
+            chromeVersionDetector = new ChromeVersionDetector(command -> {
+                if (chromeVersionOutput == null) {
+                    throw new IOException("No such file or directory");
+                }
+
+                return chromeVersionOutput;
+            });
+        }
+
+        @Test
+        @DisplayName("should return the version suggested by the LATEST_RELEASE file of the browser's major version")
+        void shouldReturnVersionSuggestedByMajorVersionReleaseFile() throws IOException {
+            givenLatestReleaseOfMajorVersion(75, Optional.of("75.0.3770.140"));
+
+            assertThat(createBinaryProvider("75").getLatestBinaryVersion(Os.LINUX, Architecture.X64))
+                    .hasValue("75.0.3770.140");
+
+            assertThat(binaryProvider.getLatestBinaryVersionForBrowserVersion(75, Os.LINUX, Architecture.X64))
+                    .hasValue("75.0.3770.140");
+
+            then(cloudStorageDirectoryMock).should(never()).getEntries();
+        }
+
+        @Test
+        @DisplayName("should return the version matching the detected browser version")
+        void shouldReturnVersionMatchingDetectedBrowserVersion() throws IOException {
+            chromeVersionOutput = "Google Chrome 74.0.3729.169";
+
+            givenLatestReleaseOfMajorVersion(74, Optional.of("74.0.3729.6"));
+
+            assertThat(createBinaryProvider("detect").getLatestBinaryVersion(Os.getCurrent(), Architecture.X64))
+                    .hasValue("74.0.3729.6");
+        }
+
+        @Test
+        @DisplayName("should fall back to the latest version when the browser version could not be detected")
+        void shouldFallBackToLatestVersionWhenBrowserVersionCouldNotBeDetected() throws IOException {
+            givenLatestRelease("2.46");
+
+            assertThat(createBinaryProvider("detect").getLatestBinaryVersion(Os.getCurrent(), Architecture.X64))
+                    .hasValue("2.46");
+        }
+
+        @Test
+        @DisplayName("should not fall back to the latest version when there is no release for the browser's major version")
+        void shouldNotFallBackToLatestVersionWhenThereIsNoReleaseForMajorVersion() throws IOException {
+            givenLatestReleaseOfMajorVersion(99, Optional.empty());
+
+            givenLatestRelease("2.46");
+
+            assertThat(createBinaryProvider("99").getLatestBinaryVersion(Os.LINUX, Architecture.X64))
+                    .isEmpty();
+
+            assertThat(binaryProvider.getLatestBinaryVersionForBrowserVersion(99, Os.LINUX, Architecture.X64))
+                    .isEmpty();
+
+            then(cloudStorageDirectoryMock).should(never()).getEntries();
+        }
+
+        @Test
+        @DisplayName("should not resolve a version for browser versions whose ChromeDriver versions do not match them")
+        void shouldNotResolveVersionForBrowserVersionsBelow73() throws IOException {
+            givenLatestReleaseOfMajorVersion(70, Optional.of("2.45"));
+
+            givenLatestRelease("2.46");
+
+            assertThat(createBinaryProvider("70").getLatestBinaryVersion(Os.LINUX, Architecture.X64))
+                    .isEmpty();
+
+            then(cloudStorageDirectoryMock).should(never()).getEntries();
+        }
+
+        @Test
+        @DisplayName("should not fall back to the latest version when the LATEST_RELEASE file of the browser's major version is empty")
+        void shouldNotFallBackToLatestVersionWhenMajorVersionReleaseFileIsEmpty() throws IOException {
+            //noinspection unchecked
+            given(httpClientMock.execute(argThat(request -> request != null && request.getURI().getPath().endsWith("/LATEST_RELEASE_75")),
+                    any(ResponseHandler.class)))
+                    .willAnswer(invocation -> ((ResponseHandler<?>) invocation.getArgument(1))
+                            .handleResponse(new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK")));
+
+            givenLatestRelease("2.46");
+
+            assertThat(createBinaryProvider("75").getLatestBinaryVersion(Os.LINUX, Architecture.X64))
+                    .isEmpty();
+        }
+
+        @Test
+        @DisplayName("should restrict versions to the browser's major version configured at the time of resolution")
+        void shouldProvideVersionPrefixOfCurrentlyConfiguredBrowserVersion() {
+            final AtomicReference<String> browserVersion = new AtomicReference<>();
+
+            binaryProvider = new ChromeDriverBinaryProvider(httpClientMock, cloudStorageDirectoryMock, binaryExtractorFactoryMock,
+                    Duration.ofMinutes(10), Clock.systemUTC(), browserVersion::get, chromeVersionDetector);
+
+            assertThat(binaryProvider.getVersionPrefix(Os.LINUX, Architecture.X64)).isEmpty();
+
+            browserVersion.set("75");
+
+            assertThat(binaryProvider.getVersionPrefix(Os.LINUX, Architecture.X64)).hasValue("75.");
+        }
+
+        private ChromeDriverBinaryProvider createBinaryProvider(final String browserVersion) {
+            binaryProvider = new ChromeDriverBinaryProvider(httpClientMock, cloudStorageDirectoryMock, binaryExtractorFactoryMock,
+                    Duration.ofMinutes(10), Clock.systemUTC(), () -> browserVersion, chromeVersionDetector);
+
+            return binaryProvider;
+        }
+
+        private void givenLatestReleaseOfMajorVersion(final int majorVersion, final Optional<String> version) throws IOException {
+            //noinspection unchecked
+            given(httpClientMock.execute(argThat(request -> request != null && request.getURI().getPath().endsWith("/LATEST_RELEASE_" + majorVersion)),
+                    any(ResponseHandler.class)))
+                    .willReturn(version);
+        }
+
+        private void givenLatestRelease(final String version) throws IOException {
+            given(cloudStorageDirectoryMock.getEntries())
+                    .willReturn(Arrays.asList(
+                            new GoogleCloudStorageEntry(format("%s/chromedriver_%s.zip", version, LINUX64.getName()), null),
+                            new GoogleCloudStorageEntry(format("%s/chromedriver_%s.zip", version, MAC64.getName()), null),
+                            new GoogleCloudStorageEntry(format("%s/chromedriver_%s.zip", version, WIN32.getName()), null),
+                            new GoogleCloudStorageEntry("LATEST_RELEASE", "LATEST_RELEASE_URL")));
+
+            //noinspection unchecked
+            given(httpClientMock.execute(argThat(request -> request != null && request.getURI().toString().equals("LATEST_RELEASE_URL")),
+                    any(ResponseHandler.class)))
+                    .willReturn(version);
+        }
+
+    }
+
+    @Nested
+    @DisplayName("when determining the latest binary version and downloading it")
+    class DirectorySnapshotTest {
+
+        private final GoogleCloudStorageEntry BINARY_ENTRY =
+                new GoogleCloudStorageEntry(format("1.2/chromedriver_%s.zip", LINUX64.getName()), "BINARY_URL");
+
+        private final File BINARY_FILE = new File("chromedriver");
+
+        private MutableClock clock;
+
+        @BeforeEach
+        void beforeEach() throws IOException {
+            clock = new MutableClock();
+
+            binaryProvider = new ChromeDriverBinaryProvider(httpClientMock, cloudStorageDirectoryMock,
+                    binaryExtractorFactoryMock, Duration.ofMinutes(10), clock, () -> null, ChromeVersionDetector.DEFAULT_INSTANCE);
+
+            given(cloudStorageDirectoryMock.getEntries())
+                    .willReturn(Arrays.asList(BINARY_ENTRY, new GoogleCloudStorageEntry("LATEST_RELEASE", "LATEST_RELEASE_URL")));
+
+            //noinspection unchecked
+            given(httpClientMock.execute(any(HttpGet.class), any(ResponseHandler.class)))
+                    .willReturn("1.2");
+
+            given(cloudStorageDirectoryMock.downloadFile(eq(BINARY_ENTRY), any()))
+                    .willReturn(BINARY_FILE);
+        }
+
+        @Test
+        @DisplayName("should list the directory only once while its snapshot is up to date")
+        void shouldListDirectoryOnlyOnceWhileSnapshotIsUpToDate() throws IOException {
+            assertThat(binaryProvider.getLatestBinaryVersion(Os.LINUX, Architecture.X64)).hasValue("1.2");
+            assertThat(binaryProvider.getLatestBinaryVersion(Os.LINUX, Architecture.X64)).hasValue("1.2");
+
+            assertThat(download("1.2")).isEqualTo(BINARY_FILE);
+
+            then(cloudStorageDirectoryMock).should(times(1)).getEntries();
+            then(cloudStorageDirectoryMock).should(never()).getEntries(anyString(), any());
+            then(cloudStorageDirectoryMock).should().downloadFile(eq(BINARY_ENTRY), any());
+        }
+
+        @Test
+        @DisplayName("should list the directory again once its snapshot has expired")
+        void shouldListDirectoryAgainWhenSnapshotHasExpired() throws IOException {
+            binaryProvider.getLatestBinaryVersion(Os.LINUX, Architecture.X64);
+
+            clock.advance(Duration.ofMinutes(10));
+
+            binaryProvider.getLatestBinaryVersion(Os.LINUX, Architecture.X64);
+
+            then(cloudStorageDirectoryMock).should(times(2)).getEntries();
+        }
+
+        @Test
+        @DisplayName("should only list the directory of the requested version when no snapshot is up to date")
+        void shouldListVersionDirectoryWhenNoSnapshotIsUpToDate() throws IOException {
+            willReturn(singletonList(BINARY_ENTRY))
+                    .given(cloudStorageDirectoryMock).getEntries(anyString(), any());
+
+            assertThat(download("1.2")).isEqualTo(BINARY_FILE);
+
+            then(cloudStorageDirectoryMock).should(never()).getEntries();
+            then(cloudStorageDirectoryMock).should().getEntries("1.2/", "/");
+            then(cloudStorageDirectoryMock).should().downloadFile(eq(BINARY_ENTRY), any());
+        }
+
+        private File download(final String version) throws IOException {
+            return binaryProvider.download(version, Os.LINUX, Architecture.X64, tempDirPath.resolve("chromedriver"));
+        }
+
+    }
+
     @Nested
     @DisplayName("when checking equality")
     class EqualsTest {
@@ -213,4 +455,29 @@ class ChromeDriverBinaryProviderTest {
         assertThat(binaryProvider.hashCode()).isEqualTo(Browser.CHROME.hashCode());
     }
 
+    private static final class MutableClock extends Clock {
+
+        private Instant instant = Instant.now();
+
+        void advance(final Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.github.nscuro.wdm.binary.chrome;
+
+import com.github.nscuro.wdm.binary.util.googlecs.GoogleCloudStorageEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static com.github.nscuro.wdm.binary.chrome.ChromeDriverPlatform.LINUX64;
+import static com.github.nscuro.wdm.binary.chrome.ChromeDriverPlatform.MAC64;
+import static com.github.nscuro.wdm.binary.chrome.ChromeDriverPlatform.WIN32;
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChromeDriverDirectorySnapshotTest {
+
+    private static final Instant CREATED_AT = Instant.parse("2019-01-01T00:00:00Z");
+
+    private final GoogleCloudStorageEntry LINUX64_2_9_ENTRY = new GoogleCloudStorageEntry("2.9/chromedriver_linux64.zip", null);
+
+    private final GoogleCloudStorageEntry LINUX64_2_37_ENTRY = new GoogleCloudStorageEntry("2.37/chromedriver_linux64.zip", null);
+
+    private final GoogleCloudStorageEntry MAC64_2_37_ENTRY = new GoogleCloudStorageEntry("2.37/chromedriver_mac64.zip", null);
+
+    private final GoogleCloudStorageEntry LATEST_RELEASE_ENTRY = new GoogleCloudStorageEntry("LATEST_RELEASE", "LATEST_RELEASE_URL");
+
+    private final ChromeDriverDirectorySnapshot snapshot = ChromeDriverDirectorySnapshot.of(Arrays.asList(
+            LINUX64_2_9_ENTRY, LINUX64_2_37_ENTRY, MAC64_2_37_ENTRY, LATEST_RELEASE_ENTRY,
+            new GoogleCloudStorageEntry("index.html", null),
+            new GoogleCloudStorageEntry("icons/folder.gif", null)
+    ), CREATED_AT, Duration.ofMinutes(10));
+
+    @Test
+    void shouldIndexEntriesByPlatformAndVersion() {
+        assertThat(snapshot.getEntry(LINUX64, "2.9")).hasValue(LINUX64_2_9_ENTRY);
+        assertThat(snapshot.getEntry(LINUX64, "2.37")).hasValue(LINUX64_2_37_ENTRY);
+        assertThat(snapshot.getEntry(MAC64, "2.37")).hasValue(MAC64_2_37_ENTRY);
+
+        assertThat(snapshot.getEntry(MAC64, "2.9")).isEmpty();
+        assertThat(snapshot.getEntry(WIN32, "2.37")).isEmpty();
+        assertThat(snapshot.getEntry(LINUX64, "notAVersion")).isEmpty();
+    }
+
+    @Test
+    void shouldReturnLatestVersionNotHigherThanMaxVersion() {
+        assertThat(snapshot.getLatestVersion(LINUX64, "2.37")).hasValue("2.37");
+        assertThat(snapshot.getLatestVersion(LINUX64, "2.36")).hasValue("2.9");
+        assertThat(snapshot.getLatestVersion(LINUX64, "2.8")).isEmpty();
+        assertThat(snapshot.getLatestVersion(WIN32, "2.37")).isEmpty();
+    }
+
+    @Test
+    void shouldProvideLatestReleaseEntry() {
+        assertThat(snapshot.getLatestReleaseEntry()).hasValue(LATEST_RELEASE_ENTRY);
+
+        assertThat(ChromeDriverDirectorySnapshot.of(emptyList(), CREATED_AT, Duration.ofMinutes(10)).getLatestReleaseEntry())
+                .isEmpty();
+    }
+
+    @Test
+    void shouldExpireAfterTtl() {
+        assertThat(snapshot.isExpiredAt(CREATED_AT.plus(Duration.ofMinutes(9)))).isFalse();
+        assertThat(snapshot.isExpiredAt(CREATED_AT.plus(Duration.ofMinutes(10)))).isTrue();
+    }
+
+}
@@ -0,0 +1,160 @@
+package com.github.nscuro.wdm.binary.chrome;
+
+import com.github.nscuro.wdm.Os;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChromeVersionDetectorTest {
+
+    @Test
+    void shouldParseMajorVersionFromOutput() {
+        assertThat(ChromeVersionDetector.parseMajorVersion("Google Chrome 75.0.3770.100 \n"))
+                .hasValue(75);
+
+        assertThat(ChromeVersionDetector.parseMajorVersion("Chromium 74.0.3729.169 Built on Ubuntu , running on Ubuntu 18.04"))
+                .hasValue(74);
+
+        assertThat(ChromeVersionDetector.parseMajorVersion("\nHKEY_CURRENT_USER\\Software\\Google\\Chrome\\BLBeacon\n    version    REG_SZ    76.0.3809.87\n"))
+                .hasValue(76);
+
+        assertThat(ChromeVersionDetector.parseMajorVersion("google-chrome: command not found"))
+                .isEmpty();
+    }
+
+    @Test
+    void shouldTryNextCommandWhenCommandFails() {
+        final List<List<String>> commands = new ArrayList<>();
+
+        final ChromeVersionDetector chromeVersionDetector = new ChromeVersionDetector(command -> {
+            commands.add(command);
+
+            if (commands.size() == 1) {
+                throw new IOException("No such file or directory");
+            }
+
+            return "Google Chrome 75.0.3770.100";
+        });
+
+        assertThat(chromeVersionDetector.detectMajorVersion(Os.LINUX)).hasValue(75);
+        assertThat(commands).hasSize(2);
+    }
+
+    @Test
+    void shouldDetectVersionOnlyOnce() {
+        final List<List<String>> commands = new ArrayList<>();
+
+        final ChromeVersionDetector chromeVersionDetector = new ChromeVersionDetector(command -> {
+            commands.add(command);
+            return "Google Chrome 75.0.3770.100";
+        });
+
+        assertThat(chromeVersionDetector.detectMajorVersion(Os.MACOS)).hasValue(75);
+        assertThat(chromeVersionDetector.detectMajorVersion(Os.MACOS)).hasValue(75);
+        assertThat(commands).hasSize(1);
+    }
+
+    @Test
+    void shouldDetectVersionAgainOnceDetectedVersionHasExpired() {
+        final List<List<String>> commands = new ArrayList<>();
+        final AtomicReference<Instant> now = new AtomicReference<>(Instant.now());
+
+        final ChromeVersionDetector chromeVersionDetector = new ChromeVersionDetector(command -> {
+            commands.add(command);
+            return "Google Chrome 75.0.3770.100";
+        }, new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(final ZoneId zone) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Instant instant() {
+                return now.get();
+            }
+        });
+
+        assertThat(chromeVersionDetector.detectMajorVersion(Os.MACOS)).hasValue(75);
+
+        now.set(now.get().plus(Duration.ofMinutes(59)));
+        assertThat(chromeVersionDetector.detectMajorVersion(Os.MACOS)).hasValue(75);
+        assertThat(commands).hasSize(1);
+
+        now.set(now.get().plus(Duration.ofMinutes(2)));
+        assertThat(chromeVersionDetector.detectMajorVersion(Os.MACOS)).hasValue(75);
+        assertThat(commands).hasSize(2);
+    }
+
+    @Test
+    void shouldNotCacheVersionThatCouldNotBeDetected() {
+        final AtomicReference<String> output = new AtomicReference<>();
+
+        final ChromeVersionDetector chromeVersionDetector = new ChromeVersionDetector(command -> {
+            if (output.get() == null) {
+                throw new IOException("No such file or directory");
+            }
+
+            return output.get();
+        });
+
+        assertThat(chromeVersionDetector.detectMajorVersion(Os.LINUX)).isEmpty();
+
+        output.set("Google Chrome 75.0.3770.100");
+
+        assertThat(chromeVersionDetector.detectMajorVersion(Os.LINUX)).hasValue(75);
+    }
+
+    @Test
+    void shouldDetectVersionAgainWhenChromeBinaryChanges() {
+        final List<List<String>> commands = new ArrayList<>();
+
+        final ChromeVersionDetector chromeVersionDetector = new ChromeVersionDetector(command -> {
+            commands.add(command);
+            return "Google Chrome 75.0.3770.100";
+        });
+
+        final String previousChromeBinary = System.getProperty("wdm.chromeBinary");
+        try {
+            System.setProperty("wdm.chromeBinary", "/opt/chrome-75/chrome");
+            assertThat(chromeVersionDetector.detectMajorVersion(Os.LINUX)).hasValue(75);
+
+            System.setProperty("wdm.chromeBinary", "/opt/chrome-76/chrome");
+            assertThat(chromeVersionDetector.detectMajorVersion(Os.LINUX)).hasValue(75);
+        } finally {
+            if (previousChromeBinary != null) {
+                System.setProperty("wdm.chromeBinary", previousChromeBinary);
+            } else {
+                System.clearProperty("wdm.chromeBinary");
+            }
+        }
+
+        assertThat(commands)
+                .extracting(command -> command.get(0))
+                .containsExactly("/opt/chrome-75/chrome", "/opt/chrome-76/chrome");
+    }
+
+    @Test
+    void shouldReturnEmptyOptionalWhenVersionCouldNotBeDetected() {
+        final ChromeVersionDetector chromeVersionDetector = new ChromeVersionDetector(command -> {
+            throw new IOException("No such file or directory");
+        });
+
+        assertThat(chromeVersionDetector.detectMajorVersion(Os.WINDOWS)).isEmpty();
+    }
+
+}
@@ -8,6 +8,7 @@ import com.github.nscuro.wdm.binary.BinaryProvider;
 import com.github.nscuro.wdm.binary.util.compression.BinaryExtractorFactory;
 import com.github.nscuro.wdm.binary.util.github.GitHubRelease;
 import com.github.nscuro.wdm.binary.util.github.GitHubReleasesService;
+import org.apache.http.client.HttpClient;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -29,6 +30,8 @@ import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 @DisplayName("The GeckoDriver BinaryProvider")
 class GeckoDriverBinaryProviderTest {
@@ -40,9 +43,12 @@ class GeckoDriverBinaryProviderTest {
     private GeckoDriverBinaryProvider binaryProvider;
 
     @BeforeEach
-    void beforeEach() {
+    void beforeEach() throws IOException {
         gitHubReleasesServiceMock = mock(GitHubReleasesService.class);
 
+        given(gitHubReleasesServiceMock.findRelease(any()))
+                .willCallRealMethod();
+
         binaryExtractorFactoryMock = mock(BinaryExtractorFactory.class);
 
         binaryProvider = new GeckoDriverBinaryProvider(gitHubReleasesServiceMock,
@@ -57,7 +63,7 @@ class GeckoDriverBinaryProviderTest {
         @DisplayName("should throw an exception when no HttpClient was provided")
         void shouldThrowExceptionWhenNoHttpClientIsProvided() {
             assertThatExceptionOfType(NullPointerException.class)
-                    .isThrownBy(() -> new GeckoDriverBinaryProvider(null));
+                    .isThrownBy(() -> new GeckoDriverBinaryProvider((HttpClient) null));
         }
 
     }
@@ -114,6 +120,26 @@ class GeckoDriverBinaryProviderTest {
                     .hasValue("0.19.1");
         }
 
+        @Test
+        @DisplayName("should return the version of the latest release without listing all releases")
+        void shouldReturnVersionOfLatestReleaseWithoutListingReleases() throws IOException {
+            final GitHubRelease latestReleaseMock = mock(GitHubRelease.class);
+
+            given(latestReleaseMock.getTagName())
+                    .willReturn("v0.19.1");
+
+            given(latestReleaseMock.hasAssetForPlatform(any(Platform.class)))
+                    .willReturn(true);
+
+            given(gitHubReleasesServiceMock.getLatestRelease())
+                    .willReturn(Optional.of(latestReleaseMock));
+
+            assertThat(binaryProvider.getLatestBinaryVersion(Os.LINUX, Architecture.X64))
+                    .hasValue("0.19.1");
+
+            verify(gitHubReleasesServiceMock, never()).getAllReleases();
+        }
+
         @Test
         @DisplayName("should return an empty Optional when the desired platform is not supported")
         void shouldReturnEmptyOptionalWhenPlatformIsNotSupported() throws IOException {
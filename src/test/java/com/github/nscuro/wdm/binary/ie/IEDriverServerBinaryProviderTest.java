@@ -27,6 +27,8 @@ import java.util.Optional;
 import static java.lang.String.format;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 
@@ -43,9 +45,15 @@ class IEDriverServerBinaryProviderTest {
     private IEDriverServerBinaryProvider binaryProvider;
 
     @BeforeEach
-    void beforeEach() {
+    void beforeEach() throws IOException {
         cloudStorageDirectoryMock = mock(GoogleCloudStorageDirectoryService.class);
 
+        given(cloudStorageDirectoryMock.getEntries(anyString(), any()))
+                .willCallRealMethod();
+
+        given(cloudStorageDirectoryMock.getCommonPrefixes(anyString(), anyString()))
+                .willCallRealMethod();
+
         binaryExtractorFactoryMock = mock(BinaryExtractorFactory.class);
 
         binaryProvider = new IEDriverServerBinaryProvider(cloudStorageDirectoryMock, binaryExtractorFactoryMock);
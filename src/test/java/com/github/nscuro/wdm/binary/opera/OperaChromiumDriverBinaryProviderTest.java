@@ -38,9 +38,12 @@ class OperaChromiumDriverBinaryProviderTest {
     private OperaChromiumDriverBinaryProvider binaryProvider;
 
     @BeforeEach
-    void beforeEach() {
+    void beforeEach() throws IOException {
         gitHubReleasesServiceMock = mock(GitHubReleasesService.class);
 
+        given(gitHubReleasesServiceMock.findRelease(any()))
+                .willCallRealMethod();
+
         binaryExtractorFactoryMock = mock(BinaryExtractorFactory.class);
 
         binaryProvider = new OperaChromiumDriverBinaryProvider(gitHubReleasesServiceMock,
@@ -0,0 +1,137 @@
+package com.github.nscuro.wdm.binary.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArchiveCacheTest {
+
+    private static final String ARCHIVE_URL = "https://example.com/chromedriver_win32.zip";
+
+    @TempDir
+    Path binaryDestinationDirPath;
+
+    private AtomicInteger loadCounter;
+
+    private ArchiveCache.BinaryLoader binaryLoader;
+
+    @BeforeEach
+    void beforeEach() {
+        loadCounter = new AtomicInteger();
+
+        binaryLoader = destinationPath -> {
+            loadCounter.incrementAndGet();
+            return Files.write(destinationPath, new byte[]{1, 2, 3}).toFile();
+        };
+    }
+
+    @Test
+    void shouldLoadBinaryOnlyOnceForMultipleDestinations() throws IOException {
+        final Path x64BinaryPath = binaryDestinationDirPath.resolve("chromedriver_windows-x64");
+        final Path x86BinaryPath = binaryDestinationDirPath.resolve("chromedriver_windows-x86");
+
+        assertThat(ArchiveCache.forBinaryDestination(x64BinaryPath).getBinary(ARCHIVE_URL, "\"etag\"", x64BinaryPath, binaryLoader))
+                .isEqualTo(x64BinaryPath.toFile())
+                .hasBinaryContent(new byte[]{1, 2, 3});
+        assertThat(ArchiveCache.forBinaryDestination(x86BinaryPath).getBinary(ARCHIVE_URL, "\"etag\"", x86BinaryPath, binaryLoader))
+                .isEqualTo(x86BinaryPath.toFile())
+                .hasBinaryContent(new byte[]{1, 2, 3});
+
+        assertThat(loadCounter).hasValue(1);
+
+        // Both binaries must be hard links of the same cached binary
+        assertThat(Files.isSameFile(x64BinaryPath, x86BinaryPath)).isTrue();
+    }
+
+    @Test
+    void shouldLoadBinaryAgainWhenValidatorChanged() throws IOException {
+        final Path binaryPath = binaryDestinationDirPath.resolve("binary");
+        final ArchiveCache archiveCache = ArchiveCache.forBinaryDestination(binaryPath);
+
+        archiveCache.getBinary(ARCHIVE_URL, "\"etag\"", binaryPath, binaryLoader);
+        archiveCache.getBinary(ARCHIVE_URL, "\"otherEtag\"", binaryPath, binaryLoader);
+
+        assertThat(loadCounter).hasValue(2);
+    }
+
+    @Test
+    void shouldBypassCacheWhenNoValidatorIsAvailable() throws IOException {
+        final Path binaryPath = binaryDestinationDirPath.resolve("binary");
+        final ArchiveCache archiveCache = ArchiveCache.forBinaryDestination(binaryPath);
+
+        final File binaryFile = archiveCache.getBinary(ARCHIVE_URL, null, binaryPath, binaryLoader);
+        archiveCache.getBinary(ARCHIVE_URL, null, binaryPath, binaryLoader);
+
+        assertThat(binaryFile).hasBinaryContent(new byte[]{1, 2, 3});
+        assertThat(loadCounter).hasValue(2);
+        assertThat(binaryDestinationDirPath.resolve(ArchiveCache.CACHE_DIR_NAME)).doesNotExist();
+    }
+
+    @Test
+    void shouldPruneBinariesThatAreNotLinkedAnymore() throws IOException {
+        final Path binaryPath = binaryDestinationDirPath.resolve("binary");
+        final ArchiveCache archiveCache = ArchiveCache.forBinaryDestination(binaryPath);
+
+        archiveCache.getBinary(ARCHIVE_URL, "\"etag\"", binaryPath, binaryLoader);
+
+        final Path cacheDirPath = binaryDestinationDirPath.resolve(ArchiveCache.CACHE_DIR_NAME);
+        assertThat(cacheDirPath.toFile().list((dir, name) -> !name.startsWith("."))).hasSize(1);
+
+        Files.delete(binaryPath);
+        archiveCache.pruneUnreferencedEntries();
+
+        assertThat(cacheDirPath.toFile().list()).isEmpty();
+    }
+
+    @Test
+    void shouldNotPruneBinariesAsLongAsAnyDestinationExists() throws IOException {
+        final Path x64BinaryPath = binaryDestinationDirPath.resolve("chromedriver_windows-x64");
+        final Path x86BinaryPath = binaryDestinationDirPath.resolve("chromedriver_windows-x86");
+        final ArchiveCache archiveCache = ArchiveCache.forBinaryDestination(x64BinaryPath);
+
+        archiveCache.getBinary(ARCHIVE_URL, "\"etag\"", x64BinaryPath, binaryLoader);
+        archiveCache.getBinary(ARCHIVE_URL, "\"etag\"", x86BinaryPath, binaryLoader);
+
+        // Copies are not linked to the cached binary, but reference it nonetheless
+        Files.delete(x86BinaryPath);
+        Files.write(x86BinaryPath, new byte[]{1, 2, 3});
+        Files.delete(x64BinaryPath);
+        archiveCache.pruneUnreferencedEntries();
+
+        final Path cacheDirPath = binaryDestinationDirPath.resolve(ArchiveCache.CACHE_DIR_NAME);
+        assertThat(cacheDirPath.toFile().list((dir, name) -> !name.startsWith("."))).hasSize(1);
+
+        Files.delete(x86BinaryPath);
+        archiveCache.pruneUnreferencedEntries();
+
+        assertThat(cacheDirPath.toFile().list()).isEmpty();
+    }
+
+    @Test
+    void shouldPruneBinariesThatHaveNotBeenInstalledForMaxEntryIdleTime() throws IOException {
+        final Path binaryPath = binaryDestinationDirPath.resolve("binary");
+        final ArchiveCache archiveCache = ArchiveCache.forBinaryDestination(binaryPath);
+
+        archiveCache.getBinary(ARCHIVE_URL, "\"etag\"", binaryPath, binaryLoader);
+
+        final Path cacheDirPath = binaryDestinationDirPath.resolve(ArchiveCache.CACHE_DIR_NAME);
+
+        archiveCache.pruneUnreferencedEntries(Instant.now().plus(ArchiveCache.MAX_ENTRY_IDLE_TIME).minus(Duration.ofHours(1)));
+        assertThat(cacheDirPath.toFile().list((dir, name) -> !name.startsWith("."))).hasSize(1);
+
+        archiveCache.pruneUnreferencedEntries(Instant.now().plus(ArchiveCache.MAX_ENTRY_IDLE_TIME));
+        assertThat(cacheDirPath.toFile().list()).isEmpty();
+        assertThat(binaryPath).exists();
+    }
+
+}
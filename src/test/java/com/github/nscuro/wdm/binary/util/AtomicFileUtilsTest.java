@@ -0,0 +1,105 @@
+package com.github.nscuro.wdm.binary.util;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class AtomicFileUtilsTest {
+
+    @TempDir
+    Path tempDirPath;
+
+    @Nested
+    class WriteTest {
+
+        @Test
+        void shouldPublishWrittenFileToDestination() throws IOException {
+            final Path destinationPath = tempDirPath.resolve("binary");
+
+            assertThat(AtomicFileUtils.write(destinationPath, outputStream -> outputStream.write(new byte[]{1, 2, 3})))
+                    .isEqualTo(destinationPath.toFile())
+                    .hasBinaryContent(new byte[]{1, 2, 3});
+
+            assertThat(listDirectory()).containsOnly(destinationPath);
+        }
+
+        @Test
+        void shouldReplaceExistingFile() throws IOException {
+            final Path destinationPath = Files.write(tempDirPath.resolve("binary"), new byte[]{1});
+
+            AtomicFileUtils.write(destinationPath, outputStream -> outputStream.write(new byte[]{2, 3}));
+
+            assertThat(destinationPath).hasBinaryContent(new byte[]{2, 3});
+        }
+
+        @Test
+        void shouldNotTouchDestinationAndRemoveStagingFileWhenWritingFailed() throws IOException {
+            final Path destinationPath = Files.write(tempDirPath.resolve("binary"), new byte[]{1});
+
+            assertThatExceptionOfType(IOException.class)
+                    .isThrownBy(() -> AtomicFileUtils.write(destinationPath, outputStream -> {
+                        outputStream.write(new byte[]{2});
+                        throw new IOException("connection reset");
+                    }));
+
+            assertThat(destinationPath).hasBinaryContent(new byte[]{1});
+            assertThat(listDirectory()).containsOnly(destinationPath);
+        }
+
+    }
+
+    @Nested
+    class CreateStagingFileTest {
+
+        @Test
+        void shouldCreateHiddenStagingFileNextToDestination() throws IOException {
+            final Path stagingFilePath = AtomicFileUtils.createStagingFile(tempDirPath.resolve("binary"));
+
+            assertThat(stagingFilePath).exists();
+            assertThat(stagingFilePath.getParent()).isEqualTo(tempDirPath);
+            assertThat(stagingFilePath.getFileName().toString()).startsWith(".binary.");
+        }
+
+    }
+
+    @Nested
+    class HasStagingFilesTest {
+
+        @Test
+        void shouldDetectStagingFilesOfDestination() throws IOException {
+            final Path destinationPath = tempDirPath.resolve("binary_1.0");
+
+            assertThat(AtomicFileUtils.hasStagingFiles(destinationPath)).isFalse();
+
+            AtomicFileUtils.createStagingFile(destinationPath);
+
+            assertThat(AtomicFileUtils.hasStagingFiles(destinationPath)).isTrue();
+        }
+
+        @Test
+        void shouldIgnoreStagingFilesOfOtherDestinations() throws IOException {
+            AtomicFileUtils.createStagingFile(tempDirPath.resolve("binary_1.0.1"));
+            AtomicFileUtils.createStagingFile(tempDirPath.resolve(".binary_1.0.complete"));
+
+            assertThat(AtomicFileUtils.hasStagingFiles(tempDirPath.resolve("binary_1.0"))).isFalse();
+        }
+
+    }
+
+    private List<Path> listDirectory() throws IOException {
+        try (final Stream<Path> directoryStream = Files.list(tempDirPath)) {
+            return directoryStream.collect(Collectors.toList());
+        }
+    }
+
+}
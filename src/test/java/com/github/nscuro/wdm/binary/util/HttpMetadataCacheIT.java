@@ -0,0 +1,295 @@
+package com.github.nscuro.wdm.binary.util;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HttpMetadataCacheIT {
+
+    private static final String LAST_MODIFIED = "Wed, 21 Oct 2015 07:28:00 GMT";
+
+    private static WireMockServer wireMockServer;
+
+    @TempDir
+    Path cacheDirPath;
+
+    private HttpClient httpClient;
+
+    private AtomicInteger parseCount;
+
+    private HttpMetadataCache httpMetadataCache;
+
+    @BeforeAll
+    static void beforeAll() {
+        // Jetty's gzip handler would otherwise alter ETags
+        wireMockServer = new WireMockServer(options().gzipDisabled(true));
+
+        wireMockServer.start();
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        httpClient = HttpClients.createDefault();
+        parseCount = new AtomicInteger();
+        httpMetadataCache = new HttpMetadataCache(cacheDirPath);
+    }
+
+    @Test
+    void shouldReuseParsedResponseWhenETagIsNotModified() throws IOException {
+        stubFor(get(urlPathEqualTo("/metadata"))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.ETAG, "\"someETag\"")
+                        .withBody("someMetadata")));
+
+        stubFor(get(urlPathEqualTo("/metadata"))
+                .withHeader(HttpHeaders.IF_NONE_MATCH, equalTo("\"someETag\""))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.SC_NOT_MODIFIED)));
+
+        assertThat(getMetadata(httpMetadataCache)).isEqualTo("someMetadata");
+        assertThat(getMetadata(httpMetadataCache)).isEqualTo("someMetadata");
+
+        assertThat(parseCount).hasValue(1);
+
+        verify(1, getRequestedFor(urlPathEqualTo("/metadata"))
+                .withHeader(HttpHeaders.IF_NONE_MATCH, equalTo("\"someETag\"")));
+    }
+
+    @Test
+    void shouldSendIfModifiedSinceWhenLastModifiedIsKnown() throws IOException {
+        stubFor(get(urlPathEqualTo("/metadata"))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.LAST_MODIFIED, LAST_MODIFIED)
+                        .withBody("someMetadata")));
+
+        stubFor(get(urlPathEqualTo("/metadata"))
+                .withHeader(HttpHeaders.IF_MODIFIED_SINCE, equalTo(LAST_MODIFIED))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.SC_NOT_MODIFIED)));
+
+        assertThat(getMetadata(httpMetadataCache)).isEqualTo("someMetadata");
+        assertThat(getMetadata(httpMetadataCache)).isEqualTo("someMetadata");
+
+        assertThat(parseCount).hasValue(1);
+    }
+
+    @Test
+    void shouldReuseResponseCachedOnDisk() throws IOException {
+        stubFor(get(urlPathEqualTo("/metadata"))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.ETAG, "\"someETag\"")
+                        .withBody("someMetadata")));
+
+        stubFor(get(urlPathEqualTo("/metadata"))
+                .withHeader(HttpHeaders.IF_NONE_MATCH, equalTo("\"someETag\""))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.SC_NOT_MODIFIED)));
+
+        assertThat(getMetadata(httpMetadataCache)).isEqualTo("someMetadata");
+        assertThat(getMetadata(new HttpMetadataCache(cacheDirPath))).isEqualTo("someMetadata");
+
+        assertThat(parseCount).hasValue(2);
+
+        verify(1, getRequestedFor(urlPathEqualTo("/metadata"))
+                .withHeader(HttpHeaders.IF_NONE_MATCH, equalTo("\"someETag\"")));
+    }
+
+    @Test
+    void shouldNotCacheResponsesWithoutValidators() throws IOException {
+        stubFor(get(urlPathEqualTo("/metadata"))
+                .willReturn(aResponse()
+                        .withBody("someMetadata")));
+
+        assertThat(getMetadata(httpMetadataCache)).isEqualTo("someMetadata");
+        assertThat(getMetadata(httpMetadataCache)).isEqualTo("someMetadata");
+
+        assertThat(parseCount).hasValue(2);
+        assertThat(cacheDirPath).isEmptyDirectory();
+
+        verify(2, getRequestedFor(urlPathEqualTo("/metadata"))
+                .withoutHeader(HttpHeaders.IF_NONE_MATCH)
+                .withoutHeader(HttpHeaders.IF_MODIFIED_SINCE));
+    }
+
+    @Test
+    void shouldParseStreamedResponseFromCacheWhenNotModified() throws IOException {
+        stubFor(get(urlPathEqualTo("/metadata"))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.ETAG, "\"someETag\"")
+                        .withBody("someMetadata")));
+
+        stubFor(get(urlPathEqualTo("/metadata"))
+                .withHeader(HttpHeaders.IF_NONE_MATCH, equalTo("\"someETag\""))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.SC_NOT_MODIFIED)));
+
+        assertThat(getStreamedMetadata(httpMetadataCache)).isEqualTo("someMetadata");
+        assertThat(getStreamedMetadata(new HttpMetadataCache(cacheDirPath))).isEqualTo("someMetadata");
+
+        // Parsed results of streamed responses are not kept in memory
+        assertThat(parseCount).hasValue(2);
+
+        verify(1, getRequestedFor(urlPathEqualTo("/metadata"))
+                .withHeader(HttpHeaders.IF_NONE_MATCH, equalTo("\"someETag\"")));
+    }
+
+    @Test
+    void shouldParseStreamedResponseWithoutValidatorsDirectly() throws IOException {
+        stubFor(get(urlPathEqualTo("/metadata"))
+                .willReturn(aResponse()
+                        .withBody("someMetadata")));
+
+        assertThat(getStreamedMetadata(httpMetadataCache)).isEqualTo("someMetadata");
+        assertThat(cacheDirPath).isEmptyDirectory();
+    }
+
+    @Test
+    void shouldCacheStreamedResponseWhenParserLeavesSmallRemainderUnread() throws IOException {
+        stubFor(get(urlPathEqualTo("/metadata"))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.ETAG, "\"someETag\"")
+                        .withBody("someMetadata\n")));
+
+        stubFor(get(urlPathEqualTo("/metadata"))
+                .withHeader(HttpHeaders.IF_NONE_MATCH, equalTo("\"someETag\""))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.SC_NOT_MODIFIED)));
+
+        assertThat(getStreamedMetadataPrefix(httpMetadataCache, "someMetadata".length())).isEqualTo("someMetadata");
+        assertThat(getStreamedMetadata(httpMetadataCache)).isEqualTo("someMetadata\n");
+
+        verify(1, getRequestedFor(urlPathEqualTo("/metadata"))
+                .withHeader(HttpHeaders.IF_NONE_MATCH, equalTo("\"someETag\"")));
+    }
+
+    @Test
+    void shouldCacheStreamedResponseWhenParserStopsEarly() throws IOException {
+        final char[] metadata = new char[1024 * 1024];
+        Arrays.fill(metadata, 'a');
+
+        stubFor(get(urlPathEqualTo("/metadata"))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.ETAG, "\"someETag\"")
+                        .withBody(new String(metadata))));
+
+        stubFor(get(urlPathEqualTo("/metadata"))
+                .withHeader(HttpHeaders.IF_NONE_MATCH, equalTo("\"someETag\""))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.SC_NOT_MODIFIED)));
+
+        assertThat(getStreamedMetadataPrefix(httpMetadataCache, 4)).isEqualTo("aaaa");
+
+        // The remainder has been downloaded, so that the response could be cached
+        assertThat(getStreamedMetadata(httpMetadataCache)).hasSize(metadata.length);
+
+        verify(1, getRequestedFor(urlPathEqualTo("/metadata"))
+                .withHeader(HttpHeaders.IF_NONE_MATCH, equalTo("\"someETag\"")));
+    }
+
+    @Test
+    void shouldNotCacheStreamedResponseWhenParserStopsEarlyBeforeLargeRemainder() throws IOException {
+        final char[] largeMetadata = new char[3 * 1024 * 1024];
+        Arrays.fill(largeMetadata, 'a');
+
+        stubFor(get(urlPathEqualTo("/metadata"))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.ETAG, "\"someETag\"")
+                        .withBody(new String(largeMetadata))));
+
+        assertThat(getStreamedMetadataPrefix(httpMetadataCache, 4)).isEqualTo("aaaa");
+        assertThat(cacheDirPath).isEmptyDirectory();
+
+        // The aborted connection must not affect subsequent requests
+        assertThat(getStreamedMetadata(httpMetadataCache)).hasSize(largeMetadata.length);
+
+        verify(0, getRequestedFor(urlPathEqualTo("/metadata"))
+                .withHeader(HttpHeaders.IF_NONE_MATCH, equalTo("\"someETag\"")));
+    }
+
+    @Test
+    void shouldReuseResponseCachedByOtherParser() throws IOException {
+        stubFor(get(urlPathEqualTo("/metadata"))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.ETAG, "\"someETag\"")
+                        .withBody("someMetadata")));
+
+        stubFor(get(urlPathEqualTo("/metadata"))
+                .withHeader(HttpHeaders.IF_NONE_MATCH, equalTo("\"someETag\""))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.SC_NOT_MODIFIED)));
+
+        assertThat(getMetadata(httpMetadataCache)).isEqualTo("someMetadata");
+        assertThat(getStreamedMetadata(httpMetadataCache)).isEqualTo("someMetadata");
+
+        verify(1, getRequestedFor(urlPathEqualTo("/metadata"))
+                .withHeader(HttpHeaders.IF_NONE_MATCH, equalTo("\"someETag\"")));
+    }
+
+    @AfterEach
+    void afterEach() {
+        WireMock.reset();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        wireMockServer.stop();
+    }
+
+    private String getStreamedMetadata(final HttpMetadataCache httpMetadataCache) throws IOException {
+        return httpMetadataCache.getStreamed(httpClient, new HttpGet(wireMockServer.url("/metadata")),
+                httpResponse -> {
+                },
+                (bodyInputStream, link) -> {
+                    parseCount.incrementAndGet();
+                    return IOUtils.toString(bodyInputStream, StandardCharsets.UTF_8);
+                });
+    }
+
+    private String getStreamedMetadataPrefix(final HttpMetadataCache httpMetadataCache, final int length) throws IOException {
+        return httpMetadataCache.getStreamed(httpClient, new HttpGet(wireMockServer.url("/metadata")),
+                httpResponse -> {
+                },
+                (bodyInputStream, link) -> {
+                    parseCount.incrementAndGet();
+                    return new String(IOUtils.readFully(bodyInputStream, length), StandardCharsets.UTF_8);
+                });
+    }
+
+    private String getMetadata(final HttpMetadataCache httpMetadataCache) throws IOException {
+        return httpMetadataCache.get(httpClient, new HttpGet(wireMockServer.url("/metadata")),
+                httpResponse -> EntityUtils.toString(httpResponse.getEntity()),
+                body -> {
+                    parseCount.incrementAndGet();
+                    return body;
+                });
+    }
+
+}
@@ -105,4 +105,36 @@ class HttpUtilsTest {
 
     }
 
-}
\ No newline at end of file
+    @Nested
+    class GetLinkUrlTest {
+
+        private static final String GITHUB_LINK = "<https://api.github.com/repositories/1/releases?per_page=100&page=2>; rel=\"next\", "
+                + "<https://api.github.com/repositories/1/releases?per_page=100&page=5>; rel=\"last\"";
+
+        @Test
+        void shouldReturnUrlOfLinkWithMatchingRelation() {
+            assertThat(HttpUtils.getLinkUrl(GITHUB_LINK, "next"))
+                    .hasValue("https://api.github.com/repositories/1/releases?per_page=100&page=2");
+
+            assertThat(HttpUtils.getLinkUrl(GITHUB_LINK, "last"))
+                    .hasValue("https://api.github.com/repositories/1/releases?per_page=100&page=5");
+        }
+
+        @Test
+        void shouldSupportMultipleRelationsAndUnquotedRelations() {
+            assertThat(HttpUtils.getLinkUrl("<https://example.com/2>; rel=\"prefetch next\"", "next"))
+                    .hasValue("https://example.com/2");
+
+            assertThat(HttpUtils.getLinkUrl("<https://example.com/2>; title=\"foo\"; rel=next", "next"))
+                    .hasValue("https://example.com/2");
+        }
+
+        @Test
+        void shouldReturnEmptyOptionalWhenNoLinkHasMatchingRelation() {
+            assertThat(HttpUtils.getLinkUrl("<https://example.com/1>; rel=\"prev\"", "next")).isNotPresent();
+            assertThat(HttpUtils.getLinkUrl(null, "next")).isNotPresent();
+        }
+
+    }
+
+}
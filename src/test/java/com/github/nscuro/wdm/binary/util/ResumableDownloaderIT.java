@@ -0,0 +1,357 @@
+package com.github.nscuro.wdm.binary.util;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.absent;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.headRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class ResumableDownloaderIT {
+
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.UTF_8);
+
+    private static final String ETAG = "\"someETag\"";
+
+    private static WireMockServer wireMockServer;
+
+    @TempDir
+    Path downloadDirPath;
+
+    private HttpClient httpClient;
+
+    private ResumableDownloader downloader;
+
+    private String url;
+
+    private Path partialFilePath;
+
+    @BeforeAll
+    static void beforeAll() {
+        // Jetty's gzip handler would otherwise alter ETags
+        wireMockServer = new WireMockServer(options().gzipDisabled(true));
+
+        wireMockServer.start();
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        httpClient = HttpClients.createDefault();
+        downloader = new ResumableDownloader(downloadDirPath);
+        url = wireMockServer.url("/archive.zip");
+        partialFilePath = downloader.getPartialFilePath(url, "archive.zip");
+    }
+
+    @Test
+    void shouldDownloadFile() throws IOException {
+        stubFor(get(urlPathEqualTo("/archive.zip"))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.ETAG, ETAG)
+                        .withBody(CONTENT)));
+
+        final File downloadedFile = download();
+
+        assertThat(downloadedFile).hasBinaryContent(CONTENT).hasExtension("zip");
+        assertThat(partialFilePath).doesNotExist();
+        assertThat(getValidatorFilePath()).doesNotExist();
+
+        verify(getRequestedFor(urlPathEqualTo("/archive.zip"))
+                .withHeader(HttpHeaders.RANGE, absent()));
+    }
+
+    @Test
+    void shouldResumeInterruptedDownload() throws IOException {
+        writePartialDownload(ETAG);
+
+        stubFor(get(urlPathEqualTo("/archive.zip"))
+                .withHeader(HttpHeaders.RANGE, equalTo("bytes=4-"))
+                .withHeader(HttpHeaders.IF_RANGE, equalTo(ETAG))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.SC_PARTIAL_CONTENT)
+                        .withHeader(HttpHeaders.CONTENT_RANGE, "bytes 4-9/10")
+                        .withBody(Arrays.copyOfRange(CONTENT, 4, CONTENT.length))));
+
+        assertThat(download()).hasBinaryContent(CONTENT);
+        assertThat(partialFilePath).doesNotExist();
+    }
+
+    @Test
+    void shouldDownloadWholeFileWhenServerIgnoresRange() throws IOException {
+        writePartialDownload(ETAG);
+
+        stubFor(get(urlPathEqualTo("/archive.zip"))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.ETAG, ETAG)
+                        .withBody(CONTENT)));
+
+        assertThat(download()).hasBinaryContent(CONTENT);
+    }
+
+    @Test
+    void shouldDownloadWholeFileWhenRangeIsNotSatisfiable() throws IOException {
+        writePartialDownload(ETAG);
+
+        stubFor(get(urlPathEqualTo("/archive.zip"))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.ETAG, ETAG)
+                        .withBody(CONTENT)));
+
+        stubFor(get(urlPathEqualTo("/archive.zip"))
+                .withHeader(HttpHeaders.RANGE, equalTo("bytes=4-"))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE)));
+
+        assertThat(download()).hasBinaryContent(CONTENT);
+
+        verify(2, getRequestedFor(urlPathEqualTo("/archive.zip")));
+    }
+
+    @Test
+    void shouldNotResumeWithoutValidator() throws IOException {
+        writePartialDownload(null);
+
+        stubFor(get(urlPathEqualTo("/archive.zip"))
+                .willReturn(aResponse()
+                        .withBody(CONTENT)));
+
+        assertThat(download()).hasBinaryContent(CONTENT);
+
+        verify(getRequestedFor(urlPathEqualTo("/archive.zip"))
+                .withHeader(HttpHeaders.RANGE, absent()));
+    }
+
+    @Test
+    void shouldKeepPartialDownloadWhenVerificationFails() throws IOException {
+        writePartialDownload(ETAG);
+
+        stubFor(get(urlPathEqualTo("/archive.zip"))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR)));
+
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(this::download);
+
+        assertThat(partialFilePath).hasBinaryContent(Arrays.copyOf(CONTENT, 4));
+        assertThat(getValidatorFilePath()).hasContent(ETAG);
+    }
+
+    @Test
+    void shouldDownloadLargeFileInSegments() throws IOException {
+        stubSegmentedFile();
+
+        final File downloadedFile = new ResumableDownloader(downloadDirPath, 2, 0, false)
+                .download(httpClient, new HttpGet(url), httpResponse -> {
+                });
+
+        assertThat(downloadedFile).hasBinaryContent(CONTENT).hasExtension("zip");
+        assertThat(partialFilePath).doesNotExist();
+
+        // The first segment is read from the response to the regular request
+        verify(2, getRequestedFor(urlPathEqualTo("/archive.zip")));
+        verify(getRequestedFor(urlPathEqualTo("/archive.zip"))
+                .withHeader(HttpHeaders.RANGE, absent()));
+        verify(getRequestedFor(urlPathEqualTo("/archive.zip"))
+                .withHeader(HttpHeaders.RANGE, equalTo("bytes=5-9"))
+                .withHeader(HttpHeaders.IF_RANGE, equalTo(ETAG)));
+        verify(0, headRequestedFor(urlPathEqualTo("/archive.zip")));
+    }
+
+    @Test
+    void shouldDownloadInSingleStreamWhenSegmentFails() throws IOException {
+        stubSegmentedFile();
+
+        // The file has changed after the segmentation has been planned
+        stubFor(get(urlPathEqualTo("/archive.zip"))
+                .withHeader(HttpHeaders.RANGE, equalTo("bytes=5-9"))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.ETAG, ETAG)
+                        .withBody(CONTENT)));
+
+        final File downloadedFile = new ResumableDownloader(downloadDirPath, 2, 0, false)
+                .download(httpClient, new HttpGet(url), httpResponse -> {
+                });
+
+        assertThat(downloadedFile).hasBinaryContent(CONTENT);
+
+        verify(2, getRequestedFor(urlPathEqualTo("/archive.zip"))
+                .withHeader(HttpHeaders.RANGE, absent()));
+    }
+
+    @Test
+    void shouldDownloadInSingleStreamWhenSegmentIsIncomplete() throws IOException {
+        stubSegmentedFile();
+
+        stubFor(get(urlPathEqualTo("/archive.zip"))
+                .withHeader(HttpHeaders.RANGE, equalTo("bytes=5-9"))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.SC_PARTIAL_CONTENT)
+                        .withHeader(HttpHeaders.CONTENT_RANGE, "bytes 5-9/10")
+                        .withBody(Arrays.copyOfRange(CONTENT, 5, 8))));
+
+        final File downloadedFile = new ResumableDownloader(downloadDirPath, 2, 0, false)
+                .download(httpClient, new HttpGet(url), httpResponse -> {
+                });
+
+        assertThat(downloadedFile).hasBinaryContent(CONTENT);
+
+        verify(2, getRequestedFor(urlPathEqualTo("/archive.zip"))
+                .withHeader(HttpHeaders.RANGE, absent()));
+    }
+
+    @Test
+    void shouldNotDownloadSmallFileInSegments() throws IOException {
+        stubSegmentedFile();
+
+        final File downloadedFile = new ResumableDownloader(downloadDirPath, 2, CONTENT.length + 1, false)
+                .download(httpClient, new HttpGet(url), httpResponse -> {
+                });
+
+        assertThat(downloadedFile).hasBinaryContent(CONTENT);
+
+        verify(1, getRequestedFor(urlPathEqualTo("/archive.zip")));
+        verify(getRequestedFor(urlPathEqualTo("/archive.zip"))
+                .withHeader(HttpHeaders.RANGE, absent()));
+        verify(0, headRequestedFor(urlPathEqualTo("/archive.zip")));
+    }
+
+    @Test
+    void shouldPassDownloadedFileToContentHandler() throws IOException {
+        stubFor(get(urlPathEqualTo("/archive.zip"))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.ETAG, ETAG)
+                        .withBody(CONTENT)));
+
+        final byte[] content = downloader.download(httpClient, new HttpGet(url), httpResponse -> {
+        }, IOUtils::toByteArray);
+
+        assertThat(content).isEqualTo(CONTENT);
+        assertThat(partialFilePath).doesNotExist();
+    }
+
+    @Test
+    void shouldPassResponseBodyToContentHandlerWhenStreaming() throws IOException {
+        stubFor(get(urlPathEqualTo("/archive.zip"))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.ETAG, ETAG)
+                        .withBody(CONTENT)));
+
+        final byte[] content = new ResumableDownloader(downloadDirPath, 2, 0, true)
+                .download(httpClient, new HttpGet(url), httpResponse -> {
+                }, IOUtils::toByteArray);
+
+        assertThat(content).isEqualTo(CONTENT);
+        assertThat(downloadDirPath).isEmptyDirectory();
+
+        verify(1, getRequestedFor(urlPathEqualTo("/archive.zip")));
+        verify(getRequestedFor(urlPathEqualTo("/archive.zip"))
+                .withHeader(HttpHeaders.RANGE, absent()));
+        verify(0, headRequestedFor(urlPathEqualTo("/archive.zip")));
+    }
+
+    @Test
+    void shouldStopStreamingWhenContentHandlerIsDone() throws IOException {
+        final byte[] largeContent = new byte[4 * 1024 * 1024];
+
+        stubFor(get(urlPathEqualTo("/archive.zip"))
+                .willReturn(aResponse()
+                        .withBody(largeContent)));
+
+        final ResumableDownloader streamingDownloader = new ResumableDownloader(downloadDirPath, 1, 0, true);
+
+        final int firstByte = streamingDownloader.download(httpClient, new HttpGet(url), httpResponse -> {
+        }, InputStream::read);
+
+        assertThat(firstByte).isZero();
+
+        // The aborted connection must not affect subsequent requests
+        final byte[] content = streamingDownloader.download(httpClient, new HttpGet(url), httpResponse -> {
+        }, IOUtils::toByteArray);
+
+        assertThat(content).hasSize(largeContent.length);
+    }
+
+    @Test
+    void shouldThrowExceptionWhenStreamingResponseIsNotSuccessful() {
+        stubFor(get(urlPathEqualTo("/archive.zip"))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.SC_NOT_FOUND)));
+
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> new ResumableDownloader(downloadDirPath, 1, 0, true)
+                        .download(httpClient, new HttpGet(url), httpResponse -> {
+                        }, IOUtils::toByteArray));
+    }
+
+    @AfterEach
+    void afterEach() {
+        WireMock.reset();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        wireMockServer.stop();
+    }
+
+    private File download() throws IOException {
+        return downloader.download(httpClient, new HttpGet(url), httpResponse -> {
+        });
+    }
+
+    private void stubSegmentedFile() {
+        stubFor(get(urlPathEqualTo("/archive.zip"))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.ACCEPT_RANGES, "bytes")
+                        .withHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(CONTENT.length))
+                        .withHeader(HttpHeaders.ETAG, ETAG)
+                        .withBody(CONTENT)));
+
+        stubFor(get(urlPathEqualTo("/archive.zip"))
+                .withHeader(HttpHeaders.RANGE, equalTo("bytes=5-9"))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.SC_PARTIAL_CONTENT)
+                        .withHeader(HttpHeaders.CONTENT_RANGE, "bytes 5-9/10")
+                        .withBody(Arrays.copyOfRange(CONTENT, 5, 10))));
+    }
+
+    private void writePartialDownload(final String validator) throws IOException {
+        Files.write(partialFilePath, Arrays.copyOf(CONTENT, 4));
+
+        if (validator != null) {
+            Files.write(getValidatorFilePath(), validator.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private Path getValidatorFilePath() {
+        return partialFilePath.resolveSibling(partialFilePath.getFileName() + ResumableDownloader.VALIDATOR_FILE_SUFFIX);
+    }
+
+}
@@ -75,4 +75,16 @@ class VersionComparatorTest {
                 .isThrownBy(() -> comparator.compare("1.0", "not.a.version"));
     }
 
-}
\ No newline at end of file
+    @ParameterizedTest(name = "[{index}]: versionString=\"{0}\"")
+    @ValueSource(strings = {"1", "2.34", "87.0.4280.88"})
+    void shouldIdentifyVersionStrings(final String versionString) {
+        assertThat(VersionComparator.isVersionString(versionString)).isTrue();
+    }
+
+    @ParameterizedTest(name = "[{index}]: versionString=\"{0}\"")
+    @ValueSource(strings = {"", "v0.19.0", "latest", "1.0-beta"})
+    void shouldNotIdentifyOtherStringsAsVersionStrings(final String versionString) {
+        assertThat(VersionComparator.isVersionString(versionString)).isFalse();
+    }
+
+}
@@ -35,6 +35,11 @@ class AbstractBinaryExtractorTest {
         return tempFilePath.toFile();
     }
 
+    @Nonnull
+    static InputStream getTestArchiveInputStream(final String fileName) {
+        return BinaryExtractor.class.getClassLoader().getResourceAsStream("test-archives/" + fileName);
+    }
+
     static void deleteFile(@Nullable final File file) {
         if (file == null || !file.exists()) {
             return;
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.io.InputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
@@ -68,4 +69,29 @@ class BinaryExtractorFactoryTest {
 
     }
 
+    @Nested
+    class GetBinaryExtractorForArchiveStreamTest {
+
+        @Test
+        void shouldReturnZipExtractorWhenZipArchiveUrlIsProvided() {
+            assertThat(binaryExtractorFactory.getBinaryExtractorForArchiveStream(
+                    "https://example.com/2.46/chromedriver_linux64.zip", mock(InputStream.class)))
+                    .isInstanceOf(ZipBinaryExtractor.class);
+        }
+
+        @Test
+        void shouldReturnGzipExtractorWhenGzippedArchiveUrlIsProvided() {
+            assertThat(binaryExtractorFactory.getBinaryExtractorForArchiveStream(
+                    "https://example.com/v0.24.0/geckodriver-v0.24.0-linux64.tar.gz", mock(InputStream.class)))
+                    .isInstanceOf(GZipTarballBinaryExtractor.class);
+        }
+
+        @Test
+        void shouldThrowExceptionWhenNoExtractorIsAvailableForProvidedArchiveName() {
+            assertThatExceptionOfType(UnsupportedOperationException.class)
+                    .isThrownBy(() -> binaryExtractorFactory.getBinaryExtractorForArchiveStream("i_am_not_supported.txt", mock(InputStream.class)));
+        }
+
+    }
+
 }
\ No newline at end of file
@@ -6,10 +6,12 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
@@ -46,6 +48,26 @@ class GZipTarballBinaryExtractorTest extends AbstractBinaryExtractorTest {
             assertThat(archiveFile).doesNotExist();
         }
 
+        @Test
+        void shouldExtractMatchingFileFromArchiveStream() throws IOException {
+            final AtomicBoolean archiveStreamClosed = new AtomicBoolean();
+
+            binaryExtractor = new GZipTarballBinaryExtractor("test-untargz.gz", () -> new FilterInputStream(getTestArchiveInputStream("test-untargz.gz")) {
+                @Override
+                public void close() throws IOException {
+                    archiveStreamClosed.set(true);
+                    super.close();
+                }
+            });
+
+            extractedFile = binaryExtractor
+                    .extractBinary(Files.createTempFile("untargzed-file", null),
+                            entry -> entry.getName().equals("untargz-successful.txt"));
+
+            assertThat(extractedFile).exists();
+            assertThat(archiveStreamClosed).isTrue();
+        }
+
         @Test
         void shouldThrowExceptionWhenArchiveFileDoesNotExist() {
             given(fileMock.exists())
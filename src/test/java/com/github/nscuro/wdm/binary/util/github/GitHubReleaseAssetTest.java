@@ -14,6 +14,14 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 class GitHubReleaseAssetTest {
 
+    @Test
+    void contentIdentifierShouldBeEmptyWhenUpdateTimeIsUnknown() {
+        final GitHubReleaseAsset asset = new GitHubReleaseAsset();
+        asset.setId(1);
+
+        assertThat(asset.getContentIdentifier()).isEmpty();
+    }
+
     @Nested
     class JsonDeserializationTest {
 
@@ -39,6 +47,9 @@ class GitHubReleaseAssetTest {
             assertThat(asset.getContentType()).isEqualTo("application/zip");
             assertThat(asset.getBrowserDownloadUrl())
                     .isEqualTo("https://github.com/octocat/Hello-World/releases/download/v1.0.0/example.zip");
+            assertThat(asset.getSize()).isEqualTo(1024);
+            assertThat(asset.getUpdatedAt()).isEqualTo("2013-02-27T19:35:32Z");
+            assertThat(asset.getContentIdentifier()).hasValue("1@2013-02-27T19:35:32Z/1024");
         }
 
     }
@@ -1,6 +1,7 @@
 package com.github.nscuro.wdm.binary.util.github;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.nscuro.wdm.binary.util.HttpMetadataCache;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import org.apache.http.HttpHeaders;
@@ -12,17 +13,26 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.absent;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
 import static java.lang.String.format;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
@@ -37,11 +47,15 @@ class GitHubReleasesServiceImplIT {
 
     private static String baseUrl;
 
+    @TempDir
+    Path httpCacheDirPath;
+
     private GitHubReleasesServiceImpl gitHubReleasesService;
 
     @BeforeAll
     static void beforeAll() {
-        wireMockServer = new WireMockServer();
+        // Jetty's gzip handler would otherwise alter ETags
+        wireMockServer = new WireMockServer(options().gzipDisabled(true));
 
         wireMockServer.start();
 
@@ -51,7 +65,7 @@ class GitHubReleasesServiceImplIT {
     @BeforeEach
     void beforeEach() {
         gitHubReleasesService = new GitHubReleasesServiceImpl(HttpClients.createDefault(),
-                new ObjectMapper(), baseUrl, REPOSITORY_OWNER, REPOSITORY_NAME);
+                new ObjectMapper(), baseUrl, REPOSITORY_OWNER, REPOSITORY_NAME, new HttpMetadataCache(httpCacheDirPath));
     }
 
     @Nested
@@ -72,6 +86,225 @@ class GitHubReleasesServiceImplIT {
                     .hasSize(12);
         }
 
+        @Test
+        void shouldReuseCachedReleasesWhenNotModified() throws IOException, URISyntaxException {
+            final String releasesPath = format("/repos/%s/%s/releases", REPOSITORY_OWNER, REPOSITORY_NAME);
+
+            stubFor(get(urlPathEqualTo(releasesPath))
+                    .willReturn(aResponse()
+                            .withHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                            .withHeader(HttpHeaders.ETAG, "\"someETag\"")
+                            .withBody(getJsonContent("releases.json"))));
+
+            stubFor(get(urlPathEqualTo(releasesPath))
+                    .withHeader(HttpHeaders.IF_NONE_MATCH, equalTo("\"someETag\""))
+                    .willReturn(aResponse()
+                            .withStatus(HttpStatus.SC_NOT_MODIFIED)));
+
+            final List<GitHubRelease> releases = gitHubReleasesService.getAllReleases();
+
+            assertThat(gitHubReleasesService.getAllReleases()).isEqualTo(releases);
+
+            verify(1, getRequestedFor(urlPathEqualTo(releasesPath))
+                    .withHeader(HttpHeaders.IF_NONE_MATCH, equalTo("\"someETag\"")));
+        }
+
+    }
+
+    @Nested
+    class FindReleaseTest {
+
+        private final String releasesPath = format("/repos/%s/%s/releases", REPOSITORY_OWNER, REPOSITORY_NAME);
+
+        @Test
+        void shouldReturnMostRecentMatchingRelease() throws IOException, URISyntaxException {
+            stubFor(get(urlPathEqualTo(releasesPath))
+                    .willReturn(aResponse()
+                            .withHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                            .withBody(getJsonContent("releases.json"))));
+
+            final AtomicInteger testedReleases = new AtomicInteger();
+
+            assertThat(gitHubReleasesService.findRelease(release -> testedReleases.incrementAndGet() > 0
+                    && release.getAssets().stream().anyMatch(asset -> asset.getName().endsWith("linux64.tar.gz"))))
+                    .map(GitHubRelease::getTagName)
+                    .hasValue("v0.20.0");
+
+            // Parsing stops at the first match
+            assertThat(testedReleases).hasValue(1);
+
+            assertThat(gitHubReleasesService.findRelease(release -> "v0.19.1".equals(release.getTagName())))
+                    .map(GitHubRelease::getAssets)
+                    .hasValueSatisfying(assets -> assertThat(assets).hasSize(6));
+        }
+
+        @Test
+        void shouldReturnEmptyOptionalWhenNoReleaseMatches() throws IOException, URISyntaxException {
+            stubFor(get(urlPathEqualTo(releasesPath))
+                    .willReturn(aResponse()
+                            .withHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                            .withBody(getJsonContent("releases.json"))));
+
+            assertThat(gitHubReleasesService.findRelease(release -> false)).isNotPresent();
+        }
+
+        @Test
+        void shouldParseCachedReleasesWhenNotModified() throws IOException, URISyntaxException {
+            stubFor(get(urlPathEqualTo(releasesPath))
+                    .willReturn(aResponse()
+                            .withHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                            .withHeader(HttpHeaders.ETAG, "\"someETag\"")
+                            .withBody(getJsonContent("releases.json"))));
+
+            stubFor(get(urlPathEqualTo(releasesPath))
+                    .withHeader(HttpHeaders.IF_NONE_MATCH, equalTo("\"someETag\""))
+                    .willReturn(aResponse()
+                            .withStatus(HttpStatus.SC_NOT_MODIFIED)));
+
+            assertThat(gitHubReleasesService.findRelease(release -> "v0.19.1".equals(release.getTagName()))).isPresent();
+            assertThat(gitHubReleasesService.findRelease(release -> "v0.20.0".equals(release.getTagName()))).isPresent();
+
+            verify(1, getRequestedFor(urlPathEqualTo(releasesPath))
+                    .withHeader(HttpHeaders.IF_NONE_MATCH, equalTo("\"someETag\"")));
+        }
+
+        @Test
+        void shouldThrowExceptionWhenRateLimitIsExceeded() {
+            stubFor(get(urlPathEqualTo(releasesPath))
+                    .willReturn(aResponse()
+                            .withStatus(HttpStatus.SC_FORBIDDEN)
+                            .withHeader(HttpHeaders.CONTENT_TYPE, "application/json")));
+
+            assertThatExceptionOfType(IOException.class)
+                    .isThrownBy(() -> gitHubReleasesService.findRelease(release -> true));
+        }
+
+    }
+
+    @Nested
+    class GetReleaseTest {
+
+        private final String releasesPath = format("/repos/%s/%s/releases", REPOSITORY_OWNER, REPOSITORY_NAME);
+
+        @Test
+        void shouldReturnLatestRelease() throws IOException, URISyntaxException {
+            stubFor(get(urlPathEqualTo(releasesPath + "/latest"))
+                    .willReturn(aResponse()
+                            .withHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                            .withBody(getJsonContent("release.json"))));
+
+            assertThat(gitHubReleasesService.getLatestRelease())
+                    .map(GitHubRelease::getTagName)
+                    .hasValue("v1.0.0");
+
+            verify(0, getRequestedFor(urlPathEqualTo(releasesPath)));
+        }
+
+        @Test
+        void shouldReturnEmptyOptionalWhenNoLatestReleaseExists() throws IOException {
+            stubFor(get(urlPathEqualTo(releasesPath + "/latest"))
+                    .willReturn(aResponse()
+                            .withStatus(HttpStatus.SC_NOT_FOUND)
+                            .withHeader(HttpHeaders.CONTENT_TYPE, "application/json")));
+
+            assertThat(gitHubReleasesService.getLatestRelease()).isNotPresent();
+        }
+
+        @Test
+        void shouldReturnReleaseByTag() throws IOException, URISyntaxException {
+            stubFor(get(urlPathEqualTo(releasesPath + "/tags/v1.0.0"))
+                    .willReturn(aResponse()
+                            .withHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                            .withBody(getJsonContent("release.json"))));
+
+            assertThat(gitHubReleasesService.getReleaseByTag("v1.0.0"))
+                    .map(GitHubRelease::getTagName)
+                    .hasValue("v1.0.0");
+
+            verify(0, getRequestedFor(urlPathEqualTo(releasesPath)));
+        }
+
+        @Test
+        void shouldTryTagPrefixVariantsWhenGettingReleaseByVersion() throws IOException, URISyntaxException {
+            stubFor(get(urlPathEqualTo(releasesPath + "/tags/v1.0.0"))
+                    .willReturn(aResponse()
+                            .withStatus(HttpStatus.SC_NOT_FOUND)
+                            .withHeader(HttpHeaders.CONTENT_TYPE, "application/json")));
+
+            stubFor(get(urlPathEqualTo(releasesPath + "/tags/v.1.0.0"))
+                    .willReturn(aResponse()
+                            .withHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                            .withBody(getJsonContent("release.json"))));
+
+            assertThat(gitHubReleasesService.getReleaseByVersion("1.0.0")).isPresent();
+
+            verify(0, getRequestedFor(urlPathEqualTo(releasesPath + "/tags/1.0.0")));
+        }
+
+        @Test
+        void shouldReturnEmptyOptionalWhenNoReleaseHasTag() throws IOException {
+            stubFor(get(urlPathMatching(releasesPath + "/tags/.*"))
+                    .willReturn(aResponse()
+                            .withStatus(HttpStatus.SC_NOT_FOUND)
+                            .withHeader(HttpHeaders.CONTENT_TYPE, "application/json")));
+
+            assertThat(gitHubReleasesService.getReleaseByVersion("1.0.0")).isNotPresent();
+        }
+
+    }
+
+    @Nested
+    class PaginationTest {
+
+        private final String releasesPath = format("/repos/%s/%s/releases", REPOSITORY_OWNER, REPOSITORY_NAME);
+
+        @BeforeEach
+        void beforeEach() throws IOException, URISyntaxException {
+            stubFor(get(urlPathEqualTo(releasesPath))
+                    .withQueryParam("per_page", equalTo("100"))
+                    .withQueryParam("page", absent())
+                    .willReturn(aResponse()
+                            .withHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                            .withHeader("Link", format("<%s%s?per_page=100&page=2>; rel=\"next\"", baseUrl, releasesPath))
+                            .withBody(getJsonContent("releases.json"))));
+
+            stubFor(get(urlPathEqualTo(releasesPath))
+                    .withQueryParam("page", equalTo("2"))
+                    .willReturn(aResponse()
+                            .withHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                            .withBody("[{\"tag_name\": \"v0.18.0\", \"assets\": []}]")));
+        }
+
+        @Test
+        void shouldReturnReleasesOfAllPages() throws IOException {
+            assertThat(gitHubReleasesService.getAllReleases())
+                    .extracting(GitHubRelease::getTagName)
+                    .containsExactly("v0.20.0", "v0.19.1", "v0.18.0");
+        }
+
+        @Test
+        void shouldOnlyRequestNextPageWhenNoReleaseOfPreviousPagesMatches() throws IOException {
+            assertThat(gitHubReleasesService.findRelease(release -> "v0.19.1".equals(release.getTagName()))).isPresent();
+
+            verify(0, getRequestedFor(urlPathEqualTo(releasesPath))
+                    .withQueryParam("page", equalTo("2")));
+
+            assertThat(gitHubReleasesService.findRelease(release -> "v0.18.0".equals(release.getTagName()))).isPresent();
+
+            verify(1, getRequestedFor(urlPathEqualTo(releasesPath))
+                    .withQueryParam("page", equalTo("2")));
+        }
+
+        @Test
+        void shouldRequestPagesLazilyWhenStreamingReleases() {
+            assertThat(gitHubReleasesService.streamReleases().limit(2))
+                    .extracting(GitHubRelease::getTagName)
+                    .containsExactly("v0.20.0", "v0.19.1");
+
+            verify(0, getRequestedFor(urlPathEqualTo(releasesPath))
+                    .withQueryParam("page", equalTo("2")));
+        }
+
     }
 
     @Nested
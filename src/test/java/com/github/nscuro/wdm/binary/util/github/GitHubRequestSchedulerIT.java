@@ -0,0 +1,227 @@
+package com.github.nscuro.wdm.binary.util.github;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class GitHubRequestSchedulerIT {
+
+    private static final String PATH = "/repos/someUser/someName/releases";
+
+    private static WireMockServer wireMockServer;
+
+    @BeforeAll
+    static void beforeAll() {
+        wireMockServer = new WireMockServer(options().dynamicPort());
+        wireMockServer.start();
+    }
+
+    @Test
+    void shouldRetryServerErrors() throws IOException {
+        wireMockServer.stubFor(get(urlPathEqualTo(PATH))
+                .inScenario("serverError")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.SC_BAD_GATEWAY))
+                .willSetStateTo("recovered"));
+
+        wireMockServer.stubFor(get(urlPathEqualTo(PATH))
+                .inScenario("serverError")
+                .whenScenarioStateIs("recovered")
+                .willReturn(aResponse()
+                        .withBody("someBody")));
+
+        assertThat(getBody(createScheduler().schedule(HttpClients.createDefault(), Duration.ZERO), new HttpGet(getUrl())))
+                .isEqualTo("someBody");
+
+        wireMockServer.verify(2, getRequestedFor(urlPathEqualTo(PATH)));
+    }
+
+    @Test
+    void shouldRetrySecondaryRateLimitAfterRequestedDelay() throws IOException {
+        wireMockServer.stubFor(get(urlPathEqualTo(PATH))
+                .inScenario("secondaryRateLimit")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.SC_FORBIDDEN)
+                        .withHeader(HttpHeaders.RETRY_AFTER, "1"))
+                .willSetStateTo("recovered"));
+
+        wireMockServer.stubFor(get(urlPathEqualTo(PATH))
+                .inScenario("secondaryRateLimit")
+                .whenScenarioStateIs("recovered")
+                .willReturn(aResponse()
+                        .withBody("someBody")));
+
+        final long startMillis = System.currentTimeMillis();
+
+        assertThat(getBody(createScheduler().schedule(HttpClients.createDefault(), Duration.ZERO), new HttpGet(getUrl())))
+                .isEqualTo("someBody");
+
+        assertThat(System.currentTimeMillis() - startMillis).isGreaterThanOrEqualTo(1000);
+    }
+
+    @Test
+    void shouldNotRetryForbiddenRequests() throws IOException {
+        wireMockServer.stubFor(get(urlPathEqualTo(PATH))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.SC_FORBIDDEN)));
+
+        assertThat(getStatusCode(createScheduler().schedule(HttpClients.createDefault(), Duration.ZERO), new HttpGet(getUrl())))
+                .isEqualTo(HttpStatus.SC_FORBIDDEN);
+
+        wireMockServer.verify(1, getRequestedFor(urlPathEqualTo(PATH)));
+    }
+
+    @Test
+    void shouldAnswerConditionalRequestsWhileRateLimitIsExceeded() throws IOException {
+        stubRateLimitExceeded(Instant.now().plusSeconds(60));
+
+        final HttpClient scheduledHttpClient = createScheduler().schedule(HttpClients.createDefault(), Duration.ZERO);
+
+        assertThat(getStatusCode(scheduledHttpClient, new HttpGet(getUrl()))).isEqualTo(HttpStatus.SC_FORBIDDEN);
+
+        final HttpGet conditionalRequest = new HttpGet(getUrl());
+        conditionalRequest.setHeader(HttpHeaders.IF_NONE_MATCH, "\"someETag\"");
+
+        assertThat(getStatusCode(scheduledHttpClient, conditionalRequest)).isEqualTo(HttpStatus.SC_NOT_MODIFIED);
+
+        wireMockServer.verify(1, getRequestedFor(urlPathEqualTo(PATH)));
+    }
+
+    @Test
+    void shouldFailWithoutSendingRequestsWhileRateLimitIsExceeded() throws IOException {
+        stubRateLimitExceeded(Instant.now().plusSeconds(60));
+
+        final HttpClient scheduledHttpClient = createScheduler().schedule(HttpClients.createDefault(), Duration.ZERO);
+
+        getStatusCode(scheduledHttpClient, new HttpGet(getUrl()));
+
+        assertThatExceptionOfType(IOException.class)
+                .isThrownBy(() -> getStatusCode(scheduledHttpClient, new HttpGet(getUrl())))
+                .withMessageContaining("rate limit is exceeded");
+
+        wireMockServer.verify(1, getRequestedFor(urlPathEqualTo(PATH)));
+    }
+
+    @Test
+    void shouldWaitForRateLimitResetWhenAllowed() throws IOException {
+        wireMockServer.stubFor(get(urlPathEqualTo(PATH))
+                .inScenario("rateLimit")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.SC_FORBIDDEN)
+                        .withHeader("X-RateLimit-Remaining", "0")
+                        .withHeader("X-RateLimit-Reset", String.valueOf(Instant.now().plusSeconds(2).getEpochSecond())))
+                .willSetStateTo("reset"));
+
+        wireMockServer.stubFor(get(urlPathEqualTo(PATH))
+                .inScenario("rateLimit")
+                .whenScenarioStateIs("reset")
+                .willReturn(aResponse()
+                        .withBody("someBody")));
+
+        assertThat(getBody(createScheduler().schedule(HttpClients.createDefault(), Duration.ofSeconds(10)), new HttpGet(getUrl())))
+                .isEqualTo("someBody");
+
+        wireMockServer.verify(2, getRequestedFor(urlPathEqualTo(PATH)));
+    }
+
+    @Test
+    void shouldWaitForRateLimitResetOnlyWithHttpClientsAllowedTo() throws IOException {
+        wireMockServer.stubFor(get(urlPathEqualTo(PATH))
+                .inScenario("rateLimit")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.SC_FORBIDDEN)
+                        .withHeader("X-RateLimit-Remaining", "0")
+                        .withHeader("X-RateLimit-Reset", String.valueOf(Instant.now().plusSeconds(2).getEpochSecond())))
+                .willSetStateTo("reset"));
+
+        wireMockServer.stubFor(get(urlPathEqualTo(PATH))
+                .inScenario("rateLimit")
+                .whenScenarioStateIs("reset")
+                .willReturn(aResponse()
+                        .withBody("someBody")));
+
+        final GitHubRequestScheduler scheduler = createScheduler();
+
+        assertThat(getStatusCode(scheduler.schedule(HttpClients.createDefault(), Duration.ZERO), new HttpGet(getUrl())))
+                .isEqualTo(HttpStatus.SC_FORBIDDEN);
+
+        assertThat(getBody(scheduler.schedule(HttpClients.createDefault(), Duration.ofSeconds(10)), new HttpGet(getUrl())))
+                .isEqualTo("someBody");
+
+        wireMockServer.verify(2, getRequestedFor(urlPathEqualTo(PATH)));
+    }
+
+    @Test
+    void shouldShareRateLimitBetweenHttpClients() throws IOException {
+        stubRateLimitExceeded(Instant.now().plusSeconds(60));
+
+        final GitHubRequestScheduler scheduler = createScheduler();
+
+        getStatusCode(scheduler.schedule(HttpClients.createDefault(), Duration.ZERO), new HttpGet(getUrl()));
+
+        assertThatExceptionOfType(IOException.class)
+                .isThrownBy(() -> getStatusCode(scheduler.schedule(HttpClients.createDefault(), Duration.ZERO), new HttpGet(getUrl())));
+
+        wireMockServer.verify(1, getRequestedFor(urlPathEqualTo(PATH)));
+    }
+
+    @AfterEach
+    void afterEach() {
+        wireMockServer.resetAll();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        wireMockServer.stop();
+    }
+
+    private static GitHubRequestScheduler createScheduler() {
+        return new GitHubRequestScheduler(3, Duration.ofMillis(10), Duration.ofSeconds(5));
+    }
+
+    private static void stubRateLimitExceeded(final Instant reset) {
+        wireMockServer.stubFor(get(urlPathEqualTo(PATH))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.SC_FORBIDDEN)
+                        .withHeader("X-RateLimit-Remaining", "0")
+                        .withHeader("X-RateLimit-Reset", String.valueOf(reset.getEpochSecond()))));
+    }
+
+    private static String getUrl() {
+        return wireMockServer.url(PATH);
+    }
+
+    private static String getBody(final HttpClient httpClient, final HttpGet request) throws IOException {
+        return httpClient.execute(request, httpResponse -> EntityUtils.toString(httpResponse.getEntity()));
+    }
+
+    private static int getStatusCode(final HttpClient httpClient, final HttpGet request) throws IOException {
+        return httpClient.execute(request, httpResponse -> httpResponse.getStatusLine().getStatusCode());
+    }
+
+}
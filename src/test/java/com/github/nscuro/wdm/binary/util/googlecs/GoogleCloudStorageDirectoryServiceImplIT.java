@@ -1,5 +1,6 @@
 package com.github.nscuro.wdm.binary.util.googlecs;
 
+import com.github.nscuro.wdm.binary.util.HttpMetadataCache;
 import com.github.nscuro.wdm.binary.util.MimeType;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
@@ -13,14 +14,17 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.absent;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
@@ -37,6 +41,9 @@ class GoogleCloudStorageDirectoryServiceImplIT {
 
     private static String directoryUrl;
 
+    @TempDir
+    Path httpCacheDirPath;
+
     private GoogleCloudStorageDirectoryServiceImpl googleCloudStorageDirectoryService;
 
     @BeforeAll
@@ -51,7 +58,8 @@ class GoogleCloudStorageDirectoryServiceImplIT {
     @BeforeEach
     void beforeEach() {
         googleCloudStorageDirectoryService =
-                new GoogleCloudStorageDirectoryServiceImpl(HttpClients.createDefault(), directoryUrl);
+                new GoogleCloudStorageDirectoryServiceImpl(HttpClients.createDefault(), directoryUrl,
+                        new HttpMetadataCache(httpCacheDirPath));
     }
 
     @Nested
@@ -77,6 +85,10 @@ class GoogleCloudStorageDirectoryServiceImplIT {
                             format("%sfolder0/somefile.txt", directoryUrl),
                             format("%sfolder1/someotherfile.md", directoryUrl));
 
+            assertThat(entries)
+                    .extracting(entry -> entry.getETag().orElse(null))
+                    .containsExactly("\"c0d96102715c4916b872f91f5bf9b12c\"", "\"858ebaf47e13dce7600191ed59974c09\"");
+
             verify(getRequestedFor(urlPathEqualTo("/"))
                     .withHeader(HttpHeaders.ACCEPT, equalTo(format("%s, %s", MimeType.APPLICATION_XML, MimeType.APPLICATION_XML_UTF8))));
         }
@@ -104,6 +116,104 @@ class GoogleCloudStorageDirectoryServiceImplIT {
 
     }
 
+    @Nested
+    class GetEntriesWithPrefixTest {
+
+        @Test
+        void shouldRequestOnlyEntriesWithPrefix() throws IOException, URISyntaxException {
+            stubFor(get(urlPathEqualTo("/"))
+                    .withQueryParam("prefix", equalTo("folder0/"))
+                    .willReturn(aResponse()
+                            .withStatus(HttpStatus.SC_OK)
+                            .withHeader(HttpHeaders.CONTENT_TYPE, ContentType.APPLICATION_XML.getMimeType())
+                            .withBody(loadDirectoryXml("directory.xml"))));
+
+            assertThat(googleCloudStorageDirectoryService.getEntries("folder0/", null))
+                    .extracting(GoogleCloudStorageEntry::getUrl)
+                    .contains(format("%sfolder0/somefile.txt", directoryUrl));
+
+            verify(getRequestedFor(urlPathEqualTo("/"))
+                    .withQueryParam("prefix", equalTo("folder0/"))
+                    .withQueryParam("delimiter", absent()));
+        }
+
+        @Test
+        void shouldReturnCommonPrefixes() throws IOException, URISyntaxException {
+            stubFor(get(urlPathEqualTo("/"))
+                    .withQueryParam("delimiter", equalTo("/"))
+                    .willReturn(aResponse()
+                            .withStatus(HttpStatus.SC_OK)
+                            .withHeader(HttpHeaders.CONTENT_TYPE, ContentType.APPLICATION_XML.getMimeType())
+                            .withBody(loadDirectoryXml("prefixes.xml"))));
+
+            assertThat(googleCloudStorageDirectoryService.getCommonPrefixes("", "/"))
+                    .containsExactly("folder0/", "folder1/");
+
+            assertThat(googleCloudStorageDirectoryService.getEntries("", "/"))
+                    .extracting(GoogleCloudStorageEntry::getKey)
+                    .containsExactly("index.html");
+
+            verify(2, getRequestedFor(urlPathEqualTo("/"))
+                    .withQueryParam("prefix", absent())
+                    .withQueryParam("delimiter", equalTo("/")));
+        }
+
+    }
+
+    @Nested
+    class PaginationTest {
+
+        @BeforeEach
+        void beforeEach() {
+            stubFor(get(urlPathEqualTo("/"))
+                    .withQueryParam("marker", absent())
+                    .willReturn(aResponse()
+                            .withStatus(HttpStatus.SC_OK)
+                            .withHeader(HttpHeaders.CONTENT_TYPE, ContentType.APPLICATION_XML.getMimeType())
+                            .withBody("<ListBucketResult>" +
+                                    "<IsTruncated>true</IsTruncated>" +
+                                    "<NextMarker>folder0/somefile.txt</NextMarker>" +
+                                    "<Contents><Key>folder0/somefile.txt</Key></Contents>" +
+                                    "</ListBucketResult>")));
+
+            stubFor(get(urlPathEqualTo("/"))
+                    .withQueryParam("marker", equalTo("folder0/somefile.txt"))
+                    .willReturn(aResponse()
+                            .withStatus(HttpStatus.SC_OK)
+                            .withHeader(HttpHeaders.CONTENT_TYPE, ContentType.APPLICATION_XML.getMimeType())
+                            .withBody("<ListBucketResult>" +
+                                    "<IsTruncated>false</IsTruncated>" +
+                                    "<Contents><Key>folder1/someotherfile.md</Key></Contents>" +
+                                    "</ListBucketResult>")));
+        }
+
+        @Test
+        void shouldReturnEntriesOfAllPages() throws IOException {
+            assertThat(googleCloudStorageDirectoryService.getEntries())
+                    .extracting(GoogleCloudStorageEntry::getKey)
+                    .containsExactly("folder0/somefile.txt", "folder1/someotherfile.md");
+
+            verify(2, getRequestedFor(urlPathEqualTo("/")));
+        }
+
+        @Test
+        void shouldRequestNextPageOnlyWhenStreamIsConsumedBeyondFirstPage() {
+            assertThat(googleCloudStorageDirectoryService.streamEntries("", null).findFirst())
+                    .map(GoogleCloudStorageEntry::getKey)
+                    .contains("folder0/somefile.txt");
+
+            verify(1, getRequestedFor(urlPathEqualTo("/")));
+
+            assertThat(googleCloudStorageDirectoryService.streamEntries("", null))
+                    .extracting(GoogleCloudStorageEntry::getKey)
+                    .containsExactly("folder0/somefile.txt", "folder1/someotherfile.md");
+
+            verify(getRequestedFor(urlPathEqualTo("/"))
+                    .withQueryParam("marker", equalTo("folder0/somefile.txt")));
+        }
+
+    }
+
     @AfterEach
     void afterEach() {
         WireMock.reset();
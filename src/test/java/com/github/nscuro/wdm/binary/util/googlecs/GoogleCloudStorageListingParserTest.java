@@ -0,0 +1,133 @@
+package com.github.nscuro.wdm.binary.util.googlecs;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.function.Function;
+
+import static java.lang.String.format;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.tuple;
+
+class GoogleCloudStorageListingParserTest {
+
+    private static final String DIRECTORY_URL = "https://example.com/";
+
+    private GoogleCloudStorageListingParser listingParser;
+
+    @BeforeEach
+    void beforeEach() {
+        listingParser = new GoogleCloudStorageListingParser(DIRECTORY_URL);
+    }
+
+    @Test
+    void shouldParseEntries() throws IOException, URISyntaxException {
+        final GoogleCloudStorageListingParser.Listing listing = listingParser.parse(loadDirectoryXml("directory.xml"));
+
+        assertThat(listing.getEntries())
+                .extracting(GoogleCloudStorageEntry::getKey, GoogleCloudStorageEntry::getUrl,
+                        entry -> entry.getETag().orElse(null), entry -> entry.getSize().orElse(null),
+                        entry -> entry.getLastModified().orElse(null))
+                .containsExactly(
+                        tuple("folder0/somefile.txt", DIRECTORY_URL + "folder0/somefile.txt",
+                                "\"c0d96102715c4916b872f91f5bf9b12c\"", 555L, Instant.parse("2013-09-25T22:57:39.349Z")),
+                        tuple("folder1/someotherfile.md", DIRECTORY_URL + "folder1/someotherfile.md",
+                                "\"858ebaf47e13dce7600191ed59974c09\"", 333L, Instant.parse("2013-09-25T22:57:40.449Z")));
+
+        assertThat(listing.getCommonPrefixes()).isEmpty();
+    }
+
+    @Test
+    void shouldParseCommonPrefixes() throws IOException, URISyntaxException {
+        final GoogleCloudStorageListingParser.Listing listing = listingParser.parse(loadDirectoryXml("prefixes.xml"));
+
+        assertThat(listing.getEntries())
+                .extracting(GoogleCloudStorageEntry::getKey)
+                .containsExactly("index.html");
+
+        assertThat(listing.getCommonPrefixes()).containsExactly("folder0/", "folder1/");
+    }
+
+    @Test
+    void shouldParseStreamingAndLenientlyAlike() throws IOException, URISyntaxException, XMLStreamException {
+        for (final String xmlFileName : new String[]{"directory.xml", "prefixes.xml"}) {
+            final String listingXml = loadDirectoryXml(xmlFileName);
+
+            final GoogleCloudStorageListingParser.Listing streamingListing = listingParser.parseStreaming(listingXml);
+            final GoogleCloudStorageListingParser.Listing lenientListing = listingParser.parseLeniently(listingXml);
+
+            assertThat(describeEntries(streamingListing)).isEqualTo(describeEntries(lenientListing));
+            assertThat(streamingListing.getCommonPrefixes()).isEqualTo(lenientListing.getCommonPrefixes());
+        }
+    }
+
+    @Test
+    void shouldFallBackToLenientParsingWhenListingIsNotWellFormed() {
+        final String listingXml = "<ListBucketResult><Contents><Key>somefile.txt</Key></Contents>";
+
+        assertThatExceptionOfType(XMLStreamException.class)
+                .isThrownBy(() -> listingParser.parseStreaming(listingXml));
+
+        assertThat(listingParser.parse(listingXml).getEntries())
+                .extracting(GoogleCloudStorageEntry::getKey)
+                .containsExactly("somefile.txt");
+    }
+
+    @Test
+    void shouldNotDetermineNextMarkerWhenListingIsComplete() throws IOException, URISyntaxException {
+        assertThat(listingParser.parse(loadDirectoryXml("directory.xml")).getNextMarker()).isNull();
+        assertThat(listingParser.parse(loadDirectoryXml("prefixes.xml")).getNextMarker()).isNull();
+    }
+
+    @Test
+    void shouldDetermineNextMarkerWhenListingIsTruncated() {
+        final String listingXml = "<ListBucketResult>" +
+                "<IsTruncated>true</IsTruncated>" +
+                "<Contents><Key>a/file.txt</Key></Contents>" +
+                "<CommonPrefixes><Prefix>b/</Prefix></CommonPrefixes>" +
+                "</ListBucketResult>";
+
+        assertThat(listingParser.parse(listingXml).getNextMarker()).isEqualTo("b/");
+        assertThat(listingParser.parseLeniently(listingXml).getNextMarker()).isEqualTo("b/");
+
+        final String listingXmlWithNextMarker = listingXml.replace("<IsTruncated>true</IsTruncated>",
+                "<IsTruncated>true</IsTruncated><NextMarker>c/</NextMarker>");
+
+        assertThat(listingParser.parse(listingXmlWithNextMarker).getNextMarker()).isEqualTo("c/");
+        assertThat(listingParser.parseLeniently(listingXmlWithNextMarker).getNextMarker()).isEqualTo("c/");
+    }
+
+    @Test
+    void shouldParseLastModifiedTimestamps() {
+        assertThat(GoogleCloudStorageListingParser.parseLastModified("2013-09-25T22:57:39.349Z"))
+                .isEqualTo(Instant.parse("2013-09-25T22:57:39.349Z"));
+
+        assertThat(GoogleCloudStorageListingParser.parseLastModified("2013-09-25T22:57:39Z"))
+                .isEqualTo(Instant.parse("2013-09-25T22:57:39Z"));
+
+        assertThat(GoogleCloudStorageListingParser.parseLastModified("2013-13-25T22:57:39.349Z")).isNull();
+        assertThat(GoogleCloudStorageListingParser.parseLastModified("notATimestamp")).isNull();
+    }
+
+    private static String describeEntries(final GoogleCloudStorageListingParser.Listing listing) {
+        final Function<GoogleCloudStorageEntry, String> describeEntry = entry -> format("%s %s %s %s %s",
+                entry.getKey(), entry.getUrl(), entry.getETag(), entry.getSize(), entry.getLastModified());
+
+        return listing.getEntries().stream()
+                .map(describeEntry)
+                .reduce("", String::concat);
+    }
+
+    private String loadDirectoryXml(final String xmlFileName) throws URISyntaxException, IOException {
+        return new String(Files.readAllBytes(
+                Paths.get(getClass().getResource(format("/googlecs/%s", xmlFileName)).toURI())));
+    }
+
+}